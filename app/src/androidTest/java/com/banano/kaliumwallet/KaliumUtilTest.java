@@ -10,8 +10,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.math.BigInteger;
+
 import timber.log.Timber;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -97,6 +100,67 @@ public class KaliumUtilTest {
         Timber.d("OpenBlock: %s", openBlock.toString());
     }
 
+    @Test
+    public void byteArrayKeys() throws Exception {
+        byte[] seedBytes = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(seed, seedBytes);
+
+        byte[] privateKey = KaliumUtil.seedToPrivate(seedBytes, 0);
+        byte[] publicKey = KaliumUtil.privateToPublic(privateKey);
+        byte[] decoded = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.addressToPublic(this.address, decoded);
+
+        assertEquals(this.privateKey, KaliumUtil.toHex(privateKey));
+        assertEquals(this.publicKey, KaliumUtil.toHex(publicKey));
+        assertEquals(this.address, KaliumUtil.publicToAddress(publicKey));
+        assertArrayEquals(publicKey, decoded);
+    }
+
+    @Test
+    public void byteArrayStateHash() throws Exception {
+        String previous = "4270F4FB3A820FE81827065F967A9589DF5CA860443F812D21ECE964AC359E05";
+        String representative = "ban_1cake36ua5aqcq1c5i3dg7k8xtosw7r9r7qbbf5j15sk75csp9okesz87nfn";
+        String balance = "1000000000000000000000000000000";
+        String link = "3CD78EE059E404252669B37E8195C7AD4FC6CAEA5AA2C0A4989CF9AB248B4949";
+
+        byte[] accountBytes = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] previousBytes = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] representativeBytes = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] balanceBytes = new byte[KaliumUtil.BALANCE_LENGTH];
+        byte[] linkBytes = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] hash = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.addressToPublic(address, accountBytes);
+        KaliumUtil.hexToBytes(previous, previousBytes);
+        KaliumUtil.addressToPublic(representative, representativeBytes);
+        KaliumUtil.rawToBytes(new BigInteger(balance), balanceBytes);
+        KaliumUtil.hexToBytes(link, linkBytes);
+        KaliumUtil.computeStateHash(accountBytes, previousBytes, representativeBytes, balanceBytes, linkBytes, hash);
+
+        assertEquals(KaliumUtil.computeStateHash(address, previous, representative, balance, link), KaliumUtil.toHex(hash));
+        assertEquals(KaliumUtil.sign(privateKey, KaliumUtil.toHex(hash)),
+                KaliumUtil.toHex(KaliumUtil.sign(NanoHelper.toByteArray(privateKey), hash)));
+    }
+
+    @Test
+    public void rawToBytes() {
+        byte[] balance = new byte[KaliumUtil.BALANCE_LENGTH];
+        // the largest amount that fits, its sign byte dropped
+        KaliumUtil.rawToBytes(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE), balance);
+        assertEquals("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF", KaliumUtil.toHex(balance));
+        KaliumUtil.rawToBytes(BigInteger.ZERO, balance);
+        assertEquals("00000000000000000000000000000000", KaliumUtil.toHex(balance));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rawToBytesRejectsWideAmount() {
+        KaliumUtil.rawToBytes(BigInteger.ONE.shiftLeft(128), new byte[KaliumUtil.BALANCE_LENGTH]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rawToBytesRejectsNegativeAmount() {
+        KaliumUtil.rawToBytes(BigInteger.ONE.negate(), new byte[KaliumUtil.BALANCE_LENGTH]);
+    }
+
     @Test
     public void hexStringToByteArray() {
         NanoHelper.toByteArray("fukSkBVmBBwKMmzgH78wl9h07MTWSvBVORsxFvoLPTBoUHKdRyFnbOVBuztny5yzn40DwIFbdeQyjkAOZu3PTgCU5Ulv9oswJhR4kdDp18axXPT3JeCJxA8NO0Ln7JB");
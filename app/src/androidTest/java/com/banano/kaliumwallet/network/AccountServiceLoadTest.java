@@ -0,0 +1,176 @@
+package com.banano.kaliumwallet.network;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.annotation.UiThreadTest;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.banano.kaliumwallet.KaliumApplication;
+import com.banano.kaliumwallet.di.activity.ActivityModule;
+import com.banano.kaliumwallet.di.activity.DaggerTestActivityComponent;
+import com.banano.kaliumwallet.di.activity.TestActivityComponent;
+import com.banano.kaliumwallet.model.KeyMaterial;
+import com.banano.kaliumwallet.model.WorkSource;
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.node.StandInNode;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
+import com.banano.kaliumwallet.util.SharedPreferencesUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * AccountService receiving a pending storm from a local stand-in node, end to end: its
+ * queue, timeouts, coalescing, admission and bulk receive all run on the service thread
+ * the way they do in the app. Reports blocks per second from open to the last block and
+ * the p99 process latency in the instrumentation status. The storm size can be changed with
+ * -Pandroid.testInstrumentationRunnerArguments.nodePending=N
+ */
+@RunWith(AndroidJUnit4.class)
+public class AccountServiceLoadTest {
+    private static final String TAG = "AccountServiceLoadTest";
+    private static final String PRIVATE_KEY = "1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF";
+    private static final BigInteger UNIT = new BigInteger("10000000000000000000000000000");
+    private static final long TIMEOUT_MILLIS = 30 * 60 * 1000;
+    // status the runner passes on without taking it for the start or end of a test
+    private static final int REPORT_IN_PROGRESS = 2;
+    private TestActivityComponent testActivityComponent;
+    private AccountService service;
+    private StandInNode node;
+
+    private static int pendingCount() {
+        return Integer.parseInt(InstrumentationRegistry.getArguments().getString("nodePending", "10000"));
+    }
+
+    @Before
+    @UiThreadTest
+    public void setUp() throws Exception {
+        // build the activity component
+        testActivityComponent = DaggerTestActivityComponent
+                .builder()
+                .applicationComponent(KaliumApplication.getApplication(InstrumentationRegistry.getTargetContext().getApplicationContext()).getApplicationComponent())
+                .activityModule(new ActivityModule(InstrumentationRegistry.getTargetContext()))
+                .build();
+
+        service = testActivityComponent.provideAccountService();
+        testActivityComponent.inject(service);
+        testActivityComponent.inject(service.wallet);
+
+        // a fixed account, work from the node and every pending block received, whatever
+        // the device has stored
+        KeyMaterial keyMaterial = new KeyMaterial(PRIVATE_KEY);
+        service.keyMaterialCache = new KeyMaterialCache(() -> null) {
+            @Override
+            public KeyMaterial get() {
+                return keyMaterial;
+            }
+        };
+        service.sharedPreferencesUtil = new SharedPreferencesUtil(InstrumentationRegistry.getTargetContext()) {
+            @Override
+            public WorkSource getWorkSource() {
+                return WorkSource.SERVER;
+            }
+
+            @Override
+            public BigInteger getMinReceiveAmount() {
+                return PendingAdmission.DEFAULT_THRESHOLD;
+            }
+
+            @Override
+            public int getReceiveBudget() {
+                return PendingAdmission.DEFAULT_BUDGET;
+            }
+
+            @Override
+            public boolean hasCustomRepresentative() {
+                return false;
+            }
+        };
+        node = new StandInNode(keyMaterial.getAddressString(), BigInteger.ZERO, null).begin();
+        service.setConnectionUrl(node.getUri());
+    }
+
+    @Test
+    public void receivesPendingStorm() throws Exception {
+        receiveStorm(false);
+    }
+
+    @Test
+    public void receivesPendingStormPipelined() throws Exception {
+        receiveStorm(true);
+    }
+
+    private void receiveStorm(boolean pipelining) throws Exception {
+        int count = pendingCount();
+        node.addPending(count, UNIT);
+        service.setPipelining(pipelining);
+
+        long start = SystemClock.elapsedRealtime();
+        service.open();
+        long deadline = start + TIMEOUT_MILLIS;
+        while (!isDone() && SystemClock.elapsedRealtime() < deadline) {
+            SystemClock.sleep(100);
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+
+        assertEquals(0, node.getPendingCount());
+        assertEquals(UNIT.multiply(BigInteger.valueOf(count)), node.getBalance());
+        assertTrue(node.getFrontier().equalsIgnoreCase(walletFrontier()));
+        LatencyHistogram process = service.getMetrics().getLatency(Actions.PROCESS);
+        // one process request per block, more only if a block had to be sent again
+        assertTrue(process.getCount() >= count);
+        assertEquals(0, service.getRequestCounters().getDrops());
+        assertNull(node.getError());
+
+        double blocksPerSecond = count * 1000.0 / Math.max(elapsed, 1);
+        Bundle results = new Bundle();
+        results.putInt("pending", count);
+        results.putBoolean("pipelining", pipelining);
+        results.putLong("elapsed_ms", elapsed);
+        results.putDouble("blocks_per_second", blocksPerSecond);
+        results.putDouble("bulk_blocks_per_second", service.getReceiveThroughput());
+        results.putLong("process_p50_ms", process.getPercentile(50));
+        results.putLong("process_p99_ms", process.getPercentile(99));
+        results.putLong("process_max_ms", process.getMax());
+        InstrumentationRegistry.getInstrumentation().sendStatus(REPORT_IN_PROGRESS, results);
+        Log.i(TAG, String.format("%d blocks, pipelining %b: %.1f blocks/s, p99 %d ms",
+                count, pipelining, blocksPerSecond, process.getPercentile(99)));
+    }
+
+    /**
+     * @return true once every block is received, nothing is left queued and the wallet has
+     * the node's frontier
+     */
+    private boolean isDone() {
+        return node.getPendingCount() == 0
+                && service.isRequestQueueEmpty()
+                && node.getFrontier().equalsIgnoreCase(walletFrontier());
+    }
+
+    private String walletFrontier() {
+        String[] frontier = new String[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> frontier[0] = service.wallet.getFrontierBlock());
+        return frontier[0] != null ? frontier[0] : "";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (service != null) {
+            service.destroy();
+        }
+        if (node != null) {
+            node.stop();
+        }
+    }
+}
@@ -4,7 +4,6 @@ package com.banano.kaliumwallet;
   Utilities for crypto functions
  */
 
-import com.rotilho.jnano.commons.NanoAccounts;
 import com.rotilho.jnano.commons.NanoAmount;
 import com.rotilho.jnano.commons.NanoBaseAccountType;
 import com.rotilho.jnano.commons.NanoBlocks;
@@ -12,11 +11,34 @@ import com.rotilho.jnano.commons.NanoHelper;
 import com.rotilho.jnano.commons.NanoKeys;
 import com.rotilho.jnano.commons.NanoSignatures;
 
+import java.math.BigInteger;
 import java.security.SecureRandom;
 
+import com.banano.kaliumwallet.util.AddressCodec;
+import com.banano.kaliumwallet.util.Blake2b;
 import com.banano.kaliumwallet.util.SecureRandomUtil;
 
 public class KaliumUtil {
+    public static final int KEY_LENGTH = 32;
+    public static final int HASH_LENGTH = 32;
+    public static final int BALANCE_LENGTH = 16;
+    public static final int SIGNATURE_LENGTH = 64;
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    // state block hashes are prefixed with 32 bytes, the last of which is the block type (6)
+    private static final byte[] STATE_BLOCK_PREAMBLE = new byte[HASH_LENGTH];
+
+    static {
+        STATE_BLOCK_PREAMBLE[HASH_LENGTH - 1] = 6;
+    }
+
+    private static final ThreadLocal<Blake2b> hashDigest = new ThreadLocal<Blake2b>() {
+        @Override
+        protected Blake2b initialValue() {
+            return new Blake2b(HASH_LENGTH);
+        }
+    };
+
     /**
      * Generate a new Wallet Seed
      *
@@ -164,8 +186,7 @@ public class KaliumUtil {
      * @return ban address
      */
     public static String publicToAddress(String publicKey) {
-        return NanoAccounts.createAccount(NanoBaseAccountType.BANANO, NanoHelper.toByteArray(publicKey));
-
+        return AddressCodec.encode(NanoHelper.toByteArray(publicKey));
     }
 
     /**
@@ -175,6 +196,153 @@ public class KaliumUtil {
      * @return Public Key
      */
     public static String addressToPublic(String encodedAddress) {
-        return NanoHelper.toHex(NanoAccounts.toPublicKey(NanoBaseAccountType.BANANO, encodedAddress));
+        byte[] publicKey = new byte[KEY_LENGTH];
+        addressToPublic(encodedAddress, publicKey);
+        return toHex(publicKey);
+    }
+
+    /* Byte array API */
+
+    /**
+     * Convert a wallet seed to private key
+     *
+     * @param seed  Wallet seed (32 bytes)
+     * @param index Account index
+     * @return private key (32 bytes)
+     */
+    public static byte[] seedToPrivate(byte[] seed, int index) {
+        return NanoKeys.createPrivateKey(seed, index);
+    }
+
+    /**
+     * Convert a private key to a public key
+     *
+     * @param privateKey private key (32 bytes)
+     * @return public key (32 bytes)
+     */
+    public static byte[] privateToPublic(byte[] privateKey) {
+        return NanoKeys.createPublicKey(privateKey);
+    }
+
+    /**
+     * Convert a Public Key to an Address
+     *
+     * @param publicKey Public Key (32 bytes)
+     * @return ban address
+     */
+    public static String publicToAddress(byte[] publicKey) {
+        return AddressCodec.encode(publicKey);
+    }
+
+    /**
+     * Decode an address into a public key
+     *
+     * @param encodedAddress encoded Address
+     * @param publicKey      Output array for the public key (32 bytes)
+     */
+    public static void addressToPublic(String encodedAddress, byte[] publicKey) {
+        if (encodedAddress == null || encodedAddress.length() != AddressCodec.LENGTH
+                || !AddressCodec.decode(encodedAddress, 0, publicKey)) {
+            throw new IllegalArgumentException("Invalid address " + encodedAddress);
+        }
+    }
+
+    /**
+     * Compute hash for a universal (state) block
+     *
+     * @param account        Account public key (32 bytes)
+     * @param previous       Previous head block on account; zeros if open block (32 bytes)
+     * @param representative Representative public key (32 bytes)
+     * @param balance        Resulting balance, big endian raw (16 bytes)
+     * @param link           Multipurpose Field (32 bytes)
+     * @param hash           Output array for the hash (32 bytes)
+     */
+    public static void computeStateHash(byte[] account,
+                                        byte[] previous,
+                                        byte[] representative,
+                                        byte[] balance,
+                                        byte[] link,
+                                        byte[] hash) {
+        Blake2b digest = hashDigest.get();
+        digest.update(STATE_BLOCK_PREAMBLE, 0, HASH_LENGTH);
+        digest.update(account, 0, KEY_LENGTH);
+        digest.update(previous, 0, HASH_LENGTH);
+        digest.update(representative, 0, KEY_LENGTH);
+        digest.update(balance, 0, BALANCE_LENGTH);
+        digest.update(link, 0, HASH_LENGTH);
+        digest.digest(hash, 0);
+    }
+
+    /**
+     * Sign a block hash with a private key
+     *
+     * @param privateKey Private Key (32 bytes)
+     * @param hash       Block hash (32 bytes)
+     * @return Signature (64 bytes)
+     */
+    public static byte[] sign(byte[] privateKey, byte[] hash) {
+        return NanoHelper.toByteArray(NanoSignatures.sign(privateKey, toHex(hash)));
+    }
+
+    /**
+     * Decode a hex string into an existing array. The value is right aligned and zero padded,
+     * so short values such as "0" decode to an all zero array.
+     *
+     * @param hex Hex string
+     * @param out Output array
+     */
+    public static void hexToBytes(CharSequence hex, byte[] out) {
+        int index = hex.length() - 1;
+        for (int i = out.length - 1; i >= 0; i--) {
+            int low = index >= 0 ? hexDigit(hex.charAt(index--)) : 0;
+            int high = index >= 0 ? hexDigit(hex.charAt(index--)) : 0;
+            out[i] = (byte) ((high << 4) | low);
+        }
+        if (index >= 0) {
+            throw new IllegalArgumentException("Hex string too long");
+        }
+    }
+
+    private static int hexDigit(char c) {
+        int digit = Character.digit(c, 16);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid hex string");
+        }
+        return digit;
+    }
+
+    /**
+     * Encode bytes as an upper case hex string
+     *
+     * @param bytes Bytes to encode
+     * @return Hex string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Write a raw amount as a 16 byte big endian number
+     *
+     * @param raw     Raw amount
+     * @param balance Output array (16 bytes)
+     * @throws IllegalArgumentException if the amount is negative or doesn't fit in 16 bytes
+     */
+    public static void rawToBytes(BigInteger raw, byte[] balance) {
+        if (raw.signum() < 0 || raw.bitLength() > BALANCE_LENGTH * 8) {
+            throw new IllegalArgumentException("Invalid raw amount " + raw);
+        }
+        byte[] bytes = raw.toByteArray();
+        int length = Math.min(bytes.length, BALANCE_LENGTH);
+        int padding = BALANCE_LENGTH - length;
+        for (int i = 0; i < padding; i++) {
+            balance[i] = 0;
+        }
+        System.arraycopy(bytes, bytes.length - length, balance, padding, length);
     }
-}
\ No newline at end of file
+}
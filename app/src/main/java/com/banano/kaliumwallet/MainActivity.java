@@ -158,9 +158,9 @@ public class MainActivity extends AppCompatActivity implements WindowControl, Ac
         super.onPause();
         // Set app in foreground
         sharedPreferencesUtil.setAppBackgrounded(true);
-        // stop websocket on pause
+        // stop websocket a little while after pause, unless we're back by then
         if (accountService != null) {
-            accountService.close();
+            accountService.pause();
         }
     }
 
@@ -195,6 +195,14 @@ public class MainActivity extends AppCompatActivity implements WindowControl, Ac
         if (nanoWallet != null) {
             nanoWallet.close();
         }
+
+        // stop the websocket and the threads of the service, and of the one made after a logout
+        if (accountService != null) {
+            accountService.destroy();
+        }
+        if (mActivityComponent != null && mActivityComponent.provideAccountService() != accountService) {
+            mActivityComponent.provideAccountService().destroy();
+        }
     }
 
     @Override
@@ -240,8 +248,8 @@ public class MainActivity extends AppCompatActivity implements WindowControl, Ac
         final RealmResults<Credentials> results = realm.where(Credentials.class).findAll();
         realm.executeTransaction(realm1 -> results.deleteAllFromRealm());
 
-        // stop the websocket
-        accountService.close();
+        // stop the websocket, a new service comes with the next component
+        accountService.destroy();
 
         // clear wallet
         nanoWallet.clear();
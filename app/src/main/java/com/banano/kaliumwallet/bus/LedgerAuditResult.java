@@ -0,0 +1,53 @@
+package com.banano.kaliumwallet.bus;
+
+/**
+ * Event when a full chain audit of the account has finished
+ */
+
+public class LedgerAuditResult {
+    private String account;
+    private boolean consistent;
+    private int blockCount;
+    private String hash;
+    private String reason;
+    private long elapsedMillis;
+
+    public LedgerAuditResult(String account, boolean consistent, int blockCount, String hash, String reason, long elapsedMillis) {
+        this.account = account;
+        this.consistent = consistent;
+        this.blockCount = blockCount;
+        this.hash = hash;
+        this.reason = reason;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return Hash of the first inconsistent block, null if consistent or not block specific
+     */
+    public String getHash() {
+        return hash;
+    }
+
+    /**
+     * @return What was wrong with the first inconsistent block, null if consistent
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
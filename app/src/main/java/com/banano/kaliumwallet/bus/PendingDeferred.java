@@ -0,0 +1,17 @@
+package com.banano.kaliumwallet.bus;
+
+/**
+ * Event when the number of pending blocks held back from receiving changed
+ */
+
+public class PendingDeferred {
+    private int count;
+
+    public PendingDeferred(int count) {
+        this.count = count;
+    }
+
+    public int getCount() {
+        return count;
+    }
+}
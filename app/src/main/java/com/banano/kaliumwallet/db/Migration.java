@@ -25,6 +25,25 @@ public class Migration implements RealmMigration {
                     .addField("monkeyPath", String.class);
             oldVersion++;
         }
+
+        // Add PrecomputedWork class
+        if (oldVersion == 2) {
+            schema.create("PrecomputedWork")
+                    .addField("hash", String.class, new FieldAttribute[]{FieldAttribute.REQUIRED, FieldAttribute.PRIMARY_KEY})
+                    .addField("work", String.class, FieldAttribute.REQUIRED)
+                    .addField("created", long.class);
+            oldVersion++;
+        }
+
+        // Add WalletSnapshot class
+        if (oldVersion == 3) {
+            schema.create("WalletSnapshot")
+                    .addField("account", String.class, new FieldAttribute[]{FieldAttribute.REQUIRED, FieldAttribute.PRIMARY_KEY})
+                    .addField("version", int.class)
+                    .addField("data", String.class, FieldAttribute.REQUIRED)
+                    .addField("updated", long.class);
+            oldVersion++;
+        }
     }
 
     @Override
@@ -22,6 +22,7 @@ import com.banano.kaliumwallet.ui.send.SendConfirmDialogFragment;
 import com.banano.kaliumwallet.ui.send.SendDialogFragment;
 import com.banano.kaliumwallet.ui.settings.BackupSeedDialogFragment;
 import com.banano.kaliumwallet.ui.settings.ChangeRepDialogFragment;
+import com.banano.kaliumwallet.ui.settings.DiagnosticsDialogFragment;
 import com.banano.kaliumwallet.ui.settings.SettingsFragment;
 import com.banano.kaliumwallet.ui.transfer.TransferCompleteDialogFragment;
 import com.banano.kaliumwallet.ui.transfer.TransferConfirmDialogFragment;
@@ -48,6 +49,8 @@ public interface ActivityComponent {
 
     void inject(BackupSeedDialogFragment backupSeedDialogFragment);
 
+    void inject(DiagnosticsDialogFragment diagnosticsDialogFragment);
+
     void inject(ChangeRepDialogFragment changeRepDialogFragment);
 
     void inject(ContactOverviewFragment contactOverviewFragment);
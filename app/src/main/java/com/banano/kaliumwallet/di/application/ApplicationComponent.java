@@ -2,7 +2,11 @@ package com.banano.kaliumwallet.di.application;
 
 
 import com.banano.kaliumwallet.di.persistence.PersistenceModule;
+import com.banano.kaliumwallet.network.work.LocalWorkGenerator;
+import com.banano.kaliumwallet.network.work.WorkCache;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
+import com.banano.kaliumwallet.util.WalletSnapshotStore;
 
 import javax.inject.Named;
 
@@ -18,6 +22,18 @@ public interface ApplicationComponent {
     // database
     Realm provideRealm();
 
+    // derived keys
+    KeyMaterialCache provideKeyMaterialCache();
+
+    // local proof of work
+    LocalWorkGenerator provideLocalWorkGenerator();
+
+    // precomputed work
+    WorkCache provideWorkCache();
+
+    // last known wallet state
+    WalletSnapshotStore provideWalletSnapshotStore();
+
     // encryption key
     @Named("encryption_key")
     byte[] providesEncryptionKey();
@@ -2,6 +2,8 @@ package com.banano.kaliumwallet.di.application;
 
 import android.content.Context;
 
+import com.banano.kaliumwallet.network.work.LocalWorkGenerator;
+
 import dagger.Module;
 import dagger.Provides;
 
@@ -18,5 +20,10 @@ public class ApplicationModule {
         return mContext;
     }
 
+    @Provides
+    @ApplicationScope
+    LocalWorkGenerator providesLocalWorkGenerator() {
+        return new LocalWorkGenerator();
+    }
 
 }
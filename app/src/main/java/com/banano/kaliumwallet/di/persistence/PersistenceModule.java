@@ -7,10 +7,15 @@ import com.banano.kaliumwallet.bus.Logout;
 import com.banano.kaliumwallet.bus.RxBus;
 import com.banano.kaliumwallet.db.Migration;
 import com.banano.kaliumwallet.di.application.ApplicationScope;
+import com.banano.kaliumwallet.network.work.LocalWorkGenerator;
+import com.banano.kaliumwallet.network.work.WorkCache;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
 import com.banano.kaliumwallet.util.Vault;
+import com.banano.kaliumwallet.util.WalletSnapshotStore;
 
 import javax.inject.Named;
+import javax.inject.Provider;
 
 import dagger.Module;
 import dagger.Provides;
@@ -20,7 +25,7 @@ import io.realm.exceptions.RealmFileException;
 
 @Module
 public class PersistenceModule {
-    private static final int SCHEMA_VERSION = 2;
+    private static final int SCHEMA_VERSION = 4;
     private static final String DB_NAME = "kalium.realm";
 
     @Provides
@@ -29,6 +34,24 @@ public class PersistenceModule {
         return new SharedPreferencesUtil(context);
     }
 
+    @Provides
+    @ApplicationScope
+    KeyMaterialCache providesKeyMaterialCache(Provider<Realm> realmProvider) {
+        return new KeyMaterialCache(realmProvider);
+    }
+
+    @Provides
+    @ApplicationScope
+    WorkCache providesWorkCache(Provider<Realm> realmProvider, LocalWorkGenerator workGenerator) {
+        return new WorkCache(realmProvider, workGenerator);
+    }
+
+    @Provides
+    @ApplicationScope
+    WalletSnapshotStore providesWalletSnapshotStore(Provider<Realm> realmProvider) {
+        return new WalletSnapshotStore(realmProvider);
+    }
+
     @Provides
     Realm providesRealmInstance(@Named("encryption_key") byte[] key) {
         try {
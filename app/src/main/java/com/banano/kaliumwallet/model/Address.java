@@ -2,13 +2,10 @@ package com.banano.kaliumwallet.model;
 
 import android.net.Uri;
 
-import com.rotilho.jnano.commons.NanoAccounts;
-import com.rotilho.jnano.commons.NanoBaseAccountType;
+import com.banano.kaliumwallet.util.AddressCodec;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Address class
@@ -43,7 +40,7 @@ public class Address implements Serializable {
     }
 
     public boolean isValidAddress() {
-        return NanoAccounts.isValid(NanoBaseAccountType.BANANO, value);
+        return AddressCodec.isValid(value);
     }
 
     private String parseAddress(String addressString) {
@@ -51,10 +48,10 @@ public class Address implements Serializable {
         if (addressString != null) {
             addressString = addressString.toLowerCase();
             ret = findAddress(addressString);
-            String[] _split = addressString.split(":");
-            if (_split.length > 1) {
-                String _addressString = _split[1];
-                Uri uri = Uri.parse(_addressString);
+            // only parse uri parameters for ban:ban_... uris
+            int separator = addressString.indexOf(':');
+            if (separator >= 0 && addressString.indexOf('?', separator) > 0) {
+                Uri uri = Uri.parse(addressString.substring(separator + 1));
                 if (uri.getQueryParameter("amount") != null && !uri.getQueryParameter("amount").equals("")) {
                     try {
                         this.amount = (new BigDecimal(uri.getQueryParameter("amount"))).toString();
@@ -74,10 +71,9 @@ public class Address implements Serializable {
      * @return
      */
     public static final String findAddress(String address) {
-        Pattern p = Pattern.compile("(ban)(_)(1|3)[13456789abcdefghijkmnopqrstuwxyz]{59}");
-        Matcher matcher = p.matcher(address);
-        if (matcher.find()) {
-            return matcher.group(0);
+        int index = AddressCodec.find(address);
+        if (index >= 0) {
+            return address.substring(index, index + AddressCodec.LENGTH);
         }
         return "";
     }
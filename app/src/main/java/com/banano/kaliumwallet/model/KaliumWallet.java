@@ -3,6 +3,7 @@ package com.banano.kaliumwallet.model;
 import android.content.Context;
 
 import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.bus.Logout;
 import com.banano.kaliumwallet.bus.RxBus;
 import com.banano.kaliumwallet.bus.WalletClear;
 import com.banano.kaliumwallet.bus.WalletHistoryUpdate;
@@ -14,8 +15,10 @@ import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
 import com.banano.kaliumwallet.network.model.response.SubscribeResponse;
 import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
 import com.banano.kaliumwallet.util.ExceptionHandler;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.NumberUtil;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
+import com.banano.kaliumwallet.util.WalletSnapshotStore;
 import com.hwangjr.rxbus.annotation.Subscribe;
 
 import java.math.BigDecimal;
@@ -42,21 +45,61 @@ public class KaliumWallet {
     SharedPreferencesUtil sharedPreferencesUtil;
     @Inject
     Realm realm;
+    @Inject
+    KeyMaterialCache keyMaterialCache;
+    @Inject
+    WalletSnapshotStore snapshotStore;
     private BigDecimal accountBalance;
     private BigDecimal localCurrencyPrice;
     private BigDecimal nanoPrice;
     private BigDecimal btcPrice;
     private String representativeAccount;
-    private String representativeAddress;
     private String frontierBlock;
-    private String openBlock;
     private Integer blockCount;
-    private String uuid;
-    private List<AccountHistoryResponseItem> accountHistory;
+    // Only changed on the main thread. The account service reads these from its own thread,
+    // the ones it changes itself it keeps a copy of and posts here.
+    private volatile String representativeAddress;
+    private volatile String openBlock;
+    private volatile String uuid;
+    private volatile List<AccountHistoryResponseItem> accountHistory;
+    private volatile String accountHistoryPrevious;
+    // shown from the last snapshot until the server answers
+    private boolean fromSnapshot;
     // for sending
     private String sendBananoAmount;
     private String sendLocalCurrencyAmount;
     private String publicKey;
+    // balances as shown, only formatted again when the balance or price changes
+    private final FormattedAmount formattedBanano = new FormattedAmount();
+    private final FormattedAmount formattedLocalCurrency = new FormattedAmount();
+    private final FormattedAmount formattedNano = new FormattedAmount();
+    private final FormattedAmount formattedBtc = new FormattedAmount();
+
+    /**
+     * An amount formatted for display along with what it was formatted from
+     */
+    private static class FormattedAmount {
+        private BigDecimal balance;
+        private BigDecimal price;
+        private Object format;
+        private String value;
+
+        boolean isFor(BigDecimal balance, BigDecimal price, Object format) {
+            return value != null && equal(balance, this.balance) && equal(price, this.price) && equal(format, this.format);
+        }
+
+        String set(BigDecimal balance, BigDecimal price, Object format, String value) {
+            this.balance = balance;
+            this.price = price;
+            this.format = format;
+            this.value = value;
+            return value;
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
 
     public KaliumWallet(Context context) {
         // init dependency injection
@@ -70,8 +113,13 @@ public class KaliumWallet {
         if (realm != null && !realm.isClosed()) {
             Credentials credentials = realm.where(Credentials.class).findFirst();
             if (credentials != null) {
-                publicKey = credentials.getPublicKey();
+                KeyMaterial keyMaterial = keyMaterialCache.get();
+                publicKey = keyMaterial != null ? keyMaterial.getPublicKey() : null;
                 uuid = credentials.getUuid();
+                if (snapshotStore != null) {
+                    snapshotStore.open(publicKey);
+                    restore(snapshotStore.load(publicKey));
+                }
             }
         }
     }
@@ -82,6 +130,10 @@ public class KaliumWallet {
 
     public void setPublicKey(String publicKey) {
         this.publicKey = publicKey;
+        if (snapshotStore != null && publicKey != null) {
+            // logged in, possibly again after a logout
+            snapshotStore.open(publicKey);
+        }
     }
 
     public String getOpenBlock() {
@@ -120,8 +172,25 @@ public class KaliumWallet {
         return accountHistory;
     }
 
+    /**
+     * @return Hash the account history continues at, null if it goes back to the open block
+     */
+    public String getAccountHistoryPrevious() {
+        return accountHistoryPrevious;
+    }
+
+    /**
+     * @return true if what the wallet holds comes from the last snapshot, not the server
+     */
+    public boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+
     public String getAccountBalanceBanano() {
-        return NumberUtil.getRawAsUsableString(accountBalance.toString());
+        if (formattedBanano.isFor(accountBalance, null, null)) {
+            return formattedBanano.value;
+        }
+        return formattedBanano.set(accountBalance, null, null, NumberUtil.getRawAsUsableString(accountBalance.toString()));
     }
 
     public String getAccountBalanceBananoNoComma() {
@@ -137,15 +206,39 @@ public class KaliumWallet {
     }
 
     public String getAccountBalanceLocalCurrency() {
-        return localCurrencyPrice != null && accountBalance != null ? formatLocalCurrency(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(localCurrencyPrice, MathContext.DECIMAL64)) : "0.0";
+        if (localCurrencyPrice == null || accountBalance == null) {
+            return "0.0";
+        }
+        AvailableCurrency currency = getLocalCurrency();
+        if (formattedLocalCurrency.isFor(accountBalance, localCurrencyPrice, currency)) {
+            return formattedLocalCurrency.value;
+        }
+        return formattedLocalCurrency.set(accountBalance, localCurrencyPrice, currency,
+                formatLocalCurrency(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(localCurrencyPrice, MathContext.DECIMAL64)));
     }
 
     public String getAccountBalanceNano() {
-        return nanoPrice != null && accountBalance != null ? formatNano(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(nanoPrice, MathContext.DECIMAL64)) : "0.0";
+        if (nanoPrice == null || accountBalance == null) {
+            return "0.0";
+        }
+        Locale locale = Locale.getDefault();
+        if (formattedNano.isFor(accountBalance, nanoPrice, locale)) {
+            return formattedNano.value;
+        }
+        return formattedNano.set(accountBalance, nanoPrice, locale,
+                formatNano(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(nanoPrice, MathContext.DECIMAL64)));
     }
 
     public String getAccountBalanceBtc() {
-        return btcPrice != null && accountBalance != null ? formatBtc(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(btcPrice, MathContext.DECIMAL64)) : "0.0";
+        if (btcPrice == null || accountBalance == null) {
+            return "0.0";
+        }
+        Locale locale = Locale.getDefault();
+        if (formattedBtc.isFor(accountBalance, btcPrice, locale)) {
+            return formattedBtc.value;
+        }
+        return formattedBtc.set(accountBalance, btcPrice, locale,
+                formatBtc(NumberUtil.getRawAsUsableAmount(accountBalance.toString()).multiply(btcPrice, MathContext.DECIMAL64)));
     }
 
     private String formatLocalCurrency(BigDecimal amount) {
@@ -373,6 +466,8 @@ public class KaliumWallet {
         blockCount = null;
 
         accountHistory = new ArrayList<>();
+        accountHistoryPrevious = null;
+        fromSnapshot = false;
 
         // for sending
         sendBananoAmount = "";
@@ -399,6 +494,59 @@ public class KaliumWallet {
         return representativeAccount == null ? PreconfiguredRepresentatives.getRepresentative() : representativeAccount;
     }
 
+    /**
+     * Take on the state from a snapshot. The subscribe and history responses replace it.
+     *
+     * @param state Saved wallet state
+     */
+    private void restore(WalletSnapshotStore.State state) {
+        if (state == null) {
+            return;
+        }
+        try {
+            accountBalance = new BigDecimal(state.getBalance() != null ? state.getBalance() : "0.0");
+            frontierBlock = state.getFrontier();
+            openBlock = state.getOpenBlock();
+            representativeAccount = state.getRepresentative();
+            representativeAddress = state.getRepresentativeBlock();
+            blockCount = state.getBlockCount();
+            if (getLocalCurrency().name().equals(state.getCurrency()) && state.getPrice() != null) {
+                localCurrencyPrice = new BigDecimal(state.getPrice());
+            }
+            nanoPrice = state.getNano() != null ? new BigDecimal(state.getNano()) : null;
+            btcPrice = state.getBtc() != null ? new BigDecimal(state.getBtc()) : null;
+            accountHistory = state.getHistory() != null ? state.getHistory() : new ArrayList<>();
+            accountHistoryPrevious = state.getPrevious();
+            fromSnapshot = true;
+        } catch (NumberFormatException e) {
+            ExceptionHandler.handle(e);
+            clear();
+        }
+    }
+
+    /**
+     * Save what the wallet holds now, so the next start can show it right away
+     */
+    private void saveSnapshot() {
+        if (snapshotStore == null || publicKey == null) {
+            return;
+        }
+        WalletSnapshotStore.State state = new WalletSnapshotStore.State();
+        state.setBalance(accountBalance != null ? accountBalance.toString() : null);
+        state.setFrontier(frontierBlock);
+        state.setOpenBlock(openBlock);
+        state.setRepresentative(representativeAccount);
+        state.setRepresentativeBlock(representativeAddress);
+        state.setBlockCount(blockCount != null && blockCount > 0 ? blockCount : null);
+        state.setCurrency(getLocalCurrency().name());
+        state.setPrice(localCurrencyPrice != null ? localCurrencyPrice.toString() : null);
+        state.setNano(nanoPrice != null ? nanoPrice.toString() : null);
+        state.setBtc(btcPrice != null ? btcPrice.toString() : null);
+        state.setHistory(accountHistory);
+        state.setPrevious(accountHistoryPrevious);
+        snapshotStore.save(publicKey, state);
+    }
+
     /* Bus Listeners */
 
     /**
@@ -429,6 +577,8 @@ public class KaliumWallet {
         localCurrencyPrice = new BigDecimal(subscribeResponse.getPrice());
         nanoPrice = new BigDecimal(subscribeResponse.getNano());
         btcPrice = new BigDecimal(subscribeResponse.getBtc());
+        fromSnapshot = false;
+        saveSnapshot();
         RxBus.get().post(new WalletSubscribeUpdate());
     }
 
@@ -440,6 +590,8 @@ public class KaliumWallet {
     @Subscribe
     public void receiveHistory(AccountHistoryResponse accountHistoryResponse) {
         accountHistory = accountHistoryResponse.getHistory();
+        accountHistoryPrevious = accountHistoryResponse.getPrevious();
+        saveSnapshot();
         RxBus.get().post(new WalletHistoryUpdate());
     }
 
@@ -450,23 +602,39 @@ public class KaliumWallet {
      */
     @Subscribe
     public void receiveCurrentPrice(CurrentPriceResponse currentPriceResponse) {
+        BigDecimal newLocalCurrencyPrice = localCurrencyPrice;
+        BigDecimal newNanoPrice = nanoPrice;
+        BigDecimal newBtcPrice = btcPrice;
         if (currentPriceResponse.getCurrency().equals("nano")) {
             // we made a nano price request
-            nanoPrice = new BigDecimal(currentPriceResponse.getPrice());
+            newNanoPrice = new BigDecimal(currentPriceResponse.getPrice());
         } else if (currentPriceResponse.getCurrency().equals("btc")) {
-            btcPrice = new BigDecimal(currentPriceResponse.getPrice());
+            newBtcPrice = new BigDecimal(currentPriceResponse.getPrice());
         } else {
             // local currency price
-            localCurrencyPrice = new BigDecimal(currentPriceResponse.getPrice());
+            newLocalCurrencyPrice = new BigDecimal(currentPriceResponse.getPrice());
         }
         if (currentPriceResponse.getNano() != null) {
-            nanoPrice = new BigDecimal(currentPriceResponse.getNano());
+            newNanoPrice = new BigDecimal(currentPriceResponse.getNano());
         } else if (currentPriceResponse.getBtc() != null) {
-            btcPrice = new BigDecimal(currentPriceResponse.getBtc());
+            newBtcPrice = new BigDecimal(currentPriceResponse.getBtc());
         }
+        if (samePrice(newLocalCurrencyPrice, localCurrencyPrice) && samePrice(newNanoPrice, nanoPrice)
+                && samePrice(newBtcPrice, btcPrice)) {
+            // nothing moved, nothing to save or show
+            return;
+        }
+        localCurrencyPrice = newLocalCurrencyPrice;
+        nanoPrice = newNanoPrice;
+        btcPrice = newBtcPrice;
+        saveSnapshot();
         RxBus.get().post(new WalletPriceUpdate());
     }
 
+    private static boolean samePrice(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
     /**
      * Receive clear wallet
      *
@@ -475,5 +643,20 @@ public class KaliumWallet {
     @Subscribe
     public void receiveClear(WalletClear walletClear) {
         clear();
+        if (snapshotStore != null) {
+            snapshotStore.clear();
+        }
+    }
+
+    /**
+     * Receive logout
+     *
+     * @param logout Logout event
+     */
+    @Subscribe
+    public void receiveLogout(Logout logout) {
+        if (snapshotStore != null) {
+            snapshotStore.clear();
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.banano.kaliumwallet.model;
+
+import com.banano.kaliumwallet.KaliumUtil;
+
+/**
+ * Keys and address derived from the wallet credentials
+ */
+
+public class KeyMaterial {
+    private final String privateKey;
+    private final String publicKey;
+    private final String addressString;
+    private final Address address;
+
+    public KeyMaterial(String privateKey) {
+        byte[] privateKeyBytes = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(privateKey, privateKeyBytes);
+        byte[] publicKeyBytes = KaliumUtil.privateToPublic(privateKeyBytes);
+
+        this.privateKey = privateKey;
+        this.publicKey = KaliumUtil.toHex(publicKeyBytes);
+        this.addressString = KaliumUtil.publicToAddress(publicKeyBytes);
+        this.address = new Address(addressString);
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public String getAddressString() {
+        return addressString;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+}
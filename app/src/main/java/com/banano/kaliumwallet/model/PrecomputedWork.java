@@ -0,0 +1,51 @@
+package com.banano.kaliumwallet.model;
+
+import io.realm.RealmObject;
+import io.realm.annotations.PrimaryKey;
+import io.realm.annotations.Required;
+
+/**
+ * Proof of work computed ahead of time for a frontier hash
+ */
+
+public class PrecomputedWork extends RealmObject {
+    @PrimaryKey
+    @Required
+    private String hash;
+    @Required
+    private String work;
+    private long created;
+
+    public PrecomputedWork() {
+    }
+
+    public PrecomputedWork(String hash, String work) {
+        this.hash = hash;
+        this.work = work;
+        this.created = System.currentTimeMillis();
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getWork() {
+        return work;
+    }
+
+    public void setWork(String work) {
+        this.work = work;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+}
@@ -0,0 +1,61 @@
+package com.banano.kaliumwallet.model;
+
+import io.realm.RealmObject;
+import io.realm.annotations.PrimaryKey;
+import io.realm.annotations.Required;
+
+/**
+ * Last known wallet state of an account, so it can be shown before the server answers
+ */
+
+public class WalletSnapshot extends RealmObject {
+    @PrimaryKey
+    @Required
+    private String account;
+    private int version;
+    @Required
+    private String data;
+    private long updated;
+
+    public WalletSnapshot() {
+    }
+
+    public WalletSnapshot(String account, int version, String data) {
+        this.account = account;
+        this.version = version;
+        this.data = data;
+        this.updated = System.currentTimeMillis();
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    public void setAccount(String account) {
+        this.account = account;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+}
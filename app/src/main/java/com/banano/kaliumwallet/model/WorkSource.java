@@ -0,0 +1,21 @@
+package com.banano.kaliumwallet.model;
+
+/**
+ * Where proof of work for blocks comes from
+ */
+public enum WorkSource {
+    SERVER("SERVER"),
+    LOCAL("LOCAL"),
+    RACE("RACE");
+
+    private String type;
+
+    WorkSource(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return type;
+    }
+}
@@ -3,18 +3,24 @@ package com.banano.kaliumwallet.network;
 import android.accounts.Account;
 import android.content.Context;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
 
 import com.banano.kaliumwallet.BuildConfig;
 import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.bus.LedgerAuditResult;
+import com.banano.kaliumwallet.bus.PendingDeferred;
 import com.banano.kaliumwallet.bus.RxBus;
 import com.banano.kaliumwallet.bus.SocketError;
 import com.banano.kaliumwallet.bus.TransferHistoryResponse;
 import com.banano.kaliumwallet.bus.TransferProcessResponse;
 import com.banano.kaliumwallet.model.Address;
-import com.banano.kaliumwallet.model.Credentials;
 import com.banano.kaliumwallet.model.KaliumWallet;
+import com.banano.kaliumwallet.model.KeyMaterial;
 import com.banano.kaliumwallet.model.PreconfiguredRepresentatives;
+import com.banano.kaliumwallet.model.WorkSource;
+import com.banano.kaliumwallet.network.audit.LedgerAudit;
+import com.banano.kaliumwallet.network.model.BaseRequest;
 import com.banano.kaliumwallet.network.model.BaseResponse;
 import com.banano.kaliumwallet.network.model.BlockTypes;
 import com.banano.kaliumwallet.network.model.RequestItem;
@@ -32,6 +38,7 @@ import com.banano.kaliumwallet.network.model.request.block.SendBlock;
 import com.banano.kaliumwallet.network.model.request.block.StateBlock;
 import com.banano.kaliumwallet.network.model.response.AccountBalanceItem;
 import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
 import com.banano.kaliumwallet.network.model.response.AccountsBalancesResponse;
 import com.banano.kaliumwallet.network.model.response.BlockInfoItem;
 import com.banano.kaliumwallet.network.model.response.BlockItem;
@@ -39,18 +46,23 @@ import com.banano.kaliumwallet.network.model.response.BlocksInfoResponse;
 import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
 import com.banano.kaliumwallet.network.model.response.PendingTransactionResponse;
 import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+import com.banano.kaliumwallet.network.socket.MeteredDraft;
+import com.banano.kaliumwallet.network.socket.TransportStats;
 import com.banano.kaliumwallet.network.model.response.ProcessResponse;
 import com.banano.kaliumwallet.network.model.response.SubscribeResponse;
 import com.banano.kaliumwallet.network.model.response.TransactionResponse;
 import com.banano.kaliumwallet.network.model.response.WarningResponse;
 import com.banano.kaliumwallet.network.model.response.WorkResponse;
+import com.banano.kaliumwallet.network.work.LocalWorkGenerator;
+import com.banano.kaliumwallet.network.work.WorkCache;
 import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
 import com.banano.kaliumwallet.util.ExceptionHandler;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.NumberUtil;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.internal.LinkedTreeMap;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
@@ -59,11 +71,15 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -77,6 +93,12 @@ import timber.log.Timber;
 
 public class AccountService {
     public static final int TIMEOUT_MILLISECONDS = 8000;
+    public static final int LOCAL_WORK_TIMEOUT_MILLISECONDS = 120000;
+    public static final int MAX_BLOCKS_INFO_BATCH = 50;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    public static final long PAUSE_GRACE_MILLISECONDS = 30000;
+    // blocks processed in a burst refresh the account once, this long after the last one
+    public static final long REFRESH_QUIET_MILLISECONDS = 500;
     @Inject
     SharedPreferencesUtil sharedPreferencesUtil;
     @Inject
@@ -86,43 +108,185 @@ public class AccountService {
     @Inject
     Realm realm;
     @Inject
+    KeyMaterialCache keyMaterialCache;
+    @Inject
+    LocalWorkGenerator workGenerator;
+    @Inject
+    WorkCache workCache;
+    @Inject
     @Named("encryption_key")
     byte[] encryption_key;
     private WebSocketClient websocket;
-    private LinkedList<RequestItem> requestQueue = new LinkedList<>();
+    private final RequestQueue requestQueue = new RequestQueue();
+    private ResponseParser responseParser;
+    // Sent requests waiting for a response. Items leave when answered and whenever they
+    // leave the queue, see removeRequest, so nothing is kept for a reply that never comes.
+    private final InFlightRequests inFlight = new InFlightRequests(requestQueue);
+    private int nextRequestId = 1;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    // Requests are sent one at a time and responses matched in order, unless pipelining is
+    // turned on and the server has been seen to echo request ids
+    private boolean pipelining = BuildConfig.REQUEST_PIPELINING;
+    private boolean serverEchoesIds = false;
+    private String connectionUrl = BuildConfig.CONNECTION_URL;
     private String private_key;
-    private Address address;
+    private volatile Address address;
+    // our chain as the service last saw it, the wallet is handed a copy on the main thread
+    private String publicKey;
+    private String frontier;
+    private Integer blockCount;
     private boolean isConnecting = false;
+    // The request queue is kept across reconnects, these decide when to reconnect
+    private final ConnectionManager connectionManager = new ConnectionManager();
+    private final Runnable reconnectTask = this::reconnect;
+    private final Runnable pauseCloseTask = this::closeSocket;
+    private final Runnable refreshTask = this::refreshAccount;
+    private final PriceConflator priceConflator = new PriceConflator(PriceConflator.DEFAULT_INTERVAL_MILLIS);
+    private final Runnable priceFlushTask = this::flushPrices;
+    private boolean reconnectScheduled = false;
+    private boolean closeRequested = false;
+    private long pauseGraceMillis = PAUSE_GRACE_MILLISECONDS;
+    private Exception lastSocketError;
     private boolean locked = false; // Stop auto-block processing if locked
 
-    // Map previous hash to the block request
-    private HashMap<String, StateBlock> previousPendingMap = new HashMap<>();
+    // Local work generation for the work request being processed
+    private RequestItem localWorkItem;
+    private LocalWorkGenerator.WorkTask localWorkTask;
+    private long localWorkExpireTime;
+
+    // Full chain audit in progress, verification runs off the socket thread
+    private LedgerAudit ledgerAudit;
+    private final ExecutorService auditExecutor = Executors.newSingleThreadExecutor();
+
+    // Map blocks_info request to the blocks waiting on it, one per hash in the request
+    private HashMap<RequestItem, List<StateBlock>> previousPendingMap = new HashMap<>();
+    // Blocks we don't need to fetch again to build on top of
+    private final VerifiedBlockCache verifiedBlocks = new VerifiedBlockCache();
     private HashMap<String, StateBlock> pendingResponseBlockMap = new HashMap<>();
 
+    // Everything above is owned by the service thread. Socket messages are handed to it and
+    // bus events handed back to the UI thread through lock-free queues.
+    private static HandlerThread serviceThread;
+    private final Handler serviceHandler;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ConcurrentLinkedQueue<String> inboundMessages = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean inboundDrainScheduled = new AtomicBoolean(false);
+    private final ConcurrentLinkedQueue<Object> uiEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean uiFlushScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean auditRunning = new AtomicBoolean(false);
+    private final RequestCounters requestCounters = new RequestCounters();
+    private final TransportStats transportStats = new TransportStats();
+    private final NetworkMetrics metrics = new NetworkMetrics(requestCounters, transportStats, System.currentTimeMillis());
+
+    // history of our own account is synced in pages, only fetching what's new
+    private HistorySync historySync;
+    private RequestItem<AccountHistoryRequest> historySyncItem;
+    private boolean historyResyncRequested = false;
+    private boolean historyPostPending = false;
+
+    // pending blocks received as one locally chained batch
+    private BulkReceive bulkReceive;
+    private boolean bulkReceiveDiverged = false;
+    private volatile double receiveThroughput = 0;
+
+    // which pending blocks are received automatically this session
+    private PendingAdmission pendingAdmission;
+    private volatile int deferredPendingCount = 0;
+
     public AccountService(Context context) {
         // init dependency injection
         if (context instanceof ActivityWithComponent) {
             ((ActivityWithComponent) context).getActivityComponent().inject(this);
         }
+        serviceHandler = new Handler(getServiceLooper());
+    }
+
+    /**
+     * @return Looper of the thread all service state lives on, shared by every instance
+     */
+    private static synchronized Looper getServiceLooper() {
+        if (serviceThread == null) {
+            serviceThread = new HandlerThread("AccountService");
+            serviceThread.start();
+        }
+        return serviceThread.getLooper();
+    }
+
+    /**
+     * @return Timeout, retry and drop counts
+     */
+    public RequestCounters getRequestCounters() {
+        return requestCounters;
     }
 
+    /**
+     * @return Latencies, queue depth, timeouts, reconnects and bytes moved
+     */
+    public NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Bytes sent and received over the socket
+     */
+    public TransportStats getTransportStats() {
+        return transportStats;
+    }
+
+    /**
+     * @return Blocks per second of the last bulk receive, 0 if there was none
+     */
+    public double getReceiveThroughput() {
+        return receiveThroughput;
+    }
+
+    /**
+     * @return Pending blocks held back from receiving, below the minimum amount or over budget
+     */
+    public int getDeferredPendingCount() {
+        return deferredPendingCount;
+    }
+
+    /**
+     * @return true if nothing is queued, may be called from any thread
+     */
     public boolean isRequestQueueEmpty() {
         return requestQueue.size() == 0;
     }
 
     public void open() {
-        wallet.setBlockCount(-1);
-
-        private_key = getPrivateKey();
-        address = getAddress();
-        wallet.setPublicKey(getPublicKey());
-
-        // initialize the web socket
-        if (wsDisconnected()) {
-            initWebSocket();
-        } else {
-            requestUpdate();
-        }
+        execute(() -> {
+            KeyMaterial keyMaterial = keyMaterialCache.get();
+            private_key = keyMaterial != null ? keyMaterial.getPrivateKey() : null;
+            address = keyMaterial != null ? keyMaterial.getAddress() : null;
+            String openedKey = keyMaterial != null ? keyMaterial.getPublicKey() : null;
+            if (openedKey == null || !openedKey.equals(publicKey)) {
+                // another account, nothing known about its chain yet
+                frontier = null;
+            }
+            publicKey = openedKey;
+            blockCount = -1;
+            mainHandler.post(() -> {
+                wallet.setBlockCount(-1);
+                wallet.setPublicKey(openedKey);
+            });
+            // the wallet may have been cleared, hand it the history even if nothing is new
+            historyPostPending = true;
+            bulkReceiveDiverged = false;
+
+            // back in the foreground, keep the socket or connect right away
+            closeRequested = false;
+            serviceHandler.removeCallbacks(pauseCloseTask);
+            if (wsDisconnected()) {
+                // a new session, with the settings as they are now and a full budget
+                pendingAdmission = new PendingAdmission(sharedPreferencesUtil.getMinReceiveAmount(), sharedPreferencesUtil.getReceiveBudget());
+                postDeferredCount();
+                cancelReconnect();
+                initWebSocket();
+            } else {
+                requestUpdate();
+            }
+        });
     }
 
     /**
@@ -138,53 +302,83 @@ public class AccountService {
         // create websocket
         URI wssUri;
         try {
-            wssUri = new URI(BuildConfig.CONNECTION_URL);
+            wssUri = new URI(connectionUrl);
         } catch (URISyntaxException use) {
             Timber.e(use);
             return;
         }
         Map<String, String> httpHeaders = new HashMap<>();
         httpHeaders.put("X-Client-Version", Integer.toString(BuildConfig.VERSION_CODE));
-        websocket = new WebSocketClient(wssUri, httpHeaders) {
+        MeteredDraft draft = new MeteredDraft(transportStats, sharedPreferencesUtil.isSocketCompression());
+        websocket = new WebSocketClient(wssUri, draft, httpHeaders) {
             @Override
             public void onOpen(ServerHandshake handshakedata) {
-                isConnecting = false;
-                Timber.d("OPENED");
-                requestUpdate();
+                WebSocketClient client = this;
+                execute(() -> {
+                    if (client != websocket) {
+                        return;
+                    }
+                    isConnecting = false;
+                    Timber.d("OPENED");
+                    if (closeRequested) {
+                        // paused while connecting
+                        closeSocket();
+                        return;
+                    }
+                    connectionManager.onConnected(System.currentTimeMillis());
+                    metrics.connected();
+                    // anything left over from before the reconnect is queued again below
+                    for (RequestItem item : requestQueue.snapshot()) {
+                        Object request = item.getRequest();
+                        if (!item.isProcessing() && !item.isFromTransfer() && !item.isFromAudit() &&
+                                (request instanceof SubscribeRequest || request instanceof AccountHistoryRequest ||
+                                        request instanceof PendingTransactionsRequest)) {
+                            removeRequest(item);
+                        }
+                    }
+                    requestUpdate();
+                });
             }
 
             @Override
             public void onMessage(String message) {
                 Timber.d("RECEIVED %s", message);
-                handleMessage(message);
+                enqueueMessage(message);
             }
 
             @Override
             public void onClose(int code, String reason, boolean remote) {
-                isConnecting = false;
-                switch (code) {
-                    case 1000: // CLOSE_NORMAL
-                        Timber.d("CLOSED");
-                        break;
-                    default: // Abnormal closure
-                        break;
-                }
+                WebSocketClient client = this;
+                execute(() -> {
+                    if (client != websocket) {
+                        return;
+                    }
+                    isConnecting = false;
+                    Timber.d("socket %s", transportStats);
+                    switch (code) {
+                        case 1000: // CLOSE_NORMAL
+                            Timber.d("CLOSED");
+                            break;
+                        default: // Abnormal closure
+                            Timber.d("CLOSED %d %s", code, reason);
+                            break;
+                    }
+                    handleDisconnect();
+                });
             }
 
             @Override
             public void onError(Exception ex) {
                 ExceptionHandler.handle(ex);
-                if (wsDisconnected()) {
-                    post(new SocketError(ex));
-                    close();
-                    if (requestQueue != null) {
-                        requestQueue.clear();
+                WebSocketClient client = this;
+                execute(() -> {
+                    if (client == websocket) {
+                        lastSocketError = ex;
                     }
-                    checkState();
-                }
+                });
             }
         };
-        websocket.setConnectionLostTimeout(5);
+        websocket.setConnectionLostTimeout(connectionManager.getHeartbeatSeconds());
         websocket.connect();
         isConnecting = true;
     }
@@ -196,77 +390,227 @@ public class AccountService {
      */
     private void handleMessage(String message) {
         // deserialize message if possible
-         BaseResponse event = null;
+        BaseResponse event = null;
         try {
-            event = gson.fromJson(message, BaseResponse.class);
-        } catch (JsonSyntaxException e) {
+            if (responseParser == null) {
+                responseParser = new ResponseParser(gson);
+            }
+            // replies are bound to the type their request expects, only pushed messages are sniffed
+            JsonObject json = responseParser.read(message);
+            Integer id = ResponseParser.idOf(json);
+            RequestItem requestItem = id != null ? inFlight.get(id) : null;
+            event = responseParser.bind(json, requestItem != null ? requestItem.getResponseType() : null);
+        } catch (JsonParseException e) {
             ExceptionHandler.handle(e);
         }
 
         if (event != null && event.getMessageType() == null) {
-            // try parsing to a linked tree map object if event type is null
-            // for now, these are the blocks that come back from a pending request
-            handleNullMessageTypes(message);
-        } else if (event != null && event instanceof WorkResponse) {
-            // process a work response
-            handleWorkResponse((WorkResponse) event);
+            // a response we don't know the type of, still answers a request
+            handleNullMessageTypes(event);
         } else if (event != null && event instanceof TransactionResponse) {
             // a transaction was pushed to the app via the socket
             TransactionResponse transactionResponse = (TransactionResponse) event;
             PendingTransactionResponseItem pendingTransactionResponseItem = new PendingTransactionResponseItem(
                     transactionResponse.getAccount(), transactionResponse.getAmount(), transactionResponse.getHash());
             if (transactionResponse.getIs_send().equals("true")) {
-                handleTransactionResponse(pendingTransactionResponseItem);
+                if (getPendingAdmission().admit(pendingTransactionResponseItem)) {
+                    handleTransactionResponse(pendingTransactionResponseItem);
+                } else {
+                    postDeferredCount();
+                }
+            }
+        } else if (event instanceof CurrentPriceResponse) {
+            // current price response is sent without a request, often faster than it can be shown
+            long delay = priceConflator.offer((CurrentPriceResponse) event, System.currentTimeMillis());
+            if (delay >= 0) {
+                serviceHandler.postDelayed(priceFlushTask, delay);
             }
-        } else if (event != null && event instanceof ProcessResponse) {
-            handleProcessResponse((ProcessResponse) event);
-        } else if (event != null &&
-                event instanceof BlocksInfoResponse) {
-            handleBlocksInfoResponse((BlocksInfoResponse) event);
-        } else if (event != null &&
-                event instanceof AccountsBalancesResponse) {
-            handleAccountsBalancesResponse((AccountsBalancesResponse) event);
-        } else if (event != null &&
-                event instanceof AccountHistoryResponse) {
-            handleAccountHistoryResponse((AccountHistoryResponse) event);
-        } else if (event != null &&
-                event instanceof PendingTransactionResponse) {
-            handlePendingResponse((PendingTransactionResponse) event);
+            processQueue();
+        } else if (event instanceof WarningResponse) {
+            // warnings are sent in addition to the actual response
+            post(event);
+            processQueue();
         } else {
-            // update block count on subscribe request
-            if (event instanceof SubscribeResponse) {
-                if (((SubscribeResponse) event).getBlock_count() != null) {
-                    updateBlockCount(((SubscribeResponse) event).getBlock_count());
+            // everything else answers one of our requests
+            RequestItem requestItem = matchResponse(event != null ? event.getId() : null);
+            if (event instanceof WorkResponse) {
+                handleWorkResponse(requestItem, (WorkResponse) event);
+            } else if (event instanceof ProcessResponse) {
+                handleProcessResponse(requestItem, (ProcessResponse) event);
+            } else if (event instanceof BlocksInfoResponse) {
+                handleBlocksInfoResponse(requestItem, (BlocksInfoResponse) event);
+            } else if (event instanceof AccountsBalancesResponse) {
+                handleAccountsBalancesResponse(requestItem, (AccountsBalancesResponse) event);
+            } else if (event instanceof AccountHistoryResponse) {
+                handleAccountHistoryResponse(requestItem, (AccountHistoryResponse) event);
+            } else if (event instanceof PendingTransactionResponse) {
+                handlePendingResponse(requestItem, (PendingTransactionResponse) event);
+            } else {
+                // update block count on subscribe request
+                if (event instanceof SubscribeResponse) {
+                    if (((SubscribeResponse) event).getBlock_count() != null) {
+                        updateBlockCount(((SubscribeResponse) event).getBlock_count());
+                    }
+                    if (((SubscribeResponse) event).getFrontier() != null) {
+                        updateFrontier(((SubscribeResponse) event).getFrontier());
+                    }
                 }
-                if (((SubscribeResponse) event).getFrontier() != null) {
-                    updateFrontier(((SubscribeResponse) event).getFrontier());
+
+                // post whatever the response type is to the bus, a chained receive failing
+                // is handled here and isn't anything the screens asked for
+                if (event != null && (requestItem == null || !requestItem.isPipelined())) {
+                    post(event);
                 }
-            }
 
-            // post whatever the response type is to the bus
-            if (event != null) {
-                post(event);
+                // remove item from queue and process
+                completeRequest(requestItem);
+                if (requestItem != null && requestItem.isFromAudit()) {
+                    abortLedgerAudit("unexpected response while fetching blocks");
+                } else if (requestItem != null && requestItem.isPipelined()) {
+                    abortBulkReceive("block turned down");
+                }
+                processQueue();
             }
+        }
+    }
 
-            // remove item from queue and process
-            // current price response is sent without a request and warnings are
-            // sent in addition to the actual response
-            if (!(event instanceof CurrentPriceResponse) &&
-                    !(event instanceof WarningResponse)) {
-                requestQueue.poll();
-            }
-            processQueue();
+    /**
+     * Find the request a response belongs to. Responses carrying an id are matched by id,
+     * others are taken to answer the oldest request in flight.
+     *
+     * @param id Request id echoed by the server, may be null
+     * @return Request item, or null if the request is no longer queued
+     */
+    private RequestItem matchResponse(Integer id) {
+        if (id != null) {
+            serverEchoesIds = true;
         }
+        // the request may have timed out or been answered some other way meanwhile
+        RequestItem requestItem = inFlight.match(id);
+        if (requestItem == null) {
+            return null;
+        }
+        metrics.recordLatency(requestItem.getRequest(), System.currentTimeMillis() - requestItem.getSentTime());
+        return requestItem;
+    }
+
+    /**
+     * Remove an answered request from the queue
+     *
+     * @param requestItem Request item, may be null
+     */
+    private void completeRequest(RequestItem requestItem) {
+        if (requestItem != null) {
+            removeRequest(requestItem);
+        }
+    }
+
+    /**
+     * Take a request off the queue and stop waiting for a response to it. A response
+     * without an id would otherwise be matched to it instead of the request it answers.
+     *
+     * @param requestItem Request item
+     */
+    private void removeRequest(RequestItem requestItem) {
+        requestQueue.remove(requestItem);
+        inFlight.remove(requestItem);
+    }
+
+    /**
+     * Set the server to connect to, used from the next connection on
+     *
+     * @param connectionUrl Socket url, {@link BuildConfig#CONNECTION_URL} by default
+     */
+    public void setConnectionUrl(String connectionUrl) {
+        execute(() -> this.connectionUrl = connectionUrl);
+    }
+
+    /**
+     * Set whether more than one request may be waiting for a response at the same time.
+     * Even when on, requests are only sent together once the server echoes request ids.
+     *
+     * @param pipelining true to send up to {@link #setMaxInFlight} requests at once
+     */
+    public void setPipelining(boolean pipelining) {
+        execute(() -> {
+            this.pipelining = pipelining;
+            processQueue();
+        });
+    }
+
+    /**
+     * Set how many requests may be waiting for a response at the same time. Only used with
+     * pipelining on, once the server echoes request ids.
+     *
+     * @param maxInFlight Maximum requests in flight, at least 1
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        execute(() -> {
+            this.maxInFlight = Math.max(1, maxInFlight);
+            processQueue();
+        });
     }
 
     /**
-     * Post event to bus on UI thread
+     * Post event to bus on UI thread. Events posted before the UI thread gets to them are
+     * delivered together.
      *
      * @param event Object to post to bus
      */
     private void post(Object event) {
-        Handler handler = new Handler(Looper.getMainLooper());
-        handler.post(() -> RxBus.get().post(event));
+        uiEvents.add(event);
+        if (uiFlushScheduled.compareAndSet(false, true)) {
+            mainHandler.post(this::deliverUiEvents);
+        }
+    }
+
+    private void deliverUiEvents() {
+        // clear the flag first so an event added while delivering schedules another round
+        uiFlushScheduled.set(false);
+        Object event;
+        while ((event = uiEvents.poll()) != null) {
+            RxBus.get().post(event);
+        }
+    }
+
+    /**
+     * Run on the service thread, right away if already on it. All service state is only
+     * touched from the service thread.
+     *
+     * @param runnable Task
+     */
+    private void execute(Runnable runnable) {
+        if (Looper.myLooper() == serviceHandler.getLooper()) {
+            runnable.run();
+        } else {
+            serviceHandler.post(runnable);
+        }
+    }
+
+    /**
+     * Hand a socket message to the service thread. Messages that arrive while the service
+     * thread is busy are handled together in one go.
+     *
+     * @param message Websocket message
+     */
+    private void enqueueMessage(String message) {
+        inboundMessages.add(message);
+        if (inboundDrainScheduled.compareAndSet(false, true)) {
+            serviceHandler.post(this::drainMessages);
+        }
+    }
+
+    private void drainMessages() {
+        inboundDrainScheduled.set(false);
+        String message;
+        while ((message = inboundMessages.poll()) != null) {
+            try {
+                handleMessage(message);
+            } catch (RuntimeException e) {
+                // one bad message must not stop the ones after it
+                ExceptionHandler.handle(e);
+            }
+        }
     }
 
     /**
@@ -284,44 +628,80 @@ public class AccountService {
             if (wallet.getOpenBlock() == null && !queueContainsOpenBlock()) {
                 requestOpen("0", item.getHash(), balance);
             } else {
-                requestReceive(wallet.getFrontierBlock(), item.getHash(), balance);
+                requestReceive(getFrontier(), item.getHash(), balance);
             }
         }
     }
 
     /**
-     * When block info comes back. We need to verify the hash, amount, etc...
+     * When block info comes back. We need to verify the hash, amount, etc... of every block
+     * in the batch and build the blocks that were waiting on them.
      *
-     * @param blocksInfo BlocksInfoResponse Response
+     * @param requestItem Request the response belongs to
+     * @param blocksInfo  BlocksInfoResponse Response
      */
-    private void handleBlocksInfoResponse(BlocksInfoResponse blocksInfo) {
-        HashMap<String, BlockInfoItem> blocks = blocksInfo.getBlocks();
-        if (blocks.size() != 1) {
-            ExceptionHandler.handle(new Exception("unexpected amount of blocks in blocks_info response"));
-            requestQueue.poll();
+    private void handleBlocksInfoResponse(RequestItem requestItem, BlocksInfoResponse blocksInfo) {
+        if (requestItem != null && requestItem.isFromAudit()) {
+            handleAuditBlocksInfoResponse(requestItem, blocksInfo);
             return;
         }
-        String hash = blocks.keySet().iterator().next();
-        BlockInfoItem blockInfo = blocks.get(hash);
-        BlockItem block = gson.fromJson(blockInfo.getContents(), BlockItem.class);
+        // blocks resolved by this response go where the request was, ahead of later requests
+        RequestItem after = requestQueue.previous(requestItem);
+        completeRequest(requestItem);
+        if (requestItem == null || !(requestItem.getRequest() instanceof GetBlocksInfoRequest)) {
+            ExceptionHandler.handle(new Exception("Queue Error: blocks_info response without a blocks_info request"));
+            processQueue();
+            return;
+        }
+        String[] hashes = ((GetBlocksInfoRequest) requestItem.getRequest()).getHashes();
+        List<StateBlock> nextBlocks = previousPendingMap.remove(requestItem);
+        // look hashes up regardless of case
+        TreeMap<String, BlockInfoItem> blocks = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (blocksInfo.getBlocks() != null) {
+            blocks.putAll(blocksInfo.getBlocks());
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            String hash = hashes[i];
+            BlockInfoItem blockInfo = blocks.get(hash);
+            if (blockInfo == null) {
+                ExceptionHandler.handle(new Exception("block missing from blocks_info response"));
+                continue;
+            }
+            BlockItem block = gson.fromJson(blockInfo.getContents(), BlockItem.class);
+            if (!verifyBlockInfo(hash, blockInfo, block)) {
+                continue;
+            }
+            verifiedBlocks.put(hash, blockInfo.getBalance(), block.getRepresentative());
+            if (nextBlocks != null && i < nextBlocks.size()) {
+                after = queueNextBlock(after, nextBlocks.get(i), hash, blockInfo.getBalance(),
+                        block.getRepresentative(), requestItem.isFromTransfer());
+            }
+        }
+
+        processQueue();
+    }
 
+    /**
+     * Verify a block from a blocks_info response
+     *
+     * @param hash      Block hash
+     * @param blockInfo Block info
+     * @param block     Block contents
+     * @return true if the hash and balance check out
+     */
+    private boolean verifyBlockInfo(String hash, BlockInfoItem blockInfo, BlockItem block) {
+        if (block == null || block.getType() == null) {
+            ExceptionHandler.handle(new Exception("block info without block contents"));
+            return false;
+        }
         if (block.getType().equals(BlockTypes.STATE.toString())) {
-            String calculatedHash = KaliumUtil.computeStateHash(
-                    block.getAccount(),
-                    block.getPrevious(),
-                    block.getRepresentative(),
-                    block.getBalance(),
-                    block.getLink());
             if (!blockInfo.getBalance().equals(block.getBalance())) {
                 ExceptionHandler.handle(new Exception("balance in state block doesn't match balance in block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
-            if (!hash.equals(calculatedHash)) {
-                ExceptionHandler.handle(new Exception("balance in state block doesn't match balance in block info"));
+            if (!verifyStateHash(hash, block)) {
                 ExceptionHandler.handle(new Exception("state block hash doesn't match hash from block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
         } else if (block.getType().equals(BlockTypes.SEND.toString())) {
             String calculatedHash = KaliumUtil.computeSendHash(
@@ -330,360 +710,951 @@ public class AccountService {
                     block.getBalance());
             if (!blockInfo.getBalance().equals(NumberUtil.getRawFromHex(block.getBalance()))) {
                 ExceptionHandler.handle(new Exception("balance in send block doesn't match balance in block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
-            if (!hash.equals(calculatedHash)) {
+            if (!hash.equalsIgnoreCase(calculatedHash)) {
                 ExceptionHandler.handle(new Exception("send block hash doesn't match hash from block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
         } else if (block.getType().equals(BlockTypes.RECEIVE.toString())) {
             String calculatedHash = KaliumUtil.computeReceiveHash(block.getPrevious(), block.getSource());
-            if (!hash.equals(calculatedHash)) {
+            if (!hash.equalsIgnoreCase(calculatedHash)) {
                 ExceptionHandler.handle(new Exception("receive block hash doesn't match hash from block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
         } else if (block.getType().equals(BlockTypes.OPEN.toString())) {
             String calculatedHash = KaliumUtil.computeOpenHash(
                     block.getSource(),
                     KaliumUtil.addressToPublic(block.getRepresentative()),
                     KaliumUtil.addressToPublic(block.getAccount()));
-            if (!hash.equals(calculatedHash)) {
+            if (!hash.equalsIgnoreCase(calculatedHash)) {
                 ExceptionHandler.handle(new Exception("open block hash doesn't match hash from block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
         } else if (block.getType().equals(BlockTypes.CHANGE.toString())) {
             String calculatedHash = KaliumUtil.computeChangeHash(
                     block.getPrevious(),
                     KaliumUtil.addressToPublic(block.getRepresentative()));
-            if (!hash.equals(calculatedHash)) {
+            if (!hash.equalsIgnoreCase(calculatedHash)) {
                 ExceptionHandler.handle(new Exception("change block hash doesn't match hash from block info"));
-                requestQueue.poll();
-                return;
+                return false;
             }
         } else {
             ExceptionHandler.handle(new Exception("unexpected block type " + block.getType()));
-            requestQueue.poll();
-            return;
+            return false;
         }
+        return true;
+    }
 
-        RequestItem lastRequest = requestQueue.poll();
-        StateBlock nextBlock = previousPendingMap.get(hash);
-        if (nextBlock != null) {
-            if (block.getRepresentative() != null) {
-                nextBlock.setRepresentative(block.getRepresentative());
-            }
-            nextBlock.setPrevious(hash);
-            if (nextBlock.getInternal_block_type() == BlockTypes.SEND) {
-                if (nextBlock.getSendAmount().equals("0")) {
-                    nextBlock.setBalance("0");
-                } else {
-                    nextBlock.setBalance(
-                            new BigInteger(blockInfo.getBalance())
-                                    .subtract(new BigInteger(nextBlock.getSendAmount()))
-                                    .toString()
-                    );
-                }
+    /**
+     * Finish a block now that its previous block is known and queue it for processing
+     *
+     * @param after          Queued request the block's requests go behind, null to go first
+     * @param nextBlock      Block waiting on its previous block
+     * @param previous       Previous hash
+     * @param balance        Balance after the previous block
+     * @param representative Representative of the previous block, may be null
+     * @param fromTransfer   true if the block is part of a transfer
+     * @return Last of the block's requests
+     */
+    private RequestItem queueNextBlock(RequestItem after, StateBlock nextBlock, String previous, String balance,
+                               String representative, boolean fromTransfer) {
+        if (representative != null) {
+            nextBlock.setRepresentative(representative);
+        }
+        nextBlock.setPrevious(previous);
+        if (nextBlock.getInternal_block_type() == BlockTypes.SEND) {
+            if (nextBlock.getSendAmount().equals("0")) {
+                nextBlock.setBalance("0");
             } else {
                 nextBlock.setBalance(
-                        new BigInteger(blockInfo.getBalance())
-                                .add(new BigInteger(nextBlock.getSendAmount()))
+                        new BigInteger(balance)
+                                .subtract(new BigInteger(nextBlock.getSendAmount()))
                                 .toString()
                 );
             }
-            previousPendingMap.remove(hash);
-            ProcessRequest prq = new ProcessRequest(gson.toJson(nextBlock), true);
-            RequestItem<ProcessRequest> requestItem = new RequestItem<>(prq);
-            if (lastRequest.isFromTransfer()) {
-                requestItem.setFromTransfer(true);
+        } else {
+            nextBlock.setBalance(
+                    new BigInteger(balance)
+                            .add(new BigInteger(nextBlock.getSendAmount()))
+                            .toString()
+            );
+        }
+        pendingResponseBlockMap.put(nextBlock.getPrevious(), nextBlock);
+        if (bulkReceive != null && nextBlock == bulkReceive.getAnchor()) {
+            return queueBulkReceive(after);
+        }
+        // process before anything queued after, later blocks may chain off this one
+        return queueProcessRequest(after, nextBlock, fromTransfer);
+    }
+
+    /**
+     * The anchor of the bulk receive is built, chain the rest of the receives on it and
+     * queue them all
+     *
+     * @param after Queued request the anchor's requests go behind, null to go first
+     * @return Last of the chain's requests
+     */
+    private RequestItem queueBulkReceive(RequestItem after) {
+        after = queueProcessRequest(after, bulkReceive.getAnchor(), false, true);
+        for (StateBlock block : bulkReceive.chain(private_key, System.currentTimeMillis())) {
+            pendingResponseBlockMap.put(block.getPrevious(), block);
+            after = queueProcessRequest(after, block, false, true);
+        }
+        Timber.d("bulk receive of %d blocks", bulkReceive.getSize());
+        return after;
+    }
+
+    /**
+     * Start receiving a backlog of pending blocks as one chain
+     *
+     * @param items Pending blocks of our account
+     * @return true if the blocks are taken care of
+     */
+    private boolean startBulkReceive(List<PendingTransactionResponseItem> items) {
+        if (locked || bulkReceive != null || bulkReceiveDiverged || wallet.getOpenBlock() == null) {
+            return false;
+        }
+        List<PendingTransactionResponseItem> fresh = new ArrayList<>();
+        for (PendingTransactionResponseItem item : items) {
+            if (!queueContainsRequestWithHash(item.getHash())) {
+                fresh.add(item);
             }
-            pendingResponseBlockMap.put(nextBlock.getPrevious(), nextBlock);
-            requestQueue.add(requestItem);
         }
+        if (fresh.size() < BulkReceive.MIN_BLOCKS) {
+            return false;
+        }
+        PendingTransactionResponseItem first = fresh.remove(0);
+        StateBlock anchor = new StateBlock(
+                BlockTypes.RECEIVE,
+                private_key,
+                getFrontier(),
+                wallet.getRepresentative(),
+                first.getAmount(),
+                first.getHash()
+        );
+        bulkReceive = new BulkReceive(anchor, fresh);
+        // only the frontier the chain starts from is verified
+        queueBlocksInfoRequest(getFrontier(), anchor, false);
+        return true;
+    }
 
-        processQueue();
+    /**
+     * Give up on the bulk receive after one of its blocks failed. Blocks after it can't be
+     * processed either, so they're dropped and the pending blocks are fetched again to be
+     * received through the verified path.
+     *
+     * @param reason Why
+     */
+    private void abortBulkReceive(String reason) {
+        if (bulkReceive == null) {
+            return;
+        }
+        Timber.d("bulk receive stopped after %d of %d blocks: %s", bulkReceive.getConfirmed(), bulkReceive.getSize(), reason);
+        bulkReceive = null;
+        bulkReceiveDiverged = true;
+        for (RequestItem item : requestQueue.snapshot()) {
+            if (!item.isPipelined()) {
+                continue;
+            }
+            if (item == localWorkItem) {
+                cancelLocalWork();
+            }
+            if (item.getRequest() instanceof ProcessRequest) {
+                StateBlock block = gson.fromJson(((ProcessRequest) item.getRequest()).getBlock(), StateBlock.class);
+                if (block != null) {
+                    pendingResponseBlockMap.remove(block.getPrevious());
+                }
+            }
+            removeRequest(item);
+            requestCounters.drop();
+        }
+        requestSubscribe();
+        requestPending();
+    }
+
+    /**
+     * Prepare a blocks_info request about to be sent. Consecutive transfer requests are merged
+     * into one batch, and blocks whose previous block is in the verified cache are built
+     * right away.
+     *
+     * @param requestItem Blocks info request about to be sent
+     * @return true if nothing is left to fetch and the request was removed from the queue
+     */
+    private boolean prepareBlocksInfoRequest(RequestItem<GetBlocksInfoRequest> requestItem) {
+        List<String> hashes = new ArrayList<>(Arrays.asList(requestItem.getRequest().getHashes()));
+        List<StateBlock> nextBlocks = previousPendingMap.remove(requestItem);
+        if (nextBlocks == null) {
+            nextBlocks = new ArrayList<>();
+        }
+        if (requestItem.isFromTransfer()) {
+            // transfer blocks are on different chains, so they don't depend on each other
+            RequestItem next;
+            while ((next = requestQueue.next(requestItem)) != null && hashes.size() < MAX_BLOCKS_INFO_BATCH) {
+                if (!(next.getRequest() instanceof GetBlocksInfoRequest) || !next.isFromTransfer()
+                        || next.isFromAudit() || next.isProcessing()) {
+                    break;
+                }
+                removeRequest(next);
+                List<StateBlock> merged = previousPendingMap.remove(next);
+                String[] mergedHashes = ((GetBlocksInfoRequest) next.getRequest()).getHashes();
+                for (int i = 0; i < mergedHashes.length; i++) {
+                    hashes.add(mergedHashes[i]);
+                    StateBlock mergedBlock = merged != null && i < merged.size() ? merged.get(i) : null;
+                    nextBlocks.add(mergedBlock);
+                    requestQueue.attach(requestItem, mergedBlock);
+                }
+            }
+        }
+
+        List<String> uncachedHashes = new ArrayList<>();
+        List<StateBlock> uncachedBlocks = new ArrayList<>();
+        List<StateBlock> resolvedBlocks = new ArrayList<>();
+        List<VerifiedBlockCache.Entry> resolvedEntries = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            StateBlock nextBlock = i < nextBlocks.size() ? nextBlocks.get(i) : null;
+            VerifiedBlockCache.Entry entry = verifiedBlocks.get(hashes.get(i));
+            if (entry != null && nextBlock != null) {
+                nextBlock.setPrevious(hashes.get(i));
+                resolvedBlocks.add(nextBlock);
+                resolvedEntries.add(entry);
+            } else {
+                uncachedHashes.add(hashes.get(i));
+                uncachedBlocks.add(nextBlock);
+            }
+        }
+
+        boolean done = uncachedHashes.isEmpty();
+        // the remaining request stays in front of the blocks
+        RequestItem after = requestItem;
+        if (done) {
+            after = requestQueue.previous(requestItem);
+            removeRequest(requestItem);
+        } else {
+            requestItem.getRequest().setHashes(uncachedHashes.toArray(new String[0]));
+            previousPendingMap.put(requestItem, uncachedBlocks);
+        }
+        for (int i = 0; i < resolvedBlocks.size(); i++) {
+            StateBlock nextBlock = resolvedBlocks.get(i);
+            VerifiedBlockCache.Entry entry = resolvedEntries.get(i);
+            after = queueNextBlock(after, nextBlock, nextBlock.getPrevious(), entry.getBalance(),
+                    entry.getRepresentative(), requestItem.isFromTransfer());
+        }
+        return done;
+    }
+
+    /**
+     * Recompute the hash of a state block and compare it to the expected hash
+     *
+     * @param hash  Expected hash
+     * @param block State block contents
+     * @return true if the computed hash matches
+     */
+    private boolean verifyStateHash(String hash, BlockItem block) {
+        byte[] account = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] previous = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] representative = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] balance = new byte[KaliumUtil.BALANCE_LENGTH];
+        byte[] link = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] expected = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] calculated = new byte[KaliumUtil.HASH_LENGTH];
+        try {
+            KaliumUtil.addressToPublic(block.getAccount(), account);
+            KaliumUtil.hexToBytes(block.getPrevious(), previous);
+            KaliumUtil.addressToPublic(block.getRepresentative(), representative);
+            KaliumUtil.rawToBytes(new BigInteger(block.getBalance()), balance);
+            KaliumUtil.hexToBytes(block.getLink(), link);
+            KaliumUtil.hexToBytes(hash, expected);
+        } catch (IllegalArgumentException e) {
+            ExceptionHandler.handle(e);
+            return false;
+        }
+        KaliumUtil.computeStateHash(account, previous, representative, balance, link, calculated);
+        return Arrays.equals(expected, calculated);
     }
 
     /**
      * When balances come back we need to emit the data for each account/balance/pending
      *
+     * @param requestItem      Request the response belongs to
      * @param balancesResponse AccountsBalancesResponse Response
      */
-    private void handleAccountsBalancesResponse(AccountsBalancesResponse balancesResponse) {
+    private void handleAccountsBalancesResponse(RequestItem requestItem, AccountsBalancesResponse balancesResponse) {
         post(balancesResponse);
-        requestQueue.poll();
+        completeRequest(requestItem);
         processQueue();
     }
 
     /**
      * Handle account history response, to see if it's for our account or a different one
      *
+     * @param requestItem            Request the response belongs to
      * @param accountHistoryResponse AccountHistoryResponse Response
      */
-    private void handleAccountHistoryResponse(AccountHistoryResponse accountHistoryResponse) {
+    private void handleAccountHistoryResponse(RequestItem requestItem, AccountHistoryResponse accountHistoryResponse) {
         // See what resulted in this response
-        RequestItem requestItem = requestQueue.peek();
-        if (requestItem.getRequest() instanceof AccountHistoryRequest) {
+        if (requestItem != null && requestItem.getRequest() instanceof AccountHistoryRequest) {
             AccountHistoryRequest origRequest = (AccountHistoryRequest)requestItem.getRequest();
-            if (requestItem.isFromTransfer()) {
+            if (requestItem.isFromAudit()) {
+                completeRequest(requestItem);
+                if (ledgerAudit != null) {
+                    queueAuditBlocks(ledgerAudit.addHistory(accountHistoryResponse));
+                }
+                processQueue();
+                return;
+            } else if (requestItem.isFromTransfer()) {
                 post(new TransferHistoryResponse(accountHistoryResponse, origRequest.getAccount()));
+            } else if (requestItem == historySyncItem) {
+                completeRequest(requestItem);
+                historySyncItem = null;
+                handleHistoryPage(origRequest, accountHistoryResponse);
+                processQueue();
+                return;
             } else {
                 post(accountHistoryResponse);
             }
         } else {
             post(accountHistoryResponse);
         }
-        requestQueue.poll();
+        completeRequest(requestItem);
         processQueue();
     }
 
-
     /**
-     * Here is where we handle any work response that comes back
+     * Merge a page of our history and fetch the next one
      *
-     * @param workResponse Work response
+     * @param request  Request the page was fetched with
+     * @param response Page of history
      */
-    private void handleWorkResponse(WorkResponse workResponse) {
-        Handler handler = new Handler(Looper.getMainLooper());
-        handler.post(() -> {
-            // work response received so remove that work item from the queue
-            requestQueue.poll();
+    private void handleHistoryPage(AccountHistoryRequest request, AccountHistoryResponse response) {
+        if (historySync == null || !historySync.getAccount().equals(request.getAccount())) {
+            return;
+        }
+        if (historySync.onPage(request, response) || (historyPostPending && historySync.next() == null)) {
+            historyPostPending = false;
+            AccountHistoryResponse merged = new AccountHistoryResponse(historySync.getHistory());
+            merged.setPrevious(historySync.getPrevious());
+            post(merged);
+        }
+        if (historyResyncRequested) {
+            syncHistory();
+        } else {
+            AccountHistoryRequest next = historySync.next();
+            if (next != null) {
+                queueHistoryPage(next);
+            }
+        }
+    }
 
-            // make sure the next item is a Block type and update the work on that type
-            RequestItem nextBlockRequest = requestQueue.peek();
-            if (nextBlockRequest != null && nextBlockRequest.getRequest() instanceof Block) {
-                ((Block) nextBlockRequest.getRequest()).setWork(workResponse.getWork());
-            } else {
-                if (requestQueue.size() > 1) {
-                    nextBlockRequest = requestQueue.get(1);
-                    if (nextBlockRequest != null && nextBlockRequest.getRequest() instanceof Block) {
-                        ((Block) nextBlockRequest.getRequest()).setWork(workResponse.getWork());
+    /**
+     * Add fetched blocks to the audit. Once no more audit requests are queued, fetch whatever
+     * the chain is still missing or start verifying it.
+     *
+     * @param requestItem Request the response belongs to
+     * @param blocksInfo  BlocksInfoResponse Response
+     */
+    private void handleAuditBlocksInfoResponse(RequestItem requestItem, BlocksInfoResponse blocksInfo) {
+        completeRequest(requestItem);
+        if (ledgerAudit != null) {
+            ledgerAudit.addBlocks(blocksInfo.getBlocks());
+            if (!queueContainsAuditRequest()) {
+                try {
+                    List<String[]> missing = ledgerAudit.nextMissing();
+                    if (missing.isEmpty()) {
+                        LedgerAudit audit = ledgerAudit;
+                        ledgerAudit = null;
+                        auditRunning.set(false);
+                        auditExecutor.execute(() -> post(audit.verify()));
                     } else {
-                        // Work was submitted without a block request following - should never happen
-                        ExceptionHandler.handle(new Exception("Queue Error: work was submitted without a block request following"));
+                        queueAuditBlocks(missing);
                     }
-                } else {
-                    // Work was submitted without a block request following - should never happen
-                    ExceptionHandler.handle(new Exception("Queue Error: work was submitted without a block request following"));
+                } catch (IllegalStateException e) {
+                    abortLedgerAudit(e.getMessage());
                 }
             }
+        }
+        processQueue();
+    }
+
+    private void queueAuditBlocks(List<String[]> batches) {
+        for (String[] hashes : batches) {
+            RequestItem<GetBlocksInfoRequest> requestItem = new RequestItem<>(new GetBlocksInfoRequest(hashes));
+            requestItem.setFromAudit(true);
+            requestQueue.add(requestItem);
+        }
+        if (batches.isEmpty() && ledgerAudit != null) {
+            // nothing to fetch, the account isn't open
+            LedgerAudit audit = ledgerAudit;
+            ledgerAudit = null;
+            auditRunning.set(false);
+            post(audit.verify());
+        }
+    }
+
+    private boolean queueContainsAuditRequest() {
+        for (RequestItem item : requestQueue) {
+            if (item.isFromAudit()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void abortLedgerAudit(String reason) {
+        if (ledgerAudit == null) {
+            return;
+        }
+        ExceptionHandler.handle(new Exception("ledger audit failed: " + reason));
+        post(new LedgerAuditResult(ledgerAudit.getAccount(), false, 0, null, reason, 0));
+        ledgerAudit = null;
+        auditRunning.set(false);
+        for (RequestItem item : requestQueue.snapshot()) {
+            if (item.isFromAudit() && !item.isProcessing()) {
+                removeRequest(item);
+            }
+        }
+    }
+
+
+    /**
+     * Here is where we handle any work response that comes back
+     *
+     * @param requestItem  Request the response belongs to
+     * @param workResponse Work response
+     */
+    private void handleWorkResponse(RequestItem requestItem, WorkResponse workResponse) {
+        if (requestItem == null || !requestQueue.contains(requestItem)) {
+            // local work already won the race for this request, or it timed out
             processQueue();
-        });
+            return;
+        }
+        cancelLocalWork();
+        applyWork(requestItem, workResponse.getWork());
     }
 
     /**
-     * When a STATE block comes back successfully with a hash
+     * Remove the work item from the queue and put the work on the block request following it
      *
-     * @param processResponse Process Response
+     * @param workItem Work request item
+     * @param work     Work
      */
-    private void handleProcessResponse(ProcessResponse processResponse) {
-        Handler handler = new Handler(Looper.getMainLooper());
-        handler.post(() -> {
-            // see what type of request sent this response
-            RequestItem requestItem = requestQueue.peek();
-            if (requestItem != null) {
-                StateBlock blockRequest = null;
-                if (requestItem.getRequest() instanceof ProcessRequest) {
-                    blockRequest = gson.fromJson(((ProcessRequest) requestItem.getRequest()).getBlock(), StateBlock.class);
-                    if (blockRequest != null) {
-                        StateBlock previous = pendingResponseBlockMap.get(blockRequest.getPrevious());
-                        if (previous != null) {
-                            pendingResponseBlockMap.remove(blockRequest.getPrevious());
-                            requestItem.setRequest(previous);
-                        }
-                    }
-                }
-                if (requestItem.getRequest() instanceof StateBlock && !requestItem.isFromTransfer()) {
-                    StateBlock requestBlock = (StateBlock) requestItem.getRequest();
-                    if (requestBlock.getInternal_block_type().equals(BlockTypes.OPEN)) {
-                        updateFrontier(processResponse.getHash());
-                        updateBlockCount(1);
-                    } else {
-                        updateFrontier(processResponse.getHash());
-                        updateBlockCount(wallet.getBlockCount() + 1);
-                        post(processResponse);
-                    }
+    private void applyWork(RequestItem workItem, String work) {
+        // work received so remove that work item from the queue
+        RequestItem nextBlockRequest = requestQueue.next(workItem);
+        completeRequest(workItem);
+
+        // make sure the next item is a Block type and update the work on that type
+        if (nextBlockRequest != null && !isBlockRequest(nextBlockRequest)) {
+            nextBlockRequest = requestQueue.next(nextBlockRequest);
+        }
+        if (nextBlockRequest != null && nextBlockRequest.getRequest() instanceof ProcessRequest) {
+            ProcessRequest processRequest = (ProcessRequest) nextBlockRequest.getRequest();
+            StateBlock block = gson.fromJson(processRequest.getBlock(), StateBlock.class);
+            block.setWork(work);
+            processRequest.setBlock(gson.toJson(block));
+            processRequest.setDoWork(false);
+        } else if (nextBlockRequest != null && nextBlockRequest.getRequest() instanceof Block) {
+            ((Block) nextBlockRequest.getRequest()).setWork(work);
+        } else {
+            // Work was submitted without a block request following - should never happen
+            ExceptionHandler.handle(new Exception("Queue Error: work was submitted without a block request following"));
+        }
+        processQueue();
+    }
 
-                    requestSubscribe();
-                    requestAccountHistory();
-                } else if (requestItem.getRequest() instanceof StateBlock && requestItem.isFromTransfer()) {
-                    StateBlock requestBlock = (StateBlock) requestItem.getRequest();
-                    post(new TransferProcessResponse(requestBlock.getAccount(), processResponse.getHash(), requestBlock.getBalance()));
-                } else {
-                    // something is out of sync if this wasn't a block - should never happen
-                    ExceptionHandler.handle(new Exception("Queue Error: something is out of sync if this wasn't a block"));
-                }
-            }
-            requestQueue.poll();
-            processQueue();
-        });
+    private boolean isBlockRequest(RequestItem requestItem) {
+        return requestItem.getRequest() instanceof Block || requestItem.getRequest() instanceof ProcessRequest;
     }
 
     /**
-     * Objects that are not mapped to a known response can be processed here
+     * Start generating work locally for a work request. If the request is also sent to the
+     * server, whichever answers first wins and the other answer is dropped. The server keeps
+     * its usual timeout, after that only the local generator is waited for.
      *
-     * @param message Websocket Message
+     * @param workItem     Work request item
+     * @param sentToServer true if the request is also sent to the server
      */
-    private void handleNullMessageTypes(String message) {
-        try {
-            Object o = gson.fromJson(message, Object.class);
-            if (o instanceof LinkedTreeMap) {
-                processLinkedTreeMap((LinkedTreeMap) o);
-            } else {
-                requestQueue.poll();
-                processQueue();
-            }
-        } catch (JsonSyntaxException e) {
-            ExceptionHandler.handle(e);
-            requestQueue.poll();
-            processQueue();
+    private void startLocalWork(RequestItem<WorkRequest> workItem, boolean sentToServer) {
+        cancelLocalWork();
+        // interactive work goes first
+        workCache.cancel();
+        localWorkExpireTime = System.currentTimeMillis() + LOCAL_WORK_TIMEOUT_MILLISECONDS;
+        if (!sentToServer) {
+            workItem.setExpireTime(localWorkExpireTime);
         }
+        localWorkItem = workItem;
+        localWorkTask = workGenerator.generate(workItem.getRequest().getHash(), (hash, work) -> {
+            serviceHandler.post(() -> {
+                // ignore if the item was cancelled, timed out or answered by the server
+                if (localWorkItem != workItem || !requestQueue.contains(workItem)) {
+                    return;
+                }
+                localWorkItem = null;
+                localWorkTask = null;
+                metrics.recordLatency(workItem.getRequest(), System.currentTimeMillis() - workItem.getSentTime());
+                applyWork(workItem, work);
+            });
+        });
+    }
+
+    private void cancelLocalWork() {
+        if (localWorkTask != null) {
+            localWorkTask.cancel();
+        }
+        localWorkItem = null;
+        localWorkTask = null;
     }
 
     /**
-     * Process a linked tree map to see if there are pending blocks to handle
+     * When a STATE block comes back successfully with a hash
      *
-     * @param linkedTreeMap Linked Tree Map
-     */
-    private void processLinkedTreeMap(LinkedTreeMap linkedTreeMap) {
-        if (linkedTreeMap.containsKey("blocks")) {
-            // this is a set of blocks
-            Object blocks = linkedTreeMap.get("blocks");
-            if (blocks instanceof LinkedTreeMap) {
-                // blocks is not empty
-                Set keys = ((LinkedTreeMap) blocks).keySet();
-                for (Object key : keys) {
-                    try {
-                        PendingTransactionResponseItem pendingTransactionResponseItem = new Gson().fromJson(String.valueOf(((LinkedTreeMap) blocks).get(key)), PendingTransactionResponseItem.class);
-                        pendingTransactionResponseItem.setHash(key.toString());
-                        handleTransactionResponse(pendingTransactionResponseItem);
-                    } catch (Exception e) {
-                        ExceptionHandler.handle(e);
+     * @param requestItem     Request the response belongs to
+     * @param processResponse Process Response
+     */
+    private void handleProcessResponse(RequestItem requestItem, ProcessResponse processResponse) {
+        // see what type of request sent this response
+        if (requestItem != null) {
+            StateBlock blockRequest = null;
+            if (requestItem.getRequest() instanceof ProcessRequest) {
+                blockRequest = gson.fromJson(((ProcessRequest) requestItem.getRequest()).getBlock(), StateBlock.class);
+                if (blockRequest != null) {
+                    StateBlock previous = pendingResponseBlockMap.get(blockRequest.getPrevious());
+                    if (previous != null) {
+                        pendingResponseBlockMap.remove(blockRequest.getPrevious());
+                        requestItem.setRequest(previous);
                     }
                 }
             }
+            if (requestItem.getRequest() instanceof StateBlock) {
+                // the next block on this chain can be built without fetching this one
+                StateBlock requestBlock = (StateBlock) requestItem.getRequest();
+                verifiedBlocks.put(processResponse.getHash(), requestBlock.getBalance(), requestBlock.getRepresentative());
+            }
+            if (requestItem.getRequest() instanceof StateBlock && !requestItem.isFromTransfer()) {
+                StateBlock requestBlock = (StateBlock) requestItem.getRequest();
+                // in the middle of a bulk receive, catch up once the last block is in
+                boolean chainGoesOn = requestItem.isPipelined() && bulkReceive != null
+                        && !bulkReceive.confirm(System.currentTimeMillis());
+                if (requestItem.isPipelined() && !chainGoesOn) {
+                    finishBulkReceive();
+                }
+                if (requestBlock.getInternal_block_type().equals(BlockTypes.OPEN)) {
+                    updateFrontier(processResponse.getHash());
+                    updateBlockCount(1);
+                } else {
+                    updateFrontier(processResponse.getHash());
+                    updateBlockCount(blockCount != null ? blockCount + 1 : 1);
+                    post(processResponse);
+                }
+
+                if (!chainGoesOn) {
+                    scheduleRefresh();
+                }
+            } else if (requestItem.getRequest() instanceof StateBlock && requestItem.isFromTransfer()) {
+                StateBlock requestBlock = (StateBlock) requestItem.getRequest();
+                post(new TransferProcessResponse(requestBlock.getAccount(), processResponse.getHash(), requestBlock.getBalance()));
+            } else {
+                // something is out of sync if this wasn't a block - should never happen
+                ExceptionHandler.handle(new Exception("Queue Error: something is out of sync if this wasn't a block"));
+            }
         }
-        requestQueue.poll();
+        completeRequest(requestItem);
+        processQueue();
+    }
+
+    private void flushPrices() {
+        for (CurrentPriceResponse price : priceConflator.flush(System.currentTimeMillis())) {
+            post(price);
+        }
+    }
+
+    private void finishBulkReceive() {
+        if (bulkReceive == null) {
+            return;
+        }
+        receiveThroughput = bulkReceive.getBlocksPerSecond(System.currentTimeMillis());
+        Timber.d("bulk receive of %d blocks at %.1f blocks/s", bulkReceive.getSize(), receiveThroughput);
+        bulkReceive = null;
+    }
+
+    /**
+     * Objects that are not mapped to a known response can be processed here
+     *
+     * @param response Response without a known type
+     */
+    private void handleNullMessageTypes(BaseResponse response) {
+        completeRequest(matchResponse(response.getId()));
         processQueue();
     }
 
     /**
      * Handle pending response
+     *
+     * @param requestItem                Request the response belongs to
+     * @param pendingTransactionResponse Pending transactions
      */
-    private void handlePendingResponse(PendingTransactionResponse pendingTransactionResponse) {
-        RequestItem requestItem = requestQueue.peek();
+    private void handlePendingResponse(RequestItem requestItem, PendingTransactionResponse pendingTransactionResponse) {
+        if (requestItem == null) {
+            // the request is gone, don't guess whose pending blocks these are
+            processQueue();
+            return;
+        }
         if (requestItem.isFromTransfer()) {
             PendingTransactionsRequest pendingTransactionsRequest = (PendingTransactionsRequest)requestItem.getRequest();
             pendingTransactionResponse.setAccount(pendingTransactionsRequest.getAccount());
             post(pendingTransactionResponse);
         } else {
+            List<PendingTransactionResponseItem> items = new ArrayList<>();
             for (Map.Entry<String, PendingTransactionResponseItem> itemEntry : pendingTransactionResponse.getBlocks().entrySet()) {
                 PendingTransactionResponseItem pendingTransactionResponseItem = itemEntry.getValue();
                 pendingTransactionResponseItem.setHash(itemEntry.getKey());
-                handleTransactionResponse(pendingTransactionResponseItem);
+                items.add(pendingTransactionResponseItem);
+            }
+            receivePending(getPendingAdmission().admit(items));
+            postDeferredCount();
+        }
+        completeRequest(requestItem);
+        processQueue();
+    }
+
+    /**
+     * Receive pending blocks of our account, as one chain if there are enough of them
+     *
+     * @param items Pending blocks, largest first
+     */
+    private void receivePending(List<PendingTransactionResponseItem> items) {
+        if (!startBulkReceive(items)) {
+            for (PendingTransactionResponseItem item : items) {
+                handleTransactionResponse(item);
+            }
+        }
+    }
+
+    private PendingAdmission getPendingAdmission() {
+        if (pendingAdmission == null) {
+            pendingAdmission = new PendingAdmission(sharedPreferencesUtil.getMinReceiveAmount(), sharedPreferencesUtil.getReceiveBudget());
+        }
+        return pendingAdmission;
+    }
+
+    private void postDeferredCount() {
+        int count = pendingAdmission != null ? pendingAdmission.getDeferredCount() : 0;
+        if (count != deferredPendingCount) {
+            deferredPendingCount = count;
+            post(new PendingDeferred(count));
+        }
+    }
+
+    /**
+     * Receive the pending blocks that were held back, whatever their amount
+     */
+    public void receiveDeferred() {
+        execute(() -> {
+            if (pendingAdmission == null || locked) {
+                return;
             }
+            receivePending(pendingAdmission.release());
+            postDeferredCount();
+            processQueue();
+        });
+    }
+
+    public void setLock() {
+        execute(() -> {
+            locked = true;
+        });
+    }
+
+    public void unsetLock() {
+        execute(() -> {
+            locked = false;
+        });
+    }
+
+    /**
+     * Send queued requests while there is room in the in-flight window. Requests that build
+     * blocks (work, blocks_info and process) are sent one after the other, since each one
+     * depends on the one before. Everything else may overlap. The queue is walked from the
+     * front only until the window is full.
+     */
+    private void processQueue() {
+        int inFlightCount = inFlight.count();
+        metrics.sampleQueue(requestQueue.size(), inFlightCount);
+        int room = (pipelining && serverEchoesIds ? maxInFlight : 1) - inFlightCount;
+        long now = System.currentTimeMillis();
+        boolean blockChainBusy = false;
+        // same, but chained blocks already sent don't hold back the blocks chained after them
+        boolean pipelineBusy = false;
+        int pipelinedInFlight = 0;
+        boolean subscribing = false;
+        for (RequestItem requestItem = requestQueue.first(); requestItem != null && room > 0;
+             requestItem = requestQueue.next(requestItem)) {
+            if (!requestItem.isProcessing() && requestItem.getRetryTime() <= now
+                    && !isBlocked(requestItem, requestItem.isPipelined() ? pipelineBusy : blockChainBusy, subscribing)) {
+                // process item
+                if (wsDisconnected()) {
+                    checkState();
+                    return;
+                }
+                if (requestItem.getRequest() instanceof GetBlocksInfoRequest && !requestItem.isFromAudit()
+                        && prepareBlocksInfoRequest(requestItem)) {
+                    // built from verified blocks, no need to ask the server
+                    processQueue();
+                    return;
+                }
+                requestItem.setProcessing(true);
+                requestItem.setSentTime(now);
+                requestItem.setExpireTime(now + RequestPolicy.forRequest(requestItem.getRequest()).getTimeoutMillis());
+
+                boolean send = true;
+                if (requestItem.getRequest() instanceof WorkRequest) {
+                    WorkSource workSource = sharedPreferencesUtil.getWorkSource();
+                    send = workSource != WorkSource.LOCAL;
+                    if (workSource != WorkSource.SERVER) {
+                        startLocalWork(requestItem, send);
+                    }
+                }
+                if (send) {
+                    if (!wsSend(requestItem)) {
+                        return;
+                    }
+                    room--;
+                }
+                scheduleTimeout(requestItem);
+            }
+            // later requests that depend on this one have to wait for it
+            if (isBlockChainRequest(requestItem)) {
+                blockChainBusy = true;
+                if (requestItem.isPipelined() && requestItem.isProcessing() && isBlockRequest(requestItem)) {
+                    pipelineBusy |= ++pipelinedInFlight >= BulkReceive.MAX_PIPELINED;
+                } else {
+                    pipelineBusy = true;
+                }
+            } else if (requestItem.getRequest() instanceof SubscribeRequest) {
+                subscribing = true;
+            }
+        }
+    }
+
+    /**
+     * Fire the timeout of a request at its expire time, unless it was answered or sent
+     * again by then
+     *
+     * @param requestItem Request item that was just sent
+     */
+    private void scheduleTimeout(RequestItem requestItem) {
+        long deadline = requestItem.getExpireTime();
+        serviceHandler.postDelayed(() -> {
+            if (requestQueue.contains(requestItem) && requestItem.isProcessing()
+                    && requestItem.getExpireTime() == deadline) {
+                timeoutRequest(requestItem);
+                processQueue();
+            }
+        }, Math.max(0, deadline - System.currentTimeMillis()));
+    }
+
+    /**
+     * Send a request that got no response again after a backoff if its policy allows,
+     * otherwise drop it. Retries need the server to echo ids, a late response to an earlier
+     * attempt then still counts.
+     *
+     * @param requestItem Request item that timed out
+     */
+    private void timeoutRequest(RequestItem requestItem) {
+        requestCounters.timeout();
+        if (requestItem == localWorkItem && System.currentTimeMillis() < localWorkExpireTime) {
+            // the server lost the race, stop holding a slot for it and wait for local work
+            inFlight.remove(requestItem);
+            requestItem.setExpireTime(localWorkExpireTime);
+            scheduleTimeout(requestItem);
+            return;
+        }
+        RequestPolicy policy = RequestPolicy.forRequest(requestItem.getRequest());
+        if (requestItem != localWorkItem && serverEchoesIds && requestItem.getRetries() < policy.getMaxRetries()) {
+            int retry = requestItem.getRetries() + 1;
+            long backoff = policy.getBackoffMillis(retry);
+            requestItem.setRetries(retry);
+            requestItem.setRetryTime(System.currentTimeMillis() + backoff);
+            requestItem.setProcessing(false);
+            requestCounters.retry();
+            serviceHandler.postDelayed(this::processQueue, backoff);
+            return;
+        }
+        requestCounters.drop();
+        if (requestItem == localWorkItem) {
+            cancelLocalWork();
+        } else if (requestItem.isFromAudit()) {
+            abortLedgerAudit("request timed out");
+        }
+        previousPendingMap.remove(requestItem);
+        removeRequest(requestItem);
+        if (requestItem.isPipelined()) {
+            abortBulkReceive("request timed out");
         }
-        requestQueue.poll();
-        processQueue();
-    }
-
-    public void setLock() {
-        locked = true;
     }
 
-    public void unsetLock() {
-        locked = false;
+    private boolean isBlockChainRequest(RequestItem requestItem) {
+        Object request = requestItem.getRequest();
+        return request instanceof WorkRequest || isBlockRequest(requestItem)
+                || (request instanceof GetBlocksInfoRequest && !requestItem.isFromAudit());
     }
 
     /**
-     * Process the next item in the queue if item is not currently processing
+     * Check if a request has to wait for an earlier one
+     *
+     * @param requestItem    Request item
+     * @param blockChainBusy true if an earlier block building request hasn't finished
+     * @param subscribing    true if an earlier subscribe hasn't finished
+     * @return true if the request can't be sent yet
      */
-    private void processQueue() {
-        if (requestQueue != null && requestQueue.size() > 0) {
-            RequestItem requestItem = requestQueue.peek();
-            if (requestItem != null && !requestItem.isProcessing()) {
-                // process item
-                if (wsDisconnected()) {
-                    if (!isConnecting) {
-                        initWebSocket();
-                    }
-                    return;
-                }
-                requestItem.setProcessing(true);
-
-                Timber.d("SEND: %s", gson.toJson(requestItem.getRequest()));
-                wsSend(gson.toJson(requestItem.getRequest()));
-            } else if (requestItem != null && (requestItem.isProcessing() && System.currentTimeMillis() > requestItem.getExpireTime())) {
-                // expired request on the queue so remove and go to the next
-                requestQueue.poll();
-                processQueue();
+    private boolean isBlocked(RequestItem requestItem, boolean blockChainBusy, boolean subscribing) {
+        if (isBlockChainRequest(requestItem)) {
+            // blocks are built on the frontier the subscribe returns
+            return blockChainBusy || subscribing;
+        }
+        if (subscribing && !requestItem.isFromTransfer() && !requestItem.isFromAudit()) {
+            // the newest history page and pending are sized by the block count the subscribe returns
+            Object request = requestItem.getRequest();
+            if (request instanceof AccountHistoryRequest) {
+                return ((AccountHistoryRequest) request).getHead() == null;
             }
+            Integer count = request instanceof PendingTransactionsRequest ? ((PendingTransactionsRequest) request).getCount()
+                    : Integer.valueOf(1);
+            return count == null || count <= 0;
         }
+        return false;
     }
 
     /**
      * Request all the account info
      */
     public void requestUpdate() {
-        if (address != null && address.getAddress() != null) {
-            requestQueue.add(new RequestItem<>(new SubscribeRequest(address.getAddress(), getLocalCurrency(), wallet.getUuid(), sharedPreferencesUtil.getFcmToken())));
-            requestQueue.add(new RequestItem<>(new AccountHistoryRequest(address.getAddress(), wallet.getBlockCount() != null ? wallet.getBlockCount() : 10)));
-            requestQueue.add(new RequestItem<>(new PendingTransactionsRequest(address.getAddress(), true, wallet.getBlockCount())));
-            processQueue();
-        }
+        execute(() -> {
+            if (address != null && address.getAddress() != null) {
+                offer(new RequestItem<>(subscribeRequest()));
+                syncHistory();
+                offer(new RequestItem<>(ownPendingRequest()));
+                processQueue();
+            }
+        });
     }
 
     /**
      * Request subscribe
      */
     public void requestSubscribe() {
-        if (address != null && address.getAddress() != null && !wsDisconnected()) {
-            requestQueue.add(new RequestItem<>(new SubscribeRequest(address.getAddress(), getLocalCurrency(), wallet.getUuid(), sharedPreferencesUtil.getFcmToken())));
-            processQueue();
+        execute(() -> {
+            if (address != null && address.getAddress() != null && !wsDisconnected()) {
+                offer(new RequestItem<>(subscribeRequest()));
+                processQueue();
+            }
+        });
+    }
+
+    private SubscribeRequest subscribeRequest() {
+        return new SubscribeRequest(address.getAddress(), getLocalCurrency(), wallet.getUuid(), sharedPreferencesUtil.getFcmToken());
+    }
+
+    /**
+     * Queue a request unless the same one is already waiting to be sent
+     *
+     * @param requestItem Request item
+     */
+    private void offer(RequestItem requestItem) {
+        if (!requestQueue.offer(requestItem)) {
+            requestCounters.coalesce();
+        }
+    }
+
+    /**
+     * Refresh the account once blocks stop coming in, rather than after every one
+     */
+    private void scheduleRefresh() {
+        serviceHandler.removeCallbacks(refreshTask);
+        serviceHandler.postDelayed(refreshTask, REFRESH_QUIET_MILLISECONDS);
+    }
+
+    private void refreshAccount() {
+        if (address == null || address.getAddress() == null || wsDisconnected()) {
+            return;
         }
+        offer(new RequestItem<>(subscribeRequest()));
+        syncHistory();
+        processQueue();
     }
 
     /**
      * Request Pending Blocks
      */
     public void requestPending() {
-        if (address != null && address.getAddress() != null) {
-            requestQueue.add(new RequestItem<>(new PendingTransactionsRequest(address.getAddress(), true, wallet.getBlockCount())));
-            processQueue();
-        }
+        execute(() -> {
+            if (address != null && address.getAddress() != null) {
+                offer(new RequestItem<>(ownPendingRequest()));
+                processQueue();
+            }
+        });
+    }
+
+    /**
+     * @return Pending request for our account, largest amounts first
+     */
+    private PendingTransactionsRequest ownPendingRequest() {
+        PendingTransactionsRequest request = new PendingTransactionsRequest(address.getAddress(), true, blockCount);
+        request.setSorting(true);
+        return request;
     }
 
     /**
      * Request pending blocks for specific account
      */
     public void requestPending(String account) {
-        RequestItem<PendingTransactionsRequest> requestItem = new RequestItem<>(new PendingTransactionsRequest(account, true, 10));
-        requestItem.setFromTransfer(true);
-        requestQueue.add(requestItem);
-        processQueue();
+        execute(() -> {
+            RequestItem<PendingTransactionsRequest> requestItem = new RequestItem<>(new PendingTransactionsRequest(account, true, 10));
+            requestItem.setFromTransfer(true);
+            offer(requestItem);
+            processQueue();
+        });
     }
 
     /**
-     * Request AccountHistory
+     * Queue a sync of our history. If a page is already on its way, sync again once it's in.
      */
-    private void requestAccountHistory() {
-        if (address != null && address.getAddress() != null) {
-            requestQueue.add(new RequestItem<>(new AccountHistoryRequest(address.getAddress(), wallet.getBlockCount() != null ? wallet.getBlockCount() : 10)));
-            processQueue();
+    private void syncHistory() {
+        if (address == null || address.getAddress() == null) {
+            return;
+        }
+        if (historySync == null || !historySync.getAccount().equals(address.getAddress())) {
+            historySync = new HistorySync(address.getAddress());
+            historySyncItem = null;
+            // pick up from the history the wallet snapshot had
+            List<AccountHistoryResponseItem> known = wallet.getAccountHistory();
+            if (known != null && !known.isEmpty()) {
+                historySync.seed(known, wallet.getAccountHistoryPrevious());
+            }
+        }
+        if (historySyncItem != null && requestQueue.contains(historySyncItem)) {
+            historyResyncRequested = true;
+            return;
         }
+        historyResyncRequested = false;
+        queueHistoryPage(historySync.start(blockCount != null ? blockCount : -1));
+    }
+
+    private void queueHistoryPage(AccountHistoryRequest request) {
+        historySyncItem = new RequestItem<>(request);
+        requestQueue.add(historySyncItem);
     }
 
     /**
      * Request AccountHistory for a different account (Transfer)
      */
     public void requestAccountHistory(String account) {
-        RequestItem<AccountHistoryRequest> requestItem = new RequestItem<>(new AccountHistoryRequest(account, 1));
-        requestItem.setFromTransfer(true);
-        requestQueue.add(requestItem);
-        processQueue();
+        execute(() -> {
+            RequestItem<AccountHistoryRequest> requestItem = new RequestItem<>(new AccountHistoryRequest(account, 1));
+            requestItem.setFromTransfer(true);
+            requestQueue.add(requestItem);
+            processQueue();
+        });
     }
 
     /**
@@ -696,8 +1667,36 @@ public class AccountService {
         if (accounts == null || accounts.isEmpty()) {
             return false;
         }
-        requestQueue.add(new RequestItem<>(new AccountsBalancesRequest(accounts)));
-        processQueue();
+        execute(() -> {
+            offer(new RequestItem<>(new AccountsBalancesRequest(accounts)));
+            processQueue();
+        });
+        return true;
+    }
+
+    /**
+     * Audit the whole account chain. Every block is fetched, its hash recomputed and its
+     * signature and balance verified. A LedgerAuditResult is posted when done.
+     *
+     * @return true if the audit was started
+     */
+    public boolean requestLedgerAudit() {
+        if (address == null || address.getAddress() == null || auditExecutor.isShutdown()
+                || !auditRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        execute(() -> {
+            if (auditExecutor.isShutdown()) {
+                auditRunning.set(false);
+                return;
+            }
+            ledgerAudit = new LedgerAudit(address.getAddress(), getFrontier(), gson);
+            int count = blockCount != null && blockCount > 0 ? blockCount : 10;
+            RequestItem<AccountHistoryRequest> requestItem = new RequestItem<>(new AccountHistoryRequest(address.getAddress(), count));
+            requestItem.setFromAudit(true);
+            requestQueue.add(requestItem);
+            processQueue();
+        });
         return true;
     }
 
@@ -724,34 +1723,32 @@ public class AccountService {
         pendingResponseBlockMap.put(previous, openBlock);
 
         // Create process request
-        ProcessRequest prq = new ProcessRequest(gson.toJson(openBlock), true);
-        requestQueue.add(new RequestItem<>(prq));
+        queueProcessRequest(openBlock, false);
 
         processQueue();
     }
 
     public void requestOpen(String previous, String source, BigInteger balance, String privKey) {
-        // If user has set a custom representative, use it
-        String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
-
-        // Create open block
-        StateBlock openBlock = new StateBlock(
-                BlockTypes.OPEN,
-                privKey,
-                previous,
-                representative,
-                balance.toString(),
-                source
-        );
-        pendingResponseBlockMap.put(previous, openBlock);
-
-        // Create process request
-        ProcessRequest prq = new ProcessRequest(gson.toJson(openBlock), true);
-        RequestItem<ProcessRequest> requestItem = new RequestItem<>(prq);
-        requestItem.setFromTransfer(true);
-        requestQueue.add(requestItem);
+        execute(() -> {
+            // If user has set a custom representative, use it
+            String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
+
+            // Create open block
+            StateBlock openBlock = new StateBlock(
+                    BlockTypes.OPEN,
+                    privKey,
+                    previous,
+                    representative,
+                    balance.toString(),
+                    source
+            );
+            pendingResponseBlockMap.put(previous, openBlock);
+
+            // Create process request
+            queueProcessRequest(openBlock, true);
 
-        processQueue();
+            processQueue();
+        });
     }
 
     /**
@@ -762,42 +1759,39 @@ public class AccountService {
      * @param balance  Remaining balance after a send
      */
     public void requestReceive(String previous, String source, BigInteger balance) {
-        StateBlock receiveBlock = new StateBlock(
-                BlockTypes.RECEIVE,
-                private_key,
-                previous,
-                wallet.getRepresentative(),
-                balance.toString(),
-                source
-        );
-        previousPendingMap.put(previous, receiveBlock);
+        execute(() -> {
+            StateBlock receiveBlock = new StateBlock(
+                    BlockTypes.RECEIVE,
+                    private_key,
+                    previous,
+                    wallet.getRepresentative(),
+                    balance.toString(),
+                    source
+            );
+            // Request block info for previous
+            queueBlocksInfoRequest(previous, receiveBlock, false);
 
-        // Request block info for previous
-        requestQueue.add(new RequestItem<>(new GetBlocksInfoRequest(new String[]{previous})));
-
-        processQueue();
+            processQueue();
+        });
     }
 
     public void requestReceive(String previous, String source, BigInteger balance, String privKey) {
-        String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
-
-        StateBlock receiveBlock = new StateBlock(
-                BlockTypes.RECEIVE,
-                privKey,
-                previous,
-                representative,
-                balance.toString(),
-                source
-        );
-        previousPendingMap.put(previous, receiveBlock);
+        execute(() -> {
+            String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
+
+            StateBlock receiveBlock = new StateBlock(
+                    BlockTypes.RECEIVE,
+                    privKey,
+                    previous,
+                    representative,
+                    balance.toString(),
+                    source
+            );
+            // Request block info for previous
+            queueBlocksInfoRequest(previous, receiveBlock, true);
 
-        // Request block info for previous
-        GetBlocksInfoRequest gbiq = new GetBlocksInfoRequest(new String[]{previous});
-        RequestItem<GetBlocksInfoRequest> requestItem = new RequestItem<>(gbiq);
-        requestItem.setFromTransfer(true);
-        requestQueue.add(requestItem);
-
-        processQueue();
+            processQueue();
+        });
     }
 
     /**
@@ -808,42 +1802,39 @@ public class AccountService {
      * @param amount     Amount to send in RAW
      */
     public void requestSend(String previous, Address destination, BigInteger amount) {
-        StateBlock sendBlock = new StateBlock(
-                            BlockTypes.SEND,
-                            private_key,
-                            previous,
-                            wallet.getRepresentative(),
-                            amount.toString(),
-                            destination.getAddress()
-        );
-        previousPendingMap.put(previous, sendBlock);
+        execute(() -> {
+            StateBlock sendBlock = new StateBlock(
+                                BlockTypes.SEND,
+                                private_key,
+                                previous,
+                                wallet.getRepresentative(),
+                                amount.toString(),
+                                destination.getAddress()
+            );
+            // Request block info for previous
+            queueBlocksInfoRequest(previous, sendBlock, false);
 
-        // Request block info for previous
-        requestQueue.add(new RequestItem<>(new GetBlocksInfoRequest(new String[]{previous})));
-
-        processQueue();
+            processQueue();
+        });
     }
 
     public void requestSend(String previous, Address destination, BigInteger amount, String privKey) {
-        String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
-
-        StateBlock sendBlock = new StateBlock(
-                BlockTypes.SEND,
-                privKey,
-                previous,
-                representative,
-                amount.toString(),
-                destination.getAddress()
-        );
-        previousPendingMap.put(previous, sendBlock);
-
-        // Request block info for previous
-        GetBlocksInfoRequest gbiq = new GetBlocksInfoRequest(new String[]{previous});
-        RequestItem<GetBlocksInfoRequest> requestItem = new RequestItem<>(gbiq);
-        requestItem.setFromTransfer(true);
-        requestQueue.add(requestItem);
+        execute(() -> {
+            String representative = sharedPreferencesUtil.hasCustomRepresentative() ? sharedPreferencesUtil.getCustomRepresentative() : PreconfiguredRepresentatives.getRepresentative();
+
+            StateBlock sendBlock = new StateBlock(
+                    BlockTypes.SEND,
+                    privKey,
+                    previous,
+                    representative,
+                    amount.toString(),
+                    destination.getAddress()
+            );
+            // Request block info for previous
+            queueBlocksInfoRequest(previous, sendBlock, true);
 
-        processQueue();
+            processQueue();
+        });
     }
 
     /**
@@ -854,76 +1845,105 @@ public class AccountService {
      * @param representative Representative
      */
     public void requestChange(String previous, BigInteger balance, String representative) {
-        // Create change block
-        StateBlock changeBlock = new StateBlock(
-                BlockTypes.CHANGE,
-                private_key,
-                previous,
-                representative,
-                balance.toString(),
-                "0000000000000000000000000000000000000000000000000000000000000000"
-        );
-        pendingResponseBlockMap.put(previous, changeBlock);
-
-        // Create process request
-        ProcessRequest prq = new ProcessRequest(gson.toJson(changeBlock), true);
-        requestQueue.add(new RequestItem<>(prq));
+        execute(() -> {
+            // Create change block
+            StateBlock changeBlock = new StateBlock(
+                    BlockTypes.CHANGE,
+                    private_key,
+                    previous,
+                    representative,
+                    balance.toString(),
+                    "0000000000000000000000000000000000000000000000000000000000000000"
+            );
+            pendingResponseBlockMap.put(previous, changeBlock);
+
+            // Create process request
+            queueProcessRequest(changeBlock, false);
 
-        processQueue();
+            processQueue();
+        });
     }
 
     /**
-     * Get credentials from realm and return address
+     * Add a process request for a block to the queue. Precomputed work is used if there is
+     * any, otherwise unless the server is doing the work a work request for the block is
+     * queued right in front of it.
      *
-     * @return Address object
+     * @param block        Signed state block
+     * @param fromTransfer true if the block is part of a transfer
      */
-    private Address getAddress() {
-        Credentials _credentials = realm.where(Credentials.class).findFirst();
-        if (_credentials == null) {
-            return null;
-        } else {
-            Credentials credentials = realm.copyFromRealm(_credentials);
-            return new Address(credentials.getAddressString());
-        }
+    private void queueProcessRequest(StateBlock block, boolean fromTransfer) {
+        queueProcessRequest(requestQueue.last(), block, fromTransfer);
     }
 
     /**
-     * Get local currency from shared preferences
+     * Insert a process request, and its work request if needed, into the queue
      *
-     * @return Local Currency
+     * @param after        Queued request to insert behind, null to go first
+     * @param block        Signed state block
+     * @param fromTransfer true if the block is part of a transfer
+     * @return Last of the inserted requests
      */
-    public String getLocalCurrency() {
-        return sharedPreferencesUtil.getLocalCurrency().toString();
+    private RequestItem queueProcessRequest(RequestItem after, StateBlock block, boolean fromTransfer) {
+        return queueProcessRequest(after, block, fromTransfer, false);
     }
 
     /**
-     * Get private key from realm
+     * Insert a process request, and its work request if needed, into the queue
      *
-     * @return Private Key
+     * @param after        Queued request to insert behind, null to go first
+     * @param block        Signed state block
+     * @param fromTransfer true if the block is part of a transfer
+     * @param pipelined    true if the block is chained locally, see {@link BulkReceive}
+     * @return Last of the inserted requests
      */
-    private String getPrivateKey() {
-        Credentials _credentials = realm.where(Credentials.class).findFirst();
-        if (_credentials == null) {
-            return null;
-        } else {
-            Credentials credentials = realm.copyFromRealm(_credentials);
-            return credentials.getPrivateKey();
+    private RequestItem queueProcessRequest(RequestItem after, StateBlock block, boolean fromTransfer, boolean pipelined) {
+        // open blocks use the account public key as work hash
+        String workHash = block.getInternal_block_type() == BlockTypes.OPEN ?
+                KaliumUtil.addressToPublic(block.getAccount()) : block.getPrevious();
+        String work = workCache.take(workHash);
+        if (work != null) {
+            block.setWork(work);
+        } else if (sharedPreferencesUtil.getWorkSource() != WorkSource.SERVER) {
+            RequestItem<WorkRequest> workItem = new RequestItem<>(new WorkRequest(workHash));
+            workItem.setFromTransfer(fromTransfer);
+            workItem.setPipelined(pipelined);
+            requestQueue.addAfter(after, workItem);
+            after = workItem;
         }
+        // the server still does the work if no work arrives before the block is sent
+        RequestItem<ProcessRequest> requestItem = new RequestItem<>(new ProcessRequest(gson.toJson(block), work == null));
+        requestItem.setFromTransfer(fromTransfer);
+        requestItem.setPipelined(pipelined);
+        requestQueue.addAfter(after, requestItem);
+        requestQueue.attach(requestItem, block);
+        return requestItem;
     }
 
     /**
-     * Get private key from realm
+     * Queue a blocks_info request for the previous block of a block we're building
      *
-     * @return Private Key
+     * @param previous     Previous hash
+     * @param nextBlock    Block to finish once the previous block is verified
+     * @param fromTransfer true if the block is part of a transfer
      */
-    private String getPublicKey() {
-        Credentials _credentials = realm.where(Credentials.class).findFirst();
-        if (_credentials == null) {
-            return null;
-        } else {
-            Credentials credentials = realm.copyFromRealm(_credentials);
-            return credentials.getPublicKey();
-        }
+    private void queueBlocksInfoRequest(String previous, StateBlock nextBlock, boolean fromTransfer) {
+        RequestItem<GetBlocksInfoRequest> requestItem = new RequestItem<>(new GetBlocksInfoRequest(new String[]{previous}));
+        requestItem.setFromTransfer(fromTransfer);
+        List<StateBlock> nextBlocks = new ArrayList<>();
+        nextBlocks.add(nextBlock);
+        previousPendingMap.put(requestItem, nextBlocks);
+        requestQueue.add(requestItem);
+        requestQueue.attach(requestItem, nextBlock);
+    }
+
+    /**
+     * Get local currency from shared preferences
+     *
+     * @return Local Currency
+     */
+    public String getLocalCurrency() {
+        return sharedPreferencesUtil.getLocalCurrency().toString();
     }
 
     /**
@@ -932,17 +1952,7 @@ public class AccountService {
      * @return true if queue has an open block in it already
      */
     private boolean queueContainsOpenBlock() {
-        if (requestQueue == null) {
-            return false;
-        }
-        for (RequestItem item : requestQueue) {
-            if (item.getRequest() instanceof OpenBlock ||
-                    (item.getRequest() instanceof StateBlock &&
-                            ((StateBlock) item.getRequest()).getInternal_block_type().equals(BlockTypes.OPEN))) {
-                return true;
-            }
-        }
-        return false;
+        return requestQueue != null && requestQueue.containsBlockType(BlockTypes.OPEN);
     }
 
     /**
@@ -952,19 +1962,15 @@ public class AccountService {
      * @return true if block is already in the queue with the same source
      */
     private boolean queueContainsRequestWithHash(String source) {
-        if (requestQueue == null) {
-            return false;
-        }
-        for (RequestItem item : requestQueue) {
-            if ((item.getRequest() instanceof OpenBlock && ((OpenBlock) item.getRequest()).getSource().equals(source)) ||
-                    (item.getRequest() instanceof ReceiveBlock && ((ReceiveBlock) item.getRequest()).getSource().equals(source)) ||
-                    (item.getRequest() instanceof StateBlock && ((StateBlock) item.getRequest()).getInternal_block_type().equals(BlockTypes.RECEIVE) && ((StateBlock) item.getRequest()).getLink().equals(source)) ||
-                    (item.getRequest() instanceof StateBlock && ((StateBlock) item.getRequest()).getInternal_block_type().equals(BlockTypes.OPEN) && ((StateBlock) item.getRequest()).getLink().equals(source))
-                    ) {
-                return true;
-            }
-        }
-        return false;
+        return (requestQueue != null && requestQueue.containsSource(source))
+                || (bulkReceive != null && bulkReceive.contains(source));
+    }
+
+    /**
+     * @return Frontier of our chain, the public key if the account isn't open
+     */
+    private String getFrontier() {
+        return frontier != null ? frontier : publicKey;
     }
 
     /**
@@ -973,12 +1979,16 @@ public class AccountService {
      * @param blockCount Block count
      */
     private void updateBlockCount(int blockCount) {
-        wallet.setBlockCount(blockCount);
-        if (requestQueue != null) {
-            for (RequestItem item : requestQueue) {
-                if (item.getRequest() instanceof AccountHistoryRequest && !item.isProcessing()) {
-                    ((AccountHistoryRequest) item.getRequest()).setCount(blockCount);
-                } else if (item.getRequest() instanceof PendingTransactionsRequest && !item.isProcessing()) {
+        this.blockCount = blockCount;
+        mainHandler.post(() -> wallet.setBlockCount(blockCount));
+        if (requestQueue != null && address != null) {
+            for (RequestItem item : requestQueue.forAccount(address.getAddress())) {
+                if (item.isProcessing() || item.isFromTransfer() || item.isFromAudit()) {
+                    continue;
+                }
+                if (item == historySyncItem && historySyncItem.getRequest().getHead() == null) {
+                    historySync.updateBlockCount(historySyncItem.getRequest(), blockCount);
+                } else if (item.getRequest() instanceof PendingTransactionsRequest) {
                     ((PendingTransactionsRequest) item.getRequest()).setCount(blockCount);
                 }
             }
@@ -992,33 +2002,38 @@ public class AccountService {
      * @param frontier Frontier hash
      */
     private void updateFrontier(String frontier) {
-        wallet.setFrontierBlock(frontier);
-        List<Object> objectsToUpdate = new ArrayList<>();
-        if (requestQueue != null) {
-            for (RequestItem item : requestQueue) {
+        this.frontier = frontier;
+        mainHandler.post(() -> wallet.setFrontierBlock(frontier));
+        if (requestQueue != null && address != null) {
+            for (RequestItem item : requestQueue.forAccount(address.getAddress())) {
                 Object o = item.getRequest();
-                if (((o instanceof ReceiveBlock ||
-                        (o instanceof StateBlock &&
-                                ((StateBlock) o).getInternal_block_type().equals(BlockTypes.RECEIVE))) ||
-                        o instanceof WorkRequest ||
-                        o instanceof GetBlocksInfoRequest
-                ) && !item.isProcessing()) {
-                    objectsToUpdate.add(o);
+                if (item.isProcessing() || item.isFromTransfer() || item.isFromAudit()) {
+                    continue;
+                }
+                if (o instanceof ReceiveBlock) {
+                    ((ReceiveBlock) o).setPrevious(frontier);
+                } else if (o instanceof StateBlock &&
+                        ((StateBlock) o).getInternal_block_type().equals(BlockTypes.RECEIVE)) {
+                    ((StateBlock) o).setPrevious(frontier);
+                } else if (o instanceof GetBlocksInfoRequest) {
+                    ((GetBlocksInfoRequest) o).setHashes(new String[]{frontier});
                 }
             }
         }
 
-        for (Object o : objectsToUpdate) {
-            if (o != null && o instanceof ReceiveBlock) {
-                ((ReceiveBlock) o).setPrevious(frontier);
-            } else if ((o instanceof StateBlock &&
-                    ((StateBlock) o).getInternal_block_type().equals(BlockTypes.RECEIVE))) {
-                ((StateBlock) o).setPrevious(frontier);
-            } else if (o != null && o instanceof WorkRequest) {
-                ((WorkRequest) o).setHash(frontier);
-            } else if (o != null && o instanceof GetBlocksInfoRequest) {
-                ((GetBlocksInfoRequest) o).setHashes(new String[]{frontier});
-            }
+        precomputeWork(frontier);
+    }
+
+    /**
+     * Get work for the frontier ahead of time on this device, the next block we make will
+     * need it. With the server doing the work nothing is asked ahead of time, the server
+     * does it along with the block and the queue stays free for requests someone waits on.
+     *
+     * @param frontier Frontier hash
+     */
+    private void precomputeWork(String frontier) {
+        if (frontier != null && sharedPreferencesUtil.getWorkSource() != WorkSource.SERVER) {
+            workCache.precompute(frontier);
         }
     }
 
@@ -1027,6 +2042,48 @@ public class AccountService {
      * Close the web socket
      */
     public void close() {
+        execute(this::closeSocket);
+    }
+
+    /**
+     * Close the web socket and stop the audit thread. Nothing can be requested afterwards,
+     * call when the service is no longer used.
+     */
+    public void destroy() {
+        execute(() -> {
+            ledgerAudit = null;
+            auditExecutor.shutdownNow();
+            closeSocket();
+        });
+    }
+
+    /**
+     * Close the web socket once the app has been in the background for a while, so coming
+     * right back doesn't cost a reconnect
+     */
+    public void pause() {
+        execute(() -> {
+            serviceHandler.removeCallbacks(pauseCloseTask);
+            if (pauseGraceMillis > 0) {
+                serviceHandler.postDelayed(pauseCloseTask, pauseGraceMillis);
+            } else {
+                closeSocket();
+            }
+        });
+    }
+
+    /**
+     * @param pauseGraceMillis How long to keep the socket open after pause, 0 to close right away
+     */
+    public void setPauseGrace(long pauseGraceMillis) {
+        execute(() -> this.pauseGraceMillis = pauseGraceMillis);
+    }
+
+    private void closeSocket() {
+        closeRequested = true;
+        serviceHandler.removeCallbacks(pauseCloseTask);
+        serviceHandler.removeCallbacks(refreshTask);
+        cancelReconnect();
         if (wsDisconnected()) {
             return;
         }
@@ -1037,24 +2094,116 @@ public class AccountService {
         }
     }
 
+    /**
+     * The socket closed. Requests still waiting on a response that are safe to send twice are
+     * sent again after reconnecting, everything else queued stays queued. If a block may have
+     * been lost on the way, pending blocks are abandoned and a SocketError is posted.
+     */
+    private void handleDisconnect() {
+        connectionManager.onDisconnected(System.currentTimeMillis(), closeRequested);
+        // responses to anything sent on the old connection won't come
+        inFlight.clear();
+        boolean blockLost = false;
+        for (RequestItem item : requestQueue.snapshot()) {
+            if (!item.isProcessing() || item == localWorkItem) {
+                // local work carries on without the socket
+                continue;
+            }
+            if (RequestPolicy.forRequest(item.getRequest()).getMaxRetries() > 0) {
+                item.setProcessing(false);
+            } else {
+                blockLost = true;
+            }
+        }
+        if (blockLost) {
+            abandonBlockRequests();
+            post(new SocketError(lastSocketError));
+        }
+        if (!closeRequested) {
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Drop every request that builds blocks. Blocks that depend on a block we don't know the
+     * fate of can't be sent, and the screens waiting on them retry or fail on a SocketError.
+     */
+    private void abandonBlockRequests() {
+        bulkReceive = null;
+        for (RequestItem item : requestQueue.snapshot()) {
+            if (isBlockChainRequest(item)) {
+                if (item == localWorkItem) {
+                    cancelLocalWork();
+                }
+                previousPendingMap.remove(item);
+                removeRequest(item);
+                requestCounters.drop();
+            }
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (reconnectScheduled) {
+            return;
+        }
+        long delay = connectionManager.nextReconnectDelay();
+        if (connectionManager.getReconnectAttempts() == 2) {
+            // the first reconnect failed too, don't keep the screens waiting
+            abandonBlockRequests();
+            post(new SocketError(lastSocketError));
+        }
+        Timber.d("RECONNECT in %d ms", delay);
+        metrics.reconnecting();
+        reconnectScheduled = true;
+        serviceHandler.postDelayed(reconnectTask, delay);
+    }
+
+    private void cancelReconnect() {
+        serviceHandler.removeCallbacks(reconnectTask);
+        reconnectScheduled = false;
+    }
+
+    private void reconnect() {
+        reconnectScheduled = false;
+        checkState();
+    }
+
     private boolean wsDisconnected() {
         return websocket == null || websocket.isClosing() || websocket.isClosed() || !websocket.isOpen();
     }
 
     private void checkState() {
-        if (wsDisconnected() && !isConnecting) {
+        if (wsDisconnected() && !isConnecting && !reconnectScheduled && !closeRequested) {
             initWebSocket();
         }
     }
 
-    private void wsSend(String message) {
+    /**
+     * Send a request with a fresh id and track it until the response comes back
+     *
+     * @param requestItem Request item
+     * @return true if sent, false if the socket is down and everything has to be sent again
+     */
+    private boolean wsSend(RequestItem requestItem) {
         checkState();
         if (websocket.isOpen()) {
+            Object request = requestItem.getRequest();
+            int id = nextRequestId++;
+            if (request instanceof BaseRequest) {
+                ((BaseRequest) request).setId(id);
+            }
+            inFlight.add(id, requestItem);
+            requestItem.setResponseType(ResponseParser.expectedResponseType(request));
+            String message = gson.toJson(request);
+            Timber.d("SEND: %s", message);
             websocket.send(message);
+            return true;
         } else {
             for (RequestItem item : requestQueue) {
                 item.setProcessing(false);
             }
+            inFlight.clear();
+            return false;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Receives a backlog of pending blocks in one go.
+ * <p>
+ * Only the first receive, the anchor, is built on a block fetched and verified from the
+ * server. Every receive after it is built on the one before: its hash and balance are
+ * known locally, so the whole chain is signed right away and the process requests can be
+ * sent without waiting for each other. If the server turns one of them down the chain
+ * is given up and the pending blocks go through the usual verified path again.
+ */
+public class BulkReceive {
+    // fewer pending blocks than this go through the usual path
+    public static final int MIN_BLOCKS = 2;
+    // process requests of the chain waiting on a response at once
+    public static final int MAX_PIPELINED = 8;
+
+    private final StateBlock anchor;
+    private final List<PendingTransactionResponseItem> rest;
+    private final List<String> sources = new ArrayList<>();
+    private final int size;
+    private int confirmed = 0;
+    private long startTime = -1;
+    private long endTime = -1;
+
+    /**
+     * @param anchor First receive, to be built on the verified frontier
+     * @param rest   Pending blocks to chain after it
+     */
+    public BulkReceive(StateBlock anchor, List<PendingTransactionResponseItem> rest) {
+        this.anchor = anchor;
+        this.rest = new ArrayList<>(rest);
+        this.size = rest.size() + 1;
+        sources.add(anchor.getLink());
+        for (PendingTransactionResponseItem item : rest) {
+            sources.add(item.getHash());
+        }
+    }
+
+    public StateBlock getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * @param source Hash of a pending block
+     * @return true if the pending block is received by this chain
+     */
+    public boolean contains(String source) {
+        for (String s : sources) {
+            if (s.equalsIgnoreCase(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build and sign the receives after the anchor, each on the one before
+     *
+     * @param privateKey Private key of the account
+     * @param now        Current time in milliseconds
+     * @return Signed receive blocks in chain order
+     */
+    public List<StateBlock> chain(String privateKey, long now) {
+        startTime = now;
+        List<StateBlock> blocks = new ArrayList<>();
+        StateBlock previous = anchor;
+        for (PendingTransactionResponseItem item : rest) {
+            StateBlock block = new StateBlock(
+                    BlockTypes.RECEIVE,
+                    privateKey,
+                    previous.getHash(),
+                    previous.getRepresentative(),
+                    item.getAmount(),
+                    item.getHash()
+            );
+            block.setBalance(new BigInteger(previous.getBalance()).add(new BigInteger(item.getAmount())).toString());
+            blocks.add(block);
+            previous = block;
+        }
+        rest.clear();
+        return blocks;
+    }
+
+    /**
+     * A block of the chain was processed
+     *
+     * @param now Current time in milliseconds
+     * @return true if that was the last one
+     */
+    public boolean confirm(long now) {
+        confirmed++;
+        if (confirmed >= size) {
+            endTime = now;
+            return true;
+        }
+        return false;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getConfirmed() {
+        return confirmed;
+    }
+
+    /**
+     * @param now Current time in milliseconds, used while the chain is still going
+     * @return Blocks processed per second since the chain was signed
+     */
+    public double getBlocksPerSecond(long now) {
+        if (startTime < 0) {
+            return 0;
+        }
+        long elapsed = (endTime >= 0 ? endTime : now) - startTime;
+        return elapsed > 0 ? confirmed * 1000.0 / elapsed : 0;
+    }
+}
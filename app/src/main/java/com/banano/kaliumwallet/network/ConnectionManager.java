@@ -0,0 +1,88 @@
+package com.banano.kaliumwallet.network;
+
+import java.util.Random;
+
+/**
+ * Keeps track of how the connection to the server has been doing: how long to wait before
+ * the next reconnect attempt and how often to check that an open connection is still alive.
+ * <p>
+ * Reconnects back off exponentially with jitter, so a flapping network or a restarting
+ * server isn't hit by every client at the same moment. The heartbeat starts short, grows
+ * while connections stay up and shrinks again when they keep dropping.
+ */
+public class ConnectionManager {
+    public static final long BASE_RECONNECT_MILLISECONDS = 1000;
+    public static final long MAX_RECONNECT_MILLISECONDS = 60000;
+    public static final int MIN_HEARTBEAT_SECONDS = 5;
+    public static final int DEFAULT_HEARTBEAT_SECONDS = 10;
+    public static final int MAX_HEARTBEAT_SECONDS = 60;
+    public static final int HEARTBEAT_STEP_SECONDS = 5;
+    // a connection that stayed up this long is considered stable
+    public static final long STABLE_CONNECTION_MILLISECONDS = 5 * 60 * 1000;
+
+    private final Random random;
+    private int reconnectAttempts = 0;
+    private int heartbeatSeconds = DEFAULT_HEARTBEAT_SECONDS;
+    private long connectedTime = -1;
+
+    public ConnectionManager() {
+        this(new Random());
+    }
+
+    public ConnectionManager(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * @return Delay before the next reconnect attempt, half of it random
+     */
+    public long nextReconnectDelay() {
+        int shift = Math.min(reconnectAttempts, 16);
+        long delay = Math.min(BASE_RECONNECT_MILLISECONDS << shift, MAX_RECONNECT_MILLISECONDS);
+        reconnectAttempts++;
+        return delay / 2 + (long) (random.nextDouble() * (delay / 2));
+    }
+
+    public int getReconnectAttempts() {
+        return reconnectAttempts;
+    }
+
+    /**
+     * @return Interval of the connection lost check in seconds
+     */
+    public int getHeartbeatSeconds() {
+        return heartbeatSeconds;
+    }
+
+    /**
+     * The connection is open
+     *
+     * @param now Current time in milliseconds
+     */
+    public void onConnected(long now) {
+        reconnectAttempts = 0;
+        connectedTime = now;
+    }
+
+    /**
+     * The connection closed
+     *
+     * @param now         Current time in milliseconds
+     * @param intentional true if we closed it ourselves
+     */
+    public void onDisconnected(long now, boolean intentional) {
+        if (connectedTime < 0) {
+            // never got connected
+            return;
+        }
+        long uptime = now - connectedTime;
+        connectedTime = -1;
+        if (uptime >= STABLE_CONNECTION_MILLISECONDS) {
+            // held up fine, check less often
+            heartbeatSeconds = Math.min(MAX_HEARTBEAT_SECONDS, heartbeatSeconds + HEARTBEAT_STEP_SECONDS);
+        } else if (!intentional) {
+            // dropped soon after connecting, notice a dead connection sooner next time
+            heartbeatSeconds = Math.max(MIN_HEARTBEAT_SECONDS, heartbeatSeconds / 2);
+        }
+    }
+}
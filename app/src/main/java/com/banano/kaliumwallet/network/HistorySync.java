@@ -0,0 +1,209 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the history of one account in sync without fetching all of it every time.
+ * <p>
+ * The hash of the newest entry we have is the synced head. A sync asks for the newest
+ * entries and pages back with the head cursor until it reaches the synced head, then puts
+ * only what's new in front of what we already have. The first sync pages back to the open
+ * block, showing the newest page as soon as it's in.
+ * <p>
+ * Not thread safe, only use it from the service thread.
+ */
+public class HistorySync {
+    public static final int PAGE_SIZE = 50;
+    public static final int DELTA_PAGE_SIZE = 10;
+
+    private final String account;
+    // newest to oldest, like the server sends it
+    private final List<AccountHistoryResponseItem> history = new ArrayList<>();
+    // entries newer than the synced head found by the sync that's going on, null if none is
+    private List<AccountHistoryResponseItem> delta;
+    private String deltaHead;
+    private int deltaCount;
+    private boolean restart = false;
+    // where the older history continues, null once we reached the open block
+    private String backfillHead;
+    private int syncBlockCount = -1;
+    private int syncedBlockCount = -1;
+    // the server ignores the head cursor, every sync fetches the whole history
+    private boolean pagingUnsupported = false;
+
+    public HistorySync(String account) {
+        this.account = account;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    /**
+     * @return Hash of the newest entry we have, null if we have none
+     */
+    public String getSyncedHead() {
+        return history.isEmpty() ? null : history.get(0).getHash();
+    }
+
+    /**
+     * @return true if the history goes all the way back to the open block
+     */
+    public boolean isComplete() {
+        return backfillHead == null;
+    }
+
+    /**
+     * @return Hash the history continues at, null if it goes back to the open block
+     */
+    public String getPrevious() {
+        return backfillHead;
+    }
+
+    /**
+     * Start from history we had before, like the last wallet snapshot
+     *
+     * @param entries  History, newest to oldest
+     * @param previous Hash the history continues at, null if it goes back to the open block
+     */
+    public void seed(List<AccountHistoryResponseItem> entries, String previous) {
+        history.clear();
+        history.addAll(entries);
+        backfillHead = entries.isEmpty() ? null : previous;
+        delta = null;
+        deltaHead = null;
+    }
+
+    /**
+     * @return Copy of the history, newest to oldest
+     */
+    public List<AccountHistoryResponseItem> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Start a sync of the newest entries
+     *
+     * @param blockCount Block count of the account, not positive if not known
+     * @return First request of the sync
+     */
+    public AccountHistoryRequest start(int blockCount) {
+        delta = new ArrayList<>();
+        deltaHead = null;
+        restart = false;
+        AccountHistoryRequest request = new AccountHistoryRequest(account, 0);
+        updateBlockCount(request, blockCount);
+        return request;
+    }
+
+    /**
+     * Size the first request of a sync by a block count that came in after it was made
+     *
+     * @param request    First request of the sync, not sent yet
+     * @param blockCount Block count of the account, not positive if not known
+     */
+    public void updateBlockCount(AccountHistoryRequest request, int blockCount) {
+        syncBlockCount = blockCount;
+        if (pagingUnsupported) {
+            deltaCount = Math.max(blockCount, PAGE_SIZE);
+        } else if (getSyncedHead() == null) {
+            deltaCount = PAGE_SIZE;
+        } else if (blockCount > 0 && syncedBlockCount > 0) {
+            // every new block adds one entry at most, one more to see the synced head again
+            deltaCount = Math.min(Math.max(blockCount - syncedBlockCount, 0) + 1, PAGE_SIZE);
+        } else {
+            deltaCount = DELTA_PAGE_SIZE;
+        }
+        request.setCount(deltaCount);
+    }
+
+    /**
+     * @return Next request to send, null if there is nothing more to fetch
+     */
+    public AccountHistoryRequest next() {
+        if (delta != null) {
+            if (restart) {
+                restart = false;
+                return new AccountHistoryRequest(account, deltaCount);
+            }
+            return deltaHead != null ? new AccountHistoryRequest(account, deltaCount, deltaHead) : null;
+        }
+        return backfillHead != null ? new AccountHistoryRequest(account, PAGE_SIZE, backfillHead) : null;
+    }
+
+    /**
+     * Take in a page of history
+     *
+     * @param request  Request the page was fetched with
+     * @param response Page of history
+     * @return true if the history changed
+     */
+    public boolean onPage(AccountHistoryRequest request, AccountHistoryResponse response) {
+        List<AccountHistoryResponseItem> entries = response.getHistory() != null ? response.getHistory() : Collections.emptyList();
+        String previous = entries.isEmpty() ? null : response.getPrevious();
+        if (delta == null) {
+            // older page
+            if (request.getHead() == null || !request.getHead().equals(backfillHead)) {
+                return false;
+            }
+            history.addAll(entries);
+            backfillHead = previous;
+            return !entries.isEmpty();
+        }
+
+        String syncedHead = getSyncedHead();
+        int known = syncedHead != null ? indexOf(entries, syncedHead) : -1;
+        if (known >= 0) {
+            delta.addAll(entries.subList(0, known));
+            history.addAll(0, delta);
+            boolean changed = !delta.isEmpty();
+            finishDelta();
+            return changed;
+        }
+        int count = request.getCount() != null ? request.getCount() : 0;
+        if (!pagingUnsupported && request.getHead() == null && previous == null &&
+                count > 0 && entries.size() >= count && syncBlockCount > count) {
+            // the chain goes back further but there's no cursor, so the server can't page.
+            // fetch everything in one go from now on
+            pagingUnsupported = true;
+            delta = new ArrayList<>();
+            deltaCount = syncBlockCount;
+            restart = true;
+            return false;
+        }
+        delta.addAll(entries);
+        if (syncedHead != null && previous != null) {
+            // not there yet, go back further with bigger pages
+            deltaHead = previous;
+            deltaCount = Math.min(deltaCount * 2, PAGE_SIZE);
+            return false;
+        }
+        // first sync, or the synced head isn't in the chain anymore
+        history.clear();
+        history.addAll(delta);
+        backfillHead = previous;
+        finishDelta();
+        return true;
+    }
+
+    private void finishDelta() {
+        delta = null;
+        deltaHead = null;
+        syncedBlockCount = syncBlockCount;
+    }
+
+    private static int indexOf(List<AccountHistoryResponseItem> entries, String hash) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (hash.equalsIgnoreCase(entries.get(i).getHash())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
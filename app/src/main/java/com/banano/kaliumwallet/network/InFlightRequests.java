@@ -0,0 +1,112 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.RequestItem;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ * Sent requests waiting for a response, by the id they were sent under and in the order
+ * they were sent. A retried request can be waiting under more than one id.
+ * <p>
+ * Responses with an id are matched by it. Responses without one are taken to answer the
+ * oldest request waiting, so a request that will never be answered has to stop waiting
+ * with {@link #remove}, or every later response would be matched one request behind.
+ * Requests that left the queue are skipped when matching and forgotten.
+ * <p>
+ * Used on the service thread only.
+ */
+public class InFlightRequests {
+    private final RequestQueue queue;
+    private final LinkedHashMap<Integer, RequestItem> byId = new LinkedHashMap<>();
+
+    /**
+     * @param queue Queue the requests are sent from
+     */
+    public InFlightRequests(RequestQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * @param id          Id the request was sent under
+     * @param requestItem Request item
+     */
+    public void add(int id, RequestItem requestItem) {
+        byId.put(id, requestItem);
+    }
+
+    /**
+     * @param id Id a response carries
+     * @return Request waiting under it, null if there is none
+     */
+    public RequestItem get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Take the request a response answers
+     *
+     * @param id Request id echoed by the server, null if it didn't echo one
+     * @return Request item, null if it is no longer queued
+     */
+    public RequestItem match(Integer id) {
+        if (id != null) {
+            RequestItem requestItem = byId.remove(id);
+            return requestItem != null && queue.contains(requestItem) ? requestItem : null;
+        }
+        // anything sent before the oldest request still queued won't be answered any more
+        Iterator<RequestItem> iterator = byId.values().iterator();
+        while (iterator.hasNext()) {
+            RequestItem requestItem = iterator.next();
+            iterator.remove();
+            if (queue.contains(requestItem)) {
+                return requestItem;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forget the ids a request was sent under, a late response to it is then ignored
+     *
+     * @param requestItem Request item
+     */
+    public void remove(RequestItem requestItem) {
+        Iterator<RequestItem> iterator = byId.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == requestItem) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Forget everything, for when the connection the requests were sent on is gone
+     */
+    public void clear() {
+        byId.clear();
+    }
+
+    /**
+     * @return Number of queued requests waiting on a response
+     */
+    public int count() {
+        Set<RequestItem> waiting = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (RequestItem requestItem : byId.values()) {
+            if (requestItem.isProcessing() && queue.contains(requestItem)) {
+                waiting.add(requestItem);
+            }
+        }
+        return waiting.size();
+    }
+
+    /**
+     * @return Number of ids waiting on a response
+     */
+    public int size() {
+        return byId.size();
+    }
+}
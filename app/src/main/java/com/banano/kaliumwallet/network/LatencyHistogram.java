@@ -0,0 +1,92 @@
+package com.banano.kaliumwallet.network;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies in fixed buckets, roughly doubling in size. Percentiles are the upper bound
+ * of the bucket they fall in, which is as precise as a phone on a cellular network needs.
+ * Safe to record and read from any thread.
+ */
+public class LatencyHistogram {
+    // upper bounds in milliseconds, anything slower goes in the last bucket
+    static final long[] BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param millis Latency in milliseconds
+     */
+    public void record(long millis) {
+        millis = Math.max(0, millis);
+        int bucket = 0;
+        while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(millis);
+        long current;
+        while (millis > (current = max.get()) && !max.compareAndSet(current, millis)) {
+            // raced with another record, try again
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return Mean latency in milliseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.get();
+        return n > 0 ? (double) sum.get() / n : 0;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Upper bound of the bucket the percentile falls in, the max for the last one
+     */
+    public long getPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(BOUNDS[i], max.get());
+            }
+        }
+        return max.get();
+    }
+
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", getCount());
+        json.addProperty("mean_ms", Math.round(getMean()));
+        json.addProperty("p50_ms", getPercentile(50));
+        json.addProperty("p90_ms", getPercentile(90));
+        json.addProperty("p99_ms", getPercentile(99));
+        json.addProperty("max_ms", getMax());
+        JsonArray counts = new JsonArray();
+        for (int i = 0; i < buckets.length(); i++) {
+            counts.add(buckets.get(i));
+        }
+        json.add("buckets", counts);
+        return json;
+    }
+}
@@ -0,0 +1,188 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.model.request.AccountCheckRequest;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.AccountsBalancesRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlockRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlocksInfoRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.WorkRequest;
+import com.banano.kaliumwallet.network.model.request.block.Block;
+import com.banano.kaliumwallet.network.socket.TransportStats;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything worth knowing about how the socket is doing: latency per action, queue depth,
+ * requests in flight, timeouts, reconnects and bytes moved. Recorded on the service thread,
+ * safe to read from any thread.
+ */
+public class NetworkMetrics {
+    private final Map<Actions, LatencyHistogram> latencies = new EnumMap<>(Actions.class);
+    private final RequestCounters requestCounters;
+    private final TransportStats transportStats;
+    private final long startTime;
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public NetworkMetrics(RequestCounters requestCounters, TransportStats transportStats, long now) {
+        this.requestCounters = requestCounters;
+        this.transportStats = transportStats;
+        this.startTime = now;
+        // all there up front, so readers never see the map change
+        for (Actions action : Actions.values()) {
+            latencies.put(action, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * @param request Request object
+     * @return Action of the request, null if it isn't one we time
+     */
+    public static Actions actionOf(Object request) {
+        if (request instanceof ProcessRequest || request instanceof Block) {
+            return Actions.PROCESS;
+        } else if (request instanceof WorkRequest) {
+            return Actions.WORK;
+        } else if (request instanceof SubscribeRequest) {
+            return Actions.SUBSCRIBE;
+        } else if (request instanceof AccountHistoryRequest) {
+            return Actions.HISTORY;
+        } else if (request instanceof PendingTransactionsRequest) {
+            return Actions.PENDING;
+        } else if (request instanceof GetBlocksInfoRequest) {
+            return Actions.GET_BLOCKS_INFO;
+        } else if (request instanceof AccountsBalancesRequest) {
+            return Actions.BALANCES;
+        } else if (request instanceof GetBlockRequest) {
+            return Actions.GET_BLOCK;
+        } else if (request instanceof AccountCheckRequest) {
+            return Actions.CHECK;
+        }
+        return null;
+    }
+
+    /**
+     * @param request Request that was answered
+     * @param millis  Time from sending it to the answer
+     */
+    public void recordLatency(Object request, long millis) {
+        Actions action = actionOf(request);
+        if (action != null) {
+            latencies.get(action).record(millis);
+        }
+    }
+
+    public LatencyHistogram getLatency(Actions action) {
+        return latencies.get(action);
+    }
+
+    public void connected() {
+        connects.incrementAndGet();
+    }
+
+    public void reconnecting() {
+        reconnects.incrementAndGet();
+    }
+
+    /**
+     * @param queued   Requests in the queue
+     * @param inFlight Requests waiting on a response
+     */
+    public void sampleQueue(int queued, int inFlight) {
+        queueDepth.set(queued);
+        this.inFlight.set(inFlight);
+        raise(maxQueueDepth, queued);
+        raise(maxInFlight, inFlight);
+    }
+
+    private static void raise(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // raced with another sample, try again
+        }
+    }
+
+    public long getConnects() {
+        return connects.get();
+    }
+
+    public long getReconnects() {
+        return reconnects.get();
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * @param now Current time in milliseconds
+     * @return Everything as JSON, to paste into a bug report
+     */
+    public String toJson(long now) {
+        JsonObject json = new JsonObject();
+        json.addProperty("uptime_ms", now - startTime);
+
+        JsonObject latency = new JsonObject();
+        for (Map.Entry<Actions, LatencyHistogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                latency.add(entry.getKey().toString(), entry.getValue().toJson());
+            }
+        }
+        json.add("latency", latency);
+
+        JsonObject queue = new JsonObject();
+        queue.addProperty("depth", getQueueDepth());
+        queue.addProperty("max_depth", getMaxQueueDepth());
+        queue.addProperty("in_flight", getInFlight());
+        queue.addProperty("max_in_flight", getMaxInFlight());
+        json.add("queue", queue);
+
+        JsonObject requests = new JsonObject();
+        requests.addProperty("timeouts", requestCounters.getTimeouts());
+        requests.addProperty("retries", requestCounters.getRetries());
+        requests.addProperty("drops", requestCounters.getDrops());
+        requests.addProperty("coalesced", requestCounters.getCoalesced());
+        json.add("requests", requests);
+
+        JsonObject connection = new JsonObject();
+        connection.addProperty("connects", getConnects());
+        connection.addProperty("reconnects", getReconnects());
+        json.add("connection", connection);
+
+        JsonObject transport = new JsonObject();
+        transport.addProperty("compressed", transportStats.isCompressed());
+        transport.addProperty("wire_in", transportStats.getWireIn());
+        transport.addProperty("wire_out", transportStats.getWireOut());
+        transport.addProperty("payload_in", transportStats.getPayloadIn());
+        transport.addProperty("payload_out", transportStats.getPayloadOut());
+        transport.addProperty("codec_ms", transportStats.getCodecNanos() / 1000000);
+        json.add("transport", transport);
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(json);
+    }
+}
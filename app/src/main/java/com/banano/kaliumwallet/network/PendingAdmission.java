@@ -0,0 +1,126 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Decides which pending blocks get received automatically.
+ * <p>
+ * Every receive costs signing, work and a round trip, so blocks below a minimum amount
+ * can be left alone and the blocks received per session limited to a budget, largest
+ * first. Everything else is deferred until the user asks for it. By default there is no
+ * minimum and no budget, every pending block is received as it always was.
+ * <p>
+ * Not thread safe, only use it from the service thread.
+ */
+public class PendingAdmission {
+    public static final BigInteger DEFAULT_THRESHOLD = BigInteger.ZERO;
+    public static final int DEFAULT_BUDGET = Integer.MAX_VALUE;
+
+    private final BigInteger threshold;
+    private final int budget;
+    // blocks received or on their way this session, they don't count twice
+    private final Set<String> admitted = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    private final Map<String, PendingTransactionResponseItem> deferred = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * @param threshold Smallest amount in raw received automatically
+     * @param budget    Blocks received automatically per session
+     */
+    public PendingAdmission(BigInteger threshold, int budget) {
+        this.threshold = threshold;
+        this.budget = budget;
+    }
+
+    /**
+     * Take in all pending blocks of the account
+     *
+     * @param items Pending blocks, as the server lists them
+     * @return Blocks to receive, largest first
+     */
+    public List<PendingTransactionResponseItem> admit(Collection<PendingTransactionResponseItem> items) {
+        // the list is complete, whatever isn't on it anymore was received somewhere else
+        deferred.clear();
+        List<PendingTransactionResponseItem> result = new ArrayList<>();
+        for (PendingTransactionResponseItem item : largestFirst(items)) {
+            if (admit(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Take in a single pending block, like one pushed by the server
+     *
+     * @param item Pending block
+     * @return true if it should be received
+     */
+    public boolean admit(PendingTransactionResponseItem item) {
+        String hash = item.getHash();
+        if (hash == null) {
+            return false;
+        }
+        if (admitted.contains(hash)) {
+            return true;
+        }
+        if (amountOf(item).compareTo(threshold) < 0 || admitted.size() >= budget) {
+            deferred.put(hash, item);
+            return false;
+        }
+        admitted.add(hash);
+        deferred.remove(hash);
+        return true;
+    }
+
+    /**
+     * The user asked for the deferred blocks, they're received regardless of amount and budget
+     *
+     * @return Deferred blocks, largest first
+     */
+    public List<PendingTransactionResponseItem> release() {
+        List<PendingTransactionResponseItem> items = largestFirst(deferred.values());
+        admitted.addAll(deferred.keySet());
+        deferred.clear();
+        return items;
+    }
+
+    /**
+     * Start a new session with the full budget
+     */
+    public void reset() {
+        admitted.clear();
+        deferred.clear();
+    }
+
+    public int getDeferredCount() {
+        return deferred.size();
+    }
+
+    public int getAdmittedCount() {
+        return admitted.size();
+    }
+
+    private static List<PendingTransactionResponseItem> largestFirst(Collection<PendingTransactionResponseItem> items) {
+        List<PendingTransactionResponseItem> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, (a, b) -> amountOf(b).compareTo(amountOf(a)));
+        return sorted;
+    }
+
+    private static BigInteger amountOf(PendingTransactionResponseItem item) {
+        try {
+            return item.getAmount() != null ? new BigInteger(item.getAmount()) : BigInteger.ZERO;
+        } catch (NumberFormatException e) {
+            return BigInteger.ZERO;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Price pushes can come in far faster than anyone can read them. Only the latest price of
+ * each currency is kept and they are handed on at most once per interval, so a busy price
+ * feed costs one wallet update per interval instead of one per push. Used on the service
+ * thread only.
+ */
+public class PriceConflator {
+    public static final long DEFAULT_INTERVAL_MILLIS = 250;
+
+    private final long intervalMillis;
+    private final Map<String, CurrentPriceResponse> latest = new LinkedHashMap<>();
+    private long lastFlush;
+    private boolean scheduled = false;
+    private long received = 0;
+    private long conflated = 0;
+
+    public PriceConflator(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        this.lastFlush = -intervalMillis;
+    }
+
+    /**
+     * @param price Price pushed to us
+     * @param now   Current time in milliseconds
+     * @return Time to wait before calling {@link #flush}, -1 if a flush is already due
+     */
+    public long offer(CurrentPriceResponse price, long now) {
+        received++;
+        String currency = price.getCurrency() != null ? price.getCurrency().toLowerCase(Locale.ROOT) : "";
+        if (latest.put(currency, price) != null) {
+            // replaced one that was never handed on
+            conflated++;
+        }
+        if (scheduled) {
+            return -1;
+        }
+        scheduled = true;
+        return Math.max(0, lastFlush + intervalMillis - now);
+    }
+
+    /**
+     * @param now Current time in milliseconds
+     * @return Latest price of each currency pushed since the last flush
+     */
+    public List<CurrentPriceResponse> flush(long now) {
+        List<CurrentPriceResponse> prices = new ArrayList<>(latest.values());
+        latest.clear();
+        scheduled = false;
+        lastFlush = now;
+        return prices;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public long getConflated() {
+        return conflated;
+    }
+}
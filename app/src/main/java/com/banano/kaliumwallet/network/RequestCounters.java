@@ -0,0 +1,51 @@
+package com.banano.kaliumwallet.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts of requests that timed out, were sent again, were given up on or were merged
+ * into one already queued. Safe to read from any thread.
+ */
+public class RequestCounters {
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    void timeout() {
+        timeouts.incrementAndGet();
+    }
+
+    void retry() {
+        retries.incrementAndGet();
+    }
+
+    void drop() {
+        drops.incrementAndGet();
+    }
+
+    void coalesce() {
+        coalesced.incrementAndGet();
+    }
+
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    public long getDrops() {
+        return drops.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    @Override
+    public String toString() {
+        return "timeouts=" + getTimeouts() + " retries=" + getRetries() + " drops=" + getDrops() + " coalesced=" + getCoalesced();
+    }
+}
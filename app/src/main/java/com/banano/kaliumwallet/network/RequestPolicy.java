@@ -0,0 +1,74 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.AccountsBalancesRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlocksInfoRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.WorkRequest;
+import com.banano.kaliumwallet.network.model.request.block.Block;
+
+/**
+ * How long to wait for the response to a request and how often to send it again.
+ * Only requests that can safely be sent twice are retried.
+ */
+public class RequestPolicy {
+    public static final long BASE_BACKOFF_MILLISECONDS = 500;
+    public static final long MAX_BACKOFF_MILLISECONDS = 8000;
+
+    public static final RequestPolicy DEFAULT = new RequestPolicy(AccountService.TIMEOUT_MILLISECONDS, 1);
+    public static final RequestPolicy SUBSCRIBE = new RequestPolicy(AccountService.TIMEOUT_MILLISECONDS, 2);
+    public static final RequestPolicy HISTORY = new RequestPolicy(10000, 2);
+    public static final RequestPolicy PENDING = new RequestPolicy(AccountService.TIMEOUT_MILLISECONDS, 2);
+    public static final RequestPolicy BLOCKS_INFO = new RequestPolicy(AccountService.TIMEOUT_MILLISECONDS, 2);
+    public static final RequestPolicy WORK = new RequestPolicy(15000, 1);
+    // a block may have been published even if the response got lost, so it isn't sent again
+    public static final RequestPolicy PROCESS = new RequestPolicy(15000, 0);
+
+    private final long timeoutMillis;
+    private final int maxRetries;
+
+    public RequestPolicy(long timeoutMillis, int maxRetries) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param request Request object
+     * @return Policy for the request
+     */
+    public static RequestPolicy forRequest(Object request) {
+        if (request instanceof ProcessRequest || request instanceof Block) {
+            return PROCESS;
+        } else if (request instanceof WorkRequest) {
+            return WORK;
+        } else if (request instanceof SubscribeRequest) {
+            return SUBSCRIBE;
+        } else if (request instanceof AccountHistoryRequest) {
+            return HISTORY;
+        } else if (request instanceof PendingTransactionsRequest) {
+            return PENDING;
+        } else if (request instanceof GetBlocksInfoRequest || request instanceof AccountsBalancesRequest) {
+            return BLOCKS_INFO;
+        }
+        return DEFAULT;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param retry Retry number, starting at 1
+     * @return Time to wait before sending the request again, doubling with each retry
+     */
+    public long getBackoffMillis(int retry) {
+        int shift = Math.min(Math.max(retry - 1, 0), 16);
+        return Math.min(BASE_BACKOFF_MILLISECONDS << shift, MAX_BACKOFF_MILLISECONDS);
+    }
+}
@@ -0,0 +1,389 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.RequestItem;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.AccountsBalancesRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.block.Block;
+import com.banano.kaliumwallet.network.model.request.block.OpenBlock;
+import com.banano.kaliumwallet.network.model.request.block.ReceiveBlock;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Ordered request queue with indexes by source hash, block type and account, so checks
+ * against everything queued don't have to walk the whole queue. Each item has a node
+ * linked to its neighbours, so items are found, inserted next to and removed in constant
+ * time.
+ * <p>
+ * Requests that build blocks (blocks_info and process requests) don't carry the block
+ * itself in a form we can look at, so the blocks are attached with {@link #attach}.
+ * An item's index entries are dropped when the item leaves the queue.
+ * <p>
+ * Subscribe, pending and balances requests asked for again before the first one went out
+ * are merged into the one waiting with {@link #offer}, since one answer serves both.
+ * <p>
+ * Used on the service thread only, except for {@link #size} which any thread may read.
+ */
+public class RequestQueue implements Iterable<RequestItem> {
+    private final Map<RequestItem, Node> nodes = new IdentityHashMap<>();
+    private Node head;
+    private Node tail;
+    private volatile int size = 0;
+    private final Map<String, Set<RequestItem>> bySource = new HashMap<>();
+    private final Map<BlockTypes, Set<RequestItem>> byBlockType = new HashMap<>();
+    private final Map<String, Set<RequestItem>> byAccount = new HashMap<>();
+    private final Map<String, Set<RequestItem>> byRequest = new HashMap<>();
+
+    private static class Node {
+        private final RequestItem item;
+        private Node previous;
+        private Node next;
+        private final List<String> sources = new ArrayList<>(1);
+        private final List<BlockTypes> blockTypes = new ArrayList<>(1);
+        private final List<String> accounts = new ArrayList<>(1);
+        private String request;
+
+        private Node(RequestItem item) {
+            this.item = item;
+        }
+    }
+
+    public void add(RequestItem item) {
+        insert(tail, item);
+    }
+
+    /**
+     * Queue a request right behind another one
+     *
+     * @param previous Queued request item to go behind, null to go first
+     * @param item     Request item
+     */
+    public void addAfter(RequestItem previous, RequestItem item) {
+        Node previousNode = null;
+        if (previous != null) {
+            previousNode = nodes.get(previous);
+            if (previousNode == null) {
+                throw new IllegalArgumentException("Request to queue behind isn't queued");
+            }
+        }
+        insert(previousNode, item);
+    }
+
+    private void insert(Node previous, RequestItem item) {
+        if (nodes.containsKey(item)) {
+            throw new IllegalArgumentException("Request is already queued");
+        }
+        Node node = new Node(item);
+        node.previous = previous;
+        node.next = previous != null ? previous.next : head;
+        if (node.next != null) {
+            node.next.previous = node;
+        } else {
+            tail = node;
+        }
+        if (previous != null) {
+            previous.next = node;
+        } else {
+            head = node;
+        }
+        nodes.put(item, node);
+        size = nodes.size();
+        Object request = item.getRequest();
+        if (request instanceof Block) {
+            attach(item, (Block) request);
+        } else if (request instanceof AccountHistoryRequest) {
+            index(item, null, null, ((AccountHistoryRequest) request).getAccount());
+        } else if (request instanceof PendingTransactionsRequest) {
+            index(item, null, null, ((PendingTransactionsRequest) request).getAccount());
+        } else if (request instanceof SubscribeRequest) {
+            index(item, null, null, ((SubscribeRequest) request).getAccount());
+        }
+        String requestKey = requestKey(item);
+        if (requestKey != null) {
+            node.request = requestKey;
+            put(byRequest, requestKey, item);
+        }
+    }
+
+    /**
+     * Queue a request unless the same one is already waiting to be sent
+     *
+     * @param item Request item
+     * @return true if queued, false if merged into the one waiting
+     */
+    public boolean offer(RequestItem item) {
+        String requestKey = requestKey(item);
+        Set<RequestItem> same = requestKey != null ? byRequest.get(requestKey) : null;
+        if (same != null) {
+            for (RequestItem queued : same) {
+                // one already sent may have been answered before whatever asked again
+                if (!queued.isProcessing()) {
+                    merge(queued, item);
+                    return false;
+                }
+            }
+        }
+        add(item);
+        return true;
+    }
+
+    private static void merge(RequestItem queued, RequestItem item) {
+        if (queued.getRequest() instanceof PendingTransactionsRequest) {
+            // ask for as many as either of them wanted
+            PendingTransactionsRequest request = (PendingTransactionsRequest) queued.getRequest();
+            Integer count = ((PendingTransactionsRequest) item.getRequest()).getCount();
+            if (request.getCount() != null && (count == null || count > request.getCount())) {
+                request.setCount(count);
+            }
+        }
+    }
+
+    /**
+     * @param item Request item
+     * @return What makes the request the same as another, null if it's never merged
+     */
+    static String requestKey(RequestItem item) {
+        Object request = item.getRequest();
+        String origin = (item.isFromTransfer() ? "transfer" : "") + (item.isFromAudit() ? "audit" : "");
+        if (request instanceof SubscribeRequest) {
+            SubscribeRequest subscribe = (SubscribeRequest) request;
+            return "subscribe|" + subscribe.getAccount() + "|" + subscribe.getCurrency() + "|" + origin;
+        } else if (request instanceof PendingTransactionsRequest) {
+            PendingTransactionsRequest pending = (PendingTransactionsRequest) request;
+            return "pending|" + pending.getAccount() + "|" + pending.getSource() + "|" + pending.getSorting() + "|" + origin;
+        } else if (request instanceof AccountsBalancesRequest) {
+            return "balances|" + ((AccountsBalancesRequest) request).getAccounts() + "|" + origin;
+        }
+        return null;
+    }
+
+    /**
+     * Index a block a queued request is going to build or publish
+     *
+     * @param item  Queued request item
+     * @param block Block
+     */
+    public void attach(RequestItem item, Block block) {
+        if (!nodes.containsKey(item) || block == null) {
+            return;
+        }
+        String source = null;
+        String account = null;
+        if (block instanceof StateBlock) {
+            StateBlock stateBlock = (StateBlock) block;
+            account = stateBlock.getAccount();
+            if (stateBlock.getInternal_block_type() == BlockTypes.OPEN ||
+                    stateBlock.getInternal_block_type() == BlockTypes.RECEIVE) {
+                source = stateBlock.getLink();
+            }
+        } else if (block instanceof OpenBlock) {
+            account = ((OpenBlock) block).getAccount();
+            source = ((OpenBlock) block).getSource();
+        } else if (block instanceof ReceiveBlock) {
+            source = ((ReceiveBlock) block).getSource();
+        }
+        index(item, source, block.getInternal_block_type(), account);
+    }
+
+    private void index(RequestItem item, String source, BlockTypes blockType, String account) {
+        Node node = nodes.get(item);
+        if (source != null) {
+            source = source.toUpperCase();
+            node.sources.add(source);
+            put(bySource, source, item);
+        }
+        if (blockType != null) {
+            node.blockTypes.add(blockType);
+            put(byBlockType, blockType, item);
+        }
+        if (account != null) {
+            node.accounts.add(account);
+            put(byAccount, account, item);
+        }
+    }
+
+    private static <K> void put(Map<K, Set<RequestItem>> index, K key, RequestItem item) {
+        Set<RequestItem> set = index.get(key);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            index.put(key, set);
+        }
+        set.add(item);
+    }
+
+    private static <K> void remove(Map<K, Set<RequestItem>> index, K key, RequestItem item) {
+        Set<RequestItem> set = index.get(key);
+        if (set != null) {
+            set.remove(item);
+            if (set.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private void unindex(RequestItem item, Node node) {
+        for (String source : node.sources) {
+            remove(bySource, source, item);
+        }
+        for (BlockTypes blockType : node.blockTypes) {
+            remove(byBlockType, blockType, item);
+        }
+        for (String account : node.accounts) {
+            remove(byAccount, account, item);
+        }
+        if (node.request != null) {
+            remove(byRequest, node.request, item);
+        }
+    }
+
+    public boolean remove(RequestItem item) {
+        Node node = nodes.remove(item);
+        if (node == null) {
+            return false;
+        }
+        if (node.previous != null) {
+            node.previous.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.previous = node.previous;
+        } else {
+            tail = node.previous;
+        }
+        size = nodes.size();
+        unindex(item, node);
+        return true;
+    }
+
+    /**
+     * @return First request item, null if the queue is empty
+     */
+    public RequestItem first() {
+        return head != null ? head.item : null;
+    }
+
+    /**
+     * @return Last request item, null if the queue is empty
+     */
+    public RequestItem last() {
+        return tail != null ? tail.item : null;
+    }
+
+    /**
+     * @param item Queued request item
+     * @return Request item right behind it, null if it's last or not queued
+     */
+    public RequestItem next(RequestItem item) {
+        Node node = nodes.get(item);
+        return node != null && node.next != null ? node.next.item : null;
+    }
+
+    /**
+     * @param item Queued request item
+     * @return Request item right in front of it, null if it's first or not queued
+     */
+    public RequestItem previous(RequestItem item) {
+        Node node = nodes.get(item);
+        return node != null && node.previous != null ? node.previous.item : null;
+    }
+
+    public boolean contains(RequestItem item) {
+        return nodes.containsKey(item);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        nodes.clear();
+        size = 0;
+        bySource.clear();
+        byBlockType.clear();
+        byAccount.clear();
+        byRequest.clear();
+    }
+
+    /**
+     * @param source Source hash of a receive or open block
+     * @return true if a queued request builds or publishes a block receiving this hash
+     */
+    public boolean containsSource(String source) {
+        return source != null && bySource.containsKey(source.toUpperCase());
+    }
+
+    /**
+     * @param blockType Block type
+     * @return true if a queued request builds or publishes a block of this type
+     */
+    public boolean containsBlockType(BlockTypes blockType) {
+        return byBlockType.containsKey(blockType);
+    }
+
+    /**
+     * @param account Account address
+     * @return Queued requests for the account, or building blocks on its chain, in no particular order
+     */
+    public List<RequestItem> forAccount(String account) {
+        Set<RequestItem> set = byAccount.get(account);
+        return set != null ? new ArrayList<>(set) : Collections.<RequestItem>emptyList();
+    }
+
+    /**
+     * @return Copy of the queue to iterate over while changing it
+     */
+    public List<RequestItem> snapshot() {
+        List<RequestItem> items = new ArrayList<>(nodes.size());
+        for (Node node = head; node != null; node = node.next) {
+            items.add(node.item);
+        }
+        return items;
+    }
+
+    @Override
+    public Iterator<RequestItem> iterator() {
+        return new Iterator<RequestItem>() {
+            private Node next = head;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public RequestItem next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                RequestItem item = next.item;
+                next = next.next;
+                return item;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
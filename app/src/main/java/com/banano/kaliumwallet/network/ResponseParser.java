@@ -0,0 +1,264 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.model.BaseResponse;
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.request.AccountCheckRequest;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.AccountsBalancesRequest;
+import com.banano.kaliumwallet.network.model.request.CurrentPriceRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlockRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlocksInfoRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.WorkRequest;
+import com.banano.kaliumwallet.network.model.response.AccountCheckResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountsBalancesResponse;
+import com.banano.kaliumwallet.network.model.response.BlockResponse;
+import com.banano.kaliumwallet.network.model.response.BlocksInfoResponse;
+import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
+import com.banano.kaliumwallet.network.model.response.ErrorResponse;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponse;
+import com.banano.kaliumwallet.network.model.response.ProcessResponse;
+import com.banano.kaliumwallet.network.model.response.SubscribeResponse;
+import com.banano.kaliumwallet.network.model.response.TransactionResponse;
+import com.banano.kaliumwallet.network.model.response.WarningResponse;
+import com.banano.kaliumwallet.network.model.response.WorkResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Turns socket messages into response objects. The message is read once and the parsed
+ * tree is bound to the response type, it's never parsed from the string again.
+ * <p>
+ * Responses don't say what they are. A reply to one of our requests is bound to the type
+ * that request expects, found through the request id the server echoes. Only messages
+ * pushed to us, or replies from servers that don't echo ids, have their type worked out
+ * from the fields in the message.
+ */
+public class ResponseParser {
+    private static final Map<String, Class<? extends BaseResponse>> TYPES = new HashMap<>();
+    private static final Map<Class<?>, String> MESSAGE_TYPES = new HashMap<>();
+    private static final Map<Class<?>, Class<? extends BaseResponse>> EXPECTED_TYPES = new HashMap<>();
+
+    static {
+        register(Actions.SUBSCRIBE.toString(), SubscribeResponse.class);
+        register(Actions.HISTORY.toString(), AccountHistoryResponse.class);
+        register(Actions.PRICE.toString(), CurrentPriceResponse.class);
+        register(Actions.WORK.toString(), WorkResponse.class);
+        register(Actions.ERROR.toString(), ErrorResponse.class);
+        register(Actions.WARNING.toString(), WarningResponse.class);
+        register(Actions.CHECK.toString(), AccountCheckResponse.class);
+        register(Actions.PROCESS.toString(), ProcessResponse.class);
+        register(Actions.GET_BLOCKS_INFO.toString(), BlocksInfoResponse.class);
+        register(Actions.BALANCES.toString(), AccountsBalancesResponse.class);
+        register(Actions.PENDING.toString(), PendingTransactionResponse.class);
+        register("block", TransactionResponse.class);
+        register("contents", BlockResponse.class);
+
+        EXPECTED_TYPES.put(SubscribeRequest.class, SubscribeResponse.class);
+        EXPECTED_TYPES.put(AccountHistoryRequest.class, AccountHistoryResponse.class);
+        EXPECTED_TYPES.put(CurrentPriceRequest.class, CurrentPriceResponse.class);
+        EXPECTED_TYPES.put(WorkRequest.class, WorkResponse.class);
+        EXPECTED_TYPES.put(AccountCheckRequest.class, AccountCheckResponse.class);
+        EXPECTED_TYPES.put(ProcessRequest.class, ProcessResponse.class);
+        EXPECTED_TYPES.put(GetBlocksInfoRequest.class, BlocksInfoResponse.class);
+        EXPECTED_TYPES.put(AccountsBalancesRequest.class, AccountsBalancesResponse.class);
+        EXPECTED_TYPES.put(PendingTransactionsRequest.class, PendingTransactionResponse.class);
+        EXPECTED_TYPES.put(GetBlockRequest.class, BlockResponse.class);
+    }
+
+    private static void register(String messageType, Class<? extends BaseResponse> type) {
+        TYPES.put(messageType, type);
+        MESSAGE_TYPES.put(type, messageType);
+    }
+
+    private final Gson gson;
+    private final JsonParser jsonParser = new JsonParser();
+
+    public ResponseParser(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * @param message Socket message
+     * @return Response, a plain BaseResponse without message type if the type isn't known,
+     * or null if the message isn't a JSON object
+     * @throws JsonParseException if the message isn't valid JSON
+     */
+    public BaseResponse parse(String message) {
+        return bind(read(message), null);
+    }
+
+    /**
+     * @param message Socket message
+     * @return Parsed message, null if it isn't a JSON object
+     * @throws JsonParseException if the message isn't valid JSON
+     */
+    public JsonObject read(String message) {
+        JsonReader reader = new JsonReader(new StringReader(message));
+        reader.setLenient(true);
+        JsonElement element = jsonParser.parse(reader);
+        return element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+
+    /**
+     * @param json Parsed message
+     * @return Request id echoed by the server, null if there is none
+     */
+    public static Integer idOf(JsonObject json) {
+        JsonElement id = json != null ? json.get("id") : null;
+        return id != null && id.isJsonPrimitive() && id.getAsJsonPrimitive().isNumber() ? id.getAsInt() : null;
+    }
+
+    /**
+     * Bind a parsed message to its response type
+     *
+     * @param json         Parsed message
+     * @param expectedType Type the request this replies to expects, null if not known
+     * @return Response, a plain BaseResponse without message type if the type isn't known,
+     * or null if there is no message
+     */
+    public BaseResponse bind(JsonObject json, Class<? extends BaseResponse> expectedType) {
+        if (json == null) {
+            return null;
+        }
+        String messageType;
+        JsonElement messageTypeElement = json.get("messageType");
+        if (messageTypeElement != null && messageTypeElement.isJsonPrimitive()) {
+            messageType = messageTypeElement.getAsString();
+        } else if (expectedType != null) {
+            // any request can fail, a subscribe error still carries the subscribe fields
+            if (json.has("error") && !(expectedType == SubscribeResponse.class && json.has("currency"))) {
+                expectedType = ErrorResponse.class;
+            } else if (json.has("warning")) {
+                expectedType = WarningResponse.class;
+            }
+            messageType = MESSAGE_TYPES.get(expectedType);
+        } else {
+            messageType = resolveMessageType(json);
+        }
+        Class<? extends BaseResponse> type = typeOf(messageType);
+        if (type == null) {
+            return gson.fromJson(json, BaseResponse.class);
+        }
+        json.addProperty("messageType", messageType);
+        prepare(json, type);
+        return gson.fromJson(json, type);
+    }
+
+    /**
+     * Fix up fields the response models can't bind as they come from the server
+     *
+     * @param json Parsed message
+     * @param type Response type
+     */
+    public static void prepare(JsonObject json, Class<? extends BaseResponse> type) {
+        if (type == AccountHistoryResponse.class) {
+            // if history is an empty string, make it an array instead
+            JsonElement history = json.get("history");
+            if (history == null || !history.isJsonArray()) {
+                json.add("history", new JsonArray());
+            }
+        } else if (type == PendingTransactionResponse.class || type == BlocksInfoResponse.class) {
+            // no blocks come as an empty string
+            JsonElement blocks = json.get("blocks");
+            if (blocks == null || !blocks.isJsonObject()) {
+                json.add("blocks", new JsonObject());
+            }
+        }
+    }
+
+    /**
+     * @param request Request object
+     * @return Response type a reply to the request is bound to, null if not known
+     */
+    public static Class<? extends BaseResponse> expectedResponseType(Object request) {
+        return request != null ? EXPECTED_TYPES.get(request.getClass()) : null;
+    }
+
+    /**
+     * Figure out the response type based on what fields are in the response
+     *
+     * @param json Response without a message type
+     * @return Message type, null if unknown
+     */
+    public static String resolveMessageType(JsonObject json) {
+        if (json.get("uuid") != null ||
+                (json.get("frontier") != null && json.get("representative_block") != null) ||
+                (json.get("error") != null && json.get("currency") != null)) {
+            // subscribe response
+            return Actions.SUBSCRIBE.toString();
+        } else if (json.get("history") != null) {
+            return Actions.HISTORY.toString();
+        } else if (json.get("currency") != null) {
+            // current price
+            return Actions.PRICE.toString();
+        } else if (json.get("work") != null) {
+            return Actions.WORK.toString();
+        } else if (json.get("error") != null) {
+            return Actions.ERROR.toString();
+        } else if (json.get("warning") != null) {
+            return Actions.WARNING.toString();
+        } else if (json.get("block") != null && json.get("account") != null && json.get("hash") != null) {
+            // block pushed to us
+            return "block";
+        } else if (json.get("ready") != null) {
+            // account check response
+            return Actions.CHECK.toString();
+        } else if (json.get("hash") != null) {
+            // process block response
+            return Actions.PROCESS.toString();
+        } else if (json.get("type") != null && json.get("type").isJsonPrimitive() &&
+                json.get("type").getAsString().equals(BlockTypes.STATE.toString())) {
+            // state block response
+            return Actions.PROCESS.toString();
+        } else if (json.get("blocks") != null) {
+            JsonObject first = firstObjectValue(json.get("blocks"));
+            if (first != null) {
+                // pending blocks carry the amount and maybe the source, blocks info a lot more
+                return first.has("block_account") ? Actions.GET_BLOCKS_INFO.toString() : Actions.PENDING.toString();
+            }
+        } else if (json.get("balances") != null) {
+            JsonObject first = firstObjectValue(json.get("balances"));
+            if (first != null && first.has("pending")) {
+                return Actions.BALANCES.toString();
+            }
+        } else if (json.get("representative") != null) {
+            return Actions.REPRESENTATIVE.toString();
+        }
+        return null;
+    }
+
+    private static JsonObject firstObjectValue(JsonElement element) {
+        if (!element.isJsonObject()) {
+            return null;
+        }
+        Iterator<Map.Entry<String, JsonElement>> entries = element.getAsJsonObject().entrySet().iterator();
+        if (!entries.hasNext()) {
+            return null;
+        }
+        JsonElement value = entries.next().getValue();
+        return value.isJsonObject() ? value.getAsJsonObject() : null;
+    }
+
+    /**
+     * @param messageType Message type
+     * @return Response class for the message type, null if unknown
+     */
+    public static Class<? extends BaseResponse> typeOf(String messageType) {
+        return messageType != null ? TYPES.get(messageType) : null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.banano.kaliumwallet.network;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of blocks whose hash was verified or that we produced ourselves,
+ * keyed by hash. A block built on top of one of these doesn't need blocks_info for its
+ * previous block.
+ */
+public class VerifiedBlockCache {
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    public static class Entry {
+        private final String balance;
+        private final String representative;
+
+        public Entry(String balance, String representative) {
+            this.balance = balance;
+            this.representative = representative;
+        }
+
+        /**
+         * @return Balance after the block in raw
+         */
+        public String getBalance() {
+            return balance;
+        }
+
+        /**
+         * @return Representative, null for legacy blocks that don't carry one
+         */
+        public String getRepresentative() {
+            return representative;
+        }
+    }
+
+    public VerifiedBlockCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public VerifiedBlockCache(final int maxEntries) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized void put(String hash, String balance, String representative) {
+        if (hash == null || balance == null) {
+            return;
+        }
+        entries.put(hash.toUpperCase(), new Entry(balance, representative));
+    }
+
+    /**
+     * @param hash Block hash
+     * @return Cached entry or null
+     */
+    public synchronized Entry get(String hash) {
+        return hash != null ? entries.get(hash.toUpperCase()) : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
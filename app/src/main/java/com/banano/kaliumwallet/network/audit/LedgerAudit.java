@@ -0,0 +1,349 @@
+package com.banano.kaliumwallet.network.audit;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.bus.LedgerAuditResult;
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
+import com.banano.kaliumwallet.network.model.response.BlockInfoItem;
+import com.banano.kaliumwallet.network.model.response.BlockItem;
+import com.banano.kaliumwallet.util.Ed25519;
+import com.banano.kaliumwallet.util.NumberUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Audit of an entire account chain.
+ *
+ * Block hashes are collected from the account history and fetched with blocks_info in batches.
+ * History doesn't list change blocks, so once everything listed is in, the chain is walked
+ * from the frontier back to the open block and any previous block that is still missing is
+ * fetched in another round. The complete chain is then split over all cores, recomputing every
+ * block hash, verifying every signature and checking each balance against the one before it.
+ * The first inconsistency in chain order is reported.
+ *
+ * Collecting blocks is not thread safe and should happen on one thread, verify may run on any.
+ */
+public class LedgerAudit {
+    public static final int BATCH_SIZE = 500;
+    private static final String ZERO_HASH = "0000000000000000000000000000000000000000000000000000000000000000";
+    // blocks per verification task, small enough to balance the load between cores
+    private static final int CHUNK_SIZE = 256;
+
+    private final String account;
+    private final byte[] publicKey = new byte[KaliumUtil.KEY_LENGTH];
+    private final String frontier;
+    private final Gson gson;
+    private final Map<String, BlockInfoItem> blocks = new HashMap<>();
+    private final Set<String> requested = new HashSet<>();
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * @param account  Account address
+     * @param frontier Frontier hash of the account, null if the account isn't open
+     * @param gson     Gson used to parse block contents
+     */
+    public LedgerAudit(String account, String frontier, Gson gson) {
+        this.account = account;
+        this.frontier = frontier;
+        this.gson = gson;
+        KaliumUtil.addressToPublic(account, publicKey);
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    /**
+     * Add the hashes from the account history
+     *
+     * @param history Account history response
+     * @return Batches of hashes to fetch
+     */
+    public List<String[]> addHistory(AccountHistoryResponse history) {
+        List<String> hashes = new ArrayList<>();
+        if (frontier != null) {
+            hashes.add(frontier);
+        }
+        if (history != null && history.getHistory() != null) {
+            for (AccountHistoryResponseItem item : history.getHistory()) {
+                hashes.add(item.getHash());
+            }
+        }
+        return toBatches(hashes);
+    }
+
+    /**
+     * Add fetched blocks
+     *
+     * @param infos Block info keyed by hash
+     */
+    public void addBlocks(Map<String, BlockInfoItem> infos) {
+        if (infos != null) {
+            blocks.putAll(infos);
+        }
+    }
+
+    /**
+     * Walk the chain from the frontier and find the first block that hasn't been fetched yet
+     *
+     * @return Batches of hashes still to fetch, empty once the chain is complete
+     * @throws IllegalStateException if the missing block was requested already
+     */
+    public List<String[]> nextMissing() {
+        String hash = frontier;
+        int steps = 0;
+        while (hash != null && steps++ <= blocks.size()) {
+            BlockInfoItem info = blocks.get(hash);
+            if (info == null) {
+                if (requested.contains(hash)) {
+                    throw new IllegalStateException("block " + hash + " is missing from the ledger");
+                }
+                return toBatches(Arrays.asList(hash));
+            }
+            hash = previousOf(parse(info));
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Verify the chain. Blocks until all blocks are checked.
+     *
+     * @return Audit result
+     */
+    public LedgerAuditResult verify() {
+        final List<String> chain;
+        try {
+            chain = orderChain();
+        } catch (IllegalStateException e) {
+            return result(0, null, e.getMessage());
+        }
+        if (chain.isEmpty()) {
+            return result(0, null, null);
+        }
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Failure>> tasks = new ArrayList<>();
+            for (int start = 0; start < chain.size(); start += CHUNK_SIZE) {
+                final int from = start;
+                final int to = Math.min(start + CHUNK_SIZE, chain.size());
+                tasks.add(() -> verifyRange(chain, from, to));
+            }
+            // chunks are in chain order, so the first failure found is the first in the chain
+            for (Future<Failure> future : executor.invokeAll(tasks)) {
+                Failure failure = future.get();
+                if (failure != null) {
+                    return result(chain.size(), chain.get(failure.index), failure.reason);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result(chain.size(), null, "audit interrupted");
+        } catch (ExecutionException e) {
+            return result(chain.size(), null, String.valueOf(e.getCause()));
+        } finally {
+            executor.shutdownNow();
+        }
+        return result(chain.size(), null, null);
+    }
+
+    private LedgerAuditResult result(int blockCount, String hash, String reason) {
+        return new LedgerAuditResult(account, reason == null, blockCount, hash, reason,
+                System.currentTimeMillis() - startTime);
+    }
+
+    private List<String[]> toBatches(List<String> hashes) {
+        List<String[]> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        for (String hash : hashes) {
+            if (hash == null || blocks.containsKey(hash) || !requested.add(hash)) {
+                continue;
+            }
+            batch.add(hash);
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch.toArray(new String[0]));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch.toArray(new String[0]));
+        }
+        return batches;
+    }
+
+    /**
+     * @return Hashes from the open block to the frontier
+     */
+    private List<String> orderChain() {
+        List<String> chain = new ArrayList<>();
+        String hash = frontier;
+        while (hash != null) {
+            if (chain.size() > blocks.size()) {
+                throw new IllegalStateException("chain has a loop");
+            }
+            BlockInfoItem info = blocks.get(hash);
+            if (info == null) {
+                throw new IllegalStateException("block " + hash + " is missing from the ledger");
+            }
+            chain.add(hash);
+            hash = previousOf(parse(info));
+        }
+        Collections.reverse(chain);
+        return chain;
+    }
+
+    private BlockItem parse(BlockInfoItem info) {
+        try {
+            BlockItem block = gson.fromJson(info.getContents(), BlockItem.class);
+            if (block == null || block.getType() == null) {
+                throw new IllegalStateException("block has no contents");
+            }
+            return block;
+        } catch (JsonSyntaxException e) {
+            throw new IllegalStateException("block contents can't be parsed");
+        }
+    }
+
+    /**
+     * @return Previous hash, null for the open block
+     */
+    private static String previousOf(BlockItem block) {
+        if (block.getType().equals(BlockTypes.OPEN.toString())
+                || block.getPrevious() == null || block.getPrevious().equals(ZERO_HASH)) {
+            return null;
+        }
+        return block.getPrevious();
+    }
+
+    private Failure verifyRange(List<String> chain, int from, int to) {
+        byte[] hashBytes = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] signature = new byte[KaliumUtil.SIGNATURE_LENGTH];
+        for (int i = from; i < to; i++) {
+            String hash = chain.get(i);
+            BlockInfoItem info = blocks.get(hash);
+            try {
+                BlockItem block = parse(info);
+                String reason = checkHash(hash, block);
+                if (reason == null) {
+                    KaliumUtil.hexToBytes(hash, hashBytes);
+                    KaliumUtil.hexToBytes(block.getSignature(), signature);
+                    if (!Ed25519.verify(publicKey, hashBytes, signature)) {
+                        reason = "signature is invalid";
+                    }
+                }
+                if (reason == null) {
+                    reason = checkBalance(block, info, i > 0 ? blocks.get(chain.get(i - 1)) : null);
+                }
+                if (reason != null) {
+                    return new Failure(i, reason);
+                }
+            } catch (IllegalArgumentException | IllegalStateException | NullPointerException e) {
+                return new Failure(i, "block is malformed: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private String checkHash(String hash, BlockItem block) {
+        String type = block.getType();
+        if (type.equals(BlockTypes.STATE.toString())) {
+            if (!account.equals(block.getAccount())) {
+                return "state block belongs to another account";
+            }
+            byte[] previous = new byte[KaliumUtil.HASH_LENGTH];
+            byte[] representative = new byte[KaliumUtil.KEY_LENGTH];
+            byte[] balance = new byte[KaliumUtil.BALANCE_LENGTH];
+            byte[] link = new byte[KaliumUtil.HASH_LENGTH];
+            byte[] expected = new byte[KaliumUtil.HASH_LENGTH];
+            byte[] calculated = new byte[KaliumUtil.HASH_LENGTH];
+            KaliumUtil.hexToBytes(block.getPrevious(), previous);
+            KaliumUtil.addressToPublic(block.getRepresentative(), representative);
+            KaliumUtil.rawToBytes(new BigInteger(block.getBalance()), balance);
+            KaliumUtil.hexToBytes(block.getLink(), link);
+            KaliumUtil.hexToBytes(hash, expected);
+            KaliumUtil.computeStateHash(publicKey, previous, representative, balance, link, calculated);
+            return Arrays.equals(expected, calculated) ? null : "state block hash doesn't match";
+        }
+        String calculated;
+        if (type.equals(BlockTypes.SEND.toString())) {
+            calculated = KaliumUtil.computeSendHash(block.getPrevious(),
+                    KaliumUtil.addressToPublic(block.getDestination()), block.getBalance());
+        } else if (type.equals(BlockTypes.RECEIVE.toString())) {
+            calculated = KaliumUtil.computeReceiveHash(block.getPrevious(), block.getSource());
+        } else if (type.equals(BlockTypes.OPEN.toString())) {
+            if (!account.equals(block.getAccount())) {
+                return "open block belongs to another account";
+            }
+            calculated = KaliumUtil.computeOpenHash(block.getSource(),
+                    KaliumUtil.addressToPublic(block.getRepresentative()),
+                    KaliumUtil.addressToPublic(block.getAccount()));
+        } else if (type.equals(BlockTypes.CHANGE.toString())) {
+            calculated = KaliumUtil.computeChangeHash(block.getPrevious(),
+                    KaliumUtil.addressToPublic(block.getRepresentative()));
+        } else {
+            return "unexpected block type " + type;
+        }
+        return hash.equalsIgnoreCase(calculated) ? null : type + " block hash doesn't match";
+    }
+
+    /**
+     * The balance has to move by exactly the block amount from the previous balance
+     */
+    private String checkBalance(BlockItem block, BlockInfoItem info, BlockInfoItem previous) {
+        String type = block.getType();
+        if (type.equals(BlockTypes.STATE.toString()) && !info.getBalance().equals(block.getBalance())) {
+            return "balance in state block doesn't match balance in block info";
+        }
+        if (type.equals(BlockTypes.SEND.toString())
+                && !info.getBalance().equals(NumberUtil.getRawFromHex(block.getBalance()))) {
+            return "balance in send block doesn't match balance in block info";
+        }
+        if (previous == null && previousOf(block) != null) {
+            return "chain doesn't start with an open block";
+        }
+        BigInteger balance = new BigInteger(info.getBalance());
+        BigInteger previousBalance = previous != null ? new BigInteger(previous.getBalance()) : BigInteger.ZERO;
+        BigInteger delta = balance.subtract(previousBalance);
+        if (type.equals(BlockTypes.SEND.toString()) && delta.signum() > 0) {
+            return "send block increases the balance";
+        }
+        if ((type.equals(BlockTypes.RECEIVE.toString()) || type.equals(BlockTypes.OPEN.toString()))
+                && delta.signum() < 0) {
+            return "receive block decreases the balance";
+        }
+        if (type.equals(BlockTypes.CHANGE.toString()) && delta.signum() != 0) {
+            return "change block changes the balance";
+        }
+        if (info.getAmount() != null && !delta.abs().equals(new BigInteger(info.getAmount()))) {
+            return "balance change doesn't match the block amount";
+        }
+        return null;
+    }
+
+    private static class Failure {
+        final int index;
+        final String reason;
+
+        Failure(int index, String reason) {
+            this.index = index;
+            this.reason = reason;
+        }
+    }
+}
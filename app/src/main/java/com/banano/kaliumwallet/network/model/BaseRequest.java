@@ -1,9 +1,21 @@
 package com.banano.kaliumwallet.network.model;
 
+import com.google.gson.annotations.SerializedName;
+
 /**
  * Base Network Request Model
  */
 
 public class BaseRequest {
+    // set when sent, echoed back on the response so it can be matched to this request
+    @SerializedName("id")
+    private Integer id;
+
+    public Integer getId() {
+        return id;
+    }
 
+    public void setId(Integer id) {
+        this.id = id;
+    }
 }
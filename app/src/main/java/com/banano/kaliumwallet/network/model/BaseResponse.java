@@ -10,6 +10,10 @@ public class BaseResponse {
     @SerializedName("messageType")
     private String messageType;
 
+    // id of the request this responds to, if the server echoes it
+    @SerializedName("id")
+    private Integer id;
+
     public BaseResponse() {
     }
 
@@ -24,4 +28,12 @@ public class BaseResponse {
     public void setMessageType(String messageType) {
         this.messageType = messageType;
     }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
 }
@@ -2,8 +2,6 @@ package com.banano.kaliumwallet.network.model;
 
 import com.banano.kaliumwallet.network.AccountService;
 
-import java.util.Calendar;
-
 /**
  * Request object for queue
  */
@@ -13,14 +11,18 @@ public class RequestItem<T> {
     private long expireTime;
     private T request;
     private boolean fromTransfer = false;
+    private boolean fromAudit = false;
+    private boolean pipelined = false;
+    private int retries = 0;
+    private long retryTime = 0;
+    private long sentTime = 0;
+    private Class<? extends BaseResponse> responseType;
 
     public RequestItem(T request) {
         this.request = request;
 
-        // set expire time to now plus timeout
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.MILLISECOND, AccountService.TIMEOUT_MILLISECONDS);
-        this.expireTime = calendar.getTime().getTime();
+        // set expire time to now plus timeout, it's set again when the request is sent
+        this.expireTime = System.currentTimeMillis() + AccountService.TIMEOUT_MILLISECONDS;
         this.fromTransfer = false;
     }
 
@@ -55,4 +57,65 @@ public class RequestItem<T> {
     public void setFromTransfer(boolean fromTransfer) {
         this.fromTransfer = fromTransfer;
     }
+
+    public boolean isFromAudit() {
+        return fromAudit;
+    }
+
+    public void setFromAudit(boolean fromAudit) {
+        this.fromAudit = fromAudit;
+    }
+
+    /**
+     * @return true if the request builds a block chained locally, which may be sent while
+     * earlier blocks of the chain wait for their response
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * @return Time the request was last sent, in milliseconds
+     */
+    public long getSentTime() {
+        return sentTime;
+    }
+
+    public void setSentTime(long sentTime) {
+        this.sentTime = sentTime;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    /**
+     * @return Time before which a request waiting to be sent again is held back
+     */
+    public long getRetryTime() {
+        return retryTime;
+    }
+
+    public void setRetryTime(long retryTime) {
+        this.retryTime = retryTime;
+    }
+
+    /**
+     * @return Type the reply to this request is bound to, set when the request is sent
+     */
+    public Class<? extends BaseResponse> getResponseType() {
+        return responseType;
+    }
+
+    public void setResponseType(Class<? extends BaseResponse> responseType) {
+        this.responseType = responseType;
+    }
 }
@@ -21,6 +21,10 @@ public class AccountHistoryRequest extends BaseRequest {
     @SerializedName("count")
     private Integer count;
 
+    // hash of the block to start from, going back. leave out to start at the frontier
+    @SerializedName("head")
+    private String head;
+
     public AccountHistoryRequest() {
         this.action = Actions.HISTORY.toString();
     }
@@ -31,6 +35,13 @@ public class AccountHistoryRequest extends BaseRequest {
         this.count = count;
     }
 
+    public AccountHistoryRequest(String account, Integer count, String head) {
+        this.action = Actions.HISTORY.toString();
+        this.account = account;
+        this.count = count;
+        this.head = head;
+    }
+
     public String getAction() {
         return action;
     }
@@ -54,4 +65,12 @@ public class AccountHistoryRequest extends BaseRequest {
     public void setCount(Integer count) {
         this.count = count;
     }
+
+    public String getHead() {
+        return head;
+    }
+
+    public void setHead(String head) {
+        this.head = head;
+    }
 }
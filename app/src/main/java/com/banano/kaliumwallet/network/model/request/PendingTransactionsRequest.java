@@ -21,6 +21,10 @@ public class PendingTransactionsRequest extends BaseRequest {
     @SerializedName("count")
     private Integer count;
 
+    // largest amounts first, so a count that cuts the list off keeps the ones worth most
+    @SerializedName("sorting")
+    private Boolean sorting;
+
     public PendingTransactionsRequest() {
         this.action = Actions.PENDING.toString();
     }
@@ -63,4 +67,12 @@ public class PendingTransactionsRequest extends BaseRequest {
     public void setCount(Integer count) {
         this.count = count;
     }
+
+    public Boolean getSorting() {
+        return sorting;
+    }
+
+    public void setSorting(Boolean sorting) {
+        this.sorting = sorting;
+    }
 }
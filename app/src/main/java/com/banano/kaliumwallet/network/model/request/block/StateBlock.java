@@ -6,6 +6,8 @@ import com.banano.kaliumwallet.network.model.BlockTypes;
 import com.banano.kaliumwallet.util.NumberUtil;
 import com.google.gson.annotations.SerializedName;
 
+import java.math.BigInteger;
+
 /**
  * Send BlockItem
  */
@@ -32,8 +34,10 @@ public class StateBlock extends Block {
     private String signature;
 
     private transient String sendAmount;
-    private transient String privateKey;
-    private transient String publicKey;
+    private transient byte[] privateKey;
+    private transient byte[] publicKey;
+    private transient byte[] linkBytes;
+    private transient String hash;
 
     public StateBlock() {
         this.type = BlockTypes.STATE.toString();
@@ -42,10 +46,17 @@ public class StateBlock extends Block {
     public StateBlock(BlockTypes blockType, String private_key, String previous,
                       String representative,
                       String balance, String link) {
-        this.privateKey = private_key;
-        this.publicKey = KaliumUtil.privateToPublic(private_key);
+        this.privateKey = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(private_key, this.privateKey);
+        this.publicKey = KaliumUtil.privateToPublic(this.privateKey);
+        this.linkBytes = new byte[KaliumUtil.HASH_LENGTH];
         Address linkAddress = new Address(link);
-        link = linkAddress.isValidAddress() ? KaliumUtil.addressToPublic(linkAddress.getAddress()) : link;
+        if (linkAddress.isValidAddress()) {
+            KaliumUtil.addressToPublic(linkAddress.getAddress(), linkBytes);
+            link = KaliumUtil.toHex(linkBytes);
+        } else {
+            KaliumUtil.hexToBytes(link, linkBytes);
+        }
 
         this.setInternal_block_type(blockType);
         this.type = BlockTypes.STATE.toString();
@@ -65,13 +76,22 @@ public class StateBlock extends Block {
     }
 
     private void sign() {
-        String hash = KaliumUtil.computeStateHash(
-                account,
-                previous,
-                representative,
-                this.balance,
-                link);
-        this.signature = KaliumUtil.sign(privateKey, hash);
+        byte[] previousBytes = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] representativeBytes = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] balanceBytes = new byte[KaliumUtil.BALANCE_LENGTH];
+        byte[] hash = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.hexToBytes(previous, previousBytes);
+        KaliumUtil.addressToPublic(representative, representativeBytes);
+        KaliumUtil.rawToBytes(new BigInteger(this.balance), balanceBytes);
+        KaliumUtil.computeStateHash(
+                publicKey,
+                previousBytes,
+                representativeBytes,
+                balanceBytes,
+                linkBytes,
+                hash);
+        this.hash = KaliumUtil.toHex(hash);
+        this.signature = KaliumUtil.toHex(KaliumUtil.sign(privateKey, hash));
     }
 
     public String getType() {
@@ -121,6 +141,9 @@ public class StateBlock extends Block {
 
     public void setLink(String link) {
         this.link = link;
+        if (linkBytes != null) {
+            KaliumUtil.hexToBytes(link, linkBytes);
+        }
     }
 
     @Override
@@ -133,6 +156,13 @@ public class StateBlock extends Block {
         this.work = work;
     }
 
+    /**
+     * @return Hash of the block, null until it's signed
+     */
+    public String getHash() {
+        return hash;
+    }
+
     public String getSignature() {
         return signature;
     }
@@ -14,6 +14,10 @@ public class AccountHistoryResponse extends BaseResponse {
     @SerializedName("history")
     private List<AccountHistoryResponseItem> history;
 
+    // hash of the block before the last entry, only there if the history goes further back
+    @SerializedName("previous")
+    private String previous;
+
     public AccountHistoryResponse() {
     }
 
@@ -28,4 +32,12 @@ public class AccountHistoryResponse extends BaseResponse {
     public void setHistory(List<AccountHistoryResponseItem> history) {
         this.history = history;
     }
+
+    public String getPrevious() {
+        return previous;
+    }
+
+    public void setPrevious(String previous) {
+        this.previous = previous;
+    }
 }
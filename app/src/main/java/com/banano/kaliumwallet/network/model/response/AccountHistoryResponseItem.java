@@ -31,7 +31,7 @@ public class AccountHistoryResponseItem {
     @SerializedName("hash")
     private String hash;
 
-    private String contactName;
+    private transient String contactName;
 
     public AccountHistoryResponseItem() {
     }
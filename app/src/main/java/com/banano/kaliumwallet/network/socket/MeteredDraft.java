@@ -0,0 +1,85 @@
+package com.banano.kaliumwallet.network.socket;
+
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.exceptions.InvalidHandshakeException;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RFC 6455 draft that counts the bytes going through it. Frame headers are counted, the
+ * HTTP upgrade isn't.
+ * <p>
+ * Draft_6455 of this Java-WebSocket version leaves the RSV bits out when it writes a frame,
+ * so it also sets RSV1 for frames compressed by {@link PerMessageDeflateExtension}. Both ends
+ * need this draft for compressed messages to go out.
+ */
+public class MeteredDraft extends Draft_6455 {
+    private static final int RSV1 = 0x40;
+
+    private final TransportStats stats;
+
+    /**
+     * @param stats    Where to count
+     * @param compress Offer permessage-deflate
+     */
+    public MeteredDraft(TransportStats stats, boolean compress) {
+        this(stats, compress ? Collections.singletonList(new PerMessageDeflateExtension(stats, false))
+                : Collections.emptyList());
+    }
+
+    private MeteredDraft(TransportStats stats, List<IExtension> extensions) {
+        super(extensions);
+        this.stats = stats;
+    }
+
+    public TransportStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public HandshakeState acceptHandshakeAsClient(ClientHandshake request, ServerHandshake response) throws InvalidHandshakeException {
+        HandshakeState state = super.acceptHandshakeAsClient(request, response);
+        stats.setCompressed(state == HandshakeState.MATCHED && getExtension() instanceof PerMessageDeflateExtension);
+        return state;
+    }
+
+    @Override
+    public ByteBuffer createBinaryFrame(Framedata framedata) {
+        // the extension compresses the payload in here, so take its size first
+        long payload = framedata.getPayloadData().remaining();
+        ByteBuffer frame = super.createBinaryFrame(framedata);
+        if (framedata.isRSV1()) {
+            frame.put(frame.position(), (byte) (frame.get(frame.position()) | RSV1));
+        }
+        stats.addOut(frame.remaining(), payload);
+        return frame;
+    }
+
+    @Override
+    public List<Framedata> translateFrame(ByteBuffer buffer) throws InvalidDataException {
+        stats.addIn(buffer.remaining());
+        List<Framedata> frames = super.translateFrame(buffer);
+        for (Framedata frame : frames) {
+            stats.addFrameIn(frame.getPayloadData().remaining());
+        }
+        return frames;
+    }
+
+    @Override
+    public Draft copyInstance() {
+        List<IExtension> extensions = new ArrayList<>();
+        for (IExtension extension : getKnownExtensions()) {
+            extensions.add(extension.copyInstance());
+        }
+        return new MeteredDraft(stats, extensions);
+    }
+}
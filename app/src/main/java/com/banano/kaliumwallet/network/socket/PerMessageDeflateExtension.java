@@ -0,0 +1,273 @@
+package com.banano.kaliumwallet.network.socket;
+
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.exceptions.InvalidFrameException;
+import org.java_websocket.extensions.CompressionExtension;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.framing.ContinuousFrame;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.framing.FramedataImpl1;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * permessage-deflate (RFC 7692) for Java-WebSocket, which doesn't come with it.
+ * <p>
+ * Messages are compressed with the sliding window kept across messages unless the other
+ * side asks for no context takeover, so hashes and addresses seen in an earlier message
+ * compress down to a few bytes in the next. java.util.zip always uses a 32K window, so if
+ * the server limits our window we just send uncompressed, which is always allowed.
+ * <p>
+ * Only whole messages are compressed on the way out. Fragmented messages coming in are
+ * decompressed frame by frame. Use it through {@link MeteredDraft}, which marks compressed
+ * frames on the wire.
+ */
+public class PerMessageDeflateExtension extends CompressionExtension {
+    public static final String NAME = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+    private static final String SERVER_MAX_WINDOW_BITS = "server_max_window_bits";
+    private static final String CLIENT_MAX_WINDOW_BITS = "client_max_window_bits";
+    private static final int MAX_WINDOW_BITS = 15;
+    // what a sync flush ends with, left off on the wire
+    private static final byte[] TAIL = {0x00, 0x00, (byte) 0xff, (byte) 0xff};
+    private static final int BUFFER_SIZE = 8192;
+
+    private final TransportStats stats;
+    // ask the client not to keep the window between messages, only used as a server
+    private final boolean requestServerNoContextTakeover;
+
+    private Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private Inflater inflater = new Inflater(true);
+    private boolean inboundNoContextTakeover = false;
+    private boolean outboundNoContextTakeover = false;
+    private boolean outboundCompression = true;
+    // a compressed message coming in over several frames
+    private boolean inflating = false;
+
+    public PerMessageDeflateExtension() {
+        this(null, false);
+    }
+
+    /**
+     * @param stats                          Where to add the time spent compressing, may be null
+     * @param requestServerNoContextTakeover As a server, compress every message on its own
+     */
+    public PerMessageDeflateExtension(TransportStats stats, boolean requestServerNoContextTakeover) {
+        this.stats = stats;
+        this.requestServerNoContextTakeover = requestServerNoContextTakeover;
+    }
+
+    @Override
+    public void decodeFrame(Framedata frame) throws InvalidDataException {
+        if (!(frame instanceof DataFrame)) {
+            return;
+        }
+        boolean continuation = frame instanceof ContinuousFrame;
+        if (!continuation) {
+            inflating = frame.isRSV1();
+        }
+        if (!inflating) {
+            return;
+        }
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            inflate(toBytes(frame.getPayloadData()), out);
+            if (frame.isFin()) {
+                inflate(TAIL, out);
+                inflating = false;
+                if (inboundNoContextTakeover) {
+                    inflater.reset();
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new InvalidFrameException(e.getMessage());
+        }
+        FramedataImpl1 decoded = (FramedataImpl1) frame;
+        decoded.setPayload(ByteBuffer.wrap(out.toByteArray()));
+        decoded.setRSV1(false);
+        addCodecNanos(start);
+    }
+
+    private void inflate(byte[] data, ByteArrayOutputStream out) throws DataFormatException {
+        inflater.setInput(data);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (true) {
+            int length = inflater.inflate(buffer);
+            if (length > 0) {
+                out.write(buffer, 0, length);
+            } else if (inflater.needsInput() || inflater.finished()) {
+                return;
+            } else {
+                throw new DataFormatException("inflater stalled");
+            }
+        }
+    }
+
+    @Override
+    public void encodeFrame(Framedata frame) {
+        // continuation frames can't be compressed on their own, so fragmented messages go as they are
+        if (!outboundCompression || !(frame instanceof DataFrame) || frame instanceof ContinuousFrame || !frame.isFin()) {
+            return;
+        }
+        long start = System.nanoTime();
+        deflater.setInput(toBytes(frame.getPayloadData()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length;
+        do {
+            length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+            out.write(buffer, 0, length);
+        } while (length == buffer.length);
+        if (outboundNoContextTakeover) {
+            deflater.reset();
+        }
+        byte[] compressed = out.toByteArray();
+        int size = compressed.length;
+        if (size >= TAIL.length && endsWithTail(compressed)) {
+            size -= TAIL.length;
+        }
+        FramedataImpl1 encoded = (FramedataImpl1) frame;
+        encoded.setPayload(ByteBuffer.wrap(compressed, 0, size).slice());
+        encoded.setRSV1(true);
+        addCodecNanos(start);
+    }
+
+    private static boolean endsWithTail(byte[] data) {
+        for (int i = 0; i < TAIL.length; i++) {
+            if (data[data.length - TAIL.length + i] != TAIL[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsClient(String inputExtension) {
+        String[] params = find(inputExtension);
+        if (params == null) {
+            return false;
+        }
+        for (int i = 1; i < params.length; i++) {
+            String[] param = params[i].split("=", 2);
+            String name = param[0].trim();
+            String value = param.length > 1 ? param[1].trim().replace("\"", "") : null;
+            if (SERVER_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)) {
+                inboundNoContextTakeover = true;
+            } else if (CLIENT_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)) {
+                outboundNoContextTakeover = true;
+            } else if (SERVER_MAX_WINDOW_BITS.equalsIgnoreCase(name)) {
+                // a smaller window on their side inflates fine with ours
+                if (!isWindowBits(value)) {
+                    return false;
+                }
+            } else if (CLIENT_MAX_WINDOW_BITS.equalsIgnoreCase(name)) {
+                if (!isWindowBits(value)) {
+                    return false;
+                }
+                outboundCompression = Integer.parseInt(value) == MAX_WINDOW_BITS;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean acceptProvidedExtensionAsServer(String inputExtension) {
+        String[] params = find(inputExtension);
+        if (params == null) {
+            return false;
+        }
+        for (int i = 1; i < params.length; i++) {
+            String name = params[i].split("=", 2)[0].trim();
+            if (CLIENT_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)) {
+                inboundNoContextTakeover = true;
+            } else if (SERVER_NO_CONTEXT_TAKEOVER.equalsIgnoreCase(name)) {
+                outboundNoContextTakeover = true;
+            }
+        }
+        if (requestServerNoContextTakeover) {
+            outboundNoContextTakeover = true;
+        }
+        return true;
+    }
+
+    /**
+     * @param header Sec-WebSocket-Extensions header
+     * @return Parameters of our extension in it, the name first, null if it isn't there
+     */
+    private static String[] find(String header) {
+        if (header == null) {
+            return null;
+        }
+        for (String extension : header.split(",")) {
+            String[] params = extension.split(";");
+            if (NAME.equalsIgnoreCase(params[0].trim())) {
+                return params;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isWindowBits(String value) {
+        if (value == null) {
+            return false;
+        }
+        try {
+            int bits = Integer.parseInt(value);
+            return bits >= 8 && bits <= MAX_WINDOW_BITS;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getProvidedExtensionAsClient() {
+        return NAME;
+    }
+
+    @Override
+    public String getProvidedExtensionAsServer() {
+        return outboundNoContextTakeover ? NAME + "; " + SERVER_NO_CONTEXT_TAKEOVER : NAME;
+    }
+
+    @Override
+    public IExtension copyInstance() {
+        return new PerMessageDeflateExtension(stats, requestServerNoContextTakeover);
+    }
+
+    @Override
+    public void reset() {
+        deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        inflater = new Inflater(true);
+        inflating = false;
+        inboundNoContextTakeover = false;
+        outboundNoContextTakeover = false;
+        outboundCompression = true;
+    }
+
+    @Override
+    public String toString() {
+        return "PerMessageDeflateExtension";
+    }
+
+    private void addCodecNanos(long start) {
+        if (stats != null) {
+            stats.addCodecNanos(System.nanoTime() - start);
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        ByteBuffer copy = buffer.duplicate();
+        byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,108 @@
+package com.banano.kaliumwallet.network.socket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bytes moved by the socket, both as they went over the wire and as the messages were
+ * before compression, and the time spent compressing them.
+ * <p>
+ * Written from the socket threads, read from anywhere.
+ */
+public class TransportStats {
+    private final AtomicLong wireIn = new AtomicLong();
+    private final AtomicLong wireOut = new AtomicLong();
+    private final AtomicLong payloadIn = new AtomicLong();
+    private final AtomicLong payloadOut = new AtomicLong();
+    private final AtomicLong framesIn = new AtomicLong();
+    private final AtomicLong framesOut = new AtomicLong();
+    private final AtomicLong codecNanos = new AtomicLong();
+    private volatile boolean compressed = false;
+
+    void addIn(long wire) {
+        wireIn.addAndGet(wire);
+    }
+
+    void addOut(long wire, long payload) {
+        wireOut.addAndGet(wire);
+        payloadOut.addAndGet(payload);
+        framesOut.incrementAndGet();
+    }
+
+    void addFrameIn(long payload) {
+        payloadIn.addAndGet(payload);
+        framesIn.incrementAndGet();
+    }
+
+    void addCodecNanos(long nanos) {
+        codecNanos.addAndGet(nanos);
+    }
+
+    void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * @return Bytes received, frame headers included
+     */
+    public long getWireIn() {
+        return wireIn.get();
+    }
+
+    /**
+     * @return Bytes sent, frame headers included
+     */
+    public long getWireOut() {
+        return wireOut.get();
+    }
+
+    /**
+     * @return Bytes of the frames received, after decompression
+     */
+    public long getPayloadIn() {
+        return payloadIn.get();
+    }
+
+    /**
+     * @return Bytes of the frames sent, before compression
+     */
+    public long getPayloadOut() {
+        return payloadOut.get();
+    }
+
+    public long getFramesIn() {
+        return framesIn.get();
+    }
+
+    public long getFramesOut() {
+        return framesOut.get();
+    }
+
+    /**
+     * @return Time spent compressing and decompressing, in nanoseconds
+     */
+    public long getCodecNanos() {
+        return codecNanos.get();
+    }
+
+    /**
+     * @return true if the last connection negotiated permessage-deflate
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * @return Bytes received on the wire per byte of payload, 1 or a bit more if nothing is compressed
+     */
+    public double getInboundRatio() {
+        long payload = payloadIn.get();
+        return payload > 0 ? (double) wireIn.get() / payload : 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("in %d bytes (%d payload), out %d bytes (%d payload), %s, codec %d ms",
+                getWireIn(), getPayloadIn(), getWireOut(), getPayloadOut(),
+                compressed ? "deflate" : "uncompressed", getCodecNanos() / 1000000);
+    }
+}
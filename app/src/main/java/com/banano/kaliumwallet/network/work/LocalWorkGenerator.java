@@ -0,0 +1,240 @@
+package com.banano.kaliumwallet.network.work;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.util.Blake2b;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local proof of work solver.
+ *
+ * Work for a block is an 8 byte nonce such that blake2b(nonce || hash) read as a little endian
+ * unsigned 64 bit number is at least the threshold. Each generation splits the search over a
+ * fixed pool of worker threads, which check for cancellation every few thousand hashes.
+ */
+public class LocalWorkGenerator {
+    // Banano network work threshold
+    public static final long BANANO_THRESHOLD = 0xfffffe0000000000L;
+
+    private static final int WORK_LENGTH = 8;
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private final ExecutorService executor;
+    private final int threads;
+    private final long threshold;
+    private final AtomicLong hashCount = new AtomicLong();
+    private final Random random = new Random();
+
+    public interface Callback {
+        /**
+         * Called once on a worker thread when valid work was found
+         *
+         * @param hash Hash the work was generated for
+         * @param work Work as a hex string
+         */
+        void onWorkGenerated(String hash, String work);
+    }
+
+    /**
+     * Handle on a running generation
+     */
+    public static class WorkTask {
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile String work;
+
+        public void cancel() {
+            done.set(true);
+        }
+
+        public boolean isDone() {
+            return done.get();
+        }
+
+        public String getWork() {
+            return work;
+        }
+    }
+
+    public LocalWorkGenerator() {
+        this(Runtime.getRuntime().availableProcessors(), BANANO_THRESHOLD);
+    }
+
+    public LocalWorkGenerator(int threads, long threshold) {
+        this.threads = Math.max(1, threads);
+        this.threshold = threshold;
+        this.executor = Executors.newFixedThreadPool(this.threads, new WorkerThreadFactory());
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return number of hashes computed by this generator so far
+     */
+    public long getHashCount() {
+        return hashCount.get();
+    }
+
+    /**
+     * Start generating work for a hash
+     *
+     * @param hash     Block hash (or public key for open blocks)
+     * @param callback Called when valid work was found, unless cancelled first
+     * @return Task that can be used to cancel the generation
+     */
+    public WorkTask generate(String hash, Callback callback) {
+        final WorkTask task = new WorkTask();
+        final byte[] hashBytes = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.hexToBytes(hash, hashBytes);
+        for (int i = 0; i < threads; i++) {
+            final long start;
+            synchronized (random) {
+                start = random.nextLong();
+            }
+            executor.execute(() -> {
+                String work = search(hashBytes, start, task);
+                if (work != null && task.done.compareAndSet(false, true)) {
+                    task.work = work;
+                    if (callback != null) {
+                        callback.onWorkGenerated(hash, work);
+                    }
+                }
+            });
+        }
+        return task;
+    }
+
+    /**
+     * Generate work and wait for the result
+     *
+     * @param hash Block hash
+     * @return Work as a hex string
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public String generateBlocking(String hash) throws InterruptedException {
+        final Object lock = new Object();
+        WorkTask task = generate(hash, (h, w) -> {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        });
+        synchronized (lock) {
+            while (task.getWork() == null) {
+                lock.wait(100);
+            }
+        }
+        return task.getWork();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String search(byte[] hash, long nonce, WorkTask task) {
+        Blake2b digest = new Blake2b(WORK_LENGTH);
+        byte[] nonceBytes = new byte[WORK_LENGTH];
+        byte[] out = new byte[WORK_LENGTH];
+        // flip the sign bit so a signed comparison gives the unsigned ordering
+        long target = threshold + Long.MIN_VALUE;
+        while (!task.done.get()) {
+            for (int i = 0; i < CANCEL_CHECK_INTERVAL; i++, nonce++) {
+                writeLittleEndian(nonce, nonceBytes);
+                digest.update(nonceBytes, 0, WORK_LENGTH);
+                digest.update(hash, 0, KaliumUtil.HASH_LENGTH);
+                digest.digest(out, 0);
+                if (readLittleEndian(out) + Long.MIN_VALUE >= target) {
+                    hashCount.addAndGet(i + 1);
+                    return toWork(nonce);
+                }
+            }
+            hashCount.addAndGet(CANCEL_CHECK_INTERVAL);
+        }
+        return null;
+    }
+
+    /**
+     * Get the difficulty value of a work/hash pair
+     *
+     * @param hash Block hash
+     * @param work Work as a hex string
+     * @return Difficulty as an unsigned 64 bit value
+     */
+    public static long getDifficulty(String hash, String work) {
+        byte[] hashBytes = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] nonceBytes = new byte[WORK_LENGTH];
+        byte[] out = new byte[WORK_LENGTH];
+        KaliumUtil.hexToBytes(hash, hashBytes);
+        writeLittleEndian(Long.parseLong(work.substring(0, 8), 16) << 32 | Long.parseLong(work.substring(8), 16), nonceBytes);
+        Blake2b digest = new Blake2b(WORK_LENGTH);
+        digest.update(nonceBytes, 0, WORK_LENGTH);
+        digest.update(hashBytes, 0, KaliumUtil.HASH_LENGTH);
+        digest.digest(out, 0);
+        return readLittleEndian(out);
+    }
+
+    /**
+     * Check if work is valid for a hash
+     *
+     * @param hash      Block hash
+     * @param work      Work as a hex string
+     * @param threshold Minimum difficulty
+     * @return true if the work meets the threshold
+     */
+    public static boolean isValid(String hash, String work, long threshold) {
+        if (work == null || work.length() != WORK_LENGTH * 2) {
+            return false;
+        }
+        try {
+            return getDifficulty(hash, work) + Long.MIN_VALUE >= threshold + Long.MIN_VALUE;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String toWork(long nonce) {
+        // work is the nonce as a big endian hex string
+        String hex = Long.toHexString(nonce);
+        StringBuilder sb = new StringBuilder(WORK_LENGTH * 2);
+        for (int i = hex.length(); i < WORK_LENGTH * 2; i++) {
+            sb.append('0');
+        }
+        return sb.append(hex).toString();
+    }
+
+    private static void writeLittleEndian(long value, byte[] out) {
+        for (int i = 0; i < WORK_LENGTH; i++) {
+            out[i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static long readLittleEndian(byte[] in) {
+        long value = 0;
+        for (int i = WORK_LENGTH - 1; i >= 0; i--) {
+            value = value << 8 | (in[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "work-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.banano.kaliumwallet.network.work;
+
+import com.banano.kaliumwallet.bus.Logout;
+import com.banano.kaliumwallet.bus.RxBus;
+import com.banano.kaliumwallet.bus.WalletClear;
+import com.banano.kaliumwallet.model.PrecomputedWork;
+import com.banano.kaliumwallet.util.ExceptionHandler;
+import com.hwangjr.rxbus.annotation.Subscribe;
+
+import javax.inject.Provider;
+
+import io.realm.Realm;
+import io.realm.RealmResults;
+import io.realm.Sort;
+
+/**
+ * Realm backed cache of work computed ahead of time, keyed by the hash the work is for.
+ *
+ * When the frontier changes the next block will need work for the new frontier, so it can be
+ * generated in the background and picked up when the block is built. Entries are consumed
+ * once and only a handful are kept.
+ */
+public class WorkCache {
+    private static final int MAX_ENTRIES = 8;
+
+    private final Provider<Realm> realmProvider;
+    private final LocalWorkGenerator workGenerator;
+    private LocalWorkGenerator.WorkTask precomputeTask;
+    private String precomputeHash;
+
+    public WorkCache(Provider<Realm> realmProvider, LocalWorkGenerator workGenerator) {
+        this.realmProvider = realmProvider;
+        this.workGenerator = workGenerator;
+        RxBus.get().register(this);
+    }
+
+    /**
+     * Start generating work for a hash in the background, unless it's cached or already running
+     *
+     * @param hash Frontier hash
+     */
+    public synchronized void precompute(String hash) {
+        if (hash == null || hash.equals(precomputeHash) || contains(hash)) {
+            return;
+        }
+        cancel();
+        precomputeHash = hash;
+        precomputeTask = workGenerator.generate(hash, (h, work) -> {
+            put(h, work);
+            synchronized (WorkCache.this) {
+                if (h.equals(precomputeHash)) {
+                    precomputeHash = null;
+                    precomputeTask = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Stop any running precompute so the generator is free for interactive work
+     */
+    public synchronized void cancel() {
+        if (precomputeTask != null) {
+            precomputeTask.cancel();
+        }
+        precomputeTask = null;
+        precomputeHash = null;
+    }
+
+    public boolean contains(String hash) {
+        Realm realm = realmProvider.get();
+        try {
+            return realm.where(PrecomputedWork.class).equalTo("hash", hash).count() > 0;
+        } finally {
+            realm.close();
+        }
+    }
+
+    /**
+     * Store work for a hash, dropping the oldest entries beyond the limit
+     *
+     * @param hash Hash the work is for
+     * @param work Work
+     */
+    public void put(String hash, String work) {
+        Realm realm = realmProvider.get();
+        try {
+            realm.executeTransaction(r -> {
+                r.insertOrUpdate(new PrecomputedWork(hash, work));
+                RealmResults<PrecomputedWork> entries = r.where(PrecomputedWork.class)
+                        .sort("created", Sort.DESCENDING)
+                        .findAll();
+                for (int i = entries.size() - 1; i >= MAX_ENTRIES; i--) {
+                    entries.deleteFromRealm(i);
+                }
+            });
+        } catch (Exception e) {
+            ExceptionHandler.handle(e);
+        } finally {
+            realm.close();
+        }
+    }
+
+    /**
+     * Remove and return the work for a hash
+     *
+     * @param hash Hash the work is for
+     * @return Valid work or null if none is cached
+     */
+    public String take(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        Realm realm = realmProvider.get();
+        try {
+            PrecomputedWork entry = realm.where(PrecomputedWork.class).equalTo("hash", hash).findFirst();
+            if (entry == null) {
+                return null;
+            }
+            String work = entry.getWork();
+            realm.executeTransaction(r -> entry.deleteFromRealm());
+            return LocalWorkGenerator.isValid(hash, work, workGenerator.getThreshold()) ? work : null;
+        } finally {
+            realm.close();
+        }
+    }
+
+    public void clear() {
+        cancel();
+        Realm realm = realmProvider.get();
+        try {
+            realm.executeTransaction(r -> r.delete(PrecomputedWork.class));
+        } finally {
+            realm.close();
+        }
+    }
+
+    /* Bus Listeners */
+
+    @Subscribe
+    public void receiveLogout(Logout logout) {
+        clear();
+    }
+
+    @Subscribe
+    public void receiveClear(WalletClear walletClear) {
+        clear();
+    }
+}
@@ -10,6 +10,7 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
@@ -25,10 +26,12 @@ import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 
 import com.banano.kaliumwallet.R;
 import com.banano.kaliumwallet.bus.ContactAdded;
 import com.banano.kaliumwallet.bus.ContactRemoved;
+import com.banano.kaliumwallet.bus.PendingDeferred;
 import com.banano.kaliumwallet.bus.RxBus;
 import com.banano.kaliumwallet.bus.SocketError;
 import com.banano.kaliumwallet.bus.TransactionItemClicked;
@@ -38,8 +41,8 @@ import com.banano.kaliumwallet.bus.WalletSubscribeUpdate;
 import com.banano.kaliumwallet.databinding.FragmentHomeBinding;
 import com.banano.kaliumwallet.model.Address;
 import com.banano.kaliumwallet.model.Contact;
-import com.banano.kaliumwallet.model.Credentials;
 import com.banano.kaliumwallet.model.KaliumWallet;
+import com.banano.kaliumwallet.model.KeyMaterial;
 import com.banano.kaliumwallet.model.PriceConversion;
 import com.banano.kaliumwallet.network.AccountService;
 import com.banano.kaliumwallet.network.model.response.AccountCheckResponse;
@@ -57,6 +60,7 @@ import com.banano.kaliumwallet.ui.contact.ContactOverviewFragment;
 import com.banano.kaliumwallet.ui.receive.ReceiveDialogFragment;
 import com.banano.kaliumwallet.ui.send.SendDialogFragment;
 import com.banano.kaliumwallet.ui.settings.SettingsFragment;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
 import com.banano.kaliumwallet.util.svg.SvgSoftwareLayerSetter;
 import com.bumptech.glide.Glide;
@@ -100,6 +104,8 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
     Realm realm;
     @Inject
     SharedPreferencesUtil sharedPreferencesUtil;
+    @Inject
+    KeyMaterialCache keyMaterialCache;
 
     private ActivityFragmentBackButtonInterface backButtonHandler;
     private FragmentHomeBinding binding;
@@ -220,15 +226,20 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
             }
             updateAccountHistory();
         }
+        if (wallet != null && wallet.isFromSnapshot()) {
+            // show the last known balance until the subscribe comes back
+            updateAmounts();
+        }
+        updateDeferredPending(accountService.getDeferredPendingCount());
 
-        Credentials credentials = realm.where(Credentials.class).findFirst();
+        KeyMaterial keyMaterial = keyMaterialCache.get();
 
         // Retrieve/populate monKey
-        if (credentials != null) {
+        if (keyMaterial != null) {
             // Get monKey
-            if (credentials.getAddressString() != null) {
+            if (keyMaterial.getAddressString() != null) {
                 // Download monKey if doesn't exist
-                String url = getString(R.string.monkey_api_url, credentials.getAddressString());
+                String url = getString(R.string.monkey_api_url, keyMaterial.getAddressString());
                 downloadMonkeyTask = new DownloadOrRetrieveFileTask(getContext().getFilesDir());
                 downloadMonkeyTask.setListener((List<File> monkeys) -> {
                     if (monkeys == null || monkeys.isEmpty()) {
@@ -435,7 +446,7 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
 
     @Subscribe
     public void receivePrice(WalletPriceUpdate walletPriceUpdate) {
-        updateAmounts();
+        updatePrices();
     }
 
     @Subscribe
@@ -462,6 +473,23 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
         }
     }
 
+    @Subscribe
+    public void receiveDeferred(PendingDeferred pendingDeferred) {
+        if (binding == null || getContext() == null) {
+            return;
+        }
+        updateDeferredPending(pendingDeferred.getCount());
+    }
+
+    private void updateDeferredPending(int count) {
+        if (count > 0) {
+            binding.homeDeferredPending.setText(getString(R.string.home_deferred_pending, count));
+            binding.homeDeferredPending.setVisibility(View.VISIBLE);
+        } else {
+            binding.homeDeferredPending.setVisibility(View.GONE);
+        }
+    }
+
     @Subscribe
     public void receiveAccountCheck(AccountCheckResponse accountCheckResponse) {
         if (accountCheckResponse.getReady()) {
@@ -550,6 +578,25 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
         }
     }
 
+    /**
+     * Show new prices without binding the whole wallet again. Text that didn't change is
+     * left alone so it doesn't cause another layout pass.
+     */
+    private void updatePrices() {
+        if (wallet == null) {
+            return;
+        }
+        setTextIfChanged(binding.amountLocalCurrencyTitle, wallet.getAccountBalanceLocalCurrency());
+        setTextIfChanged(binding.amountBtcTitle, wallet.getAccountBalanceBtc());
+        setTextIfChanged(binding.amountNanoTitle, wallet.getAccountBalanceNano());
+    }
+
+    private static void setTextIfChanged(TextView view, String text) {
+        if (!TextUtils.equals(view.getText(), text)) {
+            view.setText(text);
+        }
+    }
+
     private void showMonkeyOverlay() {
         animateView(binding.homeMonkey, View.GONE, 0, 200);
         animateView(binding.monkeyOverlay, View.VISIBLE, 1.0f, 200);
@@ -582,6 +629,11 @@ public class HomeFragment extends BaseFragment implements FragmentOnBackListener
             }
         }
 
+        public void onClickDeferredPending(View view) {
+            accountService.receiveDeferred();
+            binding.homeDeferredPending.setVisibility(View.GONE);
+        }
+
         public void onClickSettings(View view) {
             binding.drawerLayout.openDrawer(Gravity.START);
         }
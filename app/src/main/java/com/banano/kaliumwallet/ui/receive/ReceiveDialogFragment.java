@@ -26,11 +26,12 @@ import com.banano.kaliumwallet.R;
 import com.banano.kaliumwallet.broadcastreceiver.ClipboardAlarmReceiver;
 import com.banano.kaliumwallet.databinding.FragmentReceiveBinding;
 import com.banano.kaliumwallet.model.Address;
-import com.banano.kaliumwallet.model.Credentials;
+import com.banano.kaliumwallet.model.KeyMaterial;
 import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
 import com.banano.kaliumwallet.ui.common.BaseDialogFragment;
 import com.banano.kaliumwallet.ui.common.SwipeDismissTouchListener;
 import com.banano.kaliumwallet.ui.common.UIUtil;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.github.sumimakito.awesomeqr.AwesomeQRCode;
 
 import java.io.File;
@@ -49,6 +50,8 @@ public class ReceiveDialogFragment extends BaseDialogFragment {
     public static String TAG = ReceiveDialogFragment.class.getSimpleName();
     @Inject
     Realm realm;
+    @Inject
+    KeyMaterialCache keyMaterialCache;
     private FragmentReceiveBinding binding;
     private Address address;
     private String fileName;
@@ -87,9 +90,9 @@ public class ReceiveDialogFragment extends BaseDialogFragment {
         copyRunning = false;
 
         // get data
-        Credentials credentials = realm.where(Credentials.class).findFirst();
-        if (credentials != null) {
-            address = new Address(credentials.getAddressString());
+        KeyMaterial keyMaterial = keyMaterialCache.get();
+        if (keyMaterial != null) {
+            address = keyMaterial.getAddress();
         }
 
         // inflate the view
@@ -9,7 +9,7 @@ import android.widget.TextView;
 
 import com.banano.kaliumwallet.KaliumUtil;
 import com.banano.kaliumwallet.R;
-import com.banano.kaliumwallet.model.Address;
+import com.banano.kaliumwallet.util.AddressCodec;
 import com.google.zxing.Result;
 import com.rotilho.jnano.commons.NanoHelper;
 import com.rotilho.jnano.commons.NanoSeeds;
@@ -88,8 +88,7 @@ public class ScanActivity extends BaseScannerActivity implements ZXingScannerVie
     @Override
     public void handleResult(Result rawResult) {
         if (!seedMode) {
-            String address = Address.findAddress(rawResult.getText());
-            if (address != null && !address.isEmpty()) {
+            if (AddressCodec.find(rawResult.getText()) >= 0) {
                 Bundle conData = new Bundle();
                 conData.putString(QR_CODE_RESULT, rawResult.getText());
                 Intent intent = new Intent();
@@ -30,8 +30,8 @@ import com.banano.kaliumwallet.bus.RxBus;
 import com.banano.kaliumwallet.databinding.FragmentSendBinding;
 import com.banano.kaliumwallet.model.Address;
 import com.banano.kaliumwallet.model.Contact;
-import com.banano.kaliumwallet.model.Credentials;
 import com.banano.kaliumwallet.model.KaliumWallet;
+import com.banano.kaliumwallet.model.KeyMaterial;
 import com.banano.kaliumwallet.network.AccountService;
 import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
 import com.banano.kaliumwallet.ui.common.BaseDialogFragment;
@@ -41,6 +41,7 @@ import com.banano.kaliumwallet.ui.common.UIUtil;
 import com.banano.kaliumwallet.ui.common.WindowControl;
 import com.banano.kaliumwallet.ui.contact.ContactSelectionAdapter;
 import com.banano.kaliumwallet.ui.scan.ScanActivity;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.NumberUtil;
 import com.banano.kaliumwallet.util.SharedPreferencesUtil;
 import com.hwangjr.rxbus.annotation.Subscribe;
@@ -72,6 +73,8 @@ public class SendDialogFragment extends BaseDialogFragment {
     SharedPreferencesUtil sharedPreferencesUtil;
     @Inject
     Realm realm;
+    @Inject
+    KeyMaterialCache keyMaterialCache;
     private FragmentSendBinding binding;
     private Address address;
     private Activity mActivity;
@@ -119,9 +122,9 @@ public class SendDialogFragment extends BaseDialogFragment {
         }
 
         // get data
-        Credentials credentials = realm.where(Credentials.class).findFirst();
-        if (credentials != null) {
-            address = new Address(credentials.getAddressString());
+        KeyMaterial keyMaterial = keyMaterialCache.get();
+        if (keyMaterial != null) {
+            address = keyMaterial.getAddress();
         }
 
         // inflate the view
@@ -0,0 +1,139 @@
+package com.banano.kaliumwallet.ui.settings;
+
+import android.content.Context;
+import androidx.databinding.DataBindingUtil;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Bundle;
+import android.os.Handler;
+import androidx.annotation.Nullable;
+import android.view.Gravity;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+import android.view.WindowManager;
+
+import com.banano.kaliumwallet.R;
+import com.banano.kaliumwallet.databinding.FragmentDiagnosticsBinding;
+import com.banano.kaliumwallet.network.AccountService;
+import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
+import com.banano.kaliumwallet.ui.common.BaseDialogFragment;
+import com.banano.kaliumwallet.ui.common.SwipeDismissTouchListener;
+import com.banano.kaliumwallet.ui.common.UIUtil;
+
+import javax.inject.Inject;
+
+/**
+ * Network metrics as JSON, refreshed while open. Long press the version in settings to get here.
+ */
+public class DiagnosticsDialogFragment extends BaseDialogFragment {
+    public static String TAG = DiagnosticsDialogFragment.class.getSimpleName();
+    private static final long REFRESH_INTERVAL = 1000;
+    @Inject
+    AccountService accountService;
+    private FragmentDiagnosticsBinding binding;
+    private Handler mHandler;
+    private Runnable mRunnable;
+
+    /**
+     * Create new instance of the dialog fragment (handy pattern if any data needs to be passed to it)
+     *
+     * @return New instance of DiagnosticsDialogFragment
+     */
+    public static DiagnosticsDialogFragment newInstance() {
+        Bundle args = new Bundle();
+        DiagnosticsDialogFragment fragment = new DiagnosticsDialogFragment();
+        fragment.setArguments(args);
+        return fragment;
+    }
+
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setStyle(STYLE_NO_FRAME, R.style.AppTheme_Modal_Window);
+    }
+
+    @Nullable
+    @Override
+    public View onCreateView(LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        // inject
+        if (getActivity() instanceof ActivityWithComponent) {
+            ((ActivityWithComponent) getActivity()).getActivityComponent().inject(this);
+        }
+
+        // inflate the view
+        binding = DataBindingUtil.inflate(
+                inflater, R.layout.fragment_diagnostics, container, false);
+        view = binding.getRoot();
+
+        // Restrict height
+        Window window = getDialog().getWindow();
+        window.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+
+        window.setLayout(WindowManager.LayoutParams.MATCH_PARENT, UIUtil.getDialogHeight(false, getContext()));
+        window.setGravity(Gravity.BOTTOM);
+
+        // Shadow
+        window.setBackgroundDrawable(new ColorDrawable(Color.TRANSPARENT));
+        WindowManager.LayoutParams windowParams = window.getAttributes();
+        windowParams.dimAmount = 0.60f;
+        windowParams.flags |= WindowManager.LayoutParams.FLAG_DIM_BEHIND;
+        window.setAttributes(windowParams);
+
+        // Swipe down to dismiss
+        getDialog().getWindow().getDecorView().setOnTouchListener(new SwipeDismissTouchListener(getDialog().getWindow().getDecorView(),
+                null, new SwipeDismissTouchListener.DismissCallbacks() {
+            @Override
+            public boolean canDismiss(Object token) {
+                return true;
+            }
+
+            @Override
+            public void onDismiss(View view, Object token) {
+                dismiss();
+            }
+
+            @Override
+            public void onTap(View view) {
+            }
+        }, SwipeDismissTouchListener.TOP_TO_BOTTOM));
+
+        // Set values
+        binding.setHandlers(new ClickHandlers());
+
+        // Refresh the numbers while open
+        mHandler = new Handler();
+        mRunnable = () -> {
+            binding.setMetrics(accountService.getMetrics().toJson(System.currentTimeMillis()));
+            mHandler.postDelayed(mRunnable, REFRESH_INTERVAL);
+        };
+        mRunnable.run();
+
+        return view;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (mHandler != null && mRunnable != null) {
+            mHandler.removeCallbacks(mRunnable);
+        }
+    }
+
+    public class ClickHandlers {
+        public void onClickClose(View view) {
+            dismiss();
+        }
+
+        public void onClickCopy(View view) {
+            android.content.ClipboardManager clipboard = (android.content.ClipboardManager) getContext().getSystemService(Context.CLIPBOARD_SERVICE);
+            android.content.ClipData clip = android.content.ClipData.newPlainText(getString(R.string.diagnostics_header),
+                    accountService.getMetrics().toJson(System.currentTimeMillis()));
+            if (clipboard != null) {
+                clipboard.setPrimaryClip(clip);
+                UIUtil.showToast(getString(R.string.diagnostics_copied), getContext());
+            }
+        }
+    }
+}
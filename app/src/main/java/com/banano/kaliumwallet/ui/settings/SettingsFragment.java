@@ -24,6 +24,7 @@ import com.banano.kaliumwallet.BuildConfig;
 import com.banano.kaliumwallet.MainActivity;
 import com.banano.kaliumwallet.R;
 import com.banano.kaliumwallet.bus.CreatePin;
+import com.banano.kaliumwallet.bus.LedgerAuditResult;
 import com.banano.kaliumwallet.bus.Logout;
 import com.banano.kaliumwallet.bus.PinComplete;
 import com.banano.kaliumwallet.bus.RxBus;
@@ -34,6 +35,7 @@ import com.banano.kaliumwallet.model.AvailableLanguage;
 import com.banano.kaliumwallet.model.Credentials;
 import com.banano.kaliumwallet.model.NotificationOption;
 import com.banano.kaliumwallet.model.StringWithTag;
+import com.banano.kaliumwallet.model.WorkSource;
 import com.banano.kaliumwallet.network.AccountService;
 import com.banano.kaliumwallet.ui.common.ActivityWithComponent;
 import com.banano.kaliumwallet.ui.common.BaseFragment;
@@ -106,6 +108,10 @@ public class SettingsFragment extends BaseFragment {
         view = binding.getRoot();
         binding.setHandlers(new ClickHandlers());
         binding.setVersion(getString(R.string.version_display, BuildConfig.VERSION_NAME));
+        binding.settingsAppName.setOnLongClickListener(v -> {
+            showDiagnosticsDialog();
+            return true;
+        });
 
         // subscribe to bus
         RxBus.get().register(this);
@@ -274,6 +280,69 @@ public class SettingsFragment extends BaseFragment {
             i++;
         }
 
+        // Setup proof of work setting
+        List<StringWithTag> workSources = new ArrayList<>();
+        workSources.add(new StringWithTag(getString(R.string.settings_work_server), WorkSource.SERVER));
+        workSources.add(new StringWithTag(getString(R.string.settings_work_local), WorkSource.LOCAL));
+        workSources.add(new StringWithTag(getString(R.string.settings_work_race), WorkSource.RACE));
+        ArrayAdapter<StringWithTag> workAdapter = new ArrayAdapter<>(getContext(),
+                R.layout.view_spinner_item,
+                workSources
+        );
+        workAdapter.setDropDownViewResource(R.layout.view_spinner_dropdown_item);
+        binding.settingsWorkSourceSpinner.setVisibility(View.VISIBLE);
+        binding.settingsWorkSourceSpinner.setAdapter(workAdapter);
+        binding.settingsWorkSourceSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int i, long l) {
+                StringWithTag swt = (StringWithTag) adapterView.getItemAtPosition(i);
+                WorkSource key = (WorkSource) swt.tag;
+                if (key != null) {
+                    sharedPreferencesUtil.setWorkSource(key);
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> adapterView) {
+
+            }
+        });
+        i = 0;
+        for (StringWithTag workSource : workSources) {
+            if (workSource.tag.equals(sharedPreferencesUtil.getWorkSource())) {
+                binding.settingsWorkSourceSpinner.setSelection(i);
+                break;
+            }
+            i++;
+        }
+
+        // Setup compression setting, used from the next connection on
+        List<StringWithTag> compressionOptions = new ArrayList<>();
+        compressionOptions.add(new StringWithTag(getString(R.string.generic_on), Boolean.TRUE));
+        compressionOptions.add(new StringWithTag(getString(R.string.generic_off), Boolean.FALSE));
+        ArrayAdapter<StringWithTag> compressionAdapter = new ArrayAdapter<>(getContext(),
+                R.layout.view_spinner_item,
+                compressionOptions
+        );
+        compressionAdapter.setDropDownViewResource(R.layout.view_spinner_dropdown_item);
+        binding.settingsCompressionSpinner.setVisibility(View.VISIBLE);
+        binding.settingsCompressionSpinner.setAdapter(compressionAdapter);
+        binding.settingsCompressionSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> adapterView, View view, int i, long l) {
+                StringWithTag swt = (StringWithTag) adapterView.getItemAtPosition(i);
+                Boolean key = (Boolean) swt.tag;
+                if (key != null) {
+                    sharedPreferencesUtil.setSocketCompression(key);
+                }
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> adapterView) {
+
+            }
+        });
+        binding.settingsCompressionSpinner.setSelection(sharedPreferencesUtil.isSocketCompression() ? 0 : 1);
 
         return view;
     }
@@ -312,6 +381,39 @@ public class SettingsFragment extends BaseFragment {
         }
     }
 
+    /**
+     * Account audit finished
+     *
+     * @param result LedgerAuditResult object
+     */
+    @Subscribe
+    public void receiveLedgerAuditResult(LedgerAuditResult result) {
+        if (!isAdded()) {
+            return;
+        }
+        SpannableString title = new SpannableString(getString(result.isConsistent() ? R.string.settings_verify_ok_title : R.string.settings_verify_failed_title));
+        title.setSpan(new ForegroundColorSpan(getResources().getColor(R.color.yellow)), 0, title.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        SpannableString close = new SpannableString(getString(R.string.settings_verify_close));
+        close.setSpan(new ForegroundColorSpan(getResources().getColor(R.color.yellow)), 0, close.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        String message;
+        if (result.isConsistent()) {
+            message = getString(R.string.settings_verify_ok, result.getBlockCount());
+        } else if (result.getHash() != null) {
+            message = getString(R.string.settings_verify_failed_block, result.getHash(), result.getReason());
+        } else {
+            message = getString(R.string.settings_verify_failed, result.getReason());
+        }
+
+        int style = android.os.Build.VERSION.SDK_INT >= 21 ? R.style.AlertDialogCustom : android.R.style.Theme_Holo_Dialog;
+        new AlertDialog.Builder(getContext(), style)
+                .setTitle(title)
+                .setMessage(message)
+                .setPositiveButton(close, (dialog, which) -> {
+                    // do nothing which dismisses the dialog
+                })
+                .show();
+    }
+
     /**
      * Get list of all of the available currencies
      *
@@ -400,6 +502,13 @@ public class SettingsFragment extends BaseFragment {
         getFragmentManager().executePendingTransactions();
     }
 
+    private void showDiagnosticsDialog() {
+        // show network diagnostics dialog
+        DiagnosticsDialogFragment dialog = DiagnosticsDialogFragment.newInstance();
+        dialog.show(getFragmentManager(), DiagnosticsDialogFragment.TAG);
+        getFragmentManager().executePendingTransactions();
+    }
+
     private void showTransferDialog() {
         TransferIntroDialogFragment dialog = TransferIntroDialogFragment.newInstance();
         dialog.show(getFragmentManager(), TransferIntroDialogFragment.TAG);
@@ -449,6 +558,14 @@ public class SettingsFragment extends BaseFragment {
             binding.settingsNotificationSpinner.performClick();
         }
 
+        public void onClickWorkSource(View view) {
+            binding.settingsWorkSourceSpinner.performClick();
+        }
+
+        public void onClickCompression(View view) {
+            binding.settingsCompressionSpinner.performClick();
+        }
+
         public void onClickChange(View view) {
             if (getActivity() instanceof WindowControl) {
                 showChangeRepDialog();
@@ -493,6 +610,14 @@ public class SettingsFragment extends BaseFragment {
             }
         }
 
+        public void onClickVerifyAccount(View view) {
+            if (accountService.requestLedgerAudit()) {
+                UIUtil.showToast(getString(R.string.settings_verify_started), getContext());
+            } else {
+                UIUtil.showToast(getString(R.string.settings_verify_busy), getContext());
+            }
+        }
+
         public void onClickShare(View view) {
             String playStoreUrl = "https://play.google.com/store/apps/details?id=" + getActivity().getPackageName();
 
@@ -0,0 +1,244 @@
+package com.banano.kaliumwallet.ui.transfer;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.network.model.response.AccountBalanceItem;
+import com.banano.kaliumwallet.util.ExceptionHandler;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Derives accounts from a seed off the UI thread and hands them out in fixed size batches.
+ *
+ * Every batch is passed to the listener so its balances can be requested. Once the balances
+ * come back the sweep continues with the next batch until the gap limit is reached, i.e. the
+ * last gapLimit derived accounts were all empty, or until maxAccounts have been derived.
+ * The next batch is derived while the balances of the current batch are in flight.
+ */
+public class SeedSweep {
+    // standard sweep, same as a single batch of the first 15 accounts
+    public static final int STANDARD_ACCOUNTS = 15;
+    // deep sweep for seeds that used many indices
+    public static final int DEEP_BATCH_SIZE = 25;
+    public static final int DEEP_GAP_LIMIT = 20;
+    public static final int DEEP_MAX_ACCOUNTS = 2000;
+
+    private final byte[] seed;
+    private final byte[] excludedPublicKey;
+    private final int batchSize;
+    private final int gapLimit;
+    private final int maxAccounts;
+    private final Listener listener;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final ExecutorService deriveExecutor;
+    private final ExecutorService batchExecutor = Executors.newSingleThreadExecutor();
+
+    // state below is only touched on the main thread
+    private List<SweepAccount> requestedBatch;
+    private List<SweepAccount> derivedBatch;
+    private int nextIndex = 0;
+    private int checkedIndex = 0;
+    private int lastFundedIndex = -1;
+    private boolean finished = false;
+
+    public interface Listener {
+        /**
+         * Called on the main thread with a batch of accounts whose balances should be requested
+         */
+        void onBatchDerived(List<SweepAccount> accounts);
+
+        /**
+         * Called on the main thread once the gap limit or the account limit is reached
+         */
+        void onSweepComplete();
+    }
+
+    public static class SweepAccount {
+        private final int index;
+        private final String account;
+        private final String privateKey;
+
+        public SweepAccount(int index, String account, String privateKey) {
+            this.index = index;
+            this.account = account;
+            this.privateKey = privateKey;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getAccount() {
+            return account;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+    }
+
+    /**
+     * Create a sweep
+     *
+     * @param seed              Seed to sweep (hex)
+     * @param excludedPublicKey Public key of our own account (hex), never swept. May be null.
+     * @param batchSize         Accounts per balances request
+     * @param gapLimit          Stop after this many consecutive empty accounts
+     * @param maxAccounts       Maximum number of accounts to derive
+     * @param listener          Listener for batches and completion
+     */
+    public SeedSweep(String seed, String excludedPublicKey, int batchSize, int gapLimit, int maxAccounts, Listener listener) {
+        this.seed = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(seed, this.seed);
+        if (excludedPublicKey != null) {
+            this.excludedPublicKey = new byte[KaliumUtil.KEY_LENGTH];
+            KaliumUtil.hexToBytes(excludedPublicKey, this.excludedPublicKey);
+        } else {
+            this.excludedPublicKey = null;
+        }
+        this.batchSize = batchSize;
+        this.gapLimit = gapLimit;
+        this.maxAccounts = maxAccounts;
+        this.listener = listener;
+        this.deriveExecutor = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public static SeedSweep standard(String seed, String excludedPublicKey, Listener listener) {
+        return new SeedSweep(seed, excludedPublicKey, STANDARD_ACCOUNTS, STANDARD_ACCOUNTS, STANDARD_ACCOUNTS, listener);
+    }
+
+    public static SeedSweep deep(String seed, String excludedPublicKey, Listener listener) {
+        return new SeedSweep(seed, excludedPublicKey, DEEP_BATCH_SIZE, DEEP_GAP_LIMIT, DEEP_MAX_ACCOUNTS, listener);
+    }
+
+    /**
+     * Start deriving the first batch. The seed itself is included as a private key in the
+     * first batch, in case that's the intention.
+     */
+    public void start() {
+        deriveNextBatch(true);
+    }
+
+    /**
+     * Stop the sweep and release the worker threads
+     */
+    public void cancel() {
+        finished = true;
+        handler.removeCallbacksAndMessages(null);
+        deriveExecutor.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Feed balances back into the sweep. Must be called on the main thread.
+     *
+     * @param balances Balances keyed by account
+     */
+    public void onBalances(Map<String, AccountBalanceItem> balances) {
+        if (finished || requestedBatch == null) {
+            return;
+        }
+        for (SweepAccount account : requestedBatch) {
+            checkedIndex = Math.max(checkedIndex, account.getIndex() + 1);
+            AccountBalanceItem item = balances.get(account.getAccount());
+            if (item != null && isFunded(item)) {
+                lastFundedIndex = Math.max(lastFundedIndex, account.getIndex());
+            }
+        }
+        requestedBatch = null;
+
+        if (checkedIndex >= maxAccounts || checkedIndex - 1 - lastFundedIndex >= gapLimit) {
+            finish();
+        } else if (derivedBatch != null) {
+            requestBatch(derivedBatch);
+        }
+    }
+
+    private boolean isFunded(AccountBalanceItem item) {
+        BigInteger balance = new BigInteger(item.getBalance() != null ? item.getBalance() : "0");
+        BigInteger pending = new BigInteger(item.getPending() != null ? item.getPending() : "0");
+        return balance.add(pending).signum() > 0;
+    }
+
+    private void finish() {
+        cancel();
+        listener.onSweepComplete();
+    }
+
+    private void requestBatch(List<SweepAccount> batch) {
+        derivedBatch = null;
+        requestedBatch = batch;
+        if (nextIndex < maxAccounts) {
+            // derive the next batch while this one is being requested
+            deriveNextBatch(false);
+        }
+        listener.onBatchDerived(batch);
+    }
+
+    private void onBatchDerived(List<SweepAccount> batch) {
+        if (finished) {
+            return;
+        }
+        if (requestedBatch == null) {
+            requestBatch(batch);
+        } else {
+            derivedBatch = batch;
+        }
+    }
+
+    private void deriveNextBatch(boolean includeSeedAsKey) {
+        final int start = nextIndex;
+        final int end = Math.min(start + batchSize, maxAccounts);
+        nextIndex = end;
+        batchExecutor.execute(() -> {
+            List<Callable<SweepAccount>> tasks = new ArrayList<>(end - start + 1);
+            for (int i = start; i < end; i++) {
+                final int index = i;
+                tasks.add(() -> derive(KaliumUtil.seedToPrivate(seed, index), index));
+            }
+            if (includeSeedAsKey) {
+                tasks.add(() -> derive(seed, -1));
+            }
+            List<SweepAccount> batch = new ArrayList<>(tasks.size());
+            try {
+                for (Future<SweepAccount> future : deriveExecutor.invokeAll(tasks)) {
+                    SweepAccount account = future.get();
+                    if (account != null) {
+                        batch.add(account);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (ExecutionException e) {
+                ExceptionHandler.handle(e);
+                return;
+            }
+            handler.post(() -> onBatchDerived(batch));
+        });
+    }
+
+    private SweepAccount derive(byte[] privateKey, int index) {
+        byte[] publicKey = KaliumUtil.privateToPublic(privateKey);
+        // don't let them transfer from their own account
+        if (Arrays.equals(publicKey, excludedPublicKey)) {
+            return null;
+        }
+        return new SweepAccount(index, KaliumUtil.publicToAddress(publicKey), KaliumUtil.toHex(privateKey));
+    }
+}
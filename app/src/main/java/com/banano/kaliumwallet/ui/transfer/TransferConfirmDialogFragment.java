@@ -17,8 +17,8 @@ import com.banano.kaliumwallet.bus.TransferHistoryResponse;
 import com.banano.kaliumwallet.bus.TransferProcessResponse;
 import com.banano.kaliumwallet.databinding.FragmentTransferConfirmBinding;
 import com.banano.kaliumwallet.model.Address;
-import com.banano.kaliumwallet.model.Credentials;
 import com.banano.kaliumwallet.model.KaliumWallet;
+import com.banano.kaliumwallet.model.KeyMaterial;
 import com.banano.kaliumwallet.network.AccountService;
 import com.banano.kaliumwallet.network.model.response.AccountBalanceItem;
 import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
@@ -29,6 +29,7 @@ import com.banano.kaliumwallet.ui.common.BaseDialogFragment;
 import com.banano.kaliumwallet.ui.common.SwipeDismissTouchListener;
 import com.banano.kaliumwallet.ui.common.UIUtil;
 import com.banano.kaliumwallet.ui.common.WindowControl;
+import com.banano.kaliumwallet.util.KeyMaterialCache;
 import com.banano.kaliumwallet.util.NumberUtil;
 import com.hwangjr.rxbus.annotation.Subscribe;
 
@@ -73,6 +74,8 @@ public class TransferConfirmDialogFragment extends BaseDialogFragment {
     Realm realm;
     @Inject
     KaliumWallet wallet;
+    @Inject
+    KeyMaterialCache keyMaterialCache;
 
     // Stores accounts with pending blocks
     HashMap<String, AccountBalanceItem> rawInMap = new HashMap<>();
@@ -433,10 +436,10 @@ public class TransferConfirmDialogFragment extends BaseDialogFragment {
                 accountService.requestAccountHistory(item.getKey());
                 return;
             }
-            Credentials credentials = realm.where(Credentials.class).findFirst();
+            KeyMaterial keyMaterial = keyMaterialCache.get();
             Address destination;
-            if (credentials != null) {
-                destination = new Address(credentials.getAddressString());
+            if (keyMaterial != null) {
+                destination = keyMaterial.getAddress();
             } else {
                 Timber.d("couldn't find address from realm");
                 exitWithError();
@@ -454,23 +457,13 @@ public class TransferConfirmDialogFragment extends BaseDialogFragment {
     }
 
     private String getAddressString() {
-        Credentials _credentials = realm.where(Credentials.class).findFirst();
-        if (_credentials == null) {
-            return null;
-        } else {
-            Credentials credentials = realm.copyFromRealm(_credentials);
-            return new Address(credentials.getAddressString()).getAddress();
-        }
+        KeyMaterial keyMaterial = keyMaterialCache.get();
+        return keyMaterial != null ? keyMaterial.getAddressString() : null;
     }
 
     private String getPrivateKeyString() {
-        Credentials _credentials = realm.where(Credentials.class).findFirst();
-        if (_credentials == null) {
-            return null;
-        } else {
-            Credentials credentials = realm.copyFromRealm(_credentials);
-            return credentials.getPrivateKey();
-        }
+        KeyMaterial keyMaterial = keyMaterialCache.get();
+        return keyMaterial != null ? keyMaterial.getPrivateKey() : null;
     }
 
     public class ClickHandlers {
@@ -49,7 +49,6 @@ import static android.app.Activity.RESULT_OK;
  */
 public class TransferIntroDialogFragment extends BaseDialogFragment {
     public static String TAG = TransferIntroDialogFragment.class.getSimpleName();
-    private static final int NUM_SWEEP = 15; // Number of accounts to derive/sweep from a seed
 
     @Inject
     AccountService accountService;
@@ -59,6 +58,8 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
     private FragmentTransferBinding binding;
 
     private HashMap<String, AccountBalanceItem> accountPrivkeyMap = new HashMap<>();
+    private SeedSweep seedSweep;
+    private boolean deepSweep = false;
 
     /**
      * Create new instance of the dialog fragment (handy pattern if any data needs to be passed to it)
@@ -126,7 +127,9 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
         // Set values
         binding.setHandlers(new ClickHandlers());
 
-        binding.transferDescription.setText(getString(R.string.transfer_intro, getString(R.string.send_scan_qr)));
+        binding.transferDescription.setText(getString(R.string.transfer_intro, getString(R.string.send_scan_qr))
+                + "\n\n" + getString(R.string.transfer_intro_deep, SeedSweep.STANDARD_ACCOUNTS,
+                getString(R.string.transfer_deep_scan), SeedSweep.DEEP_GAP_LIMIT, SeedSweep.DEEP_MAX_ACCOUNTS));
 
         // subscribe to bus
         RxBus.get().register(this);
@@ -142,6 +145,9 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (seedSweep != null) {
+            seedSweep.cancel();
+        }
         // unregister from bus
         RxBus.get().unregister(this);
     }
@@ -180,38 +186,53 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
                     String result = res.getString(ScanActivity.QR_CODE_RESULT);
                     showLoadingOverlay();
 
-                    String privKey;
-                    String pubKey;
-                    String account;
                     if (KaliumUtil.isValidSeed(result)) {
-                        List<String> accountsToRequest = new ArrayList<>();
-                        for (int i = 0; i < NUM_SWEEP; i++) {
-                            privKey = KaliumUtil.seedToPrivate(result, i);
-                            pubKey = KaliumUtil.privateToPublic(privKey);
-                            account = KaliumUtil.publicToAddress(pubKey);
-                            // don't let them transfer from their own account
-                            if (pubKey.equals(wallet.getPublicKey())) {
-                                continue;
-                            }
-                            accountPrivkeyMap.put(account, new AccountBalanceItem(privKey));
-                            accountsToRequest.add(account);
-                        }
-                        // Also put the seed itself as a private key, in case thats the intention
-                        pubKey = KaliumUtil.privateToPublic(result);
-                        account =  KaliumUtil.publicToAddress(pubKey);
-                        // don't let them transfer from their own account
-                        if (!pubKey.equals(wallet.getPublicKey())) {
-                            accountPrivkeyMap.put(account, new AccountBalanceItem(result));
-                            accountsToRequest.add(account);
-                        }
-                        // Make account balances request
-                        accountService.requestAccountsBalances(accountsToRequest);
+                        startSweep(result);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Derive accounts from the seed in the background and request their balances in batches
+     *
+     * @param seed Seed or private key that was scanned
+     */
+    private void startSweep(String seed) {
+        if (seedSweep != null) {
+            seedSweep.cancel();
+        }
+        SeedSweep.Listener listener = new SeedSweep.Listener() {
+            @Override
+            public void onBatchDerived(List<SeedSweep.SweepAccount> accounts) {
+                List<String> accountsToRequest = new ArrayList<>();
+                for (SeedSweep.SweepAccount account : accounts) {
+                    accountPrivkeyMap.put(account.getAccount(), new AccountBalanceItem(account.getPrivateKey()));
+                    accountsToRequest.add(account.getAccount());
+                }
+                // Make account balances request
+                if (!accountService.requestAccountsBalances(accountsToRequest)) {
+                    seedSweep.onBalances(new HashMap<>());
+                }
+            }
+
+            @Override
+            public void onSweepComplete() {
+                hideLoadingOverlay();
+                if (accountPrivkeyMap.size() == 0) {
+                    UIUtil.showToast(getString(R.string.transfer_no_funds_toast), getContext());
+                    return;
+                }
+                showConfirmDialog();
+                dismiss();
+            }
+        };
+        seedSweep = deepSweep ? SeedSweep.deep(seed, wallet.getPublicKey(), listener) :
+                SeedSweep.standard(seed, wallet.getPublicKey(), listener);
+        seedSweep.start();
+    }
+
     private void showConfirmDialog() {
         TransferConfirmDialogFragment dialog = TransferConfirmDialogFragment.newInstance(accountPrivkeyMap);
         dialog.show(getFragmentManager(), TransferConfirmDialogFragment.TAG);
@@ -221,7 +242,6 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
     @Subscribe
     public void onAccountBalancesResponse(AccountsBalancesResponse accountsBalancesResponse) {
         HashMap<String, AccountBalanceItem> accountBalances = accountsBalancesResponse.getBalances();
-        hideLoadingOverlay();
         for (Map.Entry<String, AccountBalanceItem> item : accountBalances.entrySet()) {
             AccountBalanceItem balances = item.getValue();
             String account = item.getKey();
@@ -236,12 +256,9 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
                 accountPrivkeyMap.put(account, balanceItem);
             }
         }
-        if (accountPrivkeyMap.size() == 0) {
-            UIUtil.showToast(getString(R.string.transfer_no_funds_toast), getContext());
-            return;
+        if (seedSweep != null) {
+            seedSweep.onBalances(accountBalances);
         }
-        showConfirmDialog();
-        dismiss();
     }
 
     public class ClickHandlers {
@@ -250,6 +267,13 @@ public class TransferIntroDialogFragment extends BaseDialogFragment {
         }
 
         public void onClickScan(View view) {
+            deepSweep = false;
+            startScanActivity(getString(R.string.transfer_qr_scan_hint), true);
+        }
+
+        public void onClickDeepScan(View view) {
+            // sweep deep into the seed, until the gap limit is reached
+            deepSweep = true;
             startScanActivity(getString(R.string.transfer_qr_scan_hint), true);
         }
     }
@@ -0,0 +1,202 @@
+package com.banano.kaliumwallet.util;
+
+/**
+ * Table driven codec for ban_ addresses.
+ *
+ * An address is the prefix followed by 52 base32 characters holding the 256 bit public key
+ * (padded with 4 zero bits in front) and 8 characters holding the 40 bit checksum, which is
+ * the 5 byte blake2b digest of the public key in reverse byte order.
+ */
+public final class AddressCodec {
+    public static final String PREFIX = "ban_";
+    public static final int KEY_LENGTH = 32;
+    public static final int KEY_CHARS = 52;
+    public static final int CHECKSUM_CHARS = 8;
+    public static final int LENGTH = 4 + KEY_CHARS + CHECKSUM_CHARS;
+
+    private static final int CHECKSUM_LENGTH = 5;
+    private static final char[] ALPHABET = "13456789abcdefghijkmnopqrstuwxyz".toCharArray();
+    // character to 5 bit value, -1 if not in the alphabet
+    private static final byte[] DECODE = new byte[128];
+
+    private static final ThreadLocal<Blake2b> checksumDigest = new ThreadLocal<Blake2b>() {
+        @Override
+        protected Blake2b initialValue() {
+            return new Blake2b(CHECKSUM_LENGTH);
+        }
+    };
+    private static final ThreadLocal<byte[]> scratch = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[KEY_LENGTH + 2 * CHECKSUM_LENGTH];
+        }
+    };
+
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            DECODE[i] = -1;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private AddressCodec() {
+    }
+
+    /**
+     * Find the first well formed address in a string. Only the format is checked, not the
+     * checksum.
+     *
+     * @param s String to search
+     * @return Index of the address or -1 if there is none
+     */
+    public static int find(CharSequence s) {
+        if (s == null) {
+            return -1;
+        }
+        int last = s.length() - LENGTH;
+        for (int i = 0; i <= last; i++) {
+            if (s.charAt(i) == 'b' && isWellFormed(s, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check if a well formed address starts at the given offset. Only the format is checked,
+     * not the checksum.
+     *
+     * @param s      String
+     * @param offset Offset of the prefix
+     * @return true if prefix, length and characters are valid
+     */
+    public static boolean isWellFormed(CharSequence s, int offset) {
+        if (s == null || offset < 0 || s.length() - offset < LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (s.charAt(offset + i) != PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        // the first character only holds the last bit of the padding plus the top key bit
+        char first = s.charAt(offset + PREFIX.length());
+        if (first != '1' && first != '3') {
+            return false;
+        }
+        for (int i = offset + PREFIX.length() + 1; i < offset + LENGTH; i++) {
+            if (value(s.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if a string is exactly one address with a valid checksum
+     *
+     * @param address Address
+     * @return true if valid
+     */
+    public static boolean isValid(CharSequence address) {
+        return address != null && address.length() == LENGTH && decode(address, 0, null);
+    }
+
+    /**
+     * Decode the address at the given offset and verify its checksum
+     *
+     * @param s         String holding the address
+     * @param offset    Offset of the prefix
+     * @param publicKey Output array for the public key (32 bytes), may be null to only validate
+     * @return true if the address is well formed and the checksum matches
+     */
+    public static boolean decode(CharSequence s, int offset, byte[] publicKey) {
+        if (!isWellFormed(s, offset)) {
+            return false;
+        }
+        byte[] buffer = scratch.get();
+        int start = offset + PREFIX.length();
+        // 1 + 51 * 5 = 256 key bits, the first character carries 4 padding bits
+        readBits(s, start + 1, KEY_CHARS - 1, value(s.charAt(start)), 1, buffer, 0);
+        readBits(s, start + KEY_CHARS, CHECKSUM_CHARS, 0, 0, buffer, KEY_LENGTH);
+
+        Blake2b digest = checksumDigest.get();
+        digest.update(buffer, 0, KEY_LENGTH);
+        digest.digest(buffer, KEY_LENGTH + CHECKSUM_LENGTH);
+        for (int i = 0; i < CHECKSUM_LENGTH; i++) {
+            if (buffer[KEY_LENGTH + i] != buffer[KEY_LENGTH + 2 * CHECKSUM_LENGTH - 1 - i]) {
+                return false;
+            }
+        }
+        if (publicKey != null) {
+            System.arraycopy(buffer, 0, publicKey, 0, KEY_LENGTH);
+        }
+        return true;
+    }
+
+    /**
+     * Encode a public key as an address
+     *
+     * @param publicKey Public key (32 bytes)
+     * @return Address
+     */
+    public static String encode(byte[] publicKey) {
+        if (publicKey == null || publicKey.length != KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid public key");
+        }
+        byte[] checksum = scratch.get();
+        Blake2b digest = checksumDigest.get();
+        digest.update(publicKey, 0, KEY_LENGTH);
+        digest.digest(checksum, 0);
+
+        char[] chars = new char[LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        int pos = PREFIX.length();
+        // key bits, starting 4 padding bits before the key
+        for (int bit = -4; bit < KEY_LENGTH * 8; bit += 5) {
+            int v = 0;
+            for (int b = bit; b < bit + 5; b++) {
+                v = v << 1 | (b < 0 ? 0 : (publicKey[b >> 3] >> (7 - (b & 7))) & 1);
+            }
+            chars[pos++] = ALPHABET[v];
+        }
+        // checksum bits, in reverse byte order
+        for (int bit = 0; bit < CHECKSUM_LENGTH * 8; bit += 5) {
+            int v = 0;
+            for (int b = bit; b < bit + 5; b++) {
+                v = v << 1 | (checksum[CHECKSUM_LENGTH - 1 - (b >> 3)] >> (7 - (b & 7))) & 1;
+            }
+            chars[pos++] = ALPHABET[v];
+        }
+        return new String(chars);
+    }
+
+    private static int value(char c) {
+        return c < DECODE.length ? DECODE[c] : -1;
+    }
+
+    /**
+     * Read base32 characters into bytes
+     *
+     * @param s         Source
+     * @param offset    Offset of the first character to read
+     * @param count     Number of characters
+     * @param acc       Bits already read
+     * @param bits      Number of bits already read
+     * @param out       Output array
+     * @param outOffset Offset in the output array
+     */
+    private static void readBits(CharSequence s, int offset, int count, int acc, int bits, byte[] out, int outOffset) {
+        for (int i = offset; i < offset + count; i++) {
+            acc = acc << 5 | value(s.charAt(i));
+            bits += 5;
+            if (bits >= 8) {
+                bits -= 8;
+                out[outOffset++] = (byte) (acc >>> bits);
+                acc &= (1 << bits) - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,585 @@
+package com.banano.kaliumwallet.util;
+
+import java.math.BigInteger;
+
+/**
+ * Ed25519 signature verification with Blake2b-512 as the hash, as used for block signatures.
+ *
+ * The curve arithmetic follows TweetNaCl, with field elements in the 10 limb representation
+ * of ref10 so a multiplication fits in 100 64 bit products. Verification only handles public
+ * data, so it checks [s]B = R + [h]A with a variable time joint double-and-add instead of two
+ * constant time scalar multiplications.
+ *
+ * Like libsodium, signatures with s not below L, public keys that aren't canonical and public
+ * keys or R of small order are turned down, so a signature can't be altered into another
+ * valid one and a key can't be made that any signature verifies for.
+ */
+public final class Ed25519 {
+    public static final int PUBLIC_KEY_LENGTH = 32;
+    public static final int SIGNATURE_LENGTH = 64;
+
+    // field elements are 10 limbs of alternating 26 and 25 bits
+    private static final int LIMBS = 10;
+    private static final int[] LIMB_OFFSET = {0, 26, 51, 77, 102, 128, 153, 179, 204, 230};
+
+    private static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+    private static final long[] D;
+    private static final long[] D2;
+    private static final long[] SQRT_M1;
+    private static final long[][] BASE;
+    private static final long[] L = {
+            0xed, 0xd3, 0xf5, 0x5c, 0x1a, 0x63, 0x12, 0x58, 0xd6, 0x9c, 0xf7, 0xa2, 0xde, 0xf9, 0xde, 0x14,
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0x10
+    };
+
+    // encodings of the points of order 1, 2, 4 and 8, the last two are y = p and y = p + 1,
+    // compared without the sign bit
+    private static final byte[][] SMALL_ORDER = {
+            hex("0100000000000000000000000000000000000000000000000000000000000000"),
+            hex("ecffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"),
+            hex("0000000000000000000000000000000000000000000000000000000000000000"),
+            hex("26e8958fc2b227b045c3f489f2ef98f0d5dfac05d3c63339b13802886d53fc05"),
+            hex("c7176a703d4dd84fba3c0b760d10670f2a2053fa2c39ccc64ec7fd7792ac037a"),
+            hex("edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f"),
+            hex("eeffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f")
+    };
+
+    private static final ThreadLocal<Blake2b> hashDigest = new ThreadLocal<Blake2b>() {
+        @Override
+        protected Blake2b initialValue() {
+            return new Blake2b(64);
+        }
+    };
+
+    static {
+        BigInteger d = BigInteger.valueOf(-121665).multiply(BigInteger.valueOf(121666).modInverse(P)).mod(P);
+        D = fromBigInteger(d);
+        D2 = fromBigInteger(d.shiftLeft(1).mod(P));
+        BigInteger sqrtM1 = BigInteger.valueOf(2).modPow(P.subtract(BigInteger.ONE).shiftRight(2), P);
+        SQRT_M1 = fromBigInteger(sqrtM1);
+
+        // base point, y = 4/5 with even x
+        BigInteger y = BigInteger.valueOf(4).multiply(BigInteger.valueOf(5).modInverse(P)).mod(P);
+        BigInteger xx = y.multiply(y).subtract(BigInteger.ONE)
+                .multiply(d.multiply(y).multiply(y).add(BigInteger.ONE).modInverse(P)).mod(P);
+        BigInteger x = xx.modPow(P.add(BigInteger.valueOf(3)).shiftRight(3), P);
+        if (!x.multiply(x).subtract(xx).mod(P).equals(BigInteger.ZERO)) {
+            x = x.multiply(sqrtM1).mod(P);
+        }
+        if (x.testBit(0)) {
+            x = P.subtract(x);
+        }
+        BASE = new long[][]{fromBigInteger(x), fromBigInteger(y), fromBigInteger(BigInteger.ONE),
+                fromBigInteger(x.multiply(y).mod(P))};
+    }
+
+    private Ed25519() {
+    }
+
+    /**
+     * Verify a signature
+     *
+     * @param publicKey Public key (32 bytes)
+     * @param message   Signed message, the block hash for blocks
+     * @param signature Signature (64 bytes)
+     * @return true if the signature is valid
+     */
+    public static boolean verify(byte[] publicKey, byte[] message, byte[] signature) {
+        if (publicKey == null || publicKey.length != PUBLIC_KEY_LENGTH
+                || signature == null || signature.length != SIGNATURE_LENGTH || message == null) {
+            return false;
+        }
+        if (!isCanonicalScalar(signature, 32) || !isCanonicalPoint(publicKey, 0)
+                || hasSmallOrder(publicKey, 0) || hasSmallOrder(signature, 0)) {
+            return false;
+        }
+        long[][] negA = new long[4][LIMBS];
+        if (!unpackNeg(negA, publicKey)) {
+            return false;
+        }
+
+        // h = H(R || A || M) mod L
+        byte[] h = new byte[64];
+        Blake2b digest = hashDigest.get();
+        digest.update(signature, 0, 32);
+        digest.update(publicKey, 0, PUBLIC_KEY_LENGTH);
+        digest.update(message, 0, message.length);
+        digest.digest(h, 0);
+        reduce(h);
+
+        // [h](-A) + [s]B should give R
+        long[][] sum = new long[4][LIMBS];
+        copyPoint(sum, negA);
+        add(sum, BASE);
+        long[][] p = new long[4][LIMBS];
+        set(p[0], 0);
+        set(p[1], 1);
+        set(p[2], 1);
+        set(p[3], 0);
+        for (int i = 255; i >= 0; i--) {
+            dbl(p);
+            int hb = (h[i >> 3] >> (i & 7)) & 1;
+            int sb = (signature[32 + (i >> 3)] >> (i & 7)) & 1;
+            if (hb == 1 && sb == 1) {
+                add(p, sum);
+            } else if (hb == 1) {
+                add(p, negA);
+            } else if (sb == 1) {
+                add(p, BASE);
+            }
+        }
+        byte[] r = new byte[32];
+        pack(r, p);
+        int diff = 0;
+        for (int i = 0; i < 32; i++) {
+            diff |= r[i] ^ signature[i];
+        }
+        return diff == 0;
+    }
+
+    /**
+     * @return true if the 32 bytes at offset are a scalar below L
+     */
+    private static boolean isCanonicalScalar(byte[] s, int offset) {
+        for (int i = 31; i >= 0; i--) {
+            int b = s[offset + i] & 0xff;
+            if (b != L[i]) {
+                return b < L[i];
+            }
+        }
+        // equal to L
+        return false;
+    }
+
+    /**
+     * @return true if the y coordinate of the point encoded at offset is below p
+     */
+    private static boolean isCanonicalPoint(byte[] p, int offset) {
+        if ((p[offset + 31] & 0x7f) != 0x7f || (p[offset] & 0xff) < 0xed) {
+            return true;
+        }
+        for (int i = 1; i < 31; i++) {
+            if ((p[offset + i] & 0xff) != 0xff) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the point encoded at offset is of order 1, 2, 4 or 8
+     */
+    private static boolean hasSmallOrder(byte[] p, int offset) {
+        for (byte[] blocked : SMALL_ORDER) {
+            int diff = (p[offset + 31] & 0x7f) ^ blocked[31];
+            for (int i = 0; i < 31; i++) {
+                diff |= p[offset + i] ^ blocked[i];
+            }
+            if (diff == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] hex(String hex) {
+        byte[] out = new byte[hex.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return out;
+    }
+
+    /* Field arithmetic mod 2^255 - 19 */
+
+    private static int limbWidth(int i) {
+        return (i & 1) == 0 ? 26 : 25;
+    }
+
+    private static long[] fromBigInteger(BigInteger value) {
+        long[] o = new long[LIMBS];
+        for (int i = 0; i < LIMBS; i++) {
+            o[i] = value.shiftRight(LIMB_OFFSET[i]).longValue() & ((1L << limbWidth(i)) - 1);
+        }
+        return o;
+    }
+
+    private static void set(long[] o, long value) {
+        o[0] = value;
+        for (int i = 1; i < LIMBS; i++) {
+            o[i] = 0;
+        }
+    }
+
+    /**
+     * Carry every limb into the next one, the top limb wraps around times 19
+     */
+    private static void carry(long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            int width = limbWidth(i);
+            long c = h[i] >> width;
+            h[i] -= c << width;
+            if (i < LIMBS - 1) {
+                h[i + 1] += c;
+            } else {
+                h[0] += 19 * c;
+            }
+        }
+        long c = h[0] >> 26;
+        h[0] -= c << 26;
+        h[1] += c;
+    }
+
+    private static void pack25519(byte[] o, long[] n) {
+        long[] t = new long[LIMBS];
+        System.arraycopy(n, 0, t, 0, LIMBS);
+        carry(t);
+        carry(t);
+        carry(t);
+        // t is now in [0, 2^255), subtract p if t + 19 overflows 2^255
+        long[] m = new long[LIMBS];
+        System.arraycopy(t, 0, m, 0, LIMBS);
+        m[0] += 19;
+        for (int i = 0; i < LIMBS - 1; i++) {
+            long c = m[i] >> limbWidth(i);
+            m[i] -= c << limbWidth(i);
+            m[i + 1] += c;
+        }
+        if ((m[9] >> 25) != 0) {
+            m[9] &= (1L << 25) - 1;
+            t = m;
+        }
+        for (int i = 0; i < 32; i++) {
+            o[i] = 0;
+        }
+        for (int i = 0; i < LIMBS; i++) {
+            long limb = t[i];
+            int bit = LIMB_OFFSET[i];
+            for (int b = 0; b < limbWidth(i); b += 8, bit += 8) {
+                // a limb starts mid byte, so spread each 8 bit chunk over two bytes
+                long chunk = (limb >> b) & 0xff;
+                int shift = bit & 7;
+                o[bit >> 3] |= (byte) (chunk << shift);
+                if (shift != 0 && (bit >> 3) + 1 < 32) {
+                    o[(bit >> 3) + 1] |= (byte) (chunk >> (8 - shift));
+                }
+            }
+        }
+    }
+
+    private static boolean equal25519(long[] a, long[] b) {
+        byte[] c = new byte[32];
+        byte[] d = new byte[32];
+        pack25519(c, a);
+        pack25519(d, b);
+        int diff = 0;
+        for (int i = 0; i < 32; i++) {
+            diff |= c[i] ^ d[i];
+        }
+        return diff == 0;
+    }
+
+    private static int parity25519(long[] a) {
+        byte[] d = new byte[32];
+        pack25519(d, a);
+        return d[0] & 1;
+    }
+
+    /**
+     * Load a 32 byte little endian number, ignoring the top bit
+     */
+    private static void unpack25519(long[] o, byte[] n) {
+        for (int i = 0; i < LIMBS; i++) {
+            int bit = LIMB_OFFSET[i];
+            long value = 0;
+            for (int b = Math.min(31, (bit + limbWidth(i) - 1) >> 3); b >= bit >> 3; b--) {
+                value = value << 8 | (n[b] & 0xff);
+            }
+            o[i] = (value >> (bit & 7)) & ((1L << limbWidth(i)) - 1);
+        }
+    }
+
+    private static void add25519(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < LIMBS; i++) {
+            o[i] = a[i] + b[i];
+        }
+    }
+
+    private static void sub25519(long[] o, long[] a, long[] b) {
+        for (int i = 0; i < LIMBS; i++) {
+            o[i] = a[i] - b[i];
+        }
+    }
+
+    private static void mul25519(long[] o, long[] f, long[] g) {
+        long f0 = f[0];
+        long f1 = f[1];
+        long f2 = f[2];
+        long f3 = f[3];
+        long f4 = f[4];
+        long f5 = f[5];
+        long f6 = f[6];
+        long f7 = f[7];
+        long f8 = f[8];
+        long f9 = f[9];
+        long g0 = g[0];
+        long g1 = g[1];
+        long g2 = g[2];
+        long g3 = g[3];
+        long g4 = g[4];
+        long g5 = g[5];
+        long g6 = g[6];
+        long g7 = g[7];
+        long g8 = g[8];
+        long g9 = g[9];
+        long g1_19 = 19 * g1;
+        long g2_19 = 19 * g2;
+        long g3_19 = 19 * g3;
+        long g4_19 = 19 * g4;
+        long g5_19 = 19 * g5;
+        long g6_19 = 19 * g6;
+        long g7_19 = 19 * g7;
+        long g8_19 = 19 * g8;
+        long g9_19 = 19 * g9;
+        // odd times odd limbs are off by a factor of two due to the 25.5 bit radix
+        long f1_2 = 2 * f1;
+        long f3_2 = 2 * f3;
+        long f5_2 = 2 * f5;
+        long f7_2 = 2 * f7;
+        long f9_2 = 2 * f9;
+        long h0 = f0 * g0 + f1_2 * g9_19 + f2 * g8_19 + f3_2 * g7_19 + f4 * g6_19 + f5_2 * g5_19 + f6 * g4_19
+                + f7_2 * g3_19 + f8 * g2_19 + f9_2 * g1_19;
+        long h1 = f0 * g1 + f1 * g0 + f2 * g9_19 + f3 * g8_19 + f4 * g7_19 + f5 * g6_19 + f6 * g5_19
+                + f7 * g4_19 + f8 * g3_19 + f9 * g2_19;
+        long h2 = f0 * g2 + f1_2 * g1 + f2 * g0 + f3_2 * g9_19 + f4 * g8_19 + f5_2 * g7_19 + f6 * g6_19
+                + f7_2 * g5_19 + f8 * g4_19 + f9_2 * g3_19;
+        long h3 = f0 * g3 + f1 * g2 + f2 * g1 + f3 * g0 + f4 * g9_19 + f5 * g8_19 + f6 * g7_19 + f7 * g6_19
+                + f8 * g5_19 + f9 * g4_19;
+        long h4 = f0 * g4 + f1_2 * g3 + f2 * g2 + f3_2 * g1 + f4 * g0 + f5_2 * g9_19 + f6 * g8_19
+                + f7_2 * g7_19 + f8 * g6_19 + f9_2 * g5_19;
+        long h5 = f0 * g5 + f1 * g4 + f2 * g3 + f3 * g2 + f4 * g1 + f5 * g0 + f6 * g9_19 + f7 * g8_19
+                + f8 * g7_19 + f9 * g6_19;
+        long h6 = f0 * g6 + f1_2 * g5 + f2 * g4 + f3_2 * g3 + f4 * g2 + f5_2 * g1 + f6 * g0 + f7_2 * g9_19
+                + f8 * g8_19 + f9_2 * g7_19;
+        long h7 = f0 * g7 + f1 * g6 + f2 * g5 + f3 * g4 + f4 * g3 + f5 * g2 + f6 * g1 + f7 * g0 + f8 * g9_19
+                + f9 * g8_19;
+        long h8 = f0 * g8 + f1_2 * g7 + f2 * g6 + f3_2 * g5 + f4 * g4 + f5_2 * g3 + f6 * g2 + f7_2 * g1
+                + f8 * g0 + f9_2 * g9_19;
+        long h9 = f0 * g9 + f1 * g8 + f2 * g7 + f3 * g6 + f4 * g5 + f5 * g4 + f6 * g3 + f7 * g2 + f8 * g1
+                + f9 * g0;
+        o[0] = h0;
+        o[1] = h1;
+        o[2] = h2;
+        o[3] = h3;
+        o[4] = h4;
+        o[5] = h5;
+        o[6] = h6;
+        o[7] = h7;
+        o[8] = h8;
+        o[9] = h9;
+        carry(o);
+    }
+
+    private static void square25519(long[] o, long[] a) {
+        mul25519(o, a, a);
+    }
+
+    private static void pow2523(long[] o, long[] i) {
+        long[] c = new long[LIMBS];
+        System.arraycopy(i, 0, c, 0, LIMBS);
+        for (int a = 250; a >= 0; a--) {
+            square25519(c, c);
+            if (a != 1) {
+                mul25519(c, c, i);
+            }
+        }
+        System.arraycopy(c, 0, o, 0, LIMBS);
+    }
+
+    private static void inv25519(long[] o, long[] i) {
+        long[] c = new long[LIMBS];
+        System.arraycopy(i, 0, c, 0, LIMBS);
+        for (int a = 253; a >= 0; a--) {
+            square25519(c, c);
+            if (a != 2 && a != 4) {
+                mul25519(c, c, i);
+            }
+        }
+        System.arraycopy(c, 0, o, 0, LIMBS);
+    }
+
+    /* Points in extended coordinates (X, Y, Z, T) */
+
+    private static void copyPoint(long[][] p, long[][] q) {
+        for (int i = 0; i < 4; i++) {
+            System.arraycopy(q[i], 0, p[i], 0, LIMBS);
+        }
+    }
+
+    private static void add(long[][] p, long[][] q) {
+        long[] a = new long[LIMBS];
+        long[] b = new long[LIMBS];
+        long[] c = new long[LIMBS];
+        long[] d = new long[LIMBS];
+        long[] t = new long[LIMBS];
+        long[] e = new long[LIMBS];
+        long[] f = new long[LIMBS];
+        long[] g = new long[LIMBS];
+        long[] h = new long[LIMBS];
+        sub25519(a, p[1], p[0]);
+        sub25519(t, q[1], q[0]);
+        mul25519(a, a, t);
+        add25519(b, p[0], p[1]);
+        add25519(t, q[0], q[1]);
+        mul25519(b, b, t);
+        mul25519(c, p[3], q[3]);
+        mul25519(c, c, D2);
+        mul25519(d, p[2], q[2]);
+        add25519(d, d, d);
+        sub25519(e, b, a);
+        sub25519(f, d, c);
+        add25519(g, d, c);
+        add25519(h, b, a);
+        carry(f);
+        carry(g);
+        mul25519(p[0], e, f);
+        mul25519(p[1], h, g);
+        mul25519(p[2], g, f);
+        mul25519(p[3], e, h);
+    }
+
+    private static void dbl(long[][] p) {
+        long[] a = new long[LIMBS];
+        long[] b = new long[LIMBS];
+        long[] c = new long[LIMBS];
+        long[] e = new long[LIMBS];
+        long[] f = new long[LIMBS];
+        long[] g = new long[LIMBS];
+        long[] h = new long[LIMBS];
+        square25519(a, p[0]);
+        square25519(b, p[1]);
+        square25519(c, p[2]);
+        add25519(c, c, c);
+        // curve constant a = -1
+        add25519(e, p[0], p[1]);
+        square25519(e, e);
+        sub25519(e, e, a);
+        sub25519(e, e, b);
+        sub25519(g, b, a);
+        sub25519(f, g, c);
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] = -a[i] - b[i];
+        }
+        // keep the limbs small enough for the products to fit
+        carry(e);
+        carry(f);
+        mul25519(p[0], e, f);
+        mul25519(p[1], g, h);
+        mul25519(p[3], e, h);
+        mul25519(p[2], f, g);
+    }
+
+    private static void pack(byte[] r, long[][] p) {
+        long[] tx = new long[LIMBS];
+        long[] ty = new long[LIMBS];
+        long[] zi = new long[LIMBS];
+        inv25519(zi, p[2]);
+        mul25519(tx, p[0], zi);
+        mul25519(ty, p[1], zi);
+        pack25519(r, ty);
+        r[31] ^= parity25519(tx) << 7;
+    }
+
+    /**
+     * Decode a public key and negate it
+     */
+    private static boolean unpackNeg(long[][] r, byte[] p) {
+        long[] t = new long[LIMBS];
+        long[] chk = new long[LIMBS];
+        long[] num = new long[LIMBS];
+        long[] den = new long[LIMBS];
+        long[] den2 = new long[LIMBS];
+        long[] den4 = new long[LIMBS];
+        long[] den6 = new long[LIMBS];
+        long[] one = new long[LIMBS];
+        long[] zero = new long[LIMBS];
+        set(one, 1);
+        set(r[2], 1);
+        unpack25519(r[1], p);
+        square25519(num, r[1]);
+        mul25519(den, num, D);
+        sub25519(num, num, r[2]);
+        add25519(den, r[2], den);
+
+        square25519(den2, den);
+        square25519(den4, den2);
+        mul25519(den6, den4, den2);
+        mul25519(t, den6, num);
+        mul25519(t, t, den);
+
+        pow2523(t, t);
+        mul25519(t, t, num);
+        mul25519(t, t, den);
+        mul25519(t, t, den);
+        mul25519(r[0], t, den);
+
+        square25519(chk, r[0]);
+        mul25519(chk, chk, den);
+        if (!equal25519(chk, num)) {
+            mul25519(r[0], r[0], SQRT_M1);
+        }
+
+        square25519(chk, r[0]);
+        mul25519(chk, chk, den);
+        if (!equal25519(chk, num)) {
+            return false;
+        }
+
+        if (parity25519(r[0]) == ((p[31] & 0xff) >> 7)) {
+            sub25519(r[0], zero, r[0]);
+        }
+        mul25519(r[3], r[0], r[1]);
+        return true;
+    }
+
+    /* Scalars mod L */
+
+    private static void modL(byte[] r, long[] x) {
+        long carry;
+        for (int i = 63; i >= 32; i--) {
+            carry = 0;
+            int j;
+            for (j = i - 32; j < i - 12; j++) {
+                x[j] += carry - 16 * x[i] * L[j - (i - 32)];
+                carry = (x[j] + 128) >> 8;
+                x[j] -= carry << 8;
+            }
+            x[j] += carry;
+            x[i] = 0;
+        }
+        carry = 0;
+        for (int j = 0; j < 32; j++) {
+            x[j] += carry - (x[31] >> 4) * L[j];
+            carry = x[j] >> 8;
+            x[j] &= 255;
+        }
+        for (int j = 0; j < 32; j++) {
+            x[j] -= carry * L[j];
+        }
+        for (int i = 0; i < 32; i++) {
+            x[i + 1] += x[i] >> 8;
+            r[i] = (byte) (x[i] & 255);
+        }
+    }
+
+    private static void reduce(byte[] r) {
+        long[] x = new long[64];
+        for (int i = 0; i < 64; i++) {
+            x[i] = r[i] & 0xff;
+        }
+        for (int i = 0; i < 64; i++) {
+            r[i] = 0;
+        }
+        modL(r, x);
+    }
+}
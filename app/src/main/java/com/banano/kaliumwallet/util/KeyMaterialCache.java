@@ -0,0 +1,94 @@
+package com.banano.kaliumwallet.util;
+
+import com.banano.kaliumwallet.bus.Logout;
+import com.banano.kaliumwallet.bus.RxBus;
+import com.banano.kaliumwallet.bus.WalletClear;
+import com.banano.kaliumwallet.model.Credentials;
+import com.banano.kaliumwallet.model.KeyMaterial;
+import com.hwangjr.rxbus.annotation.Subscribe;
+
+import javax.inject.Provider;
+
+import io.realm.Realm;
+
+/**
+ * In-memory cache of the key material derived from the stored credentials.
+ * Keys are derived once per login and dropped on logout or wallet clear.
+ * <p>
+ * Every invalidate starts a new generation. A load that was started in an older generation
+ * is thrown away, so a logout racing with a load can't put the old keys back.
+ */
+public class KeyMaterialCache {
+    private final Provider<Realm> realmProvider;
+    private final Object state = new Object();
+    private volatile KeyMaterial keyMaterial;
+    private int generation = 0;
+
+    public KeyMaterialCache(Provider<Realm> realmProvider) {
+        this.realmProvider = realmProvider;
+        RxBus.get().register(this);
+    }
+
+    /**
+     * Get the key material for the current wallet, deriving it if it is not cached yet.
+     * Loading reads from realm, so the first call has to happen on a realm thread.
+     *
+     * @return Key material or null if there is no wallet
+     */
+    public KeyMaterial get() {
+        KeyMaterial cached = keyMaterial;
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this) {
+            int loadGeneration;
+            synchronized (state) {
+                if (keyMaterial != null) {
+                    return keyMaterial;
+                }
+                loadGeneration = generation;
+            }
+            KeyMaterial loaded = load();
+            synchronized (state) {
+                if (loadGeneration != generation) {
+                    // invalidated while loading, the credentials read may be gone
+                    return null;
+                }
+                keyMaterial = loaded;
+                return loaded;
+            }
+        }
+    }
+
+    public void invalidate() {
+        synchronized (state) {
+            generation++;
+            keyMaterial = null;
+        }
+    }
+
+    private KeyMaterial load() {
+        Realm realm = realmProvider.get();
+        try {
+            Credentials credentials = realm.where(Credentials.class).findFirst();
+            if (credentials == null || credentials.getPrivateKey() == null) {
+                return null;
+            }
+            return new KeyMaterial(credentials.getPrivateKey());
+        } finally {
+            realm.close();
+        }
+    }
+
+    /* Bus Listeners */
+
+    @Subscribe
+    public void receiveLogout(Logout logout) {
+        invalidate();
+    }
+
+    @Subscribe
+    public void receiveClear(WalletClear walletClear) {
+        invalidate();
+    }
+}
@@ -10,8 +10,11 @@ import com.banano.kaliumwallet.model.AvailableLanguage;
 import com.banano.kaliumwallet.model.NotificationOption;
 import com.banano.kaliumwallet.model.PreconfiguredRepresentatives;
 import com.banano.kaliumwallet.model.PriceConversion;
+import com.banano.kaliumwallet.model.WorkSource;
+import com.banano.kaliumwallet.network.PendingAdmission;
 import com.github.ajalt.reprint.core.Reprint;
 
+import java.math.BigInteger;
 import java.util.Currency;
 import java.util.Locale;
 
@@ -32,6 +35,10 @@ public class SharedPreferencesUtil {
     private static final String FCM_TOKEN = "fcm_token";
     private static final String PUSH_NOTIFICATIONS = "push_notifications";
     private static final String APP_BACKGROUNDED = "app_backgrounded";
+    private static final String WORK_SOURCE = "work_source";
+    private static final String MIN_RECEIVE_AMOUNT = "min_receive_amount";
+    private static final String RECEIVE_BUDGET = "receive_budget";
+    private static final String SOCKET_COMPRESSION = "socket_compression";
 
     private final SharedPreferences mPrefs;
 
@@ -51,6 +58,10 @@ public class SharedPreferencesUtil {
         return mPrefs.getBoolean(key, defValue);
     }
 
+    private int get(String key, int defValue) {
+        return mPrefs.getInt(key, defValue);
+    }
+
     private void set(String key, String value) {
         SharedPreferences.Editor editor = mPrefs.edit();
 
@@ -71,6 +82,14 @@ public class SharedPreferencesUtil {
         editor.apply();
     }
 
+    private void set(String key, int value) {
+        SharedPreferences.Editor editor = mPrefs.edit();
+
+        editor.putInt(key, value);
+
+        editor.apply();
+    }
+
     private AvailableCurrency getDefaultCurrency() {
         String symbol = Currency.getInstance(getDefaultLocale()).getCurrencyCode();
         for (AvailableCurrency value: AvailableCurrency.values()) {
@@ -158,6 +177,52 @@ public class SharedPreferencesUtil {
         set(PRICE_CONVERSION, conversion.toString());
     }
 
+    public WorkSource getWorkSource() {
+        return WorkSource.valueOf(get(WORK_SOURCE, WorkSource.SERVER.toString()));
+    }
+
+    public void setWorkSource(WorkSource workSource) {
+        set(WORK_SOURCE, workSource.toString());
+    }
+
+    /**
+     * @return Smallest pending amount in raw that's received automatically
+     */
+    public BigInteger getMinReceiveAmount() {
+        try {
+            return new BigInteger(get(MIN_RECEIVE_AMOUNT, PendingAdmission.DEFAULT_THRESHOLD.toString()));
+        } catch (NumberFormatException e) {
+            return PendingAdmission.DEFAULT_THRESHOLD;
+        }
+    }
+
+    public void setMinReceiveAmount(BigInteger raw) {
+        set(MIN_RECEIVE_AMOUNT, raw != null ? raw.toString() : null);
+    }
+
+    /**
+     * @return Pending blocks received automatically per session
+     */
+    public int getReceiveBudget() {
+        return get(RECEIVE_BUDGET, PendingAdmission.DEFAULT_BUDGET);
+    }
+
+    public void setReceiveBudget(int budget) {
+        set(RECEIVE_BUDGET, budget);
+    }
+
+    /**
+     * @return true to offer permessage-deflate when connecting, off unless turned on since
+     * it hasn't been tried against the live server yet
+     */
+    public boolean isSocketCompression() {
+        return get(SOCKET_COMPRESSION, false);
+    }
+
+    public void setSocketCompression(boolean compression) {
+        set(SOCKET_COMPRESSION, compression);
+    }
+
     public String getFcmToken() {
         return get(FCM_TOKEN, null);
     }
@@ -0,0 +1,275 @@
+package com.banano.kaliumwallet.util;
+
+import com.banano.kaliumwallet.model.WalletSnapshot;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.inject.Provider;
+
+import io.realm.Realm;
+
+/**
+ * Realm backed store of the last known wallet state per account.
+ * <p>
+ * Loading is synchronous so the wallet has something to show on the first frame. Saving
+ * happens on a background thread and only the latest state waiting to be written is kept,
+ * so a burst of updates is a single write.
+ * <p>
+ * Only the account the wallet was opened with is saved. Once cleared, saves are dropped
+ * until the wallet is opened again, so nothing still on its way from before a logout
+ * brings the snapshot back.
+ */
+public class WalletSnapshotStore {
+    // bump when State changes in a way older snapshots can't be read as
+    public static final int VERSION = 1;
+
+    private final Provider<Realm> realmProvider;
+    private final Gson gson = new Gson();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+    // public key of the account logged in, null after a logout
+    private volatile String account;
+
+    public WalletSnapshotStore(Provider<Realm> realmProvider) {
+        this.realmProvider = realmProvider;
+    }
+
+    /**
+     * Accept saves for an account from now on
+     *
+     * @param account Public key of the account logged in
+     */
+    public void open(String account) {
+        this.account = account;
+    }
+
+    /**
+     * @param account Public key of the account
+     * @return Last saved state, null if there is none that this version can read
+     */
+    public State load(String account) {
+        if (account == null) {
+            return null;
+        }
+        Realm realm = realmProvider.get();
+        try {
+            WalletSnapshot snapshot = realm.where(WalletSnapshot.class).equalTo("account", account).findFirst();
+            if (snapshot == null || snapshot.getVersion() != VERSION) {
+                // an older snapshot is replaced by the next save
+                return null;
+            }
+            return gson.fromJson(snapshot.getData(), State.class);
+        } catch (JsonParseException e) {
+            ExceptionHandler.handle(e);
+            return null;
+        } finally {
+            realm.close();
+        }
+    }
+
+    /**
+     * Save the state of an account in the background
+     *
+     * @param account Public key of the account
+     * @param state   Wallet state
+     */
+    public void save(String account, State state) {
+        if (account == null || state == null || !account.equals(this.account)) {
+            return;
+        }
+        if (pending.getAndSet(new Pending(account, state)) == null) {
+            writer.execute(this::write);
+        }
+    }
+
+    private void write() {
+        Pending next = pending.getAndSet(null);
+        // logged out since it was saved
+        if (next == null || !next.account.equals(account)) {
+            return;
+        }
+        String data = gson.toJson(next.state);
+        Realm realm = realmProvider.get();
+        try {
+            realm.executeTransaction(r -> r.insertOrUpdate(new WalletSnapshot(next.account, VERSION, data)));
+        } catch (Exception e) {
+            ExceptionHandler.handle(e);
+        } finally {
+            realm.close();
+        }
+    }
+
+    /**
+     * Delete all snapshots and drop saves until the next {@link #open}
+     */
+    public void clear() {
+        account = null;
+        pending.set(null);
+        // after any write that's already running
+        writer.execute(() -> {
+            Realm realm = realmProvider.get();
+            try {
+                realm.executeTransaction(r -> r.delete(WalletSnapshot.class));
+            } finally {
+                realm.close();
+            }
+        });
+    }
+
+    private static class Pending {
+        final String account;
+        final State state;
+
+        Pending(String account, State state) {
+            this.account = account;
+            this.state = state;
+        }
+    }
+
+    /**
+     * Wallet state as it's saved. Amounts and prices are kept as strings so nothing is lost.
+     */
+    public static class State {
+        @SerializedName("balance")
+        private String balance;
+
+        @SerializedName("frontier")
+        private String frontier;
+
+        @SerializedName("open_block")
+        private String openBlock;
+
+        @SerializedName("representative")
+        private String representative;
+
+        @SerializedName("representative_block")
+        private String representativeBlock;
+
+        @SerializedName("block_count")
+        private Integer blockCount;
+
+        // prices are only good for the currency they were fetched in
+        @SerializedName("currency")
+        private String currency;
+
+        @SerializedName("price")
+        private String price;
+
+        @SerializedName("nano")
+        private String nano;
+
+        @SerializedName("btc")
+        private String btc;
+
+        // newest to oldest
+        @SerializedName("history")
+        private List<AccountHistoryResponseItem> history;
+
+        // where the history continues if it doesn't go back to the open block
+        @SerializedName("previous")
+        private String previous;
+
+        public String getBalance() {
+            return balance;
+        }
+
+        public void setBalance(String balance) {
+            this.balance = balance;
+        }
+
+        public String getFrontier() {
+            return frontier;
+        }
+
+        public void setFrontier(String frontier) {
+            this.frontier = frontier;
+        }
+
+        public String getOpenBlock() {
+            return openBlock;
+        }
+
+        public void setOpenBlock(String openBlock) {
+            this.openBlock = openBlock;
+        }
+
+        public String getRepresentative() {
+            return representative;
+        }
+
+        public void setRepresentative(String representative) {
+            this.representative = representative;
+        }
+
+        public String getRepresentativeBlock() {
+            return representativeBlock;
+        }
+
+        public void setRepresentativeBlock(String representativeBlock) {
+            this.representativeBlock = representativeBlock;
+        }
+
+        public Integer getBlockCount() {
+            return blockCount;
+        }
+
+        public void setBlockCount(Integer blockCount) {
+            this.blockCount = blockCount;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        public void setCurrency(String currency) {
+            this.currency = currency;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        public void setPrice(String price) {
+            this.price = price;
+        }
+
+        public String getNano() {
+            return nano;
+        }
+
+        public void setNano(String nano) {
+            this.nano = nano;
+        }
+
+        public String getBtc() {
+            return btc;
+        }
+
+        public void setBtc(String btc) {
+            this.btc = btc;
+        }
+
+        public List<AccountHistoryResponseItem> getHistory() {
+            return history;
+        }
+
+        public void setHistory(List<AccountHistoryResponseItem> history) {
+            this.history = history;
+        }
+
+        public String getPrevious() {
+            return previous;
+        }
+
+        public void setPrevious(String previous) {
+            this.previous = previous;
+        }
+    }
+}
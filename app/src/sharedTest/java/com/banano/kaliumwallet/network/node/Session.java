@@ -0,0 +1,137 @@
+package com.banano.kaliumwallet.network.node;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages that went through the socket, in order, one JSON object per line:
+ * {"t":milliseconds since connecting,"in":true if the client sent it,"message":"..."}
+ */
+public class Session {
+    private final List<Entry> entries = Collections.synchronizedList(new ArrayList<>());
+
+    public void add(long time, boolean inbound, String message) {
+        entries.add(new Entry(time, inbound, message));
+    }
+
+    public List<Entry> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void write(Writer writer) throws IOException {
+        for (Entry entry : getEntries()) {
+            JsonObject line = new JsonObject();
+            line.addProperty("t", entry.time);
+            line.addProperty("in", entry.inbound);
+            line.addProperty("message", entry.message);
+            writer.write(line.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    public static Session read(Reader reader) throws IOException {
+        Session session = new Session();
+        JsonParser parser = new JsonParser();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonObject json = parser.parse(line).getAsJsonObject();
+            session.add(json.get("t").getAsLong(), json.get("in").getAsBoolean(), json.get("message").getAsString());
+        }
+        return session;
+    }
+
+    /**
+     * @return Recorded replies by action, each with what the server pushed after it
+     */
+    public Replay replay() {
+        return new Replay(getEntries());
+    }
+
+    public static class Entry {
+        public final long time;
+        public final boolean inbound;
+        public final String message;
+
+        Entry(long time, boolean inbound, String message) {
+            this.time = time;
+            this.inbound = inbound;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Replies are matched to requests by the id the server echoed. Messages pushed without
+     * an id go out after the reply they followed in the recording.
+     */
+    public static class Replay {
+        private final Map<String, Deque<Exchange>> exchanges = new HashMap<>();
+
+        Replay(List<Entry> entries) {
+            JsonParser parser = new JsonParser();
+            Map<String, String> actions = new HashMap<>();
+            Exchange last = null;
+            for (Entry entry : entries) {
+                JsonObject json = parser.parse(entry.message).getAsJsonObject();
+                String id = json.has("id") ? json.get("id").getAsString() : null;
+                if (entry.inbound) {
+                    JsonElement action = json.get("action");
+                    if (id != null && action != null) {
+                        actions.put(id, action.getAsString());
+                    }
+                } else if (id != null && actions.containsKey(id)) {
+                    json.remove("id");
+                    last = new Exchange(json);
+                    String action = actions.remove(id);
+                    if (!exchanges.containsKey(action)) {
+                        exchanges.put(action, new ArrayDeque<>());
+                    }
+                    exchanges.get(action).add(last);
+                } else if (last != null) {
+                    last.pushes.add(entry.message);
+                }
+            }
+        }
+
+        /**
+         * @param action Action of a request
+         * @return Next recorded reply to it, null once they have all been played
+         */
+        public synchronized Exchange next(String action) {
+            Deque<Exchange> queue = exchanges.get(action);
+            return queue != null ? queue.poll() : null;
+        }
+    }
+
+    public static class Exchange {
+        public final JsonObject reply;
+        public final List<String> pushes = new ArrayList<>();
+
+        Exchange(JsonObject reply) {
+            this.reply = reply;
+        }
+    }
+}
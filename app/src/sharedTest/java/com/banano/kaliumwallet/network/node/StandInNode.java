@@ -0,0 +1,414 @@
+package com.banano.kaliumwallet.network.node;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.socket.MeteredDraft;
+import com.banano.kaliumwallet.network.socket.TransportStats;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A local stand-in for the wallet server, speaking enough of its protocol to drive the
+ * socket code without the real backend: subscribe, history, pending, blocks_info, process,
+ * work and price, plus price pushes.
+ * <p>
+ * The ledger is a single account with a frontier and pending blocks. Receives sent to
+ * process are checked against it like the node would, so a chain built on the wrong block
+ * or the wrong balance is turned down. Everything through the socket is recorded in a
+ * {@link Session}. A node given a session answers from it instead of its ledger.
+ */
+public class StandInNode extends WebSocketServer {
+    public static final String REPRESENTATIVE = "ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c";
+    private static final String[] SENDERS = {
+            "ban_1zt46nopzx67jy65mwkrp3xpc9z5fkahssz7cwsjaujtprgb7dbgg1zdik1b",
+            "ban_1k4xdcjw1iqonh4mfpd1or7yjeh17i7bs4s3mmg7brnzbkb4ua3g734aq8rw",
+            REPRESENTATIVE
+    };
+
+    private final JsonParser parser = new JsonParser();
+    private final String account;
+    private final Session recording = new Session();
+    private final Session.Replay replay;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final Semaphore opened = new Semaphore(0);
+    private final AtomicReference<Exception> error = new AtomicReference<>();
+    private final long startTime = System.currentTimeMillis();
+
+    // ledger
+    private final Map<String, JsonObject> pending = new LinkedHashMap<>();
+    private final Map<String, JsonObject> blocks = new HashMap<>();
+    private final LinkedList<JsonObject> history = new LinkedList<>();
+    private String frontier;
+    private BigInteger balance;
+    private int blockCount = 1;
+    private int nextPending = 0;
+    private double price = 0.0062;
+
+    /**
+     * @param account Account the ledger is for
+     * @param balance Balance of its frontier in raw
+     * @param replay  Recorded session to answer from, null to answer from the ledger
+     */
+    public StandInNode(String account, BigInteger balance, Session replay) {
+        super(new InetSocketAddress("127.0.0.1", 0), Collections.singletonList(new MeteredDraft(new TransportStats(), true)));
+        this.account = account;
+        this.balance = balance;
+        this.replay = replay != null ? replay.replay() : null;
+        this.frontier = String.format("%064X", 1);
+        JsonObject open = new JsonObject();
+        open.addProperty("type", "state");
+        open.addProperty("account", account);
+        open.addProperty("previous", String.format("%064X", 0));
+        open.addProperty("representative", REPRESENTATIVE);
+        open.addProperty("balance", balance.toString());
+        open.addProperty("link", String.format("%064X", 0));
+        blocks.put(frontier, open);
+        setReuseAddr(true);
+    }
+
+    /**
+     * Start listening on a free local port
+     */
+    public StandInNode begin() throws InterruptedException {
+        start();
+        if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("stand-in node didn't start");
+        }
+        return this;
+    }
+
+    /**
+     * Wait for the node's end of a new connection, pushes before it would go to nobody
+     *
+     * @return false if no connection opened in time
+     */
+    public boolean awaitOpen(long timeout, TimeUnit unit) throws InterruptedException {
+        return opened.tryAcquire(timeout, unit);
+    }
+
+    public String getUri() {
+        return "ws://127.0.0.1:" + getPort();
+    }
+
+    public Session getRecording() {
+        return recording;
+    }
+
+    /**
+     * @return First error on any connection or in answering a request, null if there was none
+     */
+    public Exception getError() {
+        return error.get();
+    }
+
+    public synchronized String getFrontier() {
+        return frontier;
+    }
+
+    public synchronized BigInteger getBalance() {
+        return balance;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Make a storm of pending blocks, amounts spread over two orders of magnitude
+     *
+     * @param count Pending blocks to add
+     * @param unit  Smallest amount in raw
+     */
+    public synchronized void addPending(int count, BigInteger unit) {
+        for (int i = 0; i < count; i++) {
+            int n = nextPending++;
+            JsonObject item = new JsonObject();
+            item.addProperty("amount", unit.multiply(BigInteger.valueOf(1 + (n * 37) % 100)).toString());
+            item.addProperty("source", SENDERS[n % SENDERS.length]);
+            pending.put(String.format("%064X", 0x10000 + n), item);
+        }
+    }
+
+    /**
+     * Push price updates to everyone connected, as the server does when the price moves
+     *
+     * @param count          Updates to push
+     * @param intervalMillis Time between them, 0 to push them as fast as possible
+     */
+    public void pushPrices(int count, long intervalMillis) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            JsonObject update;
+            synchronized (this) {
+                price *= 1 + ((i % 3) - 1) * 0.001;
+                update = priceData();
+            }
+            for (WebSocket conn : getConnections()) {
+                send(conn, update);
+            }
+            if (intervalMillis > 0) {
+                Thread.sleep(intervalMillis);
+            }
+        }
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        opened.release();
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        recording.add(System.currentTimeMillis() - startTime, true, message);
+        JsonObject request = parser.parse(message).getAsJsonObject();
+        String action = request.has("action") ? request.get("action").getAsString() : null;
+        List<String> pushes = new ArrayList<>();
+        JsonObject reply;
+        if (replay != null) {
+            Session.Exchange exchange = replay.next(action);
+            reply = exchange != null ? exchange.reply.deepCopy() : error("Nothing recorded for " + action);
+            if (exchange != null) {
+                pushes.addAll(exchange.pushes);
+            }
+        } else {
+            synchronized (this) {
+                reply = answer(action, request);
+            }
+        }
+        if (request.has("id")) {
+            reply.add("id", request.get("id"));
+        }
+        send(conn, reply);
+        for (String push : pushes) {
+            send(conn, push);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        error.compareAndSet(null, ex);
+    }
+
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    private void send(WebSocket conn, JsonObject message) {
+        send(conn, message.toString());
+    }
+
+    private void send(WebSocket conn, String message) {
+        recording.add(System.currentTimeMillis() - startTime, false, message);
+        conn.send(message);
+    }
+
+    private JsonObject answer(String action, JsonObject request) {
+        if (Actions.SUBSCRIBE.toString().equals(action)) {
+            return subscribe();
+        } else if (Actions.HISTORY.toString().equals(action)) {
+            return history(request);
+        } else if (Actions.PENDING.toString().equals(action)) {
+            return pending(request);
+        } else if (Actions.GET_BLOCKS_INFO.toString().equals(action)) {
+            return blocksInfo(request);
+        } else if (Actions.PROCESS.toString().equals(action)) {
+            return process(parser.parse(request.get("block").getAsString()).getAsJsonObject());
+        } else if (Actions.WORK.toString().equals(action)) {
+            JsonObject reply = new JsonObject();
+            reply.addProperty("work", String.format("%016x", request.get("hash").getAsString().hashCode()));
+            return reply;
+        } else if (Actions.PRICE.toString().equals(action)) {
+            return priceData();
+        }
+        return error("Invalid action");
+    }
+
+    private JsonObject subscribe() {
+        JsonObject reply = new JsonObject();
+        reply.addProperty("frontier", frontier);
+        reply.addProperty("open_block", frontier);
+        reply.addProperty("representative_block", frontier);
+        reply.addProperty("representative", REPRESENTATIVE);
+        reply.addProperty("balance", balance.toString());
+        reply.addProperty("block_count", Integer.toString(blockCount));
+        reply.addProperty("pending", Integer.toString(pending.size()));
+        reply.addProperty("uuid", UUID.randomUUID().toString());
+        reply.addProperty("price", price);
+        reply.addProperty("btc", price / 60000);
+        reply.addProperty("nano", price / 1.5);
+        return reply;
+    }
+
+    private JsonObject history(JsonObject request) {
+        int count = request.has("count") ? request.get("count").getAsInt() : history.size();
+        JsonArray entries = new JsonArray();
+        for (JsonObject entry : history) {
+            if (entries.size() >= count) {
+                break;
+            }
+            entries.add(entry);
+        }
+        JsonObject reply = new JsonObject();
+        reply.addProperty("account", account);
+        reply.add("history", entries);
+        return reply;
+    }
+
+    private JsonObject pending(JsonObject request) {
+        int count = request.has("count") ? request.get("count").getAsInt() : pending.size();
+        boolean source = request.has("source") && request.get("source").getAsBoolean();
+        List<Map.Entry<String, JsonObject>> items = new ArrayList<>(pending.entrySet());
+        if (request.has("sorting") && request.get("sorting").getAsBoolean()) {
+            Collections.sort(items, (a, b) -> amount(b.getValue()).compareTo(amount(a.getValue())));
+        }
+        JsonObject found = new JsonObject();
+        for (Map.Entry<String, JsonObject> item : items.subList(0, Math.min(count, items.size()))) {
+            JsonObject value = item.getValue().deepCopy();
+            if (!source) {
+                value.remove("source");
+            }
+            found.add(item.getKey(), value);
+        }
+        JsonObject reply = new JsonObject();
+        // the node says there's nothing with an empty string
+        if (found.size() > 0) {
+            reply.add("blocks", found);
+        } else {
+            reply.addProperty("blocks", "");
+        }
+        return reply;
+    }
+
+    private JsonObject blocksInfo(JsonObject request) {
+        JsonObject found = new JsonObject();
+        for (JsonElement element : request.getAsJsonArray("hashes")) {
+            String hash = element.getAsString();
+            JsonObject info = new JsonObject();
+            if (blocks.containsKey(hash)) {
+                JsonObject block = blocks.get(hash);
+                info.addProperty("block_account", account);
+                info.addProperty("balance", block.get("balance").getAsString());
+                info.addProperty("contents", block.toString());
+            } else if (pending.containsKey(hash)) {
+                JsonObject item = pending.get(hash);
+                info.addProperty("block_account", item.get("source").getAsString());
+                info.addProperty("amount", item.get("amount").getAsString());
+                JsonObject send = new JsonObject();
+                send.addProperty("type", "state");
+                send.addProperty("account", item.get("source").getAsString());
+                send.addProperty("link_as_account", account);
+                info.addProperty("contents", send.toString());
+            } else {
+                return error("Block not found");
+            }
+            found.add(hash, info);
+        }
+        JsonObject reply = new JsonObject();
+        reply.add("blocks", found);
+        return reply;
+    }
+
+    /**
+     * Take a receive if it builds on the frontier, receives something pending and adds
+     * exactly that to the balance
+     */
+    private JsonObject process(JsonObject block) {
+        if (!account.equals(string(block, "account"))) {
+            return error("Bad account");
+        }
+        if (!frontier.equalsIgnoreCase(string(block, "previous"))) {
+            return error("Fork");
+        }
+        String link = string(block, "link");
+        JsonObject item = link != null ? pending.get(link.toUpperCase()) : null;
+        if (item == null) {
+            return error("Unreceivable");
+        }
+        BigInteger newBalance = balance.add(amount(item));
+        if (!newBalance.toString().equals(string(block, "balance"))) {
+            return error("Balance mismatch");
+        }
+        String hash = hash(block);
+        pending.remove(link.toUpperCase());
+        blocks.put(hash, block);
+        frontier = hash;
+        balance = newBalance;
+        blockCount++;
+
+        JsonObject entry = new JsonObject();
+        entry.addProperty("type", "receive");
+        entry.addProperty("account", item.get("source").getAsString());
+        entry.addProperty("amount", item.get("amount").getAsString());
+        entry.addProperty("hash", hash);
+        history.addFirst(entry);
+
+        JsonObject reply = new JsonObject();
+        reply.addProperty("hash", hash);
+        return reply;
+    }
+
+    private static String hash(JsonObject block) {
+        byte[] accountBytes = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] previous = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] representative = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] balance = new byte[KaliumUtil.BALANCE_LENGTH];
+        byte[] link = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] hash = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.addressToPublic(string(block, "account"), accountBytes);
+        KaliumUtil.hexToBytes(string(block, "previous"), previous);
+        KaliumUtil.addressToPublic(string(block, "representative"), representative);
+        KaliumUtil.rawToBytes(new BigInteger(string(block, "balance")), balance);
+        KaliumUtil.hexToBytes(string(block, "link"), link);
+        KaliumUtil.computeStateHash(accountBytes, previous, representative, balance, link, hash);
+        return KaliumUtil.toHex(hash);
+    }
+
+    private JsonObject priceData() {
+        JsonObject reply = new JsonObject();
+        reply.addProperty("currency", "usd");
+        reply.addProperty("price", price);
+        reply.addProperty("btc", price / 60000);
+        reply.addProperty("nano", price / 1.5);
+        return reply;
+    }
+
+    private static JsonObject error(String message) {
+        JsonObject reply = new JsonObject();
+        reply.addProperty("error", message);
+        return reply;
+    }
+
+    private static BigInteger amount(JsonObject item) {
+        return new BigInteger(item.get("amount").getAsString());
+    }
+
+    private static String string(JsonObject json, String name) {
+        JsonElement element = json.get(name);
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+}
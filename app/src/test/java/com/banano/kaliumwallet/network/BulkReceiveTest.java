@@ -0,0 +1,105 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test chaining receives on each other without asking the server
+ */
+public class BulkReceiveTest {
+    private static final String PRIVATE_KEY = "1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF";
+    private static final String FRONTIER = "78C5647CA5D1CD447FE7369D638CDDFF7EA9CB05CF55F7A9331A2D2A1A63516B";
+    private static final String REPRESENTATIVE = "ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c";
+
+    private static String source(int i) {
+        return String.format("%064X", i);
+    }
+
+    private static BulkReceive bulk(int blocks) {
+        StateBlock anchor = new StateBlock(BlockTypes.RECEIVE, PRIVATE_KEY, FRONTIER, REPRESENTATIVE, "10", source(0));
+        List<PendingTransactionResponseItem> rest = new ArrayList<>();
+        for (int i = 1; i < blocks; i++) {
+            rest.add(new PendingTransactionResponseItem("ban_sender", Integer.toString(10 * (i + 1)), source(i)));
+        }
+        return new BulkReceive(anchor, rest);
+    }
+
+    @Test
+    public void chainsReceivesOnTheAnchor() {
+        BulkReceive bulk = bulk(4);
+        // the verified frontier had a balance of 1000
+        bulk.getAnchor().setBalance("1010");
+
+        List<StateBlock> chain = bulk.chain(PRIVATE_KEY, 0);
+        assertEquals(3, chain.size());
+        StateBlock previous = bulk.getAnchor();
+        long balance = 1010;
+        for (int i = 0; i < chain.size(); i++) {
+            StateBlock block = chain.get(i);
+            balance += 10 * (i + 2);
+            assertEquals(previous.getHash(), block.getPrevious());
+            assertEquals(Long.toString(balance), block.getBalance());
+            assertEquals(REPRESENTATIVE, block.getRepresentative());
+            assertEquals(source(i + 1), block.getLink());
+            previous = block;
+        }
+        assertEquals("1100", chain.get(2).getBalance());
+    }
+
+    @Test
+    public void blockHashesMatchTheirContents() {
+        BulkReceive bulk = bulk(2);
+        bulk.getAnchor().setBalance("10");
+        StateBlock block = bulk.chain(PRIVATE_KEY, 0).get(0);
+
+        byte[] account = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] previous = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] representative = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] balance = new byte[KaliumUtil.BALANCE_LENGTH];
+        byte[] link = new byte[KaliumUtil.HASH_LENGTH];
+        byte[] hash = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.addressToPublic(block.getAccount(), account);
+        KaliumUtil.hexToBytes(block.getPrevious(), previous);
+        KaliumUtil.addressToPublic(block.getRepresentative(), representative);
+        KaliumUtil.rawToBytes(new java.math.BigInteger(block.getBalance()), balance);
+        KaliumUtil.hexToBytes(block.getLink(), link);
+        KaliumUtil.computeStateHash(account, previous, representative, balance, link, hash);
+        assertEquals(KaliumUtil.toHex(hash), block.getHash());
+    }
+
+    @Test
+    public void knowsItsSources() {
+        BulkReceive bulk = bulk(3);
+        assertTrue(bulk.contains(source(0)));
+        assertTrue(bulk.contains(source(2).toLowerCase()));
+        assertFalse(bulk.contains(source(3)));
+    }
+
+    @Test
+    public void reportsThroughput() {
+        BulkReceive bulk = bulk(4);
+        bulk.getAnchor().setBalance("10");
+        assertEquals(0, bulk.getBlocksPerSecond(1000), 0);
+        bulk.chain(PRIVATE_KEY, 1000);
+
+        assertFalse(bulk.confirm(1500));
+        assertEquals(2, bulk.getBlocksPerSecond(1500), 0.001);
+        assertFalse(bulk.confirm(1600));
+        assertFalse(bulk.confirm(1800));
+        assertTrue(bulk.confirm(3000));
+        assertEquals(4, bulk.getConfirmed());
+        // stops counting once the last block is in
+        assertEquals(2, bulk.getBlocksPerSecond(60000), 0.001);
+    }
+}
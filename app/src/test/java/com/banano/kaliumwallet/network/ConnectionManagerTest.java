@@ -0,0 +1,68 @@
+package com.banano.kaliumwallet.network;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test reconnect backoff and heartbeat adaptation
+ */
+public class ConnectionManagerTest {
+    @Test
+    public void reconnectBacksOffWithJitter() {
+        ConnectionManager manager = new ConnectionManager(new Random(42));
+        long base = ConnectionManager.BASE_RECONNECT_MILLISECONDS;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            long max = Math.min(base << attempt, ConnectionManager.MAX_RECONNECT_MILLISECONDS);
+            long delay = manager.nextReconnectDelay();
+            assertTrue(delay >= max / 2);
+            assertTrue(delay <= max);
+        }
+        assertEquals(20, manager.getReconnectAttempts());
+        manager.onConnected(0);
+        assertEquals(0, manager.getReconnectAttempts());
+        assertTrue(manager.nextReconnectDelay() <= base);
+    }
+
+    @Test
+    public void heartbeatShrinksWhenConnectionsDrop() {
+        ConnectionManager manager = new ConnectionManager();
+        int heartbeat = manager.getHeartbeatSeconds();
+        manager.onConnected(0);
+        manager.onDisconnected(1000, false);
+        assertEquals(Math.max(ConnectionManager.MIN_HEARTBEAT_SECONDS, heartbeat / 2), manager.getHeartbeatSeconds());
+        for (int i = 0; i < 5; i++) {
+            manager.onConnected(0);
+            manager.onDisconnected(1000, false);
+        }
+        assertEquals(ConnectionManager.MIN_HEARTBEAT_SECONDS, manager.getHeartbeatSeconds());
+    }
+
+    @Test
+    public void heartbeatGrowsWhileConnectionsHold() {
+        ConnectionManager manager = new ConnectionManager();
+        int heartbeat = manager.getHeartbeatSeconds();
+        manager.onConnected(0);
+        manager.onDisconnected(ConnectionManager.STABLE_CONNECTION_MILLISECONDS, true);
+        assertEquals(heartbeat + ConnectionManager.HEARTBEAT_STEP_SECONDS, manager.getHeartbeatSeconds());
+        for (int i = 0; i < 20; i++) {
+            manager.onConnected(0);
+            manager.onDisconnected(ConnectionManager.STABLE_CONNECTION_MILLISECONDS, false);
+        }
+        assertEquals(ConnectionManager.MAX_HEARTBEAT_SECONDS, manager.getHeartbeatSeconds());
+    }
+
+    @Test
+    public void closingOurselvesSoonDoesNotShrinkHeartbeat() {
+        ConnectionManager manager = new ConnectionManager();
+        int heartbeat = manager.getHeartbeatSeconds();
+        manager.onConnected(0);
+        manager.onDisconnected(1000, true);
+        // failed connection attempts don't count either
+        manager.onDisconnected(2000, false);
+        assertEquals(heartbeat, manager.getHeartbeatSeconds());
+    }
+}
@@ -0,0 +1,181 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test syncing history in pages against a chain of numbered blocks
+ */
+public class HistorySyncTest {
+    private static final String ACCOUNT = "ban_1ka1ium4pfue3uxtntqsrib8mumxgazsjf58gidh1xeo5te3whsq8z476goo";
+
+    // blocks 1 to length, the open block first
+    private static List<AccountHistoryResponseItem> chain(int length) {
+        List<AccountHistoryResponseItem> chain = new ArrayList<>();
+        for (int i = 1; i <= length; i++) {
+            chain.add(new AccountHistoryResponseItem("receive", ACCOUNT, "1", "H" + i));
+        }
+        return chain;
+    }
+
+    // what a node that pages would answer
+    private static AccountHistoryResponse answer(List<AccountHistoryResponseItem> chain, AccountHistoryRequest request) {
+        int start = chain.size() - 1;
+        if (request.getHead() != null) {
+            start = Integer.parseInt(request.getHead().substring(1)) - 1;
+        }
+        List<AccountHistoryResponseItem> page = new ArrayList<>();
+        int i = start;
+        while (i >= 0 && page.size() < request.getCount()) {
+            page.add(chain.get(i--));
+        }
+        AccountHistoryResponse response = new AccountHistoryResponse(page);
+        if (i >= 0) {
+            response.setPrevious(chain.get(i).getHash());
+        }
+        return response;
+    }
+
+    private static int sync(HistorySync sync, List<AccountHistoryResponseItem> chain) {
+        int requests = 0;
+        AccountHistoryRequest request = sync.start(chain.size());
+        while (request != null) {
+            requests++;
+            sync.onPage(request, answer(chain, request));
+            request = sync.next();
+        }
+        return requests;
+    }
+
+    @Test
+    public void backfillsTheWholeHistory() {
+        List<AccountHistoryResponseItem> chain = chain(120);
+        HistorySync sync = new HistorySync(ACCOUNT);
+
+        AccountHistoryRequest first = sync.start(120);
+        assertEquals(HistorySync.PAGE_SIZE, (int) first.getCount());
+        assertTrue(sync.onPage(first, answer(chain, first)));
+        assertEquals(HistorySync.PAGE_SIZE, sync.getHistory().size());
+        assertFalse(sync.isComplete());
+
+        AccountHistoryRequest request = sync.next();
+        while (request != null) {
+            sync.onPage(request, answer(chain, request));
+            request = sync.next();
+        }
+        assertTrue(sync.isComplete());
+        assertEquals(120, sync.getHistory().size());
+        assertEquals("H120", sync.getHistory().get(0).getHash());
+        assertEquals("H1", sync.getHistory().get(119).getHash());
+    }
+
+    @Test
+    public void fetchesOnlyNewEntries() {
+        List<AccountHistoryResponseItem> chain = chain(30);
+        HistorySync sync = new HistorySync(ACCOUNT);
+        sync(sync, chain);
+
+        chain.addAll(chain(33).subList(30, 33));
+        AccountHistoryRequest request = sync.start(33);
+        assertEquals(4, (int) request.getCount());
+        assertTrue(sync.onPage(request, answer(chain, request)));
+        assertNull(sync.next());
+        assertEquals(33, sync.getHistory().size());
+        assertEquals("H33", sync.getSyncedHead());
+        assertEquals("H30", sync.getHistory().get(3).getHash());
+
+        request = sync.start(33);
+        assertEquals(1, (int) request.getCount());
+        assertFalse(sync.onPage(request, answer(chain, request)));
+    }
+
+    @Test
+    public void pagesBackToTheSyncedHead() {
+        List<AccountHistoryResponseItem> chain = chain(10);
+        HistorySync sync = new HistorySync(ACCOUNT);
+        sync(sync, chain);
+
+        // block count not known, so the first page is too small
+        chain = chain(40);
+        AccountHistoryRequest request = sync.start(-1);
+        int requests = 0;
+        while (request != null) {
+            requests++;
+            sync.onPage(request, answer(chain, request));
+            request = sync.next();
+        }
+        assertEquals(3, requests);
+        assertEquals(40, sync.getHistory().size());
+        assertEquals("H40", sync.getSyncedHead());
+    }
+
+    @Test
+    public void continuesFromSeededHistory() {
+        List<AccountHistoryResponseItem> chain = chain(100);
+        HistorySync sync = new HistorySync(ACCOUNT);
+        // a snapshot saved before the backfill got past block 61
+        List<AccountHistoryResponseItem> saved = new ArrayList<>();
+        for (int i = 90; i > 60; i--) {
+            saved.add(chain.get(i - 1));
+        }
+        sync.seed(saved, "H60");
+
+        int requests = sync(sync, chain);
+        assertEquals(100, sync.getHistory().size());
+        assertEquals("H100", sync.getSyncedHead());
+        assertEquals("H1", sync.getHistory().get(99).getHash());
+        assertTrue(sync.isComplete());
+        // block count of the snapshot isn't known, so two pages to reach it and two to backfill
+        assertEquals(4, requests);
+    }
+
+    @Test
+    public void replacesHistoryWhenSyncedHeadIsGone() {
+        HistorySync sync = new HistorySync(ACCOUNT);
+        sync(sync, chain(5));
+
+        List<AccountHistoryResponseItem> other = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            other.add(new AccountHistoryResponseItem("send", ACCOUNT, "1", "X" + i));
+        }
+        AccountHistoryRequest request = sync.start(3);
+        boolean changed = false;
+        while (request != null) {
+            changed = sync.onPage(request, answer(other, request));
+            request = sync.next();
+        }
+        assertTrue(changed);
+        assertEquals(3, sync.getHistory().size());
+        assertEquals("X3", sync.getSyncedHead());
+    }
+
+    @Test
+    public void fallsBackWhenServerCantPage() {
+        List<AccountHistoryResponseItem> chain = chain(80);
+        HistorySync sync = new HistorySync(ACCOUNT);
+
+        AccountHistoryRequest first = sync.start(80);
+        // the server ignores the cursor and never says where the history continues
+        AccountHistoryResponse page = answer(chain, first);
+        page.setPrevious(null);
+        assertFalse(sync.onPage(first, page));
+
+        AccountHistoryRequest all = sync.next();
+        assertEquals(80, (int) all.getCount());
+        assertNull(all.getHead());
+        assertTrue(sync.onPage(all, answer(chain, all)));
+        assertEquals(80, sync.getHistory().size());
+        assertNull(sync.next());
+    }
+}
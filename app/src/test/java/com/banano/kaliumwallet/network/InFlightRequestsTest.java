@@ -0,0 +1,88 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.RequestItem;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test matching responses to the requests waiting on them
+ */
+public class InFlightRequestsTest {
+    private static final String ACCOUNT = "ban_1ka1ium4pfue3uxtntqsrib8mumxgazsjf58gidh1xeo5te3whsq8z476goo";
+
+    private static RequestItem sent(RequestQueue queue, InFlightRequests inFlight, int id, Object request) {
+        RequestItem item = new RequestItem<>(request);
+        queue.add(item);
+        item.setProcessing(true);
+        inFlight.add(id, item);
+        return item;
+    }
+
+    @Test
+    public void answersTheNextRequestAfterATimeout() {
+        RequestQueue queue = new RequestQueue();
+        InFlightRequests inFlight = new InFlightRequests(queue);
+        RequestItem lost = sent(queue, inFlight, 1, new SubscribeRequest());
+
+        // dropped the way AccountService drops a request that timed out
+        queue.remove(lost);
+        inFlight.remove(lost);
+        RequestItem history = sent(queue, inFlight, 2, new AccountHistoryRequest(ACCOUNT, 10));
+        RequestItem pending = sent(queue, inFlight, 3, new PendingTransactionsRequest(ACCOUNT, true, 10));
+
+        // responses without ids, in the order the requests went out
+        assertSame(history, inFlight.match(null));
+        queue.remove(history);
+        assertSame(pending, inFlight.match(null));
+        assertEquals(0, inFlight.size());
+    }
+
+    @Test
+    public void skipsRequestsThatLeftTheQueue() {
+        RequestQueue queue = new RequestQueue();
+        InFlightRequests inFlight = new InFlightRequests(queue);
+        RequestItem gone = sent(queue, inFlight, 1, new SubscribeRequest());
+        RequestItem history = sent(queue, inFlight, 2, new AccountHistoryRequest(ACCOUNT, 10));
+        queue.remove(gone);
+
+        assertEquals(1, inFlight.count());
+        assertSame(history, inFlight.match(null));
+        assertEquals(0, inFlight.size());
+        assertNull(inFlight.match(null));
+    }
+
+    @Test
+    public void matchesById() {
+        RequestQueue queue = new RequestQueue();
+        InFlightRequests inFlight = new InFlightRequests(queue);
+        RequestItem subscribe = sent(queue, inFlight, 1, new SubscribeRequest());
+        RequestItem history = sent(queue, inFlight, 2, new AccountHistoryRequest(ACCOUNT, 10));
+
+        assertSame(history, inFlight.get(2));
+        assertSame(history, inFlight.match(2));
+        assertNull(inFlight.match(2));
+        assertSame(subscribe, inFlight.match(1));
+    }
+
+    @Test
+    public void forgetsEveryIdOfARetriedRequest() {
+        RequestQueue queue = new RequestQueue();
+        InFlightRequests inFlight = new InFlightRequests(queue);
+        RequestItem history = sent(queue, inFlight, 1, new AccountHistoryRequest(ACCOUNT, 10));
+        inFlight.add(2, history);
+        RequestItem pending = sent(queue, inFlight, 3, new PendingTransactionsRequest(ACCOUNT, true, 10));
+        assertEquals(2, inFlight.count());
+
+        inFlight.remove(history);
+        assertEquals(1, inFlight.size());
+        assertNull(inFlight.match(1));
+        assertSame(pending, inFlight.match(null));
+    }
+}
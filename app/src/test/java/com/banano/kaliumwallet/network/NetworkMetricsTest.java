@@ -0,0 +1,80 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.socket.TransportStats;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test latency buckets and what ends up in the diagnostics dump
+ */
+public class NetworkMetricsTest {
+    @Test
+    public void percentilesAreBucketBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 1; i <= 100; i++) {
+            // 90 fast answers, 10 slow ones
+            histogram.record(i <= 90 ? 40 : 700);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getPercentile(50));
+        assertEquals(50, histogram.getPercentile(90));
+        assertEquals(700, histogram.getPercentile(99));
+        assertEquals(700, histogram.getMax());
+        assertEquals(106, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void slowestGoInTheLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(120000);
+        assertEquals(60000, histogram.getMean(), 0.001);
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(120000, histogram.getPercentile(100));
+        assertEquals(LatencyHistogram.BOUNDS.length + 1, histogram.toJson().getAsJsonArray("buckets").size());
+    }
+
+    @Test
+    public void recordsPerActionAndDumpsJson() {
+        NetworkMetrics metrics = new NetworkMetrics(new RequestCounters(), new TransportStats(), 1000);
+        metrics.recordLatency(new SubscribeRequest(), 30);
+        metrics.recordLatency(new AccountHistoryRequest("ban_1", 10), 200);
+        metrics.recordLatency(new AccountHistoryRequest("ban_1", 10), 400);
+        metrics.recordLatency("not a request", 5);
+        assertNull(NetworkMetrics.actionOf("not a request"));
+        assertEquals(1, metrics.getLatency(Actions.SUBSCRIBE).getCount());
+        assertEquals(2, metrics.getLatency(Actions.HISTORY).getCount());
+
+        metrics.sampleQueue(7, 2);
+        metrics.sampleQueue(1, 4);
+        assertEquals(1, metrics.getQueueDepth());
+        assertEquals(7, metrics.getMaxQueueDepth());
+        assertEquals(4, metrics.getMaxInFlight());
+
+        metrics.connected();
+        metrics.reconnecting();
+        metrics.connected();
+
+        JsonObject json = new JsonParser().parse(metrics.toJson(6000)).getAsJsonObject();
+        assertEquals(5000, json.get("uptime_ms").getAsLong());
+        JsonObject latency = json.getAsJsonObject("latency");
+        assertTrue(latency.has(Actions.HISTORY.toString()));
+        assertFalse(latency.has(Actions.PROCESS.toString()));
+        assertEquals(400, latency.getAsJsonObject(Actions.HISTORY.toString()).get("max_ms").getAsLong());
+        assertEquals(7, json.getAsJsonObject("queue").get("max_depth").getAsInt());
+        assertEquals(2, json.getAsJsonObject("connection").get("connects").getAsLong());
+        assertEquals(1, json.getAsJsonObject("connection").get("reconnects").getAsLong());
+        assertFalse(json.getAsJsonObject("transport").get("compressed").getAsBoolean());
+    }
+}
@@ -0,0 +1,92 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test which pending blocks are received automatically
+ */
+public class PendingAdmissionTest {
+    private static PendingTransactionResponseItem item(String hash, String amount) {
+        return new PendingTransactionResponseItem("ban_sender", amount, hash);
+    }
+
+    private static List<String> hashes(List<PendingTransactionResponseItem> items) {
+        List<String> hashes = new ArrayList<>();
+        for (PendingTransactionResponseItem item : items) {
+            hashes.add(item.getHash());
+        }
+        return hashes;
+    }
+
+    @Test
+    public void receivesLargestFirstAndSkipsDust() {
+        PendingAdmission admission = new PendingAdmission(new BigInteger("100"), 10);
+        List<PendingTransactionResponseItem> admitted = admission.admit(Arrays.asList(
+                item("A", "150"), item("B", "99"), item("C", "1000"), item("D", "100")));
+        assertEquals(Arrays.asList("C", "A", "D"), hashes(admitted));
+        assertEquals(1, admission.getDeferredCount());
+    }
+
+    @Test
+    public void defaultsReceiveEverything() {
+        PendingAdmission admission = new PendingAdmission(PendingAdmission.DEFAULT_THRESHOLD, PendingAdmission.DEFAULT_BUDGET);
+        List<PendingTransactionResponseItem> pending = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            pending.add(item(Integer.toString(i), Integer.toString(i % 3)));
+        }
+        assertEquals(500, admission.admit(pending).size());
+        assertTrue(admission.admit(item("dust", "1")));
+        assertEquals(0, admission.getDeferredCount());
+    }
+
+    @Test
+    public void defersWhatsOverBudget() {
+        PendingAdmission admission = new PendingAdmission(BigInteger.ONE, 2);
+        List<PendingTransactionResponseItem> pending = Arrays.asList(
+                item("A", "1"), item("B", "2"), item("C", "3"));
+        assertEquals(Arrays.asList("C", "B"), hashes(admission.admit(pending)));
+        assertEquals(1, admission.getDeferredCount());
+
+        // the same blocks listed again don't use up more of the budget
+        assertEquals(Arrays.asList("C", "B"), hashes(admission.admit(pending)));
+        assertFalse(admission.admit(item("E", "5")));
+        assertEquals(2, admission.getDeferredCount());
+
+        admission.reset();
+        assertTrue(admission.admit(item("E", "5")));
+    }
+
+    @Test
+    public void releasesDeferredBlocks() {
+        PendingAdmission admission = new PendingAdmission(new BigInteger("10"), 1);
+        admission.admit(Arrays.asList(item("A", "50"), item("B", "20"), item("C", "1")));
+        assertEquals(2, admission.getDeferredCount());
+
+        assertEquals(Arrays.asList("B", "C"), hashes(admission.release()));
+        assertEquals(0, admission.getDeferredCount());
+        // released blocks stay admitted when the pending list comes back before they're in
+        assertEquals(Arrays.asList("a", "b", "c"), hashes(admission.admit(Arrays.asList(
+                item("a", "50"), item("b", "20"), item("c", "1")))));
+    }
+
+    @Test
+    public void forgetsBlocksNoLongerPending() {
+        PendingAdmission admission = new PendingAdmission(new BigInteger("10"), 10);
+        admission.admit(Arrays.asList(item("A", "1"), item("B", "2")));
+        assertEquals(2, admission.getDeferredCount());
+        // received by another wallet with the same seed
+        admission.admit(Arrays.asList(item("B", "2")));
+        assertEquals(1, admission.getDeferredCount());
+    }
+}
@@ -0,0 +1,49 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that price pushes are handed on at most once per interval, latest first
+ */
+public class PriceConflatorTest {
+    private static CurrentPriceResponse price(String currency, String price) {
+        return new CurrentPriceResponse(currency, price, null, null);
+    }
+
+    @Test
+    public void firstPushGoesRightAway() {
+        PriceConflator conflator = new PriceConflator(250);
+        assertEquals(0, conflator.offer(price("usd", "0.006"), 1000));
+        List<CurrentPriceResponse> prices = conflator.flush(1000);
+        assertEquals(1, prices.size());
+        assertEquals("0.006", prices.get(0).getPrice());
+    }
+
+    @Test
+    public void keepsOnlyTheLatestPerCurrency() {
+        PriceConflator conflator = new PriceConflator(250);
+        conflator.flush(1000);
+        // a flush just happened, so the next one waits out the interval
+        assertEquals(200, conflator.offer(price("usd", "0.006"), 1050));
+        assertEquals(-1, conflator.offer(price("USD", "0.007"), 1100));
+        assertEquals(-1, conflator.offer(price("btc", "0.0000001"), 1150));
+        assertEquals(-1, conflator.offer(price("usd", "0.008"), 1200));
+
+        List<CurrentPriceResponse> prices = conflator.flush(1250);
+        assertEquals(2, prices.size());
+        assertEquals("0.008", prices.get(0).getPrice());
+        assertEquals("0.0000001", prices.get(1).getPrice());
+        assertEquals(4, conflator.getReceived());
+        assertEquals(2, conflator.getConflated());
+
+        assertTrue(conflator.flush(2000).isEmpty());
+        assertEquals(0, conflator.offer(price("usd", "0.009"), 5000));
+    }
+}
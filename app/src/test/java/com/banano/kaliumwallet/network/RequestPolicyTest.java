@@ -0,0 +1,40 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.CurrentPriceRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.WorkRequest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test request timeout and retry policies
+ */
+public class RequestPolicyTest {
+    @Test
+    public void policyByRequestType() {
+        assertSame(RequestPolicy.PROCESS, RequestPolicy.forRequest(new ProcessRequest()));
+        assertSame(RequestPolicy.WORK, RequestPolicy.forRequest(new WorkRequest("A")));
+        assertSame(RequestPolicy.HISTORY, RequestPolicy.forRequest(new AccountHistoryRequest("ban_1", 10)));
+        assertSame(RequestPolicy.DEFAULT, RequestPolicy.forRequest(new CurrentPriceRequest()));
+        assertSame(RequestPolicy.DEFAULT, RequestPolicy.forRequest(null));
+    }
+
+    @Test
+    public void processIsNeverRetried() {
+        assertEquals(0, RequestPolicy.PROCESS.getMaxRetries());
+    }
+
+    @Test
+    public void backoffDoublesUpToMaximum() {
+        RequestPolicy policy = RequestPolicy.DEFAULT;
+        assertEquals(RequestPolicy.BASE_BACKOFF_MILLISECONDS, policy.getBackoffMillis(1));
+        assertEquals(RequestPolicy.BASE_BACKOFF_MILLISECONDS * 2, policy.getBackoffMillis(2));
+        assertEquals(RequestPolicy.BASE_BACKOFF_MILLISECONDS * 4, policy.getBackoffMillis(3));
+        assertEquals(RequestPolicy.MAX_BACKOFF_MILLISECONDS, policy.getBackoffMillis(10));
+        assertEquals(RequestPolicy.MAX_BACKOFF_MILLISECONDS, policy.getBackoffMillis(Integer.MAX_VALUE));
+    }
+}
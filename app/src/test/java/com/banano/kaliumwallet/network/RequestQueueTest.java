@@ -0,0 +1,202 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.RequestItem;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.GetBlocksInfoRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the indexes of the request queue
+ */
+public class RequestQueueTest {
+    private static final String ACCOUNT = "ban_1ka1ium4pfue3uxtntqsrib8mumxgazsjf58gidh1xeo5te3whsq8z476goo";
+    private static final String OTHER = "ban_3pg8khw8gs94c1qeq9741n99ubrut8sj3n9kpntim1rm35h4wdzirofazmwt";
+    private static final String SOURCE = "03170a2e7597b7b7e3d84c05391d139a62b157e78786d8c082f29dcf4c111314";
+
+    private static StateBlock block(BlockTypes type, String link) {
+        StateBlock block = new StateBlock();
+        block.setInternal_block_type(type);
+        block.setAccount(ACCOUNT);
+        block.setLink(link);
+        return block;
+    }
+
+    @Test
+    public void indexesAttachedBlocks() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<GetBlocksInfoRequest> item = new RequestItem<>(new GetBlocksInfoRequest(new String[]{"A"}));
+        queue.add(item);
+        assertFalse(queue.containsSource(SOURCE));
+
+        queue.attach(item, block(BlockTypes.OPEN, SOURCE));
+        assertTrue(queue.containsSource(SOURCE.toUpperCase()));
+        assertTrue(queue.containsBlockType(BlockTypes.OPEN));
+        assertFalse(queue.containsBlockType(BlockTypes.RECEIVE));
+        assertSame(item, queue.forAccount(ACCOUNT).get(0));
+
+        queue.remove(item);
+        assertFalse(queue.containsSource(SOURCE));
+        assertFalse(queue.containsBlockType(BlockTypes.OPEN));
+        assertTrue(queue.forAccount(ACCOUNT).isEmpty());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void indexesKeptWhileAnotherItemHasTheKey() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<GetBlocksInfoRequest> first = new RequestItem<>(new GetBlocksInfoRequest(new String[]{"A"}));
+        RequestItem<GetBlocksInfoRequest> second = new RequestItem<>(new GetBlocksInfoRequest(new String[]{"B"}));
+        queue.add(first);
+        queue.add(second);
+        queue.attach(first, block(BlockTypes.RECEIVE, SOURCE));
+        queue.attach(second, block(BlockTypes.RECEIVE, SOURCE));
+
+        assertTrue(queue.remove(first));
+        assertFalse(queue.remove(first));
+        assertTrue(queue.containsSource(SOURCE));
+        assertTrue(queue.containsBlockType(BlockTypes.RECEIVE));
+        queue.clear();
+        assertFalse(queue.containsSource(SOURCE));
+    }
+
+    @Test
+    public void sendsAreNotIndexedBySource() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<GetBlocksInfoRequest> item = new RequestItem<>(new GetBlocksInfoRequest(new String[]{"A"}));
+        queue.add(item);
+        queue.attach(item, block(BlockTypes.SEND, SOURCE));
+        assertFalse(queue.containsSource(SOURCE));
+        assertTrue(queue.containsBlockType(BlockTypes.SEND));
+    }
+
+    @Test
+    public void indexesRequestsByAccount() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<AccountHistoryRequest> history = new RequestItem<>(new AccountHistoryRequest(ACCOUNT, 10));
+        RequestItem<PendingTransactionsRequest> pending = new RequestItem<>(new PendingTransactionsRequest(OTHER, true, 10));
+        queue.add(history);
+        queue.addAfter(null, pending);
+
+        assertEquals(1, queue.forAccount(ACCOUNT).size());
+        assertSame(pending, queue.forAccount(OTHER).get(0));
+        assertSame(pending, queue.first());
+        assertSame(history, queue.next(pending));
+        assertTrue(queue.contains(history));
+        assertFalse(queue.contains(new RequestItem<>(new AccountHistoryRequest(ACCOUNT, 10))));
+    }
+
+    @Test
+    public void keepsOrderWhileInsertingAndRemoving() {
+        RequestQueue queue = new RequestQueue();
+        List<RequestItem> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(new RequestItem<>(new AccountHistoryRequest(ACCOUNT, i + 1)));
+        }
+        queue.add(items.get(0));
+        queue.add(items.get(4));
+        queue.addAfter(items.get(0), items.get(2));
+        queue.addAfter(items.get(0), items.get(1));
+        queue.addAfter(items.get(2), items.get(3));
+        assertEquals(items, queue.snapshot());
+        assertSame(items.get(4), queue.last());
+        assertNull(queue.next(items.get(4)));
+        assertNull(queue.previous(items.get(0)));
+        assertSame(items.get(1), queue.previous(items.get(2)));
+
+        // from the middle, the front and the back
+        queue.remove(items.get(2));
+        assertSame(items.get(3), queue.next(items.get(1)));
+        assertSame(items.get(1), queue.previous(items.get(3)));
+        queue.remove(items.get(0));
+        queue.remove(items.get(4));
+        assertSame(items.get(1), queue.first());
+        assertSame(items.get(3), queue.last());
+        assertNull(queue.next(items.get(2)));
+
+        List<RequestItem> left = new ArrayList<>();
+        for (RequestItem item : queue) {
+            left.add(item);
+        }
+        assertEquals(Arrays.asList(items.get(1), items.get(3)), left);
+        assertEquals(2, queue.size());
+
+        queue.clear();
+        assertNull(queue.first());
+        assertNull(queue.last());
+        queue.add(items.get(2));
+        assertSame(items.get(2), queue.first());
+        assertSame(items.get(2), queue.last());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInsertBehindItemNotQueued() {
+        RequestQueue queue = new RequestQueue();
+        queue.addAfter(new RequestItem<>(new AccountHistoryRequest(ACCOUNT, 10)),
+                new RequestItem<>(new AccountHistoryRequest(OTHER, 10)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsItemQueuedTwice() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<AccountHistoryRequest> history = new RequestItem<>(new AccountHistoryRequest(ACCOUNT, 10));
+        queue.add(history);
+        queue.add(history);
+    }
+
+    @Test
+    public void mergesRequestsNotSentYet() {
+        RequestQueue queue = new RequestQueue();
+        assertTrue(queue.offer(new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null))));
+        assertFalse(queue.offer(new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null))));
+        // a different currency or account is a different answer
+        assertTrue(queue.offer(new RequestItem<>(new SubscribeRequest(ACCOUNT, "eur", null, null))));
+        assertTrue(queue.offer(new RequestItem<>(new SubscribeRequest(OTHER, "usd", null, null))));
+
+        RequestItem<PendingTransactionsRequest> pending = new RequestItem<>(new PendingTransactionsRequest(ACCOUNT, true, 10));
+        assertTrue(queue.offer(pending));
+        assertFalse(queue.offer(new RequestItem<>(new PendingTransactionsRequest(ACCOUNT, true, 50))));
+        assertFalse(queue.offer(new RequestItem<>(new PendingTransactionsRequest(ACCOUNT, true, 20))));
+        assertEquals(Integer.valueOf(50), pending.getRequest().getCount());
+
+        // transfers ask about the same account for a different reason
+        RequestItem<PendingTransactionsRequest> transfer = new RequestItem<>(new PendingTransactionsRequest(ACCOUNT, true, 10));
+        transfer.setFromTransfer(true);
+        assertTrue(queue.offer(transfer));
+        assertEquals(5, queue.size());
+
+        // history pages are never merged
+        assertNull(RequestQueue.requestKey(new RequestItem<>(new AccountHistoryRequest(ACCOUNT, 10))));
+    }
+
+    @Test
+    public void queuesAgainOnceSent() {
+        RequestQueue queue = new RequestQueue();
+        RequestItem<SubscribeRequest> sent = new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null));
+        queue.offer(sent);
+        sent.setProcessing(true);
+        // the answer on its way may be older than whatever asked again
+        RequestItem<SubscribeRequest> again = new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null));
+        assertTrue(queue.offer(again));
+        assertFalse(queue.offer(new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null))));
+        assertEquals(2, queue.size());
+
+        queue.remove(sent);
+        queue.remove(again);
+        assertTrue(queue.offer(new RequestItem<>(new SubscribeRequest(ACCOUNT, "usd", null, null))));
+    }
+}
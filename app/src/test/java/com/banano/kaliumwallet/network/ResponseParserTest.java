@@ -0,0 +1,101 @@
+package com.banano.kaliumwallet.network;
+
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.model.BaseResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.response.BlocksInfoResponse;
+import com.banano.kaliumwallet.network.model.response.ErrorResponse;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponse;
+import com.banano.kaliumwallet.network.model.response.ProcessResponse;
+import com.banano.kaliumwallet.network.model.response.SubscribeResponse;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test resolving socket messages to response types
+ */
+public class ResponseParserTest {
+    private final ResponseParser parser = new ResponseParser(new Gson());
+
+    @Test
+    public void subscribe() {
+        BaseResponse response = parser.parse("{\"frontier\":\"AB\",\"representative_block\":\"CD\",\"block_count\":\"3\",\"uuid\":\"u\",\"id\":7}");
+        assertTrue(response instanceof SubscribeResponse);
+        assertEquals(Actions.SUBSCRIBE.toString(), response.getMessageType());
+        assertEquals(Integer.valueOf(3), ((SubscribeResponse) response).getBlock_count());
+        assertEquals(Integer.valueOf(7), response.getId());
+    }
+
+    @Test
+    public void emptyHistory() {
+        BaseResponse response = parser.parse("{\"account\":\"ban_1\",\"history\":\"\"}");
+        assertTrue(response instanceof AccountHistoryResponse);
+        assertTrue(((AccountHistoryResponse) response).getHistory().isEmpty());
+    }
+
+    @Test
+    public void pendingAndBlocksInfo() {
+        BaseResponse pending = parser.parse("{\"blocks\":{\"AA\":{\"amount\":\"100\",\"source\":\"ban_1\"}}}");
+        assertTrue(pending instanceof PendingTransactionResponse);
+        assertEquals("ban_1", ((PendingTransactionResponse) pending).getBlocks().get("AA").getSource());
+
+        // pending blocks without a source used to need a second parse
+        BaseResponse amountOnly = parser.parse("{\"blocks\":{\"AA\":{\"amount\":\"100\"}}}");
+        assertTrue(amountOnly instanceof PendingTransactionResponse);
+
+        BaseResponse blocksInfo = parser.parse("{\"blocks\":{\"AA\":{\"block_account\":\"ban_1\",\"amount\":\"1\",\"balance\":\"2\",\"contents\":\"{}\"}}}");
+        assertTrue(blocksInfo instanceof BlocksInfoResponse);
+        assertEquals(1, ((BlocksInfoResponse) blocksInfo).getBlocks().size());
+    }
+
+    @Test
+    public void process() {
+        BaseResponse response = parser.parse("{\"hash\":\"AB\"}");
+        assertTrue(response instanceof ProcessResponse);
+        assertEquals("AB", ((ProcessResponse) response).getHash());
+    }
+
+    @Test
+    public void unknownTypeKeepsId() {
+        BaseResponse response = parser.parse("{\"blocks\":\"\",\"id\":12}");
+        assertEquals(BaseResponse.class, response.getClass());
+        assertNull(response.getMessageType());
+        assertEquals(Integer.valueOf(12), response.getId());
+        assertNull(parser.parse("[1,2]"));
+    }
+
+    @Test
+    public void replyBoundToExpectedType() {
+        // without the request this looks like nothing we know
+        BaseResponse sniffed = parser.parse("{\"blocks\":\"\",\"id\":3}");
+        assertNull(sniffed.getMessageType());
+
+        BaseResponse response = parser.bind(parser.read("{\"blocks\":\"\",\"id\":3}"),
+                ResponseParser.expectedResponseType(new PendingTransactionsRequest("ban_1", true, 10)));
+        assertTrue(response instanceof PendingTransactionResponse);
+        assertEquals(Actions.PENDING.toString(), response.getMessageType());
+        assertTrue(((PendingTransactionResponse) response).getBlocks().isEmpty());
+        assertEquals(Integer.valueOf(3), ResponseParser.idOf(parser.read("{\"id\":3}")));
+        assertNull(ResponseParser.idOf(parser.read("{\"id\":\"x\"}")));
+    }
+
+    @Test
+    public void failedReplyIsAnError() {
+        BaseResponse response = parser.bind(parser.read("{\"error\":\"Fork\",\"id\":4}"),
+                ResponseParser.expectedResponseType(new ProcessRequest()));
+        assertTrue(response instanceof ErrorResponse);
+
+        // subscribe errors still carry the price data
+        BaseResponse subscribe = parser.bind(parser.read("{\"error\":\"Account not found\",\"currency\":\"usd\"}"),
+                ResponseParser.expectedResponseType(new SubscribeRequest()));
+        assertTrue(subscribe instanceof SubscribeResponse);
+    }
+}
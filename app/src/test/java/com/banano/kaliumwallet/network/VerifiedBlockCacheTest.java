@@ -0,0 +1,49 @@
+package com.banano.kaliumwallet.network;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test the verified block cache
+ */
+public class VerifiedBlockCacheTest {
+    private static final String HASH_1 = "78C5647CA5D1CD447FE7369D638CDDFF7EA9CB05CF55F7A9331A2D2A1A63516B";
+    private static final String HASH_2 = "A9A27147DF985DE7D2243C66E2A8A54E04D69256408CB7A34B7A607CD6A0C334";
+    private static final String HASH_3 = "408DAAC47EC18F2C9BA04AC9437620659C8B87EE9A583E359970E3824064E14D";
+    private static final String REPRESENTATIVE = "ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c";
+
+    @Test
+    public void getIgnoresCase() {
+        VerifiedBlockCache cache = new VerifiedBlockCache();
+        cache.put(HASH_1, "100", REPRESENTATIVE);
+        VerifiedBlockCache.Entry entry = cache.get(HASH_1.toLowerCase());
+        assertNotNull(entry);
+        assertEquals("100", entry.getBalance());
+        assertEquals(REPRESENTATIVE, entry.getRepresentative());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        VerifiedBlockCache cache = new VerifiedBlockCache(2);
+        cache.put(HASH_1, "100", REPRESENTATIVE);
+        cache.put(HASH_2, "40", REPRESENTATIVE);
+        // touch the first entry so the second one is the oldest
+        cache.get(HASH_1);
+        cache.put(HASH_3, "40", null);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(HASH_1));
+        assertNull(cache.get(HASH_2));
+        assertNull(cache.get(HASH_3).getRepresentative());
+    }
+
+    @Test
+    public void ignoresMissingBalance() {
+        VerifiedBlockCache cache = new VerifiedBlockCache();
+        cache.put(HASH_1, null, REPRESENTATIVE);
+        cache.put(null, "1", REPRESENTATIVE);
+        assertEquals(0, cache.size());
+    }
+}
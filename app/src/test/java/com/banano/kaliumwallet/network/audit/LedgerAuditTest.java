@@ -0,0 +1,125 @@
+package com.banano.kaliumwallet.network.audit;
+
+import com.banano.kaliumwallet.bus.LedgerAuditResult;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponseItem;
+import com.banano.kaliumwallet.network.model.response.BlockInfoItem;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the full chain audit against a signed open, send and change chain
+ */
+public class LedgerAuditTest {
+    private static final String ACCOUNT = "ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg";
+    private static final String OPEN = "78C5647CA5D1CD447FE7369D638CDDFF7EA9CB05CF55F7A9331A2D2A1A63516B";
+    private static final String SEND = "A9A27147DF985DE7D2243C66E2A8A54E04D69256408CB7A34B7A607CD6A0C334";
+    private static final String CHANGE = "408DAAC47EC18F2C9BA04AC9437620659C8B87EE9A583E359970E3824064E14D";
+    private static final String[] CONTENTS = {
+            "{\"type\": \"state\", \"account\": \"ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg\", \"previous\": \"0000000000000000000000000000000000000000000000000000000000000000\", \"representative\": \"ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c\", \"balance\": \"100\", \"link\": \"ABABABABABABABABABABABABABABABABABABABABABABABABABABABABABABABAB\", \"signature\": \"3B114AA7C4656C865A701C2019839ABECE7C1FC9ACC58B9B70BBC0CE3E45292172FBD44B6CAF498777CCC6C506830D57B5679EBA9D9C2E5207003E3A88F88205\", \"work\": \"0000000000000000\"}",
+            "{\"type\": \"state\", \"account\": \"ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg\", \"previous\": \"78C5647CA5D1CD447FE7369D638CDDFF7EA9CB05CF55F7A9331A2D2A1A63516B\", \"representative\": \"ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c\", \"balance\": \"40\", \"link\": \"CDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCDCD\", \"signature\": \"414008DAA95C3F0ECE17789D80A96136B788ABB8E3F28639C5DA811775B1CD6BDA7F0EFDF891F201D99B250431219099A5C0AF4E0B7AD9F31EB31693D20DA902\", \"work\": \"0000000000000000\"}",
+            "{\"type\": \"state\", \"account\": \"ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg\", \"previous\": \"A9A27147DF985DE7D2243C66E2A8A54E04D69256408CB7A34B7A607CD6A0C334\", \"representative\": \"ban_16aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46aj46ajbtsyew7c\", \"balance\": \"40\", \"link\": \"0000000000000000000000000000000000000000000000000000000000000000\", \"signature\": \"63609E68DC5D5EFE7938658873DE1F3201CE0E72BA331C44088FB809BA2713288EAB394EF4DBDDBCE23091A49590C88C25476A3AE8D1AC7F0935F7E8A02AB20B\", \"work\": \"0000000000000000\"}"
+    };
+    private static final String[] AMOUNTS = {"100", "60", "0"};
+
+    private final Gson gson = new Gson();
+
+    private BlockInfoItem info(int index) {
+        BlockInfoItem info = new BlockInfoItem();
+        info.setBlockAccount(ACCOUNT);
+        info.setContents(CONTENTS[index]);
+        info.setAmount(AMOUNTS[index]);
+        info.setBalance(gson.fromJson(CONTENTS[index], Map.class).get("balance").toString());
+        return info;
+    }
+
+    private Map<String, BlockInfoItem> blocks(String[] hashes, BlockInfoItem... infos) {
+        Map<String, BlockInfoItem> blocks = new HashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            blocks.put(hashes[i], infos[i]);
+        }
+        return blocks;
+    }
+
+    /**
+     * Fetch the chain the way the account service does. History doesn't list change blocks.
+     */
+    private LedgerAudit fetch(BlockInfoItem open, BlockInfoItem send, BlockInfoItem change) {
+        LedgerAudit audit = new LedgerAudit(ACCOUNT, CHANGE, gson);
+        AccountHistoryResponseItem item = new AccountHistoryResponseItem("send", ACCOUNT, AMOUNTS[1], SEND);
+        List<String[]> batches = audit.addHistory(new AccountHistoryResponse(Arrays.asList(item)));
+        assertEquals(1, batches.size());
+        assertArrayEquals(new String[]{CHANGE, SEND}, batches.get(0));
+        audit.addBlocks(blocks(new String[]{CHANGE, SEND}, change, send));
+
+        batches = audit.nextMissing();
+        assertEquals(1, batches.size());
+        assertArrayEquals(new String[]{OPEN}, batches.get(0));
+        audit.addBlocks(blocks(new String[]{OPEN}, open));
+        assertTrue(audit.nextMissing().isEmpty());
+        return audit;
+    }
+
+    @Test
+    public void consistentChain() {
+        LedgerAuditResult result = fetch(info(0), info(1), info(2)).verify();
+        assertTrue(result.getReason(), result.isConsistent());
+        assertEquals(3, result.getBlockCount());
+        assertNull(result.getHash());
+    }
+
+    @Test
+    public void wrongAmount() {
+        BlockInfoItem send = info(1);
+        send.setAmount("61");
+        LedgerAuditResult result = fetch(info(0), send, info(2)).verify();
+        assertFalse(result.isConsistent());
+        assertEquals(SEND, result.getHash());
+    }
+
+    @Test
+    public void tamperedBalance() {
+        BlockInfoItem open = info(0);
+        open.setContents(CONTENTS[0].replace("\"balance\": \"100\"", "\"balance\": \"101\""));
+        open.setBalance("101");
+        LedgerAuditResult result = fetch(open, info(1), info(2)).verify();
+        assertFalse(result.isConsistent());
+        assertEquals(OPEN, result.getHash());
+    }
+
+    @Test
+    public void tamperedSignature() {
+        BlockInfoItem change = info(2);
+        change.setContents(CONTENTS[2].replace("\"signature\": \"6", "\"signature\": \"7"));
+        LedgerAuditResult result = fetch(info(0), info(1), change).verify();
+        assertFalse(result.isConsistent());
+        assertEquals(CHANGE, result.getHash());
+        assertEquals("signature is invalid", result.getReason());
+    }
+
+    @Test
+    public void missingBlock() {
+        LedgerAudit audit = new LedgerAudit(ACCOUNT, CHANGE, gson);
+        audit.addHistory(null);
+        audit.addBlocks(blocks(new String[]{CHANGE}, info(2)));
+        assertArrayEquals(new String[]{SEND}, audit.nextMissing().get(0));
+        try {
+            audit.nextMissing();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        throw new AssertionError("a block requested twice should fail the audit");
+    }
+}
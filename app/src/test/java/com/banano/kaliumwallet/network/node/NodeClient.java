@@ -0,0 +1,144 @@
+package com.banano.kaliumwallet.network.node;
+
+import com.banano.kaliumwallet.network.NetworkMetrics;
+import com.banano.kaliumwallet.network.RequestCounters;
+import com.banano.kaliumwallet.network.ResponseParser;
+import com.banano.kaliumwallet.network.model.BaseRequest;
+import com.banano.kaliumwallet.network.model.BaseResponse;
+import com.banano.kaliumwallet.network.socket.MeteredDraft;
+import com.banano.kaliumwallet.network.socket.TransportStats;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The socket end of AccountService without the Android parts: requests get an id, replies
+ * are matched on it and bound by the same {@link ResponseParser}, and latency goes into the
+ * same {@link NetworkMetrics}.
+ */
+public class NodeClient extends WebSocketClient {
+    private final Gson gson = new Gson();
+    private final ResponseParser responseParser = new ResponseParser(gson);
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRequestId = new AtomicInteger(1);
+    private final AtomicReference<Exception> error = new AtomicReference<>();
+    private final TransportStats stats;
+    private final NetworkMetrics metrics;
+    private volatile PushListener pushListener;
+
+    public interface PushListener {
+        void onPush(BaseResponse response);
+    }
+
+    private static class InFlight {
+        final Object request;
+        final long sentTime;
+        final CompletableFuture<BaseResponse> response = new CompletableFuture<>();
+
+        InFlight(Object request, long sentTime) {
+            this.request = request;
+            this.sentTime = sentTime;
+        }
+    }
+
+    public NodeClient(String uri, TransportStats stats, boolean compress) throws Exception {
+        super(new URI(uri), new MeteredDraft(stats, compress));
+        this.stats = stats;
+        this.metrics = new NetworkMetrics(new RequestCounters(), stats, System.currentTimeMillis());
+    }
+
+    public static NodeClient connect(StandInNode node, boolean compress) throws Exception {
+        NodeClient client = new NodeClient(node.getUri(), new TransportStats(), compress);
+        if (!client.connectBlocking() || !node.awaitOpen(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("couldn't connect to " + node.getUri());
+        }
+        return client;
+    }
+
+    public TransportStats getStats() {
+        return stats;
+    }
+
+    public NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return First error on the socket, null if there was none
+     */
+    public Exception getError() {
+        return error.get();
+    }
+
+    public void setPushListener(PushListener pushListener) {
+        this.pushListener = pushListener;
+    }
+
+    /**
+     * @param request Request to send
+     * @return Reply to it, bound to the type the request expects
+     */
+    public CompletableFuture<BaseResponse> request(BaseRequest request) {
+        int id = nextRequestId.getAndIncrement();
+        request.setId(id);
+        InFlight item = new InFlight(request, System.nanoTime());
+        inFlight.put(id, item);
+        metrics.sampleQueue(0, inFlight.size());
+        send(gson.toJson(request));
+        return item.response;
+    }
+
+    /**
+     * Send a request and wait for the reply
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BaseResponse> T call(BaseRequest request) throws Exception {
+        return (T) request(request).get(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshake) {
+        metrics.connected();
+    }
+
+    @Override
+    public void onMessage(String message) {
+        JsonObject json = responseParser.read(message);
+        Integer id = ResponseParser.idOf(json);
+        InFlight item = id != null ? inFlight.remove(id) : null;
+        if (item != null) {
+            metrics.recordLatency(item.request, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - item.sentTime));
+            item.response.complete(responseParser.bind(json, ResponseParser.expectedResponseType(item.request)));
+        } else if (pushListener != null) {
+            pushListener.onPush(responseParser.bind(json, null));
+        }
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        failInFlight(new IllegalStateException("closed: " + reason));
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        error.compareAndSet(null, ex);
+        failInFlight(ex);
+    }
+
+    private void failInFlight(Exception cause) {
+        for (InFlight item : inFlight.values()) {
+            item.response.completeExceptionally(cause);
+        }
+        inFlight.clear();
+    }
+}
@@ -0,0 +1,248 @@
+package com.banano.kaliumwallet.network.node;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.network.BulkReceive;
+import com.banano.kaliumwallet.network.LatencyHistogram;
+import com.banano.kaliumwallet.network.PendingAdmission;
+import com.banano.kaliumwallet.network.PriceConflator;
+import com.banano.kaliumwallet.network.model.Actions;
+import com.banano.kaliumwallet.network.model.BaseResponse;
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.request.AccountHistoryRequest;
+import com.banano.kaliumwallet.network.model.request.PendingTransactionsRequest;
+import com.banano.kaliumwallet.network.model.request.ProcessRequest;
+import com.banano.kaliumwallet.network.model.request.SubscribeRequest;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.CurrentPriceResponse;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponse;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponseItem;
+import com.banano.kaliumwallet.network.model.response.ProcessResponse;
+import com.banano.kaliumwallet.network.model.response.SubscribeResponse;
+import com.banano.kaliumwallet.network.socket.TransportStats;
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Load on the socket code against a local stand-in node: request ids, parsing, compression,
+ * chain building and price conflation. These are component-level checks, the requests are
+ * sent by the test and not by AccountService's queue. AccountServiceLoadTest runs the
+ * service itself against the same node on a device and reports blocks per second and p99
+ * latency. Storm sizes can be raised with -Dnode.pending and -Dnode.prices.
+ */
+public class NodeLoadTest {
+    private static final String PRIVATE_KEY = "1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF1234567890ABCDEF";
+    private static final BigInteger UNIT = new BigInteger("10000000000000000000000000000");
+    private static final int PENDING = Integer.getInteger("node.pending", 2000);
+    private static final int PRICES = Integer.getInteger("node.prices", 5000);
+    private final Gson gson = new Gson();
+
+    private static String account() {
+        byte[] privateKey = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(PRIVATE_KEY, privateKey);
+        return KaliumUtil.publicToAddress(KaliumUtil.privateToPublic(privateKey));
+    }
+
+    @Test
+    public void receivesPendingStorm() throws Exception {
+        String account = account();
+        StandInNode node = new StandInNode(account, BigInteger.ZERO, null).begin();
+        node.addPending(PENDING, UNIT);
+        NodeClient client = NodeClient.connect(node, true);
+        try {
+            BulkReceive bulk = receiveAll(client, account, PENDING);
+            assertEquals(PENDING, bulk.getConfirmed());
+            assertEquals(0, node.getPendingCount());
+
+            // the history the wallet would show afterwards
+            AccountHistoryResponse history = client.call(new AccountHistoryRequest(account, 50));
+            assertEquals(50, history.getHistory().size());
+            assertEquals(node.getFrontier(), history.getHistory().get(0).getHash());
+
+            LatencyHistogram process = client.getMetrics().getLatency(Actions.PROCESS);
+            assertEquals(PENDING, process.getCount());
+
+            TransportStats stats = client.getStats();
+            assertTrue(stats.isCompressed());
+            assertTrue(stats.getFramesOut() >= PENDING + 3);
+            assertTrue(stats.getFramesIn() >= PENDING + 3);
+            assertTrue(stats.getWireIn() < stats.getPayloadIn());
+            assertNull(client.getError());
+            assertNull(node.getError());
+        } finally {
+            client.closeBlocking();
+            node.stop();
+        }
+    }
+
+    /**
+     * A backlog the way AccountService lays it out: subscribe, fetch pending largest first,
+     * admit them and receive them all as one chain. The process requests are always
+     * pipelined in a window of {@link BulkReceive#MAX_PIPELINED}, whatever the service's
+     * pipelining flag, so this loads the node and the client and not the service's queue.
+     */
+    private BulkReceive receiveAll(NodeClient client, String account, int count) throws Exception {
+        SubscribeResponse subscribe = client.call(new SubscribeRequest(account, "usd", null, null));
+        PendingTransactionsRequest pendingRequest = new PendingTransactionsRequest(account, true, count);
+        pendingRequest.setSorting(true);
+        PendingTransactionResponse pending = client.call(pendingRequest);
+        List<PendingTransactionResponseItem> items = new ArrayList<>();
+        for (Map.Entry<String, PendingTransactionResponseItem> entry : pending.getBlocks().entrySet()) {
+            entry.getValue().setHash(entry.getKey());
+            items.add(entry.getValue());
+        }
+        List<PendingTransactionResponseItem> admitted = new PendingAdmission(PendingAdmission.DEFAULT_THRESHOLD, count).admit(items);
+        assertEquals(count, admitted.size());
+
+        PendingTransactionResponseItem first = admitted.get(0);
+        StateBlock anchor = new StateBlock(BlockTypes.RECEIVE, PRIVATE_KEY, subscribe.getFrontier(),
+                subscribe.getRepresentative(), first.getAmount(), first.getHash());
+        anchor.setBalance(new BigInteger(subscribe.getBalance()).add(new BigInteger(first.getAmount())).toString());
+        BulkReceive bulk = new BulkReceive(anchor, admitted.subList(1, admitted.size()));
+        List<StateBlock> chain = new ArrayList<>();
+        chain.add(anchor);
+        chain.addAll(bulk.chain(PRIVATE_KEY, System.currentTimeMillis()));
+
+        Semaphore window = new Semaphore(BulkReceive.MAX_PIPELINED);
+        CountDownLatch done = new CountDownLatch(chain.size());
+        AtomicReference<String> failure = new AtomicReference<>();
+        for (StateBlock block : chain) {
+            window.acquire();
+            client.request(new ProcessRequest(gson.toJson(block), false)).whenComplete((response, error) -> {
+                if (response instanceof ProcessResponse && block.getHash().equalsIgnoreCase(((ProcessResponse) response).getHash())) {
+                    bulk.confirm(System.currentTimeMillis());
+                } else {
+                    failure.compareAndSet(null, error != null ? error.toString() : gson.toJson(response));
+                }
+                window.release();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertNull(failure.get());
+        return bulk;
+    }
+
+    @Test
+    public void turnsDownABrokenChain() throws Exception {
+        String account = account();
+        StandInNode node = new StandInNode(account, BigInteger.ZERO, null).begin();
+        node.addPending(2, UNIT);
+        NodeClient client = NodeClient.connect(node, false);
+        try {
+            // built on a block that isn't the frontier
+            StateBlock fork = new StateBlock(BlockTypes.RECEIVE, PRIVATE_KEY, String.format("%064X", 7),
+                    StandInNode.REPRESENTATIVE, UNIT.toString(), String.format("%064X", 0x10000));
+            fork.setBalance(UNIT.toString());
+            BaseResponse response = client.call(new ProcessRequest(gson.toJson(fork), false));
+            assertEquals(Actions.ERROR.toString(), response.getMessageType());
+            assertEquals(2, node.getPendingCount());
+            assertNull(client.getError());
+            assertNull(node.getError());
+        } finally {
+            client.closeBlocking();
+            node.stop();
+        }
+    }
+
+    @Test
+    public void absorbsPriceStorm() throws Exception {
+        StandInNode node = new StandInNode(account(), BigInteger.ZERO, null).begin();
+        NodeClient client = NodeClient.connect(node, true);
+        // what AccountService does with them, flushing on the read thread instead of a handler
+        PriceConflator conflator = new PriceConflator(PriceConflator.DEFAULT_INTERVAL_MILLIS);
+        long[] due = {-1};
+        AtomicInteger updates = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(PRICES);
+        client.setPushListener(response -> {
+            if (response instanceof CurrentPriceResponse) {
+                long now = System.currentTimeMillis();
+                long delay = conflator.offer((CurrentPriceResponse) response, now);
+                if (delay >= 0) {
+                    due[0] = now + delay;
+                }
+                if (due[0] >= 0 && now >= due[0]) {
+                    updates.addAndGet(conflator.flush(now).size());
+                    due[0] = -1;
+                }
+            }
+            done.countDown();
+        });
+        try {
+            // the clock the conflator is given, so the bound below holds to the millisecond
+            long start = System.currentTimeMillis();
+            node.pushPrices(PRICES, 0);
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            long elapsed = System.currentTimeMillis() - start;
+            updates.addAndGet(conflator.flush(System.currentTimeMillis()).size());
+            assertEquals(PRICES, conflator.getReceived());
+            // every push was either handed on or replaced by a later one
+            assertEquals(PRICES, updates.get() + conflator.getConflated());
+            // one update per interval, plus the first and the last flush
+            assertTrue(updates.get() <= elapsed / PriceConflator.DEFAULT_INTERVAL_MILLIS + 2);
+            assertNull(client.getError());
+            assertNull(node.getError());
+        } finally {
+            client.closeBlocking();
+            node.stop();
+        }
+    }
+
+    @Test
+    public void replaysRecordedSession() throws Exception {
+        String account = account();
+        StandInNode live = new StandInNode(account, BigInteger.ZERO, null).begin();
+        live.addPending(20, UNIT);
+        NodeClient client = NodeClient.connect(live, true);
+        String frontier;
+        try {
+            receiveAll(client, account, 20);
+            frontier = live.getFrontier();
+            live.pushPrices(3, 0);
+            client.call(new AccountHistoryRequest(account, 5));
+        } finally {
+            client.closeBlocking();
+            live.stop();
+        }
+
+        StringWriter saved = new StringWriter();
+        live.getRecording().write(saved);
+        Session session = Session.read(new StringReader(saved.toString()));
+        assertEquals(live.getRecording().size(), session.size());
+
+        // nothing pending on this node, every reply comes from the recording
+        StandInNode replay = new StandInNode(account, BigInteger.ZERO, session).begin();
+        NodeClient replayClient = NodeClient.connect(replay, true);
+        AtomicInteger pushes = new AtomicInteger();
+        replayClient.setPushListener(response -> pushes.incrementAndGet());
+        try {
+            BulkReceive bulk = receiveAll(replayClient, account, 20);
+            assertEquals(20, bulk.getConfirmed());
+            AccountHistoryResponse history = replayClient.call(new AccountHistoryRequest(account, 5));
+            assertEquals(frontier, history.getHistory().get(0).getHash());
+            assertEquals(3, pushes.get());
+            assertNull(replayClient.getError());
+            assertNull(replay.getError());
+        } finally {
+            replayClient.closeBlocking();
+            replay.stop();
+        }
+    }
+}
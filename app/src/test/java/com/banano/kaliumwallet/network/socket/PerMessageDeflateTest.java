@@ -0,0 +1,229 @@
+package com.banano.kaliumwallet.network.socket;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.framing.TextFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test permessage-deflate on its own and against a local server replaying payloads shaped
+ * like the server's replies, comparing bytes on the wire with and without it.
+ */
+public class PerMessageDeflateTest {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int ROUNDS = 10;
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = PerMessageDeflateTest.class.getResourceAsStream("/socket/" + name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), UTF8).trim();
+        }
+    }
+
+    private static List<String> payloads() throws IOException {
+        return Arrays.asList(resource("subscribe.json"), resource("account_history.json"), resource("pending.json"));
+    }
+
+    private static TextFrame frame(String text) {
+        TextFrame frame = new TextFrame();
+        frame.setPayload(ByteBuffer.wrap(text.getBytes(UTF8)));
+        frame.setFin(true);
+        return frame;
+    }
+
+    private static String text(TextFrame frame) {
+        ByteBuffer payload = frame.getPayloadData().duplicate();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    @Test
+    public void roundTripsWithContextTakeover() throws Exception {
+        PerMessageDeflateExtension server = new PerMessageDeflateExtension();
+        PerMessageDeflateExtension client = new PerMessageDeflateExtension();
+        assertTrue(server.acceptProvidedExtensionAsServer(client.getProvidedExtensionAsClient()));
+        assertTrue(client.acceptProvidedExtensionAsClient(server.getProvidedExtensionAsServer()));
+
+        String history = resource("account_history.json");
+        int[] sizes = new int[2];
+        for (int i = 0; i < sizes.length; i++) {
+            TextFrame frame = frame(history);
+            server.encodeFrame(frame);
+            assertTrue(frame.isRSV1());
+            sizes[i] = frame.getPayloadData().remaining();
+            client.isFrameValid(frame);
+            client.decodeFrame(frame);
+            assertFalse(frame.isRSV1());
+            assertEquals(history, text(frame));
+        }
+        assertTrue(sizes[0] < history.length() / 2);
+        // the second copy is mostly references to the first
+        assertTrue(sizes[1] < sizes[0] / 4);
+    }
+
+    @Test
+    public void honoursNoContextTakeover() throws Exception {
+        PerMessageDeflateExtension server = new PerMessageDeflateExtension(null, true);
+        PerMessageDeflateExtension client = new PerMessageDeflateExtension();
+        assertTrue(server.acceptProvidedExtensionAsServer(client.getProvidedExtensionAsClient()));
+        assertEquals("permessage-deflate; server_no_context_takeover", server.getProvidedExtensionAsServer());
+        assertTrue(client.acceptProvidedExtensionAsClient(server.getProvidedExtensionAsServer()));
+
+        String pending = resource("pending.json");
+        int[] sizes = new int[2];
+        for (int i = 0; i < sizes.length; i++) {
+            TextFrame frame = frame(pending);
+            server.encodeFrame(frame);
+            sizes[i] = frame.getPayloadData().remaining();
+            client.decodeFrame(frame);
+            assertEquals(pending, text(frame));
+        }
+        assertEquals(sizes[0], sizes[1]);
+    }
+
+    @Test
+    public void declinesWhatItCantDo() {
+        assertFalse(new PerMessageDeflateExtension().acceptProvidedExtensionAsClient("x-webkit-deflate-frame"));
+        assertFalse(new PerMessageDeflateExtension().acceptProvidedExtensionAsClient("permessage-deflate; server_max_window_bits=20"));
+        assertFalse(new PerMessageDeflateExtension().acceptProvidedExtensionAsClient("permessage-deflate; unknown_param"));
+        assertTrue(new PerMessageDeflateExtension().acceptProvidedExtensionAsClient("foo, permessage-deflate; server_max_window_bits=10"));
+
+        // our window can't be limited, so we don't compress but still take compressed messages
+        PerMessageDeflateExtension limited = new PerMessageDeflateExtension();
+        assertTrue(limited.acceptProvidedExtensionAsClient("permessage-deflate; client_max_window_bits=9"));
+        TextFrame frame = frame("{\"action\":\"account_subscribe\"}");
+        limited.encodeFrame(frame);
+        assertFalse(frame.isRSV1());
+    }
+
+    @Test
+    public void savesBandwidthAgainstLocalServer() throws Exception {
+        List<String> payloads = payloads();
+        TransportStats plain = replay(payloads, false);
+        TransportStats deflate = replay(payloads, true);
+
+        assertFalse(plain.isCompressed());
+        assertTrue(deflate.isCompressed());
+        assertEquals(plain.getPayloadIn(), deflate.getPayloadIn());
+        // about 4% of the size for these payloads, a context kept across messages does most of it
+        double ratio = (double) deflate.getWireIn() / plain.getWireIn();
+        assertTrue("compressed to " + ratio, ratio < 0.1);
+        // the requests are too small to be worth compressing, but cost no more than the header
+        assertTrue(deflate.getWireOut() <= plain.getWireOut() + 8);
+    }
+
+    /**
+     * Connect to a local server that sends the payloads ROUNDS times for every message it gets
+     *
+     * @return Bytes counted up to the last payload, the close handshake left out
+     */
+    private static TransportStats replay(List<String> payloads, boolean compress) throws Exception {
+        List<Draft> drafts = Collections.singletonList(new MeteredDraft(new TransportStats(), true));
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(1);
+        WebSocketServer server = new WebSocketServer(new InetSocketAddress("127.0.0.1", 0), drafts) {
+            @Override
+            public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            }
+
+            @Override
+            public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onMessage(WebSocket conn, String message) {
+                for (int i = 0; i < ROUNDS; i++) {
+                    for (String payload : payloads) {
+                        conn.send(payload);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(WebSocket conn, Exception ex) {
+                failure.compareAndSet(null, ex);
+            }
+
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        server.setReuseAddr(true);
+        server.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        TransportStats stats = new TransportStats();
+        TransportStats counted = new TransportStats();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(ROUNDS * payloads.size());
+        WebSocketClient client = new WebSocketClient(new URI("ws://127.0.0.1:" + server.getPort()), new MeteredDraft(stats, compress)) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+                received.add(message);
+                done.countDown();
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                failure.compareAndSet(null, ex);
+            }
+        };
+        try {
+            assertTrue(client.connectBlocking());
+            client.send("{\"action\":\"replay\"}");
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertNull(failure.get());
+            for (int i = 0; i < received.size(); i++) {
+                assertEquals(payloads.get(i % payloads.size()), received.get(i));
+            }
+            // whether the close frames are counted by the time closeBlocking returns is down to timing
+            counted.addIn(stats.getWireIn());
+            counted.addFrameIn(stats.getPayloadIn());
+            counted.addOut(stats.getWireOut(), stats.getPayloadOut());
+            counted.setCompressed(stats.isCompressed());
+        } finally {
+            client.closeBlocking();
+            server.stop();
+        }
+        return counted;
+    }
+}
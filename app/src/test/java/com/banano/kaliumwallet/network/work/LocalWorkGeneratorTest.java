@@ -0,0 +1,53 @@
+package com.banano.kaliumwallet.network.work;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Local proof of work tests. These run on the JVM, the hash rate is measured in :benchmark.
+ */
+public class LocalWorkGeneratorTest {
+    private static final String HASH = "9D473FD0CAD0D43DD79B9FDCAC6FED51EDE7E78279A84142290487CF864B8B8F";
+    // low threshold so tests finish quickly
+    private static final long TEST_THRESHOLD = 0xfff0000000000000L;
+    // threshold nothing will reach while the test runs
+    private static final long UNREACHABLE_THRESHOLD = 0xffffffffffffffffL;
+
+    @Test
+    public void difficulty() {
+        assertEquals(0xcdae3cec5b9a99a3L, LocalWorkGenerator.getDifficulty(HASH, "0123456789abcdef"));
+        assertTrue(LocalWorkGenerator.isValid(HASH, "0123456789abcdef", 0xcdae3cec5b9a99a3L));
+        assertFalse(LocalWorkGenerator.isValid(HASH, "0123456789abcdef", 0xcdae3cec5b9a99a4L));
+        assertFalse(LocalWorkGenerator.isValid(HASH, "0123", 0));
+        assertFalse(LocalWorkGenerator.isValid(HASH, "zz23456789abcdef", 0));
+    }
+
+    @Test
+    public void generate() throws Exception {
+        LocalWorkGenerator generator = new LocalWorkGenerator(2, TEST_THRESHOLD);
+        for (int i = 0; i < 5; i++) {
+            String work = generator.generateBlocking(HASH);
+            assertEquals(16, work.length());
+            assertTrue(LocalWorkGenerator.isValid(HASH, work, TEST_THRESHOLD));
+        }
+        generator.shutdown();
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        LocalWorkGenerator generator = new LocalWorkGenerator(2, UNREACHABLE_THRESHOLD);
+        LocalWorkGenerator.WorkTask task = generator.generate(HASH, (hash, work) -> {
+            throw new AssertionError("cancelled task produced work");
+        });
+        Thread.sleep(100);
+        task.cancel();
+        Thread.sleep(100);
+        long count = generator.getHashCount();
+        Thread.sleep(200);
+        assertEquals(count, generator.getHashCount());
+        generator.shutdown();
+    }
+}
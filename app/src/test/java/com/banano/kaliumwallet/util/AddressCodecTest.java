@@ -0,0 +1,76 @@
+package com.banano.kaliumwallet.util;
+
+import com.banano.kaliumwallet.KaliumUtil;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the ban_ address codec
+ */
+public class AddressCodecTest {
+    private static final String PUBLIC_KEY = "9D473FD0CAD0D43DD79B9FDCAC6FED51EDE7E78279A84142290487CF864B8B8F";
+    private static final String ADDRESS = "ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg";
+    private static final String ADDRESS_2 = "ban_3wm37qz19zhei7nzscjcopbrbnnachs4p1gnwo5oroi3qonw6inwgoeuufdp";
+
+    @Test
+    public void encode() {
+        byte[] publicKey = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(PUBLIC_KEY, publicKey);
+        assertEquals(ADDRESS, AddressCodec.encode(publicKey));
+    }
+
+    @Test
+    public void decode() {
+        byte[] expected = new byte[KaliumUtil.KEY_LENGTH];
+        byte[] publicKey = new byte[KaliumUtil.KEY_LENGTH];
+        KaliumUtil.hexToBytes(PUBLIC_KEY, expected);
+        assertTrue(AddressCodec.decode(ADDRESS, 0, publicKey));
+        assertArrayEquals(expected, publicKey);
+        assertTrue(AddressCodec.decode("ban:" + ADDRESS + "?amount=1", 4, publicKey));
+        assertArrayEquals(expected, publicKey);
+    }
+
+    @Test
+    public void roundTrip() {
+        byte[] publicKey = new byte[KaliumUtil.KEY_LENGTH];
+        assertTrue(AddressCodec.decode(ADDRESS_2, 0, publicKey));
+        assertEquals(ADDRESS_2, AddressCodec.encode(publicKey));
+        for (int i = 0; i < 100; i++) {
+            byte[] key = SecureRandomUtil.secureRandom().generateSeed(KaliumUtil.KEY_LENGTH);
+            String address = AddressCodec.encode(key);
+            assertTrue(AddressCodec.decode(address, 0, publicKey));
+            assertArrayEquals(key, publicKey);
+        }
+    }
+
+    @Test
+    public void invalid() {
+        assertTrue(AddressCodec.isValid(ADDRESS));
+        // bad checksum
+        assertFalse(AddressCodec.isValid(ADDRESS.substring(0, 63) + "h"));
+        // changed key character
+        assertFalse(AddressCodec.isValid(ADDRESS.replace("39c99", "39c98")));
+        // wrong prefix, first character, alphabet and length
+        assertFalse(AddressCodec.isValid("xrb_" + ADDRESS.substring(4)));
+        assertFalse(AddressCodec.isValid("ban_5" + ADDRESS.substring(5)));
+        assertFalse(AddressCodec.isValid(ADDRESS.replace('z', '2')));
+        assertFalse(AddressCodec.isValid(ADDRESS + "1"));
+        assertFalse(AddressCodec.isValid(ADDRESS.substring(1)));
+        assertFalse(AddressCodec.isValid(null));
+    }
+
+    @Test
+    public void find() {
+        assertEquals(0, AddressCodec.find(ADDRESS));
+        assertEquals(4, AddressCodec.find("ban:" + ADDRESS + "?amount=10"));
+        assertEquals(12, AddressCodec.find("/some/path/" + "b" + ADDRESS + ".svg"));
+        assertEquals(-1, AddressCodec.find("ban_" + ADDRESS.substring(5)));
+        assertEquals(-1, AddressCodec.find(ADDRESS.toUpperCase()));
+        assertEquals(-1, AddressCodec.find(""));
+    }
+}
@@ -0,0 +1,241 @@
+package com.banano.kaliumwallet.util;
+
+import com.banano.kaliumwallet.KaliumUtil;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Ed25519-Blake2b signature verification
+ */
+public class Ed25519Test {
+    private static final String PRIVATE_KEY = "C5469190B25E850CED298E57723258F716A4E1956AC2BC60DA023300476D1212";
+    private static final String PUBLIC_KEY = "9D473FD0CAD0D43DD79B9FDCAC6FED51EDE7E78279A84142290487CF864B8B8F";
+    // block hashes signed with PRIVATE_KEY
+    private static final String[][] SIGNED = {
+            {"03170A2E7597B7B7E3D84C05391D139A62B157E78786D8C082F29DCF4C111314",
+                    "AA378E1E1D6308A27FB8DE1EB0C7E4CF4DF6416BA59EF9BCE7DCE9F65D5470133EAB842F80E44C437E745409CD065B54CC948F0E43D4E1EC824EF897BE01F80C"},
+            {"EE155ACE9C40292074CB6AFF8C9CCDD273C81648FF1149EF36BCEA6EBB8A3E25",
+                    "0830063B323A37B9A1455A4781C528EEED9578DEB3FF2A354844D31DDF072D615BE901A6CE3F8428BAB0DA66EB2628992FDE1EBAA1837F2AA54B137BB39BA809"},
+            {"BB30A42C1E62F0AFDA5F0A4E8A562F7A13A24CEA00EE81917B86B89E801314AA",
+                    "243E8DBAE485F46E21F2AAFFA28398C47E0DBEAC8FE2CF739451E1ED5527707ED31B93297D556CD5EBD77630FB6A3996A2B1CF38AB6B37D75A54ADCC4293C005"}
+    };
+
+    // the private key 00..00, the key of seed 00..00 at index 0 and one more
+    private static final String ZERO_PRIVATE_KEY = "0000000000000000000000000000000000000000000000000000000000000000";
+    private static final String SEED_PRIVATE_KEY = "9F0E444C69F77A49BD0BE89DB92C38FE713E0963165CCA12FAF5712D7657120F";
+    private static final String OTHER_PRIVATE_KEY = "34F0A37AAD20F4A260F0A5B3CB3D7FB50673212263E58A380BC10474BB039CE4";
+    private static final String ZERO_KEY = "19D3D919475DEED4696B5D13018151D1AF88B2BD3BCFF048B45031C1F36D1858";
+    private static final String SEED_KEY = "C008B814A7D269A1FA3C6528B19201A24D797912DB9996FF02A1FF356E45552B";
+    private static final String OTHER_KEY = "B0311EA55708D6A53C75CDBF88300259C6D018522FE3D4D0A242E431F9E8B6D0";
+    private static final String HASH = "03170A2E7597B7B7E3D84C05391D139A62B157E78786D8C082F29DCF4C111314";
+    private static final String OTHER_HASH = "EE155ACE9C40292074CB6AFF8C9CCDD273C81648FF1149EF36BCEA6EBB8A3E25";
+    private static final String THIRD_HASH = "BB30A42C1E62F0AFDA5F0A4E8A562F7A13A24CEA00EE81917B86B89E801314AA";
+
+    // signatures made with jnano, which the wallet signs its blocks with, see vectorsMatchJnano
+    private static final Vector[] VECTORS = {
+            new Vector(ZERO_PRIVATE_KEY, ZERO_KEY, OTHER_HASH, "A3DFE7E5F31876BFE1C1B4A5822BDB92B472FEBDE5648DD79008DD7ED287EC9F6F88862D2F7945F2C1EAABB4FE01D2F607377F34FFB5A8D2ED1EE8F37FC62209"),
+            new Vector(ZERO_PRIVATE_KEY, ZERO_KEY, HASH, "C0572B6A8C09C42F870F664135BDE2776BA0818A385FD40CADF6BABD1C2927EC0F656A676C1CAF68BEEC342799F5886F60B0EF05055010DF68EDA1AA1246D10B"),
+            new Vector(SEED_PRIVATE_KEY, SEED_KEY, HASH, "B9FEAE05FA27F9871E703FBDA45F9794DEFFAD70FB6BBAEDFBCEF9ACF3FD2C834F463397BE6BFF1BEF602FFB79B3159A5468A932269DDEF98A33E451CC92170B"),
+            new Vector(SEED_PRIVATE_KEY, SEED_KEY, THIRD_HASH, "5781C1117F9DC292A34050321891FCFB9C27D94B1EDB95ACB97F62F5422D893679FC5413635872326BA6CD83F474D0D2D36F397164CB6F5335AC5B2E0599D607"),
+            new Vector(OTHER_PRIVATE_KEY, OTHER_KEY, OTHER_HASH, "6599948BF37404C325D4FA5989DC53E2C6E8667B4EC3517CBF29578248BABBC3BDFAD3B83E6A00E59833C0BFDB6308AB8BDE4523D86532C4C2828F24F694C006"),
+            new Vector(OTHER_PRIVATE_KEY, OTHER_KEY, THIRD_HASH, "C89A7CBF24CFA9298FF3B38B5753A5069C17AEB523A4EFA31CA30E730C6432BA3C8CEB1EB700E9B3279DD7CA9DC83754EAFB4E9940DEAB6987EEB48CBBBF1E06")
+    };
+
+    // points of order 1, 2, 4 and 8, with and without the sign bit, and y = p and y = p + 1
+    private static final String[] SMALL_ORDER = {
+            "0100000000000000000000000000000000000000000000000000000000000000",
+            "0100000000000000000000000000000000000000000000000000000000000080",
+            "ECFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF7F",
+            "0000000000000000000000000000000000000000000000000000000000000000",
+            "0000000000000000000000000000000000000000000000000000000000000080",
+            "26E8958FC2B227B045C3F489F2EF98F0D5DFAC05D3C63339B13802886D53FC05",
+            "26E8958FC2B227B045C3F489F2EF98F0D5DFAC05D3C63339B13802886D53FC85",
+            "C7176A703D4DD84FBA3C0B760D10670F2A2053FA2C39CCC64EC7FD7792AC037A",
+            "C7176A703D4DD84FBA3C0B760D10670F2A2053FA2C39CCC64EC7FD7792AC03FA",
+            "EDFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF7F",
+            "EEFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF7F"
+    };
+
+    private static class Vector {
+        final byte[] privateKey;
+        final byte[] publicKey;
+        final byte[] message;
+        final byte[] signature;
+
+        Vector(String privateKey, String publicKey, String message, String signature) {
+            this.privateKey = bytes(privateKey);
+            this.publicKey = bytes(publicKey);
+            this.message = bytes(message);
+            this.signature = bytes(signature);
+        }
+    }
+
+    private static byte[] bytes(String hex) {
+        byte[] out = new byte[hex.length() / 2];
+        KaliumUtil.hexToBytes(hex, out);
+        return out;
+    }
+
+    @Test
+    public void validSignatures() {
+        byte[] publicKey = bytes(PUBLIC_KEY);
+        for (String[] signed : SIGNED) {
+            assertTrue(Ed25519.verify(publicKey, bytes(signed[0]), bytes(signed[1])));
+        }
+    }
+
+    @Test
+    public void vectors() {
+        for (Vector vector : VECTORS) {
+            assertTrue(Ed25519.verify(vector.publicKey, vector.message, vector.signature));
+        }
+    }
+
+    @Test
+    public void vectorsMatchJnano() {
+        byte[] privateKey = bytes(PRIVATE_KEY);
+        assertArrayEquals(bytes(PUBLIC_KEY), KaliumUtil.privateToPublic(privateKey));
+        for (String[] signed : SIGNED) {
+            assertArrayEquals(bytes(signed[1]), KaliumUtil.sign(privateKey, bytes(signed[0])));
+        }
+        for (Vector vector : VECTORS) {
+            assertArrayEquals(vector.publicKey, KaliumUtil.privateToPublic(vector.privateKey));
+            assertArrayEquals(vector.signature, KaliumUtil.sign(vector.privateKey, vector.message));
+        }
+    }
+
+    @Test
+    public void agreesWithJnano() {
+        // fixed seed so a failure can be reproduced
+        Random random = new Random(7);
+        byte[] otherKey = KaliumUtil.privateToPublic(bytes(OTHER_PRIVATE_KEY));
+        for (int i = 0; i < 64; i++) {
+            byte[] privateKey = new byte[KaliumUtil.KEY_LENGTH];
+            byte[] hash = new byte[KaliumUtil.HASH_LENGTH];
+            random.nextBytes(privateKey);
+            random.nextBytes(hash);
+            byte[] publicKey = KaliumUtil.privateToPublic(privateKey);
+            byte[] signature = KaliumUtil.sign(privateKey, hash);
+            assertTrue(Ed25519.verify(publicKey, hash, signature));
+
+            int bit = random.nextInt(KaliumUtil.HASH_LENGTH * 8);
+            byte[] flipped = hash.clone();
+            flipped[bit >> 3] ^= 1 << (bit & 7);
+            assertFalse(Ed25519.verify(publicKey, flipped, signature));
+
+            bit = random.nextInt(Ed25519.SIGNATURE_LENGTH * 8);
+            flipped = signature.clone();
+            flipped[bit >> 3] ^= 1 << (bit & 7);
+            assertFalse(Ed25519.verify(publicKey, hash, flipped));
+
+            bit = random.nextInt(Ed25519.PUBLIC_KEY_LENGTH * 8);
+            flipped = publicKey.clone();
+            flipped[bit >> 3] ^= 1 << (bit & 7);
+            assertFalse(Ed25519.verify(flipped, hash, signature));
+            assertFalse(Ed25519.verify(otherKey, hash, signature));
+        }
+    }
+
+    @Test
+    public void tamperedMessage() {
+        byte[] publicKey = bytes(PUBLIC_KEY);
+        byte[] message = bytes(SIGNED[0][0]);
+        message[3] ^= 1;
+        assertFalse(Ed25519.verify(publicKey, message, bytes(SIGNED[0][1])));
+
+        for (Vector vector : VECTORS) {
+            for (int bit = 0; bit < vector.message.length * 8; bit += 61) {
+                byte[] flipped = vector.message.clone();
+                flipped[bit >> 3] ^= 1 << (bit & 7);
+                assertFalse(Ed25519.verify(vector.publicKey, flipped, vector.signature));
+            }
+            byte[] longer = new byte[vector.message.length + 1];
+            System.arraycopy(vector.message, 0, longer, 0, vector.message.length);
+            assertFalse(Ed25519.verify(vector.publicKey, longer, vector.signature));
+        }
+    }
+
+    @Test
+    public void tamperedSignature() {
+        byte[] publicKey = bytes(PUBLIC_KEY);
+        byte[] signature = bytes(SIGNED[0][1]);
+        signature[5] ^= 1;
+        assertFalse(Ed25519.verify(publicKey, bytes(SIGNED[0][0]), signature));
+        signature = bytes(SIGNED[0][1]);
+        signature[40] ^= 4;
+        assertFalse(Ed25519.verify(publicKey, bytes(SIGNED[0][0]), signature));
+
+        for (Vector vector : VECTORS) {
+            for (int bit = 0; bit < Ed25519.SIGNATURE_LENGTH * 8; bit += 13) {
+                byte[] flipped = vector.signature.clone();
+                flipped[bit >> 3] ^= 1 << (bit & 7);
+                assertFalse(Ed25519.verify(vector.publicKey, vector.message, flipped));
+            }
+        }
+    }
+
+    @Test
+    public void wrongKey() {
+        byte[] publicKey = bytes(PUBLIC_KEY);
+        publicKey[0] ^= 1;
+        assertFalse(Ed25519.verify(publicKey, bytes(SIGNED[0][0]), bytes(SIGNED[0][1])));
+        assertFalse(Ed25519.verify(new byte[31], bytes(SIGNED[0][0]), bytes(SIGNED[0][1])));
+        for (Vector vector : VECTORS) {
+            byte[] other = Arrays.equals(vector.publicKey, VECTORS[0].publicKey) ? VECTORS[2].publicKey : VECTORS[0].publicKey;
+            assertFalse(Ed25519.verify(other, vector.message, vector.signature));
+        }
+    }
+
+    @Test
+    public void keyNotOnCurve() {
+        // no x for y = 2
+        byte[] publicKey = new byte[Ed25519.PUBLIC_KEY_LENGTH];
+        publicKey[0] = 2;
+        assertFalse(Ed25519.verify(publicKey, bytes(HASH), VECTORS[1].signature));
+    }
+
+    @Test
+    public void nonCanonicalS() {
+        // s + L of a valid signature, the same point times the base point
+        byte[] signature = bytes("C0572B6A8C09C42F870F664135BDE2776BA0818A385FD40CADF6BABD1C2927EC"
+                + "FC3860C4867FC1C094892CCA77EF678460B0EF05055010DF68EDA1AA1246D11B");
+        assertFalse(Ed25519.verify(bytes(ZERO_KEY), bytes(HASH), signature));
+        // s = L
+        signature = VECTORS[1].signature.clone();
+        byte[] l = bytes("EDD3F55C1A631258D69CF7A2DEF9DE1400000000000000000000000000000010");
+        System.arraycopy(l, 0, signature, 32, 32);
+        assertFalse(Ed25519.verify(bytes(ZERO_KEY), bytes(HASH), signature));
+    }
+
+    @Test
+    public void smallOrderKey() {
+        // R the identity and s = 0 satisfy [s]B = R + [h]A for A the identity
+        byte[] signature = new byte[Ed25519.SIGNATURE_LENGTH];
+        signature[0] = 1;
+        for (String key : SMALL_ORDER) {
+            assertFalse(key, Ed25519.verify(bytes(key), bytes(HASH), signature));
+            assertFalse(key, Ed25519.verify(bytes(key), bytes(OTHER_HASH), signature));
+        }
+    }
+
+    @Test
+    public void smallOrderR() {
+        // R the identity and s = h * a made with the private key of ZERO_KEY, which satisfies
+        // [s]B = R + [h]A
+        byte[] signature = bytes("0100000000000000000000000000000000000000000000000000000000000000"
+                + "2F8E51F7BD085E0F6AA4D24574444EC17D0E43C6D96888DF86B2FBD1D8D2B207");
+        assertFalse(Ed25519.verify(bytes(ZERO_KEY), bytes(HASH), signature));
+        for (String r : SMALL_ORDER) {
+            byte[] smallR = VECTORS[1].signature.clone();
+            System.arraycopy(bytes(r), 0, smallR, 0, 32);
+            assertFalse(r, Ed25519.verify(bytes(ZERO_KEY), bytes(HASH), smallR));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.model.Address;
+import com.banano.kaliumwallet.util.AddressCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Address parsing and validation
+ */
+@State(Scope.Thread)
+public class AddressBenchmark {
+    private static final String TEXT = "Please send some bananas to " + KaliumUtilBenchmark.ADDRESS + " thanks";
+    private final Address address = new Address(KaliumUtilBenchmark.ADDRESS);
+    private final byte[] publicKey = new byte[AddressCodec.KEY_LENGTH];
+
+    @Benchmark
+    public String findAddress() {
+        return Address.findAddress(TEXT);
+    }
+
+    @Benchmark
+    public boolean isValidAddress() {
+        return address.isValidAddress();
+    }
+
+    @Benchmark
+    public byte[] decode() {
+        AddressCodec.decode(KaliumUtilBenchmark.ADDRESS, 0, publicKey);
+        return publicKey;
+    }
+
+    @Benchmark
+    public Address parse() {
+        return new Address(KaliumUtilBenchmark.ADDRESS);
+    }
+}
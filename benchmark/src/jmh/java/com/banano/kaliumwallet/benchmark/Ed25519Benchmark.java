@@ -0,0 +1,37 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.util.Ed25519;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Signature verification of one block, as done for every block of a ledger audit
+ */
+@State(Scope.Thread)
+public class Ed25519Benchmark {
+    private static final String HASH = "03170A2E7597B7B7E3D84C05391D139A62B157E78786D8C082F29DCF4C111314";
+    private static final String SIGNATURE = "AA378E1E1D6308A27FB8DE1EB0C7E4CF4DF6416BA59EF9BCE7DCE9F65D5470133EAB842F80E44C437E745409CD065B54CC948F0E43D4E1EC824EF897BE01F80C";
+
+    private byte[] publicKey;
+    private byte[] hash;
+    private byte[] signature;
+
+    @Setup
+    public void setUp() {
+        publicKey = new byte[Ed25519.PUBLIC_KEY_LENGTH];
+        hash = new byte[KaliumUtil.HASH_LENGTH];
+        signature = new byte[Ed25519.SIGNATURE_LENGTH];
+        KaliumUtil.hexToBytes(KaliumUtilBenchmark.PUBLIC_KEY, publicKey);
+        KaliumUtil.hexToBytes(HASH, hash);
+        KaliumUtil.hexToBytes(SIGNATURE, signature);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return Ed25519.verify(publicKey, hash, signature);
+    }
+}
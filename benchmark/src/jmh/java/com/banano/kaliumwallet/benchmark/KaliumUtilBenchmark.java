@@ -0,0 +1,105 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.KaliumUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigInteger;
+
+/**
+ * Key derivation, address encoding, hashing and signing
+ */
+@State(Scope.Thread)
+public class KaliumUtilBenchmark {
+    static final String SEED = "387151e6ea2a42eead77f26b1c0fc4c485df4e78902ada848ff97fc5dce85e81";
+    static final String PRIVATE_KEY = "C5469190B25E850CED298E57723258F716A4E1956AC2BC60DA023300476D1212";
+    static final String PUBLIC_KEY = "9D473FD0CAD0D43DD79B9FDCAC6FED51EDE7E78279A84142290487CF864B8B8F";
+    static final String ADDRESS = "ban_39c99zaeon8n9qdsq9ywojqytnhfwzmr6yfaa734k369sy56q4whb1iu45sg";
+    static final String PREVIOUS = "F47B23107E5F34B2CE06F562B5C435DF72A533251CB414C51B2B62A8F63A00E4";
+    static final String BALANCE = "1000000000000000000000000000000";
+
+    private byte[] seed;
+    private byte[] privateKey;
+    private byte[] publicKey;
+    private byte[] previous;
+    private byte[] balance;
+    private byte[] hash;
+    private byte[] out;
+
+    @Setup
+    public void setUp() {
+        seed = new byte[KaliumUtil.KEY_LENGTH];
+        privateKey = new byte[KaliumUtil.KEY_LENGTH];
+        publicKey = new byte[KaliumUtil.KEY_LENGTH];
+        previous = new byte[KaliumUtil.HASH_LENGTH];
+        balance = new byte[KaliumUtil.BALANCE_LENGTH];
+        hash = new byte[KaliumUtil.HASH_LENGTH];
+        out = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.hexToBytes(SEED, seed);
+        KaliumUtil.hexToBytes(PRIVATE_KEY, privateKey);
+        KaliumUtil.hexToBytes(PUBLIC_KEY, publicKey);
+        KaliumUtil.hexToBytes(PREVIOUS, previous);
+        KaliumUtil.rawToBytes(new BigInteger(BALANCE), balance);
+        KaliumUtil.computeStateHash(publicKey, previous, publicKey, balance, previous, hash);
+    }
+
+    @Benchmark
+    public String seedToPrivate() {
+        return KaliumUtil.seedToPrivate(SEED, 0);
+    }
+
+    @Benchmark
+    public byte[] seedToPrivateBytes() {
+        return KaliumUtil.seedToPrivate(seed, 0);
+    }
+
+    @Benchmark
+    public String privateToPublic() {
+        return KaliumUtil.privateToPublic(PRIVATE_KEY);
+    }
+
+    @Benchmark
+    public byte[] privateToPublicBytes() {
+        return KaliumUtil.privateToPublic(privateKey);
+    }
+
+    @Benchmark
+    public String publicToAddress() {
+        return KaliumUtil.publicToAddress(PUBLIC_KEY);
+    }
+
+    @Benchmark
+    public String publicToAddressBytes() {
+        return KaliumUtil.publicToAddress(publicKey);
+    }
+
+    @Benchmark
+    public String addressToPublic() {
+        return KaliumUtil.addressToPublic(ADDRESS);
+    }
+
+    @Benchmark
+    public byte[] addressToPublicBytes() {
+        KaliumUtil.addressToPublic(ADDRESS, out);
+        return out;
+    }
+
+    @Benchmark
+    public String computeStateHash() {
+        return KaliumUtil.computeStateHash(ADDRESS, PREVIOUS, ADDRESS, BALANCE, PREVIOUS);
+    }
+
+    @Benchmark
+    public byte[] computeStateHashBytes() {
+        KaliumUtil.computeStateHash(publicKey, previous, publicKey, balance, previous, out);
+        return out;
+    }
+
+    @Benchmark
+    public byte[] sign() {
+        return KaliumUtil.sign(privateKey, hash);
+    }
+}
@@ -0,0 +1,94 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.KaliumUtil;
+import com.banano.kaliumwallet.util.Blake2b;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local proof of work hashes per second for a number of threads. Every invocation hashes a
+ * fixed budget of nonces split evenly over the workers, the way the generator splits its
+ * search, so the score is hashes per second across all of them.
+ */
+@State(Scope.Benchmark)
+public class LocalWorkBenchmark {
+    private static final int WORK_LENGTH = 8;
+    // large enough that handing the ranges to the workers is lost in the hashing
+    private static final int HASHES = 1 << 16;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private byte[] hash;
+    private ExecutorService executor;
+    private long nextNonce = 0;
+
+    @Setup
+    public void setUp() {
+        hash = new byte[KaliumUtil.HASH_LENGTH];
+        KaliumUtil.hexToBytes(KaliumUtilBenchmark.PUBLIC_KEY, hash);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(HASHES)
+    public long workHash() throws Exception {
+        int count = HASHES / threads;
+        List<Future<Long>> results = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            final long start = nextNonce;
+            nextNonce += count;
+            results.add(executor.submit(() -> hashRange(start, count)));
+        }
+        long combined = 0;
+        for (Future<Long> result : results) {
+            combined ^= result.get();
+        }
+        return combined;
+    }
+
+    /**
+     * Hash a range of nonces the way the generator's search does
+     *
+     * @return The hashes folded together, so none of them can be skipped
+     */
+    private long hashRange(long nonce, int count) {
+        Blake2b digest = new Blake2b(WORK_LENGTH);
+        byte[] nonceBytes = new byte[WORK_LENGTH];
+        byte[] out = new byte[WORK_LENGTH];
+        long combined = 0;
+        for (int i = 0; i < count; i++, nonce++) {
+            for (int j = 0; j < WORK_LENGTH; j++) {
+                nonceBytes[j] = (byte) (nonce >>> (8 * j));
+            }
+            digest.update(nonceBytes, 0, WORK_LENGTH);
+            digest.update(hash, 0, KaliumUtil.HASH_LENGTH);
+            digest.digest(out, 0);
+            combined ^= out[0] | (long) out[7] << 56;
+        }
+        return combined;
+    }
+}
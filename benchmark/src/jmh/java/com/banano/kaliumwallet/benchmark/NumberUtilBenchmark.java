@@ -0,0 +1,34 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.util.NumberUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Raw amount conversions
+ */
+@State(Scope.Thread)
+public class NumberUtilBenchmark {
+    private static final String RAW = "1234567890123456789012345678901";
+    private static final String AMOUNT = "12.34";
+
+    @Benchmark
+    public BigDecimal getRawAsUsableAmount() {
+        return NumberUtil.getRawAsUsableAmount(RAW);
+    }
+
+    @Benchmark
+    public String getRawAsHex() {
+        return NumberUtil.getRawAsHex(RAW);
+    }
+
+    @Benchmark
+    public BigInteger getAmountAsRawBigInteger() {
+        return NumberUtil.getAmountAsRawBigInteger(AMOUNT);
+    }
+}
@@ -0,0 +1,104 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.network.ResponseParser;
+import com.banano.kaliumwallet.network.model.BaseResponse;
+import com.banano.kaliumwallet.network.model.response.AccountHistoryResponse;
+import com.banano.kaliumwallet.network.model.response.PendingTransactionResponse;
+import com.banano.kaliumwallet.network.model.response.ProcessResponse;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Binding socket messages by sniffing their fields versus by the type the request expects
+ */
+@State(Scope.Thread)
+public class ResponseParserBenchmark {
+    private static final String HASH = "03170A2E7597B7B7E3D84C05391D139A62B157E78786D8C082F29DCF4C111314";
+
+    private final ResponseParser parser = new ResponseParser(new Gson());
+    private String history;
+    private String pending;
+    private String process;
+    private JsonObject historyTree;
+    private JsonObject pendingTree;
+    private JsonObject processTree;
+
+    @Setup
+    public void setup() {
+        StringBuilder historyItems = new StringBuilder();
+        StringBuilder pendingItems = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) {
+                historyItems.append(',');
+                pendingItems.append(',');
+            }
+            historyItems.append("{\"type\":\"receive\",\"account\":\"").append(KaliumUtilBenchmark.ADDRESS)
+                    .append("\",\"amount\":\"1000000000000000000000000000000\",\"hash\":\"").append(HASH).append("\"}");
+            pendingItems.append('"').append(HASH.substring(0, 60)).append(String.format("%04d", i))
+                    .append("\":{\"amount\":\"1000000000000000000000000000000\",\"source\":\"")
+                    .append(KaliumUtilBenchmark.ADDRESS).append("\"}");
+        }
+        history = "{\"account\":\"" + KaliumUtilBenchmark.ADDRESS + "\",\"history\":[" + historyItems + "],\"previous\":\"" + HASH + "\",\"id\":1}";
+        pending = "{\"blocks\":{" + pendingItems + "},\"id\":2}";
+        process = "{\"hash\":\"" + HASH + "\",\"id\":3}";
+        historyTree = parser.read(history);
+        pendingTree = parser.read(pending);
+        processTree = parser.read(process);
+    }
+
+    @Benchmark
+    public String resolveSniffedHistory() {
+        return ResponseParser.resolveMessageType(historyTree);
+    }
+
+    @Benchmark
+    public String resolveSniffedPending() {
+        return ResponseParser.resolveMessageType(pendingTree);
+    }
+
+    @Benchmark
+    public String resolveSniffedProcess() {
+        return ResponseParser.resolveMessageType(processTree);
+    }
+
+    @Benchmark
+    public Class<?> resolveCorrelated() {
+        // the request's expected type is recorded when it's sent, this is all that's left per message
+        return ResponseParser.idOf(processTree) != null ? ProcessResponse.class : null;
+    }
+
+    @Benchmark
+    public BaseResponse parseSniffedHistory() {
+        return parser.parse(history);
+    }
+
+    @Benchmark
+    public BaseResponse parseCorrelatedHistory() {
+        return parser.bind(parser.read(history), AccountHistoryResponse.class);
+    }
+
+    @Benchmark
+    public BaseResponse parseSniffedPending() {
+        return parser.parse(pending);
+    }
+
+    @Benchmark
+    public BaseResponse parseCorrelatedPending() {
+        return parser.bind(parser.read(pending), PendingTransactionResponse.class);
+    }
+
+    @Benchmark
+    public BaseResponse parseSniffedProcess() {
+        return parser.parse(process);
+    }
+
+    @Benchmark
+    public BaseResponse parseCorrelatedProcess() {
+        return parser.bind(parser.read(process), ProcessResponse.class);
+    }
+}
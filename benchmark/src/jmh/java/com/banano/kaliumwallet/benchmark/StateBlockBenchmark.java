@@ -0,0 +1,41 @@
+package com.banano.kaliumwallet.benchmark;
+
+import com.banano.kaliumwallet.network.model.BlockTypes;
+import com.banano.kaliumwallet.network.model.request.block.StateBlock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * State block construction, including key derivation and signing
+ */
+@State(Scope.Thread)
+public class StateBlockBenchmark {
+    @Benchmark
+    public StateBlock change() {
+        return new StateBlock(
+                BlockTypes.CHANGE,
+                KaliumUtilBenchmark.PRIVATE_KEY,
+                KaliumUtilBenchmark.PREVIOUS,
+                KaliumUtilBenchmark.ADDRESS,
+                KaliumUtilBenchmark.BALANCE,
+                "0000000000000000000000000000000000000000000000000000000000000000"
+        );
+    }
+
+    @Benchmark
+    public StateBlock send() {
+        StateBlock block = new StateBlock(
+                BlockTypes.SEND,
+                KaliumUtilBenchmark.PRIVATE_KEY,
+                KaliumUtilBenchmark.PREVIOUS,
+                KaliumUtilBenchmark.ADDRESS,
+                "1",
+                KaliumUtilBenchmark.ADDRESS
+        );
+        // send blocks are signed once the balance is known
+        block.setBalance(KaliumUtilBenchmark.BALANCE);
+        return block;
+    }
+}